@@ -0,0 +1,118 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.core.ResolvableType;
+
+/**
+ * Benchmarks for bean retrieval and type-based lookups in
+ * {@link DefaultListableBeanFactory}.
+ *
+ * @author Daniel Ferreira
+ */
+@BenchmarkMode(Mode.Throughput)
+public class DefaultListableBeanFactoryBenchmark {
+
+	@Benchmark
+	public Object getBeanByName(BeanFactoryState state) {
+		return state.beanFactory.getBean(state.lookupName);
+	}
+
+	@Benchmark
+	public Object getBeanByType(BeanFactoryState state) {
+		return state.beanFactory.getBean(TargetService.class);
+	}
+
+	@Benchmark
+	public void getBeanNamesForType(BeanFactoryState state, Blackhole bh) {
+		bh.consume(state.beanFactory.getBeanNamesForType(Repository.class));
+	}
+
+	@Benchmark
+	public void getBeanNamesForTypeUncached(BeanFactoryState state, Blackhole bh) {
+		bh.consume(state.beanFactory.getBeanNamesForType(Repository.class, true, false));
+	}
+
+	@Benchmark
+	public void getBeanNamesForGenericType(BeanFactoryState state, Blackhole bh) {
+		bh.consume(state.beanFactory.getBeanNamesForType(state.genericType));
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BeanFactoryState {
+
+		@Param({"100", "1000", "5000"})
+		public int beanCount;
+
+		public DefaultListableBeanFactory beanFactory;
+
+		public String lookupName;
+
+		public ResolvableType genericType;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.beanFactory = new DefaultListableBeanFactory();
+			for (int i = 0; i < this.beanCount; i++) {
+				this.beanFactory.registerBeanDefinition("repository" + i, new RootBeanDefinition(
+						(i % 2 == 0 ? StringRepository.class : NumberRepository.class)));
+				this.beanFactory.registerBeanDefinition("plain" + i, new RootBeanDefinition(Object.class));
+			}
+			this.beanFactory.registerBeanDefinition("targetService", new RootBeanDefinition(TargetService.class));
+			this.beanFactory.preInstantiateSingletons();
+			this.lookupName = "repository" + (this.beanCount / 2);
+			this.genericType = ResolvableType.forClassWithGenerics(Repository.class, String.class);
+		}
+	}
+
+
+	public interface Repository<T> {
+	}
+
+
+	public static class StringRepository implements Repository<String> {
+	}
+
+
+	public static class NumberRepository implements Repository<Number> {
+	}
+
+
+	public static class TargetService {
+
+		private final List<Object> items = new ArrayList<>();
+
+		public List<Object> getItems() {
+			return this.items;
+		}
+	}
+
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Index of bean definition names by the types that their beans expose,
+ * maintained incrementally by {@link DefaultListableBeanFactory} as bean
+ * definitions get registered, reset and removed.
+ *
+ * <p>A bean definition starts out as <i>unresolved</i>. Once the factory has
+ * determined its bean type during a by-type lookup, the definition gets
+ * <i>resolved</i>: it is indexed under that type as well as under all of its
+ * superclasses and interfaces. Types of singleton instances can be added on top,
+ * e.g. for proxies exposing additional interfaces.
+ *
+ * <p>{@link #getCandidateNames} returns all resolved names indexed under the
+ * given raw type plus all unresolved names, in registration order. This is
+ * always a superset of the actual matches: callers are expected to perform
+ * a full (generics-aware) type check on each candidate.
+ *
+ * <p>Names are kept in sets sorted by registration order, so lookups merge
+ * them rather than sorting the candidates on every call. Reads are lock-free;
+ * modifications are serialized on the index itself.
+ * Modifications register unresolved state before removing resolved state,
+ * so concurrent readers never miss a registered bean definition.
+ *
+ * @author Daniel Ferreira
+ * @since 5.2
+ * @see DefaultListableBeanFactory#getBeanNamesForType(org.springframework.core.ResolvableType)
+ */
+final class BeanTypeIndex {
+
+	/** Registration of each bean definition name, defining candidate order. */
+	private final Map<String, Registration> registrations = new ConcurrentHashMap<>(256);
+
+	/** Bean definitions whose type has not been determined yet. */
+	private final NavigableSet<Registration> unresolved = new ConcurrentSkipListSet<>();
+
+	/** Types that each resolved bean definition name is indexed under. */
+	private final Map<String, Set<Class<?>>> typesByName = new ConcurrentHashMap<>(256);
+
+	/** Resolved bean definitions, keyed by every type that they are indexed under. */
+	private final Map<Class<?>, NavigableSet<Registration>> registrationsByType = new ConcurrentHashMap<>(256);
+
+	private long registrationCounter;
+
+	private volatile long modificationStamp;
+
+
+	/**
+	 * Register the given bean definition name as unresolved. Keeps the
+	 * original position for a bean definition that gets overridden.
+	 * @param beanName the name of the bean definition
+	 */
+	public synchronized void register(String beanName) {
+		Registration registration = this.registrations.get(beanName);
+		if (registration == null) {
+			registration = new Registration(beanName, this.registrationCounter++);
+			this.registrations.put(beanName, registration);
+		}
+		doInvalidate(registration);
+	}
+
+	/**
+	 * Remove the given bean definition name from the index.
+	 * @param beanName the name of the bean definition
+	 */
+	public synchronized void remove(String beanName) {
+		Registration registration = this.registrations.remove(beanName);
+		if (registration != null) {
+			this.unresolved.remove(registration);
+			removeResolvedTypes(registration);
+			this.modificationStamp++;
+		}
+	}
+
+	/**
+	 * Mark the given bean definition as unresolved again, e.g. after its
+	 * merged bean definition has been reset.
+	 * @param beanName the name of the bean definition
+	 */
+	public synchronized void invalidate(String beanName) {
+		Registration registration = this.registrations.get(beanName);
+		if (registration != null) {
+			doInvalidate(registration);
+		}
+	}
+
+	/**
+	 * Mark all bean definitions as unresolved again, e.g. after a change in
+	 * bean post-processors which might affect type predictions.
+	 */
+	public synchronized void invalidateAll() {
+		this.unresolved.addAll(this.registrations.values());
+		this.typesByName.clear();
+		this.registrationsByType.clear();
+		this.modificationStamp++;
+	}
+
+	/**
+	 * Return the current modification stamp, to be passed into
+	 * {@link #resolve} for types determined based on the current state.
+	 */
+	public long getModificationStamp() {
+		return this.modificationStamp;
+	}
+
+	/**
+	 * Resolve the given bean definition with the types that its bean exposes.
+	 * Passing no types indicates a bean definition that never matches any type.
+	 * <p>Ignored if the index has been modified since the given stamp was obtained,
+	 * since the given types may have been determined from outdated metadata.
+	 * @param beanName the name of the bean definition
+	 * @param modificationStamp the stamp obtained before determining the types
+	 * @param beanTypes the types exposed by the bean
+	 */
+	public synchronized void resolve(String beanName, long modificationStamp, Class<?>... beanTypes) {
+		Registration registration = this.registrations.get(beanName);
+		if (modificationStamp != this.modificationStamp || registration == null ||
+				!this.unresolved.contains(registration)) {
+			return;
+		}
+		Set<Class<?>> indexedTypes = new LinkedHashSet<>();
+		for (Class<?> beanType : beanTypes) {
+			collectTypeHierarchy(beanType, indexedTypes);
+		}
+		for (Class<?> indexedType : indexedTypes) {
+			this.registrationsByType.computeIfAbsent(indexedType, key -> new ConcurrentSkipListSet<>()).add(registration);
+		}
+		this.typesByName.put(beanName, indexedTypes);
+		this.unresolved.remove(registration);
+	}
+
+	/**
+	 * Add the given type to an already resolved bean definition, e.g. for a
+	 * singleton instance which turned out to be a proxy. Ignored for unresolved
+	 * bean definitions since those are candidates for every type anyway.
+	 * @param beanName the name of the bean definition
+	 * @param beanType the additional type exposed by the bean
+	 */
+	public synchronized void addType(String beanName, Class<?> beanType) {
+		Registration registration = this.registrations.get(beanName);
+		Set<Class<?>> indexedTypes = this.typesByName.get(beanName);
+		if (registration == null || indexedTypes == null || indexedTypes.contains(beanType)) {
+			return;
+		}
+		Set<Class<?>> addedTypes = new LinkedHashSet<>();
+		collectTypeHierarchy(beanType, addedTypes);
+		addedTypes.removeAll(indexedTypes);
+		for (Class<?> addedType : addedTypes) {
+			this.registrationsByType.computeIfAbsent(addedType, key -> new ConcurrentSkipListSet<>()).add(registration);
+		}
+		Set<Class<?>> updatedTypes = new LinkedHashSet<>(indexedTypes);
+		updatedTypes.addAll(addedTypes);
+		this.typesByName.put(beanName, updatedTypes);
+	}
+
+	/**
+	 * Return the names of all bean definitions that may expose the given type:
+	 * resolved bean definitions indexed under the type as well as all unresolved
+	 * bean definitions, in registration order.
+	 * @param type the raw type to match
+	 * @return the candidate bean definition names (never {@code null})
+	 */
+	public List<String> getCandidateNames(Class<?> type) {
+		Set<Registration> indexed = this.registrationsByType.get(type);
+		if (this.unresolved.isEmpty() && indexed == null) {
+			return Collections.emptyList();
+		}
+		// Merge both sets, which are sorted by registration order already
+		List<String> result = new ArrayList<>();
+		Iterator<Registration> unresolvedIt = this.unresolved.iterator();
+		Iterator<Registration> indexedIt = (indexed != null ? indexed.iterator() : Collections.emptyIterator());
+		Registration nextUnresolved = next(unresolvedIt);
+		Registration nextIndexed = next(indexedIt);
+		while (nextUnresolved != null || nextIndexed != null) {
+			Registration candidate;
+			if (nextIndexed == null || (nextUnresolved != null && nextUnresolved.compareTo(nextIndexed) <= 0)) {
+				candidate = nextUnresolved;
+				if (nextIndexed == candidate) {
+					nextIndexed = next(indexedIt);
+				}
+				nextUnresolved = next(unresolvedIt);
+			}
+			else {
+				candidate = nextIndexed;
+				nextIndexed = next(indexedIt);
+			}
+			if (this.registrations.get(candidate.beanName) == candidate) {
+				result.add(candidate.beanName);
+			}
+		}
+		return result;
+	}
+
+
+	private void doInvalidate(Registration registration) {
+		this.unresolved.add(registration);
+		removeResolvedTypes(registration);
+		this.modificationStamp++;
+	}
+
+	private void removeResolvedTypes(Registration registration) {
+		Set<Class<?>> indexedTypes = this.typesByName.remove(registration.beanName);
+		if (indexedTypes != null) {
+			for (Class<?> indexedType : indexedTypes) {
+				Set<Registration> registrations = this.registrationsByType.get(indexedType);
+				if (registrations != null) {
+					registrations.remove(registration);
+					if (registrations.isEmpty()) {
+						this.registrationsByType.remove(indexedType);
+					}
+				}
+			}
+		}
+	}
+
+	@Nullable
+	private static Registration next(Iterator<Registration> iterator) {
+		return (iterator.hasNext() ? iterator.next() : null);
+	}
+
+	private static void collectTypeHierarchy(@Nullable Class<?> type, Set<Class<?>> result) {
+		if (type == null || !result.add(type)) {
+			return;
+		}
+		collectTypeHierarchy(type.getSuperclass(), result);
+		for (Class<?> ifc : type.getInterfaces()) {
+			collectTypeHierarchy(ifc, result);
+		}
+		if (type.isInterface()) {
+			result.add(Object.class);
+		}
+	}
+
+
+	/**
+	 * A bean definition name along with its position in registration order.
+	 */
+	private static final class Registration implements Comparable<Registration> {
+
+		final String beanName;
+
+		final long sequence;
+
+		Registration(String beanName, long sequence) {
+			this.beanName = beanName;
+			this.sequence = sequence;
+		}
+
+		@Override
+		public int compareTo(Registration other) {
+			return Long.compare(this.sequence, other.sequence);
+		}
+	}
+
+}
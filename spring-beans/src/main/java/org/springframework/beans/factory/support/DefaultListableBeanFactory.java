@@ -24,6 +24,8 @@ import org.springframework.beans.factory.config.*;
 import org.springframework.core.OrderComparator;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.lang.Nullable;
 import org.springframework.util.*;
 
@@ -37,6 +39,8 @@ import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 
 /**
@@ -123,6 +127,18 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	 */
 	private AutowireCandidateResolver autowireCandidateResolver = new SimpleAutowireCandidateResolver();
 
+	/**
+	 * Optional executor for pre-instantiating independent singletons in parallel.
+	 */
+	@Nullable
+	private TaskExecutor preInstantiationExecutor;
+
+	/**
+	 * Dependency graph of a parallel pre-instantiation in progress, recording creation times.
+	 */
+	@Nullable
+	private volatile SingletonDependencyGraph preInstantiationGraph;
+
 	/**
 	 * Map from dependency type to corresponding autowired value.
 	 */
@@ -143,6 +159,11 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	 */
 	private final Map<Class<?>, String[]> singletonBeanNamesByType = new ConcurrentHashMap<>(64);
 
+	/**
+	 * Index of bean definition names by exposed type, for by-type lookups.
+	 */
+	private final BeanTypeIndex beanTypeIndex = new BeanTypeIndex();
+
 	/**
 	 * List of bean definition names, in registration order.
 	 */
@@ -301,6 +322,45 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return this.autowireCandidateResolver;
 	}
 
+	/**
+	 * Set a {@link TaskExecutor} for pre-instantiating singletons in parallel.
+	 * <p>Default is none, pre-instantiating all non-lazy singletons one after
+	 * the other on the calling thread. With an executor, the non-lazy singletons
+	 * get partitioned into groups that do not depend on each other according to
+	 * their bean definitions and to the dependencies recorded so far; each group
+	 * then gets pre-instantiated as a separate task on the given executor. This
+	 * pays off for singletons with expensive initialization callbacks, e.g.
+	 * warming up connection pools or reading remote configuration.
+	 * <p>Setting an executor switches this factory to
+	 * {@linkplain #setConcurrentSingletonCreation concurrent singleton creation},
+	 * which takes care of dependencies not declared in bean definitions
+	 * (e.g. through annotation-driven autowiring) as well.
+	 * <p>Once done, the critical path of the parallel pre-instantiation gets
+	 * logged at info level: the chain of dependencies with the highest
+	 * accumulated creation time.
+	 * <p>Setting {@code null} only turns the parallel pre-instantiation off
+	 * again: concurrent singleton creation stays switched on, since it may
+	 * have been switched on independently of the executor. Switch it off
+	 * through {@link #setConcurrentSingletonCreation} if desired.
+	 * @see #preInstantiateSingletons()
+	 * @since 5.2
+	 */
+	public void setPreInstantiationExecutor(@Nullable TaskExecutor preInstantiationExecutor) {
+		this.preInstantiationExecutor = preInstantiationExecutor;
+		if (preInstantiationExecutor != null) {
+			setConcurrentSingletonCreation(true);
+		}
+	}
+
+	/**
+	 * Return the executor for pre-instantiating singletons in parallel, if any.
+	 * @since 5.2
+	 */
+	@Nullable
+	public TaskExecutor getPreInstantiationExecutor() {
+		return this.preInstantiationExecutor;
+	}
+
 
 	@Override
 	public void copyConfigurationFrom(ConfigurableBeanFactory otherFactory) {
@@ -310,11 +370,24 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			this.allowBeanDefinitionOverriding = otherListableFactory.allowBeanDefinitionOverriding;
 			this.allowEagerClassLoading = otherListableFactory.allowEagerClassLoading;
 			this.dependencyComparator = otherListableFactory.dependencyComparator;
+			setPreInstantiationExecutor(otherListableFactory.preInstantiationExecutor);
 			// A clone of the AutowireCandidateResolver since it is potentially BeanFactoryAware...
 			setAutowireCandidateResolver(BeanUtils.instantiateClass(getAutowireCandidateResolver().getClass()));
 			// Make resolvable dependencies (e.g. ResourceLoader) available here as well...
 			this.resolvableDependencies.putAll(otherListableFactory.resolvableDependencies);
 		}
+		// Post-processors copied from the other factory may predict different bean types.
+		this.beanTypeIndex.invalidateAll();
+	}
+
+	/**
+	 * Also invalidates the by-type index, since the given post-processor
+	 * may predict different bean types than determined so far.
+	 */
+	@Override
+	public void addBeanPostProcessor(BeanPostProcessor beanPostProcessor) {
+		super.addBeanPostProcessor(beanPostProcessor);
+		this.beanTypeIndex.invalidateAll();
 	}
 
 
@@ -485,19 +558,30 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	private String[] doGetBeanNamesForType(ResolvableType type, boolean includeNonSingletons, boolean allowEagerInit) {
 		List<String> result = new ArrayList<>();
 
-		// Check all bean definitions.
-		for (String beanName : this.beanDefinitionNames) {
+		// Check all bean definitions that may match, as far as known to the type index.
+		long indexStamp = this.beanTypeIndex.getModificationStamp();
+		Class<?> rawType = type.resolve();
+		List<String> candidateNames = (rawType != null && rawType != Object.class ?
+				this.beanTypeIndex.getCandidateNames(rawType) : this.beanDefinitionNames);
+		for (String beanName : candidateNames) {
 			// Only consider bean as eligible if the bean name
 			// is not defined as alias for some other bean.
 			if (!isAlias(beanName)) {
 				try {
 					RootBeanDefinition mbd = getMergedLocalBeanDefinition(beanName);
+					if (mbd.isAbstract()) {
+						// Never matches any type: exclude it from further by-type lookups.
+						this.beanTypeIndex.resolve(beanName, indexStamp);
+					}
 					// Only check bean definition if it is complete.
 					if (!mbd.isAbstract() && (allowEagerInit ||
 							(mbd.hasBeanClass() || !mbd.isLazyInit() || isAllowEagerClassLoading()) &&
 									!requiresEagerInitForType(mbd.getFactoryBeanName()))) {
 						// In case of FactoryBean, match object created by FactoryBean.
 						boolean isFactoryBean = isFactoryBean(beanName, mbd);
+						if (!isFactoryBean) {
+							indexBeanType(beanName, mbd, indexStamp);
+						}
 						BeanDefinitionHolder dbd = mbd.getDecoratedDefinition();
 						boolean matchFound =
 								(allowEagerInit || !isFactoryBean ||
@@ -564,6 +648,35 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return StringUtils.toStringArray(result);
 	}
 
+	/**
+	 * Record the type of the given bean in the by-type index, provided that it
+	 * can be predicted from the bean definition and is not going to change for
+	 * bean instances that the index does not get to see.
+	 * <p>FactoryBeans, decorated bean definitions and non-singleton beans subject
+	 * to {@link SmartInstantiationAwareBeanPostProcessor} type prediction remain
+	 * unresolved, i.e. candidates for every by-type lookup.
+	 * @param beanName the name of the bean
+	 * @param mbd the merged bean definition for the bean
+	 * @param indexStamp the index modification stamp obtained before the lookup
+	 * @see #addSingleton
+	 */
+	private void indexBeanType(String beanName, RootBeanDefinition mbd, long indexStamp) {
+		if (mbd.getDecoratedDefinition() != null || getTempClassLoader() != null ||
+				(!mbd.isSingleton() && !mbd.isSynthetic() && hasInstantiationAwareBeanPostProcessors())) {
+			return;
+		}
+		Class<?> beanType = predictBeanType(beanName, mbd);
+		if (beanType == null || beanType.isArray() || FactoryBean.class.isAssignableFrom(beanType)) {
+			return;
+		}
+		Object beanInstance = getSingleton(beanName, false);
+		if (beanInstance == null) {
+			this.beanTypeIndex.resolve(beanName, indexStamp, beanType);
+		} else if (!(beanInstance instanceof FactoryBean)) {
+			this.beanTypeIndex.resolve(beanName, indexStamp, beanType, beanInstance.getClass());
+		}
+	}
+
 	/**
 	 * Check whether the specified bean would need to be eagerly initialized
 	 * in order to determine its type.
@@ -774,6 +887,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	@Override
 	public void clearMetadataCache() {
 		super.clearMetadataCache();
+		this.beanTypeIndex.invalidateAll();
 		clearByTypeCache();
 	}
 
@@ -809,33 +923,14 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		// While this may not be part of the regular factory bootstrap, it does otherwise work fine.
 		List<String> beanNames = new ArrayList<>(this.beanDefinitionNames);
 
-		// Trigger initialization of all non-lazy singleton beans...
-		//for循环beanName获取BeanDefinition
-		for (String beanName : beanNames) {
-			//返回RootBeanDefinition，如果是非RootBeanDefinition，则转换成RootBeanDefinition返回
-			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
-			if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
-				if (isFactoryBean(beanName)) {
-					Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
-					//如果是工厂bean,则调用getBean()方法得到工厂bean的实例
-					if (bean instanceof FactoryBean) {
-						final FactoryBean<?> factory = (FactoryBean<?>) bean;
-						boolean isEagerInit;
-						if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
-							isEagerInit = AccessController.doPrivileged((PrivilegedAction<Boolean>)
-											((SmartFactoryBean<?>) factory)::isEagerInit,
-									getAccessControlContext());
-						} else {
-							isEagerInit = (factory instanceof SmartFactoryBean &&
-									((SmartFactoryBean<?>) factory).isEagerInit());
-						}
-						if (isEagerInit) {
-							getBean(beanName);
-						}
-					}
-				} else {
-					getBean(beanName);
-				}
+		TaskExecutor executor = this.preInstantiationExecutor;
+		if (executor != null) {
+			preInstantiateSingletonsInParallel(beanNames, executor);
+		} else {
+			// Trigger initialization of all non-lazy singleton beans...
+			//for循环beanName获取BeanDefinition
+			for (String beanName : beanNames) {
+				preInstantiateSingleton(beanName);
 			}
 		}
 
@@ -856,6 +951,154 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		}
 	}
 
+	/**
+	 * Pre-instantiate the specified bean if it is a non-lazy singleton.
+	 * @param beanName the name of the bean
+	 */
+	private void preInstantiateSingleton(String beanName) {
+		//返回RootBeanDefinition，如果是非RootBeanDefinition，则转换成RootBeanDefinition返回
+		RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+		if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+			if (isFactoryBean(beanName)) {
+				Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
+				//如果是工厂bean,则调用getBean()方法得到工厂bean的实例
+				if (bean instanceof FactoryBean) {
+					final FactoryBean<?> factory = (FactoryBean<?>) bean;
+					boolean isEagerInit;
+					if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
+						isEagerInit = AccessController.doPrivileged((PrivilegedAction<Boolean>)
+										((SmartFactoryBean<?>) factory)::isEagerInit,
+								getAccessControlContext());
+					} else {
+						isEagerInit = (factory instanceof SmartFactoryBean &&
+								((SmartFactoryBean<?>) factory).isEagerInit());
+					}
+					if (isEagerInit) {
+						getBean(beanName);
+					}
+				}
+			} else {
+				getBean(beanName);
+			}
+		}
+	}
+
+	/**
+	 * Pre-instantiate independent groups of singletons in parallel.
+	 * @param beanNames the names of all bean definitions
+	 * @param executor the executor to run each group on
+	 * @see #setPreInstantiationExecutor
+	 */
+	private void preInstantiateSingletonsInParallel(List<String> beanNames, TaskExecutor executor) {
+		SingletonDependencyGraph graph = new SingletonDependencyGraph();
+		List<String> singletonNames = new ArrayList<>(beanNames.size());
+		for (String beanName : beanNames) {
+			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+			if (bd.isAbstract()) {
+				continue;
+			}
+			if (bd.isSingleton() && !bd.isLazyInit()) {
+				singletonNames.add(beanName);
+			}
+			graph.addDeclaredDependencies(beanName, bd, this::transformedBeanName);
+			for (String dependencyName : getDependenciesForBean(beanName)) {
+				graph.addDependency(beanName, dependencyName);
+			}
+			for (String dependentName : getDependentBeans(beanName)) {
+				graph.addDependency(dependentName, beanName);
+			}
+		}
+		List<List<String>> groups = graph.getIndependentGroups(singletonNames);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Pre-instantiating " + singletonNames.size() + " singletons in " +
+					groups.size() + " independent groups: " + groups);
+		}
+
+		CountDownLatch latch = new CountDownLatch(groups.size());
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		long startNanos = System.nanoTime();
+		this.preInstantiationGraph = graph;
+		try {
+			for (List<String> group : groups) {
+				Runnable task = () -> {
+					try {
+						for (String beanName : group) {
+							if (failure.get() != null) {
+								break;
+							}
+							preInstantiateSingleton(beanName);
+						}
+					} catch (Throwable ex) {
+						failure.compareAndSet(null, ex);
+					} finally {
+						latch.countDown();
+					}
+				};
+				try {
+					executor.execute(task);
+				} catch (TaskRejectedException ex) {
+					task.run();
+				}
+			}
+			latch.await();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while pre-instantiating singletons in parallel", ex);
+		} finally {
+			this.preInstantiationGraph = null;
+		}
+
+		Throwable ex = failure.get();
+		if (ex instanceof RuntimeException) {
+			throw (RuntimeException) ex;
+		}
+		if (ex instanceof Error) {
+			throw (Error) ex;
+		}
+		if (ex != null) {
+			throw new BeanCreationException("Parallel pre-instantiation of singletons failed", ex);
+		}
+		if (logger.isInfoEnabled()) {
+			// Include dependencies that only got known during creation, e.g. through autowiring.
+			for (String beanName : graph.getCreationNanos().keySet()) {
+				for (String dependencyName : getDependenciesForBean(beanName)) {
+					graph.addDependency(beanName, dependencyName);
+				}
+			}
+			List<String> criticalPath = graph.getCriticalPath();
+			long criticalPathNanos = 0;
+			for (String beanName : criticalPath) {
+				criticalPathNanos += graph.getCreationNanos().getOrDefault(beanName, 0L);
+			}
+			logger.info("Pre-instantiated " + singletonNames.size() + " singletons in " + groups.size() +
+					" independent groups within " + (System.nanoTime() - startNanos) / 1000000 + " ms; " +
+					"critical path (" + criticalPathNanos / 1000000 + " ms): " +
+					StringUtils.collectionToDelimitedString(criticalPath, " -> "));
+		}
+	}
+
+	/**
+	 * Also records the creation time of the singleton
+	 * during parallel pre-instantiation.
+	 */
+	@Override
+	protected void beforeSingletonCreation(String beanName) {
+		super.beforeSingletonCreation(beanName);
+		SingletonDependencyGraph graph = this.preInstantiationGraph;
+		if (graph != null) {
+			graph.creationStarted(beanName);
+		}
+	}
+
+	@Override
+	protected void afterSingletonCreation(String beanName) {
+		SingletonDependencyGraph graph = this.preInstantiationGraph;
+		if (graph != null) {
+			graph.creationFinished(beanName);
+		}
+		super.afterSingletonCreation(beanName);
+	}
+
 
 	//---------------------------------------------------------------------
 	// Implementation of BeanDefinitionRegistry interface
@@ -941,6 +1184,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			}
 			this.frozenBeanDefinitionNames = null;
 		}
+		this.beanTypeIndex.register(beanName);
 
 		if (existingDefinition != null || containsSingleton(beanName)) {
 			//对给定的beanName重置所有对应的beanDefinition缓存
@@ -972,6 +1216,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			this.beanDefinitionNames.remove(beanName);
 		}
 		this.frozenBeanDefinitionNames = null;
+		this.beanTypeIndex.remove(beanName);
 
 		resetBeanDefinition(beanName);
 	}
@@ -992,6 +1237,9 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		// Remove the merged bean definition for the given bean, if already created.
 		clearMergedBeanDefinition(beanName);
 
+		// Re-determine the bean type on the next by-type lookup.
+		this.beanTypeIndex.invalidate(beanName);
+
 		// Remove corresponding bean from singleton cache, if any. Shouldn't usually
 		// be necessary, rather just meant for overriding a context's default beans
 		// (e.g. the default StaticMessageSource in a StaticApplicationContext).
@@ -1047,6 +1295,20 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		clearByTypeCache();
 	}
 
+	/**
+	 * Adds the type of the given singleton instance to the by-type index,
+	 * in case it exposes more than its predicted bean type (e.g. a proxy).
+	 */
+	@Override
+	protected void addSingleton(String beanName, Object singletonObject) {
+		super.addSingleton(beanName, singletonObject);
+		if (singletonObject instanceof FactoryBean) {
+			this.beanTypeIndex.invalidate(beanName);
+		} else {
+			this.beanTypeIndex.addType(beanName, singletonObject.getClass());
+		}
+	}
+
 	@Override
 	public void destroySingleton(String beanName) {
 		super.destroySingleton(beanName);
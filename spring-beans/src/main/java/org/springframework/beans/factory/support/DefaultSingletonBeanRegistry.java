@@ -16,12 +16,14 @@
 
 package org.springframework.beans.factory.support;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -32,6 +34,7 @@ import org.springframework.beans.factory.BeanCurrentlyInCreationException;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.config.SingletonBeanRegistry;
+import org.springframework.core.NamedThreadLocal;
 import org.springframework.core.SimpleAliasRegistry;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -100,6 +103,19 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	@Nullable
 	private Set<Exception> suppressedExceptions;
 
+	/** Whether singleton creation locks the individual bean rather than the entire registry. */
+	private volatile boolean concurrentSingletonCreation = false;
+
+	/** Threads creating singletons in concurrent mode: bean name to creating thread. */
+	private final Map<String, Thread> singletonCreationThreads = new HashMap<>(16);
+
+	/** Threads waiting for singletons in concurrent mode: thread to bean name. */
+	private final Map<Thread, String> singletonCreationWaits = new HashMap<>(16);
+
+	/** Suppressed Exceptions of the current thread's singleton creation in concurrent mode. */
+	private final ThreadLocal<Set<Exception>> concurrentSuppressedExceptions =
+			new NamedThreadLocal<>("Suppressed exceptions of current singleton creation");
+
 	/** Flag that indicates whether we're currently within destroySingletons. */
 	private boolean singletonsCurrentlyInDestruction = false;
 	//存放Disposable实例对象，bean名称-Disposable实例
@@ -116,6 +132,34 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	private final Map<String, Set<String>> dependenciesForBeanMap = new ConcurrentHashMap<>(64);
 
 
+	/**
+	 * Set whether singleton creation should lock the individual bean only,
+	 * allowing independent singletons to be created by several threads
+	 * concurrently. Default is "false", holding the registry-wide singleton
+	 * mutex for the entire creation of a singleton.
+	 * <p>In concurrent mode, a thread asking for a singleton that another thread
+	 * currently creates waits until that creation has completed, instead of
+	 * obtaining an early reference to the incompletely initialized instance.
+	 * Only if such waiting would deadlock, i.e. for a circular reference that
+	 * spans several creating threads, gets the early reference exposed to the
+	 * waiting thread, just like for a circular reference within a single thread.
+	 * <p>To be switched before any singleton gets created.
+	 * @since 5.2
+	 * @see #getSingleton(String, ObjectFactory)
+	 */
+	public void setConcurrentSingletonCreation(boolean concurrentSingletonCreation) {
+		this.concurrentSingletonCreation = concurrentSingletonCreation;
+	}
+
+	/**
+	 * Return whether singleton creation locks the individual bean only.
+	 * @since 5.2
+	 */
+	public boolean isConcurrentSingletonCreation() {
+		return this.concurrentSingletonCreation;
+	}
+
+
 	@Override
 	public void registerSingleton(String beanName, Object singletonObject) throws IllegalStateException {
 		Assert.notNull(beanName, "Bean name must not be null");
@@ -187,6 +231,10 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		//如果从单例缓存中获取不成功，则锁定全局变量，再次尝试从earlySingletonObjects和singletonFactories中加载
 		if (singletonObject == null && isSingletonCurrentlyInCreation(beanName)) {
 			synchronized (this.singletonObjects) {
+				if (this.concurrentSingletonCreation && !isSingletonCreationThread(beanName)) {
+					// Another thread creates this singleton: do not expose its early reference.
+					return this.singletonObjects.get(beanName);
+				}
 				//在创建单例bean时会存在依赖注入的情况，而在创建依赖时为避免循环依赖，在spring中创建
 				//bean原则是不等bean创建完成就会将创建bean的ObjectFactory提早曝光加入到缓存中，
 				//一旦下一个bean创建时需要依赖上一个bean则直接使用ObjectFactory
@@ -218,6 +266,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 */
 	public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
 		Assert.notNull(beanName, "Bean name must not be null");
+		if (this.concurrentSingletonCreation) {
+			return getSingletonConcurrently(beanName, singletonFactory);
+		}
 		//全局变量需要同步
 		synchronized (this.singletonObjects) {
 			//先检测beanName对应的bean是否已经加载过，因为singleton模式是复用已创建的bean
@@ -276,6 +327,184 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		}
 	}
 
+	/**
+	 * Concurrent variant of {@link #getSingleton(String, ObjectFactory)}, holding
+	 * the singleton mutex only for claiming and publishing the singleton but not
+	 * while invoking the given factory.
+	 * @param beanName the name of the bean
+	 * @param singletonFactory the ObjectFactory to lazily create the singleton
+	 * with, if necessary
+	 * @return the registered singleton object, or an early reference to it
+	 * in case of a circular reference across creating threads
+	 * @see #setConcurrentSingletonCreation
+	 */
+	private Object getSingletonConcurrently(String beanName, ObjectFactory<?> singletonFactory) {
+		synchronized (this.singletonObjects) {
+			Object singletonObject = awaitSingletonCreatedByOtherThread(beanName, Thread.currentThread());
+			if (singletonObject != null) {
+				return singletonObject;
+			}
+			if (this.singletonsCurrentlyInDestruction) {
+				throw new BeanCreationNotAllowedException(beanName,
+						"Singleton bean creation not allowed while singletons of this factory are in destruction " +
+						"(Do not request a bean from a BeanFactory in a destroy method implementation!)");
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Creating shared instance of singleton bean '" + beanName + "'");
+			}
+			beforeSingletonCreation(beanName);
+		}
+
+		Object singletonObject = null;
+		boolean newSingleton = false;
+		boolean recordSuppressedExceptions = (this.concurrentSuppressedExceptions.get() == null);
+		if (recordSuppressedExceptions) {
+			this.concurrentSuppressedExceptions.set(new LinkedHashSet<>());
+		}
+		try {
+			singletonObject = singletonFactory.getObject();
+			newSingleton = true;
+		}
+		catch (IllegalStateException ex) {
+			// Has the singleton object implicitly appeared in the meantime ->
+			// if yes, proceed with it since the exception indicates that state.
+			singletonObject = this.singletonObjects.get(beanName);
+			if (singletonObject == null) {
+				throw ex;
+			}
+		}
+		catch (BeanCreationException ex) {
+			if (recordSuppressedExceptions) {
+				for (Exception suppressedException : this.concurrentSuppressedExceptions.get()) {
+					ex.addRelatedCause(suppressedException);
+				}
+			}
+			throw ex;
+		}
+		finally {
+			if (recordSuppressedExceptions) {
+				this.concurrentSuppressedExceptions.remove();
+			}
+			// Publish within the same mutex block that notifies waiting threads.
+			synchronized (this.singletonObjects) {
+				afterSingletonCreation(beanName);
+				if (newSingleton) {
+					addSingleton(beanName, singletonObject);
+				}
+			}
+		}
+		return singletonObject;
+	}
+
+	/**
+	 * Wait while another thread creates the specified singleton.
+	 * <p>To be called with the singleton mutex held, which gets released while waiting.
+	 * @param beanName the name of the bean
+	 * @param currentThread the current thread
+	 * @return the singleton object created by another thread, an early reference
+	 * to it in case of a circular reference across threads, or {@code null}
+	 * if the current thread is supposed to create the singleton itself
+	 * @throws BeanCurrentlyInCreationException in case of a circular reference
+	 * across threads which cannot be resolved through early references
+	 */
+	@Nullable
+	private Object awaitSingletonCreatedByOtherThread(String beanName, Thread currentThread) {
+		try {
+			while (true) {
+				Object singletonObject = this.singletonObjects.get(beanName);
+				if (singletonObject != null || isSingletonCreationThread(beanName)) {
+					return singletonObject;
+				}
+				List<String> circularWait = getCircularWait(beanName, currentThread);
+				if (circularWait != null) {
+					singletonObject = getEarlySingletonReference(beanName);
+					if (singletonObject != null) {
+						return singletonObject;
+					}
+					if (circularWait.stream().noneMatch(this::hasEarlySingletonReference)) {
+						throw new BeanCurrentlyInCreationException(beanName,
+								"Requested bean is currently in creation by another thread which in turn waits " +
+								"for the current thread: Is there an unresolvable circular reference between " +
+								circularWait + "?");
+					}
+					// Another waiting thread is able to resolve the circular reference.
+				}
+				if (!beanName.equals(this.singletonCreationWaits.put(currentThread, beanName))) {
+					// Let other waiting threads check for a circular wait including this one.
+					this.singletonObjects.notifyAll();
+				}
+				try {
+					this.singletonObjects.wait();
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					throw new BeanCreationException(beanName,
+							"Interrupted while waiting for creation of singleton by another thread", ex);
+				}
+			}
+		}
+		finally {
+			this.singletonCreationWaits.remove(currentThread);
+		}
+	}
+
+	/**
+	 * Determine whether the specified singleton is being created by the current
+	 * thread, or not by any thread in particular.
+	 * <p>To be called with the singleton mutex held.
+	 */
+	private boolean isSingletonCreationThread(String beanName) {
+		Thread creationThread = this.singletonCreationThreads.get(beanName);
+		return (creationThread == null || creationThread == Thread.currentThread());
+	}
+
+	/**
+	 * Determine the singletons that would be waited for in a cycle if the current
+	 * thread started waiting for the specified singleton.
+	 * <p>To be called with the singleton mutex held.
+	 * @return the names of the singletons in the circular wait, starting with the
+	 * given bean name, or {@code null} if waiting would not close a cycle
+	 */
+	@Nullable
+	private List<String> getCircularWait(String beanName, Thread currentThread) {
+		List<String> circularWait = new ArrayList<>();
+		String nextBeanName = beanName;
+		while (nextBeanName != null && !circularWait.contains(nextBeanName)) {
+			circularWait.add(nextBeanName);
+			Thread creationThread = this.singletonCreationThreads.get(nextBeanName);
+			if (creationThread == null) {
+				return null;
+			}
+			if (creationThread == currentThread) {
+				return circularWait;
+			}
+			nextBeanName = this.singletonCreationWaits.get(creationThread);
+		}
+		return null;
+	}
+
+	/**
+	 * Obtain an early reference to the specified singleton, if exposed already.
+	 * <p>To be called with the singleton mutex held.
+	 */
+	@Nullable
+	private Object getEarlySingletonReference(String beanName) {
+		Object singletonObject = this.earlySingletonObjects.get(beanName);
+		if (singletonObject == null) {
+			ObjectFactory<?> singletonFactory = this.singletonFactories.get(beanName);
+			if (singletonFactory != null) {
+				singletonObject = singletonFactory.getObject();
+				this.earlySingletonObjects.put(beanName, singletonObject);
+				this.singletonFactories.remove(beanName);
+			}
+		}
+		return singletonObject;
+	}
+
+	private boolean hasEarlySingletonReference(String beanName) {
+		return (this.earlySingletonObjects.containsKey(beanName) || this.singletonFactories.containsKey(beanName));
+	}
+
 	/**
 	 * Register an Exception that happened to get suppressed during the creation of a
 	 * singleton bean instance, e.g. a temporary circular reference resolution problem.
@@ -287,6 +516,10 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 				this.suppressedExceptions.add(ex);
 			}
 		}
+		Set<Exception> concurrentSuppressedExceptions = this.concurrentSuppressedExceptions.get();
+		if (concurrentSuppressedExceptions != null) {
+			concurrentSuppressedExceptions.add(ex);
+		}
 	}
 
 	/**
@@ -362,6 +595,11 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		if (!this.inCreationCheckExclusions.contains(beanName) && !this.singletonsCurrentlyInCreation.add(beanName)) {
 			throw new BeanCurrentlyInCreationException(beanName);
 		}
+		if (this.concurrentSingletonCreation) {
+			synchronized (this.singletonObjects) {
+				this.singletonCreationThreads.putIfAbsent(beanName, Thread.currentThread());
+			}
+		}
 	}
 
 	/**
@@ -371,6 +609,13 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * @see #isSingletonCurrentlyInCreation
 	 */
 	protected void afterSingletonCreation(String beanName) {
+		if (this.concurrentSingletonCreation) {
+			synchronized (this.singletonObjects) {
+				if (this.singletonCreationThreads.remove(beanName, Thread.currentThread())) {
+					this.singletonObjects.notifyAll();
+				}
+			}
+		}
 		if (!this.inCreationCheckExclusions.contains(beanName) && !this.singletonsCurrentlyInCreation.remove(beanName)) {
 			throw new IllegalStateException("Singleton '" + beanName + "' isn't currently in creation");
 		}
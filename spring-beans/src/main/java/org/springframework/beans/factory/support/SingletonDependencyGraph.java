@@ -0,0 +1,296 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.BeanReference;
+import org.springframework.beans.factory.config.ConstructorArgumentValues.ValueHolder;
+import org.springframework.core.NamedThreadLocal;
+import org.springframework.lang.Nullable;
+
+/**
+ * Dependency graph between beans, used by {@link DefaultListableBeanFactory}
+ * for pre-instantiating independent groups of singletons in parallel.
+ *
+ * <p>Dependencies get collected from bean definitions (depends-on, factory bean,
+ * bean references in property values and constructor arguments, including inner
+ * bean definitions) as well as from dependencies recorded for beans created
+ * before. Dependencies that are only discovered at creation time (such as
+ * annotation-driven autowiring) are not known up front; the factory copes with
+ * those through concurrent singleton creation, see
+ * {@link DefaultSingletonBeanRegistry#setConcurrentSingletonCreation}.
+ *
+ * <p>Also records the time spent creating each singleton, excluding the time
+ * spent creating nested singletons, for determining the critical path: the chain
+ * of dependencies with the highest accumulated creation time, which bounds the
+ * duration of parallel pre-instantiation.
+ *
+ * <p>Only the creation callbacks may be invoked concurrently; the graph
+ * itself is meant to be built and queried by a single thread.
+ *
+ * @author Daniel Ferreira
+ * @since 5.2
+ * @see DefaultListableBeanFactory#setPreInstantiationExecutor
+ */
+final class SingletonDependencyGraph {
+
+	/** Dependencies of each bean: bean name to names of the beans it depends on. */
+	private final Map<String, Set<String>> dependencies = new HashMap<>(256);
+
+	/** Union-find forest over all bean names connected through dependencies. */
+	private final Map<String, String> groupParents = new HashMap<>(256);
+
+	/** Creation time of each singleton in nanoseconds, excluding nested creations. */
+	private final Map<String, Long> creationNanos = new ConcurrentHashMap<>(256);
+
+	/** Singleton creations in progress on the current thread, innermost last. */
+	private final ThreadLocal<Deque<CreationTiming>> creationTimings =
+			new NamedThreadLocal<>("Singleton creations in progress");
+
+
+	/**
+	 * Register a dependency of the given bean on the given dependency bean.
+	 * @param beanName the canonical name of the dependent bean
+	 * @param dependencyName the canonical name of the bean it depends on
+	 */
+	void addDependency(String beanName, String dependencyName) {
+		if (beanName.equals(dependencyName)) {
+			return;
+		}
+		this.dependencies.computeIfAbsent(beanName, name -> new LinkedHashSet<>(8)).add(dependencyName);
+		String group = findGroup(beanName);
+		String dependencyGroup = findGroup(dependencyName);
+		if (!group.equals(dependencyGroup)) {
+			this.groupParents.put(dependencyGroup, group);
+		}
+	}
+
+	/**
+	 * Register all dependencies declared by the given bean definition.
+	 * @param beanName the canonical name of the bean
+	 * @param bd the (merged) bean definition
+	 * @param nameResolver function for turning a referenced bean name
+	 * into the canonical name of the bean
+	 */
+	void addDeclaredDependencies(String beanName, BeanDefinition bd, Function<String, String> nameResolver) {
+		String[] dependsOn = bd.getDependsOn();
+		if (dependsOn != null) {
+			for (String dependencyName : dependsOn) {
+				addDependency(beanName, nameResolver.apply(dependencyName));
+			}
+		}
+		String factoryBeanName = bd.getFactoryBeanName();
+		if (factoryBeanName != null) {
+			addDependency(beanName, nameResolver.apply(factoryBeanName));
+		}
+		for (PropertyValue pv : bd.getPropertyValues().getPropertyValues()) {
+			addReferencedDependencies(beanName, pv.getValue(), nameResolver);
+		}
+		for (ValueHolder valueHolder : bd.getConstructorArgumentValues().getIndexedArgumentValues().values()) {
+			addReferencedDependencies(beanName, valueHolder.getValue(), nameResolver);
+		}
+		for (ValueHolder valueHolder : bd.getConstructorArgumentValues().getGenericArgumentValues()) {
+			addReferencedDependencies(beanName, valueHolder.getValue(), nameResolver);
+		}
+	}
+
+	private void addReferencedDependencies(String beanName, @Nullable Object value,
+			Function<String, String> nameResolver) {
+
+		if (value instanceof BeanReference) {
+			addDependency(beanName, nameResolver.apply(((BeanReference) value).getBeanName()));
+		}
+		else if (value instanceof BeanDefinitionHolder) {
+			// Inner bean: its dependencies get resolved on behalf of the outer bean.
+			addDeclaredDependencies(beanName, ((BeanDefinitionHolder) value).getBeanDefinition(), nameResolver);
+		}
+		else if (value instanceof BeanDefinition) {
+			addDeclaredDependencies(beanName, (BeanDefinition) value, nameResolver);
+		}
+		else if (value instanceof Collection) {
+			for (Object element : (Collection<?>) value) {
+				addReferencedDependencies(beanName, element, nameResolver);
+			}
+		}
+		else if (value instanceof Map) {
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				addReferencedDependencies(beanName, entry.getKey(), nameResolver);
+				addReferencedDependencies(beanName, entry.getValue(), nameResolver);
+			}
+		}
+		else if (value instanceof Object[]) {
+			for (Object element : (Object[]) value) {
+				addReferencedDependencies(beanName, element, nameResolver);
+			}
+		}
+	}
+
+	/**
+	 * Partition the given bean names into groups that do not depend on each other,
+	 * neither directly nor through any other bean.
+	 * @param beanNames the names of the beans to partition
+	 * @return the groups, ordered by their first bean, with each group
+	 * retaining the order of the given bean names
+	 */
+	List<List<String>> getIndependentGroups(List<String> beanNames) {
+		Map<String, List<String>> groups = new LinkedHashMap<>();
+		for (String beanName : beanNames) {
+			groups.computeIfAbsent(findGroup(beanName), group -> new ArrayList<>()).add(beanName);
+		}
+		return new ArrayList<>(groups.values());
+	}
+
+	private String findGroup(String beanName) {
+		String group = beanName;
+		String parent = this.groupParents.get(group);
+		while (parent != null) {
+			group = parent;
+			parent = this.groupParents.get(group);
+		}
+		if (!group.equals(beanName)) {
+			// Path compression: attach the given bean directly to its group.
+			this.groupParents.put(beanName, group);
+		}
+		return group;
+	}
+
+	/**
+	 * Callback for the start of a singleton creation on the current thread.
+	 */
+	void creationStarted(String beanName) {
+		Deque<CreationTiming> timings = this.creationTimings.get();
+		if (timings == null) {
+			timings = new ArrayDeque<>();
+			this.creationTimings.set(timings);
+		}
+		timings.push(new CreationTiming(beanName, System.nanoTime()));
+	}
+
+	/**
+	 * Callback for the end of a singleton creation on the current thread.
+	 */
+	void creationFinished(String beanName) {
+		Deque<CreationTiming> timings = this.creationTimings.get();
+		if (timings == null || timings.isEmpty() || !timings.peek().beanName.equals(beanName)) {
+			return;
+		}
+		CreationTiming timing = timings.pop();
+		long nanos = System.nanoTime() - timing.startNanos;
+		this.creationNanos.merge(beanName, nanos - timing.nestedNanos, Long::sum);
+		if (timings.isEmpty()) {
+			this.creationTimings.remove();
+		}
+		else {
+			timings.peek().nestedNanos += nanos;
+		}
+	}
+
+	/**
+	 * Return the creation times recorded so far, in nanoseconds per bean name.
+	 */
+	Map<String, Long> getCreationNanos() {
+		return Collections.unmodifiableMap(this.creationNanos);
+	}
+
+	/**
+	 * Determine the chain of dependencies with the highest accumulated creation time,
+	 * according to the creation times recorded so far.
+	 * @return the bean names on the critical path, each one depending on its successor,
+	 * or an empty list if no creation time has been recorded
+	 */
+	List<String> getCriticalPath() {
+		Map<String, Long> pathNanos = new HashMap<>();
+		Map<String, String> pathSuccessors = new HashMap<>();
+		String start = null;
+		long maxNanos = -1;
+		for (String beanName : this.creationNanos.keySet()) {
+			long nanos = determinePathNanos(beanName, pathNanos, pathSuccessors, new HashSet<>());
+			if (nanos > maxNanos) {
+				start = beanName;
+				maxNanos = nanos;
+			}
+		}
+		List<String> criticalPath = new ArrayList<>();
+		for (String beanName = start; beanName != null && !criticalPath.contains(beanName);
+				beanName = pathSuccessors.get(beanName)) {
+			criticalPath.add(beanName);
+		}
+		return criticalPath;
+	}
+
+	private long determinePathNanos(String beanName, Map<String, Long> pathNanos,
+			Map<String, String> pathSuccessors, Set<String> inProgress) {
+
+		Long cached = pathNanos.get(beanName);
+		if (cached != null) {
+			return cached;
+		}
+		long maxDependencyNanos = 0;
+		if (inProgress.add(beanName)) {
+			for (String dependencyName : this.dependencies.getOrDefault(beanName, Collections.emptySet())) {
+				// Dependencies within a circular reference do not extend the path.
+				if (!inProgress.contains(dependencyName)) {
+					long dependencyNanos = determinePathNanos(dependencyName, pathNanos, pathSuccessors, inProgress);
+					if (dependencyNanos > maxDependencyNanos) {
+						pathSuccessors.put(beanName, dependencyName);
+						maxDependencyNanos = dependencyNanos;
+					}
+				}
+			}
+			inProgress.remove(beanName);
+		}
+		long nanos = this.creationNanos.getOrDefault(beanName, 0L) + maxDependencyNanos;
+		pathNanos.put(beanName, nanos);
+		return nanos;
+	}
+
+
+	/**
+	 * Timing of a singleton creation in progress.
+	 */
+	private static class CreationTiming {
+
+		final String beanName;
+
+		final long startNanos;
+
+		long nestedNanos;
+
+		CreationTiming(String beanName, long startNanos) {
+			this.beanName = beanName;
+			this.startNanos = startNanos;
+		}
+	}
+
+}
@@ -19,6 +19,7 @@ package org.springframework.beans.factory;
 import java.io.Closeable;
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
 import java.net.MalformedURLException;
 import java.security.AccessControlContext;
 import java.security.AccessController;
@@ -37,6 +38,8 @@ import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.annotation.Priority;
 import javax.security.auth.Subject;
@@ -87,6 +90,7 @@ import org.springframework.core.convert.support.DefaultConversionService;
 import org.springframework.core.convert.support.GenericConversionService;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.lang.Nullable;
 import org.springframework.tests.Assume;
 import org.springframework.tests.TestGroup;
@@ -1924,6 +1928,43 @@ public class DefaultListableBeanFactoryTests {
 		assertEquals("&factoryBean", beanNames[0]);
 	}
 
+	@Test
+	public void testGetBeanNamesForTypeAfterReregistrationAndRemoval() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		lbf.registerBeanDefinition("a", new RootBeanDefinition(TestBean.class));
+		lbf.registerBeanDefinition("b", new RootBeanDefinition(NestedTestBean.class));
+		lbf.registerBeanDefinition("c", new RootBeanDefinition(TestBean.class));
+		assertArrayEquals(new String[] {"a", "c"}, lbf.getBeanNamesForType(TestBean.class));
+		assertArrayEquals(new String[] {"a", "c"}, lbf.getBeanNamesForType(ITestBean.class));
+
+		lbf.registerBeanDefinition("a", new RootBeanDefinition(NestedTestBean.class));
+		assertArrayEquals(new String[] {"c"}, lbf.getBeanNamesForType(TestBean.class));
+		assertArrayEquals(new String[] {"a", "b"}, lbf.getBeanNamesForType(NestedTestBean.class));
+
+		lbf.removeBeanDefinition("b");
+		assertArrayEquals(new String[] {"a"}, lbf.getBeanNamesForType(NestedTestBean.class));
+		lbf.registerBeanDefinition("b", new RootBeanDefinition(TestBean.class));
+		assertArrayEquals(new String[] {"c", "b"}, lbf.getBeanNamesForType(TestBean.class));
+	}
+
+	@Test
+	public void testGetBeanNamesForTypeWithProxiedSingleton() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		lbf.registerBeanDefinition("test", new RootBeanDefinition(TestBean.class));
+		lbf.addBeanPostProcessor(new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				return Proxy.newProxyInstance(getClass().getClassLoader(),
+						new Class<?>[] {ITestBean.class, Runnable.class}, (proxy, method, args) -> null);
+			}
+		});
+		assertEquals(0, lbf.getBeanNamesForType(Runnable.class).length);
+		assertTrue(lbf.getBean("test") instanceof Runnable);
+		assertArrayEquals(new String[] {"test"}, lbf.getBeanNamesForType(Runnable.class));
+		assertArrayEquals(new String[] {"test"}, lbf.getBeanNamesForType(ITestBean.class));
+		assertEquals(0, lbf.getBeanNamesForType(TestBean.class).length);
+	}
+
 	/**
 	 * Verifies that a dependency on a {@link FactoryBean} can <strong>not</strong>
 	 * be autowired <em>by name</em>, as &amp; is an illegal character in
@@ -2371,6 +2412,108 @@ public class DefaultListableBeanFactoryTests {
 		assertTrue(factory.initialized);
 	}
 
+	@Test
+	public void testPreInstantiateSingletonsInParallel() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		CountDownLatch latch = new CountDownLatch(3);
+		for (int i = 0; i < 3; i++) {
+			RootBeanDefinition bd = new RootBeanDefinition(LatchAwaitingBean.class);
+			bd.getConstructorArgumentValues().addGenericArgumentValue(latch);
+			lbf.registerBeanDefinition("bean" + i, bd);
+		}
+		RootBeanDefinition dependentBd = new RootBeanDefinition(TestBeanRecipient.class);
+		dependentBd.getConstructorArgumentValues().addGenericArgumentValue(new RuntimeBeanReference("testBean"));
+		lbf.registerBeanDefinition("recipient", dependentBd);
+		lbf.registerBeanDefinition("testBean", new RootBeanDefinition(TestBean.class));
+		lbf.registerBeanDefinition("factory", new RootBeanDefinition(EagerInitFactory.class));
+		lbf.setPreInstantiationExecutor(new SimpleAsyncTaskExecutor());
+		lbf.preInstantiateSingletons();
+
+		Set<Thread> threads = new HashSet<>();
+		for (int i = 0; i < 3; i++) {
+			threads.add(lbf.getBean("bean" + i, LatchAwaitingBean.class).initThread);
+		}
+		assertEquals(3, threads.size());
+		assertSame(lbf.getBean("testBean"), lbf.getBean("recipient", TestBeanRecipient.class).testBean);
+		assertTrue(lbf.getBean("&factory", EagerInitFactory.class).initialized);
+	}
+
+	@Test
+	public void testPreInstantiateSingletonsInParallelWithUndeclaredDependency() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		CountDownLatch inCreation = new CountDownLatch(1);
+		CountDownLatch consumerCreated = new CountDownLatch(1);
+		RootBeanDefinition slowBd = new RootBeanDefinition(SlowlyInitializingBean.class);
+		slowBd.getConstructorArgumentValues().addIndexedArgumentValue(0, inCreation);
+		slowBd.getConstructorArgumentValues().addIndexedArgumentValue(1, consumerCreated);
+		lbf.registerBeanDefinition("slow", slowBd);
+		RootBeanDefinition consumerBd = new RootBeanDefinition(SlowlyInitializingBeanConsumer.class);
+		consumerBd.getConstructorArgumentValues().addIndexedArgumentValue(0, inCreation);
+		consumerBd.getConstructorArgumentValues().addIndexedArgumentValue(1, consumerCreated);
+		consumerBd.setAutowireMode(RootBeanDefinition.AUTOWIRE_BY_TYPE);
+		lbf.registerBeanDefinition("consumer", consumerBd);
+		lbf.setPreInstantiationExecutor(new SimpleAsyncTaskExecutor());
+		lbf.preInstantiateSingletons();
+
+		SlowlyInitializingBeanConsumer consumer = lbf.getBean("consumer", SlowlyInitializingBeanConsumer.class);
+		assertSame(lbf.getBean("slow"), consumer.dependency);
+		assertTrue("Must not see early reference created by other thread", consumer.dependencyInitialized);
+	}
+
+	@Test
+	public void testPreInstantiateSingletonsInParallelWithCircularReferenceAcrossThreads() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		CountDownLatch latch = new CountDownLatch(2);
+		RootBeanDefinition bdA = new RootBeanDefinition(ConcurrentCircularA.class);
+		bdA.getConstructorArgumentValues().addGenericArgumentValue(latch);
+		bdA.setAutowireMode(RootBeanDefinition.AUTOWIRE_BY_TYPE);
+		lbf.registerBeanDefinition("a", bdA);
+		RootBeanDefinition bdB = new RootBeanDefinition(ConcurrentCircularB.class);
+		bdB.getConstructorArgumentValues().addGenericArgumentValue(latch);
+		bdB.setAutowireMode(RootBeanDefinition.AUTOWIRE_BY_TYPE);
+		lbf.registerBeanDefinition("b", bdB);
+		lbf.setPreInstantiationExecutor(new SimpleAsyncTaskExecutor());
+		lbf.preInstantiateSingletons();
+
+		ConcurrentCircularA a = lbf.getBean("a", ConcurrentCircularA.class);
+		ConcurrentCircularB b = lbf.getBean("b", ConcurrentCircularB.class);
+		assertSame(b, a.b);
+		assertSame(a, b.a);
+	}
+
+	@Test
+	public void testPreInstantiationExecutorCopiedWithConfiguration() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor();
+		lbf.setPreInstantiationExecutor(executor);
+		DefaultListableBeanFactory copy = new DefaultListableBeanFactory();
+		copy.copyConfigurationFrom(lbf);
+		assertSame(executor, copy.getPreInstantiationExecutor());
+		assertTrue(copy.isConcurrentSingletonCreation());
+	}
+
+	@Test
+	public void testPreInstantiationExecutorResetKeepsConcurrentSingletonCreation() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		lbf.setPreInstantiationExecutor(new SimpleAsyncTaskExecutor());
+		lbf.setPreInstantiationExecutor(null);
+		assertNull(lbf.getPreInstantiationExecutor());
+		assertTrue(lbf.isConcurrentSingletonCreation());
+		lbf.setConcurrentSingletonCreation(false);
+		assertFalse(lbf.isConcurrentSingletonCreation());
+	}
+
+	@Test(expected = BeanCreationException.class)
+	public void testPreInstantiateSingletonsInParallelWithFailure() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		lbf.registerBeanDefinition("test", new RootBeanDefinition(TestBean.class));
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.setInitMethodName("nonExistingMethod");
+		lbf.registerBeanDefinition("failing", bd);
+		lbf.setPreInstantiationExecutor(new SimpleAsyncTaskExecutor());
+		lbf.preInstantiateSingletons();
+	}
+
 	@Test
 	public void testPrototypeFactoryBeanNotEagerlyCalledInCaseOfBeanClassName() {
 		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
@@ -3500,6 +3643,99 @@ public class DefaultListableBeanFactoryTests {
 	}
 
 
+	private static class LatchAwaitingBean implements InitializingBean {
+
+		private final CountDownLatch latch;
+
+		Thread initThread;
+
+		public LatchAwaitingBean(CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		@Override
+		public void afterPropertiesSet() throws Exception {
+			this.latch.countDown();
+			assertTrue("Beans not initialized concurrently", this.latch.await(10, TimeUnit.SECONDS));
+			this.initThread = Thread.currentThread();
+		}
+	}
+
+
+	private static class SlowlyInitializingBean implements InitializingBean {
+
+		private final CountDownLatch inCreation;
+
+		private final CountDownLatch consumerCreated;
+
+		volatile boolean initialized;
+
+		public SlowlyInitializingBean(CountDownLatch inCreation, CountDownLatch consumerCreated) {
+			this.inCreation = inCreation;
+			this.consumerCreated = consumerCreated;
+		}
+
+		@Override
+		public void afterPropertiesSet() throws Exception {
+			this.inCreation.countDown();
+			// Stay in creation until the consumer is about to resolve this bean
+			assertTrue(this.consumerCreated.await(10, TimeUnit.SECONDS));
+			this.initialized = true;
+		}
+	}
+
+
+	private static class SlowlyInitializingBeanConsumer {
+
+		SlowlyInitializingBean dependency;
+
+		boolean dependencyInitialized;
+
+		public SlowlyInitializingBeanConsumer(CountDownLatch inCreation, CountDownLatch consumerCreated)
+				throws InterruptedException {
+
+			// Make sure that the dependency is in creation by another thread
+			assertTrue(inCreation.await(10, TimeUnit.SECONDS));
+			consumerCreated.countDown();
+		}
+
+		public void setDependency(SlowlyInitializingBean dependency) {
+			this.dependency = dependency;
+			this.dependencyInitialized = dependency.initialized;
+		}
+	}
+
+
+	private static class ConcurrentCircularA {
+
+		ConcurrentCircularB b;
+
+		public ConcurrentCircularA(CountDownLatch latch) throws InterruptedException {
+			latch.countDown();
+			latch.await(10, TimeUnit.SECONDS);
+		}
+
+		public void setB(ConcurrentCircularB b) {
+			this.b = b;
+		}
+	}
+
+
+	private static class ConcurrentCircularB {
+
+		ConcurrentCircularA a;
+
+		public ConcurrentCircularB(CountDownLatch latch) throws InterruptedException {
+			latch.countDown();
+			latch.await(10, TimeUnit.SECONDS);
+		}
+
+		public void setA(ConcurrentCircularA a) {
+			this.a = a;
+		}
+	}
+
+
 	private static class TestBeanRecipient {
 
 		public TestBean testBean;
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.processor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/**
+ * Encode the class-level metadata of a candidate component in the binary form
+ * that {@code org.springframework.context.index.IndexedMetadataReader} replays
+ * at runtime instead of reading the class file: the class header, the annotations
+ * declared on the class and the methods (including constructors) that declare
+ * annotations, such as {@code @Bean} methods.
+ *
+ * <p>Mirrors what is visible in the class file: names are internal names and
+ * type descriptors, and annotations only carry their explicitly declared values.
+ * Annotations with {@link RetentionPolicy#SOURCE source} retention are ignored.
+ *
+ * @author Daniel Ferreira
+ * @since 5.2
+ */
+class ClassMetadataEncoder {
+
+	private static final int ACC_PUBLIC = 0x0001;
+
+	private static final int ACC_PRIVATE = 0x0002;
+
+	private static final int ACC_PROTECTED = 0x0004;
+
+	private static final int ACC_STATIC = 0x0008;
+
+	private static final int ACC_FINAL = 0x0010;
+
+	private static final int ACC_INTERFACE = 0x0200;
+
+	private static final int ACC_ABSTRACT = 0x0400;
+
+	private static final int ACC_ANNOTATION = 0x2000;
+
+	private static final int ACC_ENUM = 0x4000;
+
+
+	private final Elements elements;
+
+	private final Types types;
+
+
+	public ClassMetadataEncoder(ProcessingEnvironment env) {
+		this.elements = env.getElementUtils();
+		this.types = env.getTypeUtils();
+	}
+
+
+	/**
+	 * Encode the metadata of the specified type.
+	 * @param type the type to encode
+	 * @return the encoded metadata, or {@code null} if the type cannot be encoded,
+	 * e.g. because of a string attribute exceeding the supported length or an
+	 * unresolvable type
+	 */
+	public byte[] encode(TypeElement type) {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+		try (DataOutputStream out = new DataOutputStream(bos)) {
+			writeType(type, out);
+		}
+		catch (IOException | RuntimeException ex) {
+			// Not representable: the class file gets read at runtime instead
+			return null;
+		}
+		return bos.toByteArray();
+	}
+
+	private void writeType(TypeElement type, DataOutputStream out) throws IOException {
+		String name = getInternalName(type);
+		out.writeInt(getAccess(type));
+		out.writeUTF(name);
+		TypeMirror superclass = type.getSuperclass();
+		out.writeBoolean(superclass.getKind() == TypeKind.DECLARED);
+		if (superclass.getKind() == TypeKind.DECLARED) {
+			out.writeUTF(getInternalName(superclass));
+		}
+		List<? extends TypeMirror> interfaces = type.getInterfaces();
+		out.writeShort(interfaces.size());
+		for (TypeMirror ifc : interfaces) {
+			out.writeUTF(getInternalName(ifc));
+		}
+		boolean member = (type.getNestingKind() == NestingKind.MEMBER);
+		out.writeBoolean(member);
+		if (member) {
+			out.writeUTF(getInternalName(type.getEnclosingElement()));
+			out.writeInt(getAccess(type) | (isStatic(type) ? ACC_STATIC : 0));
+		}
+		List<TypeElement> memberTypes = ElementFilter.typesIn(type.getEnclosedElements());
+		out.writeShort(memberTypes.size());
+		for (TypeElement memberType : memberTypes) {
+			out.writeUTF(getInternalName(memberType));
+		}
+		writeAnnotations(type, out);
+
+		List<ExecutableElement> annotatedMethods = new ArrayList<>();
+		for (Element element : type.getEnclosedElements()) {
+			if ((element.getKind() == ElementKind.METHOD || element.getKind() == ElementKind.CONSTRUCTOR) &&
+					!getRetainedAnnotations(element).isEmpty()) {
+				annotatedMethods.add((ExecutableElement) element);
+			}
+		}
+		out.writeShort(annotatedMethods.size());
+		for (ExecutableElement method : annotatedMethods) {
+			boolean constructor = (method.getKind() == ElementKind.CONSTRUCTOR);
+			out.writeUTF(constructor ? "<init>" : method.getSimpleName().toString());
+			out.writeInt(getAccess(method.getModifiers()));
+			out.writeUTF(constructor ? "V" : getDescriptor(method.getReturnType()));
+			writeAnnotations(method, out);
+		}
+	}
+
+	private void writeAnnotations(Element element, DataOutputStream out) throws IOException {
+		List<AnnotationMirror> annotations = getRetainedAnnotations(element);
+		out.writeShort(annotations.size());
+		for (AnnotationMirror annotation : annotations) {
+			writeAnnotation(annotation, out);
+		}
+	}
+
+	private List<AnnotationMirror> getRetainedAnnotations(Element element) {
+		List<AnnotationMirror> result = new ArrayList<>();
+		for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			Retention retention = annotation.getAnnotationType().asElement().getAnnotation(Retention.class);
+			if (retention == null || retention.value() != RetentionPolicy.SOURCE) {
+				result.add(annotation);
+			}
+		}
+		return result;
+	}
+
+	private void writeAnnotation(AnnotationMirror annotation, DataOutputStream out) throws IOException {
+		out.writeUTF(getDescriptor(annotation.getAnnotationType()));
+		Map<? extends ExecutableElement, ? extends AnnotationValue> values = annotation.getElementValues();
+		out.writeShort(values.size());
+		for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+			out.writeUTF(entry.getKey().getSimpleName().toString());
+			writeValue(entry.getKey().getReturnType(), entry.getValue(), out);
+		}
+	}
+
+	private void writeValue(TypeMirror valueType, AnnotationValue annotationValue, DataOutputStream out)
+			throws IOException {
+
+		Object value = annotationValue.getValue();
+		if (value instanceof List) {
+			List<?> elements = (List<?>) value;
+			TypeMirror componentType = ((ArrayType) valueType).getComponentType();
+			if (componentType.getKind().isPrimitive() && !elements.isEmpty()) {
+				// Primitive arrays are exposed as a whole, just like in the class file
+				out.writeByte('p');
+				out.writeByte(getDescriptor(componentType).charAt(0));
+				out.writeShort(elements.size());
+				for (Object element : elements) {
+					writePrimitive(((AnnotationValue) element).getValue(), out);
+				}
+			}
+			else {
+				out.writeByte('[');
+				out.writeShort(elements.size());
+				for (Object element : elements) {
+					writeValue(componentType, (AnnotationValue) element, out);
+				}
+			}
+		}
+		else if (value instanceof String) {
+			out.writeByte('s');
+			out.writeUTF((String) value);
+		}
+		else if (value instanceof TypeMirror) {
+			out.writeByte('c');
+			out.writeUTF(getDescriptor((TypeMirror) value));
+		}
+		else if (value instanceof VariableElement) {
+			out.writeByte('e');
+			out.writeUTF(getDescriptor(((VariableElement) value).getEnclosingElement().asType()));
+			out.writeUTF(((VariableElement) value).getSimpleName().toString());
+		}
+		else if (value instanceof AnnotationMirror) {
+			out.writeByte('@');
+			writeAnnotation((AnnotationMirror) value, out);
+		}
+		else {
+			out.writeByte(getPrimitiveTag(value));
+			writePrimitive(value, out);
+		}
+	}
+
+	private char getPrimitiveTag(Object value) throws IOException {
+		if (value instanceof Boolean) {
+			return 'Z';
+		}
+		else if (value instanceof Byte) {
+			return 'B';
+		}
+		else if (value instanceof Character) {
+			return 'C';
+		}
+		else if (value instanceof Short) {
+			return 'S';
+		}
+		else if (value instanceof Integer) {
+			return 'I';
+		}
+		else if (value instanceof Long) {
+			return 'J';
+		}
+		else if (value instanceof Float) {
+			return 'F';
+		}
+		else if (value instanceof Double) {
+			return 'D';
+		}
+		throw new IOException("Unsupported annotation value: " + value);
+	}
+
+	private void writePrimitive(Object value, DataOutputStream out) throws IOException {
+		switch (getPrimitiveTag(value)) {
+			case 'Z': out.writeBoolean((Boolean) value); break;
+			case 'B': out.writeByte((Byte) value); break;
+			case 'C': out.writeChar((Character) value); break;
+			case 'S': out.writeShort((Short) value); break;
+			case 'I': out.writeInt((Integer) value); break;
+			case 'J': out.writeLong((Long) value); break;
+			case 'F': out.writeFloat((Float) value); break;
+			default: out.writeDouble((Double) value);
+		}
+	}
+
+	private int getAccess(TypeElement type) {
+		int access = getAccess(type.getModifiers()) & ~ACC_STATIC;
+		switch (type.getKind()) {
+			case ANNOTATION_TYPE:
+				return access | ACC_ANNOTATION | ACC_INTERFACE | ACC_ABSTRACT;
+			case INTERFACE:
+				return access | ACC_INTERFACE | ACC_ABSTRACT;
+			case ENUM:
+				return access | ACC_ENUM;
+			default:
+				return access;
+		}
+	}
+
+	private int getAccess(Set<Modifier> modifiers) {
+		int access = 0;
+		access |= (modifiers.contains(Modifier.PUBLIC) ? ACC_PUBLIC : 0);
+		access |= (modifiers.contains(Modifier.PRIVATE) ? ACC_PRIVATE : 0);
+		access |= (modifiers.contains(Modifier.PROTECTED) ? ACC_PROTECTED : 0);
+		access |= (modifiers.contains(Modifier.STATIC) ? ACC_STATIC : 0);
+		access |= (modifiers.contains(Modifier.FINAL) ? ACC_FINAL : 0);
+		access |= (modifiers.contains(Modifier.ABSTRACT) ? ACC_ABSTRACT : 0);
+		return access;
+	}
+
+	private boolean isStatic(TypeElement type) {
+		// Member interfaces, enums and annotations are implicitly static
+		return (type.getModifiers().contains(Modifier.STATIC) || type.getKind() != ElementKind.CLASS);
+	}
+
+	private String getInternalName(Element element) {
+		return this.elements.getBinaryName((TypeElement) element).toString().replace('.', '/');
+	}
+
+	private String getInternalName(TypeMirror type) {
+		return getInternalName(((DeclaredType) this.types.erasure(type)).asElement());
+	}
+
+	private String getDescriptor(TypeMirror type) {
+		TypeMirror erasure = this.types.erasure(type);
+		switch (erasure.getKind()) {
+			case BOOLEAN: return "Z";
+			case BYTE: return "B";
+			case CHAR: return "C";
+			case SHORT: return "S";
+			case INT: return "I";
+			case LONG: return "J";
+			case FLOAT: return "F";
+			case DOUBLE: return "D";
+			case VOID: return "V";
+			case ARRAY: return "[" + getDescriptor(((ArrayType) erasure).getComponentType());
+			default: return "L" + getInternalName(erasure) + ";";
+		}
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.processor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Marshaller to write the class metadata of {@link CandidateComponentsMetadata}
+ * in binary form, as encoded by {@link ClassMetadataEncoder}.
+ *
+ * <p>The layout is a header (magic number and version) followed by the number of
+ * entries and, for each entry, the type name and the length-prefixed metadata.
+ * Must be kept in sync with {@code org.springframework.context.index.IndexedMetadataReader}.
+ *
+ * @author Daniel Ferreira
+ * @since 5.2
+ */
+abstract class ClassMetadataMarshaller {
+
+	static final int MAGIC = 0x53434D44;
+
+	static final int VERSION = 1;
+
+
+	public static void write(CandidateComponentsMetadata metadata, OutputStream out) throws IOException {
+		List<ItemMetadata> items = metadata.getItems().stream()
+				.filter(item -> item.getClassMetadata() != null).collect(Collectors.toList());
+		DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(out));
+		dataOut.writeInt(MAGIC);
+		dataOut.writeShort(VERSION);
+		dataOut.writeInt(items.size());
+		for (ItemMetadata item : items) {
+			dataOut.writeUTF(item.getType());
+			dataOut.writeInt(item.getClassMetadata().length);
+			dataOut.write(item.getClassMetadata());
+		}
+		dataOut.flush();
+	}
+
+	/**
+	 * Read the class metadata per type.
+	 * @return the class metadata, or an empty map if the content has
+	 * been written by a different version
+	 */
+	public static Map<String, byte[]> read(InputStream in) throws IOException {
+		Map<String, byte[]> result = new LinkedHashMap<>();
+		DataInputStream dataIn = new DataInputStream(new BufferedInputStream(in));
+		if (dataIn.readInt() != MAGIC || dataIn.readShort() != VERSION) {
+			return result;
+		}
+		int count = dataIn.readInt();
+		for (int i = 0; i < count; i++) {
+			String type = dataIn.readUTF();
+			byte[] classMetadata = new byte[dataIn.readInt()];
+			dataIn.readFully(classMetadata);
+			result.put(type, classMetadata);
+		}
+		return result;
+	}
+
+}
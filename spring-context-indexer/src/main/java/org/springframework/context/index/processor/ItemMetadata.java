@@ -34,10 +34,25 @@ class ItemMetadata {
 
 	private final Set<String> stereotypes;
 
+	private final byte[] classMetadata;
+
 
 	public ItemMetadata(String type, Set<String> stereotypes) {
+		this(type, stereotypes, null);
+	}
+
+	/**
+	 * Create a new entry.
+	 * @param type the candidate type
+	 * @param stereotypes the stereotypes of the candidate
+	 * @param classMetadata the encoded class metadata of the candidate or {@code null}
+	 * @since 5.2
+	 * @see ClassMetadataEncoder
+	 */
+	public ItemMetadata(String type, Set<String> stereotypes, byte[] classMetadata) {
 		this.type = type;
 		this.stereotypes = new HashSet<>(stereotypes);
+		this.classMetadata = classMetadata;
 	}
 
 
@@ -49,4 +64,12 @@ class ItemMetadata {
 		return this.stereotypes;
 	}
 
+	/**
+	 * Return the encoded class metadata of the candidate, if available.
+	 * @since 5.2
+	 */
+	public byte[] getClassMetadata() {
+		return this.classMetadata;
+	}
+
 }
@@ -19,6 +19,8 @@ package org.springframework.context.index.processor;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Map;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.tools.FileObject;
 import javax.tools.StandardLocation;
@@ -33,6 +35,8 @@ class MetadataStore {
 
 	static final String METADATA_PATH = "META-INF/spring.components";
 
+	static final String CLASS_METADATA_PATH = "META-INF/spring.components.metadata";
+
 	private final ProcessingEnvironment environment;
 
 
@@ -42,13 +46,23 @@ class MetadataStore {
 
 
 	public CandidateComponentsMetadata readMetadata() {
+		CandidateComponentsMetadata metadata;
 		try {
-			return readMetadata(getMetadataResource().openInputStream());
+			metadata = readMetadata(getMetadataResource().openInputStream());
 		}
 		catch (IOException ex) {
 			// Failed to read metadata -> ignore.
 			return null;
 		}
+		Map<String, byte[]> classMetadata = readClassMetadata();
+		if (classMetadata.isEmpty()) {
+			return metadata;
+		}
+		CandidateComponentsMetadata result = new CandidateComponentsMetadata();
+		for (ItemMetadata item : metadata.getItems()) {
+			result.add(new ItemMetadata(item.getType(), item.getStereotypes(), classMetadata.get(item.getType())));
+		}
+		return result;
 	}
 
 	public void writeMetadata(CandidateComponentsMetadata metadata) throws IOException {
@@ -56,6 +70,11 @@ class MetadataStore {
 			try (OutputStream outputStream = createMetadataResource().openOutputStream()) {
 				PropertiesMarshaller.write(metadata, outputStream);
 			}
+			if (metadata.getItems().stream().anyMatch(item -> item.getClassMetadata() != null)) {
+				try (OutputStream outputStream = createResource(CLASS_METADATA_PATH).openOutputStream()) {
+					ClassMetadataMarshaller.write(metadata, outputStream);
+				}
+			}
 		}
 	}
 
@@ -69,12 +88,30 @@ class MetadataStore {
 		}
 	}
 
+	private Map<String, byte[]> readClassMetadata() {
+		try (InputStream in = getResource(CLASS_METADATA_PATH).openInputStream()) {
+			return ClassMetadataMarshaller.read(in);
+		}
+		catch (IOException ex) {
+			// Failed to read class metadata -> ignore.
+			return Collections.emptyMap();
+		}
+	}
+
 	private FileObject getMetadataResource() throws IOException {
-		return this.environment.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", METADATA_PATH);
+		return getResource(METADATA_PATH);
 	}
 
 	private FileObject createMetadataResource() throws IOException {
-		return this.environment.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", METADATA_PATH);
+		return createResource(METADATA_PATH);
+	}
+
+	private FileObject getResource(String path) throws IOException {
+		return this.environment.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", path);
+	}
+
+	private FileObject createResource(String path) throws IOException {
+		return this.environment.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", path);
 	}
 
 }
@@ -19,6 +19,13 @@ package org.springframework.context.index.processor;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 import javax.annotation.ManagedBean;
 import javax.inject.Named;
 import javax.persistence.Converter;
@@ -32,9 +39,14 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.rules.TemporaryFolder;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.index.CandidateComponentsIndex;
+import org.springframework.context.index.CandidateComponentsIndexLoader;
 import org.springframework.context.index.sample.AbstractController;
 import org.springframework.context.index.sample.MetaControllerIndexed;
 import org.springframework.context.index.sample.SampleComponent;
+import org.springframework.context.index.sample.SampleConfiguration;
 import org.springframework.context.index.sample.SampleController;
 import org.springframework.context.index.sample.SampleMetaController;
 import org.springframework.context.index.sample.SampleMetaIndexedController;
@@ -56,8 +68,15 @@ import org.springframework.context.index.sample.type.SampleSpecializedRepo;
 import org.springframework.context.index.sample.type.SmartRepo;
 import org.springframework.context.index.sample.type.SpecializedRepo;
 import org.springframework.context.index.test.TestCompiler;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.ClassMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.SimpleMetadataReaderFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ObjectUtils;
 
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
@@ -222,6 +241,82 @@ public class CandidateComponentsIndexerTests {
 		assertThat(metadata.getItems(), hasSize(0));
 	}
 
+	@Test
+	public void classMetadataIsRecorded() throws IOException {
+		compile(SampleConfiguration.class);
+		File classMetadataFile = new File(this.compiler.getOutputLocation(), MetadataStore.CLASS_METADATA_PATH);
+		Map<String, byte[]> classMetadata = ClassMetadataMarshaller.read(new FileInputStream(classMetadataFile));
+		assertThat(classMetadata.keySet(), contains(SampleConfiguration.class.getName()));
+	}
+
+	@Test
+	public void indexedClassMetadataMatchesClassFile() throws IOException {
+		compile(SampleConfiguration.class);
+		assertIndexedMetadataMatchesClassFile(SampleConfiguration.class.getName());
+	}
+
+	@Test
+	public void indexedClassMetadataOfEmbeddedCandidateMatchesClassFile() throws IOException {
+		compile(SampleEmbedded.class);
+		assertIndexedMetadataMatchesClassFile(SampleEmbedded.PublicCandidate.class.getName());
+	}
+
+	private void assertIndexedMetadataMatchesClassFile(String type) throws IOException {
+		URLClassLoader classLoader = new URLClassLoader(
+				new URL[] {this.compiler.getOutputLocation().toURI().toURL()}, getClass().getClassLoader());
+		CandidateComponentsIndex index = CandidateComponentsIndexLoader.loadIndex(classLoader);
+		assertNotNull(index);
+		MetadataReader indexed = index.getMetadataReader(type, new DefaultResourceLoader(classLoader));
+		assertNotNull(indexed);
+		MetadataReader read = new SimpleMetadataReaderFactory(classLoader).getMetadataReader(type);
+		assertEquals(read.getResource(), indexed.getResource());
+
+		ClassMetadata expectedClass = read.getClassMetadata();
+		ClassMetadata actualClass = indexed.getClassMetadata();
+		assertEquals(expectedClass.getClassName(), actualClass.getClassName());
+		assertEquals(expectedClass.isInterface(), actualClass.isInterface());
+		assertEquals(expectedClass.isAnnotation(), actualClass.isAnnotation());
+		assertEquals(expectedClass.isAbstract(), actualClass.isAbstract());
+		assertEquals(expectedClass.isFinal(), actualClass.isFinal());
+		assertEquals(expectedClass.isIndependent(), actualClass.isIndependent());
+		assertEquals(expectedClass.getEnclosingClassName(), actualClass.getEnclosingClassName());
+		assertEquals(expectedClass.getSuperClassName(), actualClass.getSuperClassName());
+		assertArrayEquals(expectedClass.getInterfaceNames(), actualClass.getInterfaceNames());
+		assertArrayEquals(expectedClass.getMemberClassNames(), actualClass.getMemberClassNames());
+
+		AnnotationMetadata expected = read.getAnnotationMetadata();
+		AnnotationMetadata actual = indexed.getAnnotationMetadata();
+		assertEquals(expected.getAnnotationTypes(), actual.getAnnotationTypes());
+		for (String annotationType : expected.getAnnotationTypes()) {
+			assertEquals(expected.getMetaAnnotationTypes(annotationType), actual.getMetaAnnotationTypes(annotationType));
+			assertEquals(toComparable(expected.getAnnotationAttributes(annotationType, true)),
+					toComparable(actual.getAnnotationAttributes(annotationType, true)));
+			for (String metaAnnotationType : expected.getMetaAnnotationTypes(annotationType)) {
+				assertEquals(toComparable(expected.getAnnotationAttributes(metaAnnotationType, true)),
+						toComparable(actual.getAnnotationAttributes(metaAnnotationType, true)));
+			}
+		}
+		for (String annotationType : Arrays.asList(Bean.class.getName(), Autowired.class.getName())) {
+			assertEquals(toComparable(expected.getAnnotatedMethods(annotationType), annotationType),
+					toComparable(actual.getAnnotatedMethods(annotationType), annotationType));
+		}
+	}
+
+	private static Map<String, String> toComparable(Map<String, Object> attributes) {
+		Map<String, String> result = new TreeMap<>();
+		if (attributes != null) {
+			attributes.forEach((name, value) -> result.put(name, ObjectUtils.nullSafeToString(value)));
+		}
+		return result;
+	}
+
+	private static Set<String> toComparable(Set<MethodMetadata> methods, String annotationType) {
+		return methods.stream().map(method -> method.getMethodName() + ":" + method.getReturnTypeName() +
+				":" + method.isStatic() + ":" + method.isOverridable() + ":" +
+				toComparable(method.getAnnotationAttributes(annotationType, true)))
+				.collect(Collectors.toSet());
+	}
+
 	private void testComponent(Class<?>... classes) throws IOException {
 		CandidateComponentsMetadata metadata = compile(classes);
 		for (Class<?> c : classes) {
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.processor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ClassMetadataMarshaller}.
+ *
+ * @author Daniel Ferreira
+ */
+public class ClassMetadataMarshallerTests {
+
+	@Test
+	public void readWrite() throws IOException {
+		CandidateComponentsMetadata metadata = new CandidateComponentsMetadata();
+		metadata.add(new ItemMetadata("com.foo", Collections.singleton("first"), new byte[] {1, 2, 3}));
+		metadata.add(new ItemMetadata("com.bar", Collections.singleton("first")));
+
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		ClassMetadataMarshaller.write(metadata, outputStream);
+		Map<String, byte[]> classMetadata = ClassMetadataMarshaller.read(
+				new ByteArrayInputStream(outputStream.toByteArray()));
+		assertThat(classMetadata.keySet(), contains("com.foo"));
+		assertArrayEquals(new byte[] {1, 2, 3}, classMetadata.get("com.foo"));
+	}
+
+	@Test
+	public void readUnsupportedVersion() throws IOException {
+		byte[] content = {0x53, 0x43, 0x4D, 0x44, 0, 42, 0, 0, 0, 0};
+		assertThat(ClassMetadataMarshaller.read(new ByteArrayInputStream(content)).entrySet(), empty());
+	}
+
+}
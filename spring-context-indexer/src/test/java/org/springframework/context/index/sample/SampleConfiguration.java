@@ -0,0 +1,97 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.sample;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Scope;
+import org.springframework.context.annotation.ScopedProxyMode;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+
+/**
+ * Test candidate for a {@link Configuration} class with {@link Bean} methods
+ * and a variety of annotation attributes.
+ *
+ * @author Daniel Ferreira
+ */
+@Configuration
+@Lazy
+@Scope(scopeName = "prototype", proxyMode = ScopedProxyMode.TARGET_CLASS)
+@Import({SampleComponent.class, SampleService.class})
+@SampleConfiguration.SampleValues(numbers = {1, 2}, letter = 'x', units = TimeUnit.SECONDS,
+		nested = {@Order(1), @Order(2)}, empty = {}, types = int[].class)
+@SuppressWarnings("unused")
+public class SampleConfiguration {
+
+	@Autowired
+	public SampleConfiguration(Environment environment) {
+	}
+
+	@Bean(name = {"sampleBean", "sampleAlias"}, initMethod = "toString")
+	public SampleComponent sampleComponent() {
+		return new SampleComponent();
+	}
+
+	@Bean
+	@Primary
+	@DependsOn("sampleBean")
+	@Order(Integer.MAX_VALUE)
+	public static SampleService sampleService() {
+		return new SampleService();
+	}
+
+	@Bean
+	protected String[] sampleArray() {
+		return new String[0];
+	}
+
+	public void notAnnotated() {
+	}
+
+
+	@Target(ElementType.TYPE)
+	@Retention(RetentionPolicy.RUNTIME)
+	public @interface SampleValues {
+
+		int[] numbers() default {};
+
+		char letter();
+
+		long[] empty() default 1L;
+
+		TimeUnit[] units() default {};
+
+		Order[] nested() default {};
+
+		Class<?>[] types() default {};
+
+		double ratio() default 0.5;
+	}
+
+}
@@ -64,6 +64,8 @@ import java.util.*;
  * <p>This implementation is based on Spring's
  * {@link org.springframework.core.type.classreading.MetadataReader MetadataReader}
  * facility, backed by an ASM {@link org.springframework.asm.ClassReader ClassReader}.
+ * Candidates from the index use the class metadata recorded in the index instead,
+ * if available, without reading their class files.
  *
  * @author Mark Fisher
  * @author Juergen Hoeller
@@ -263,7 +265,7 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	@Override
 	public void setResourceLoader(@Nullable ResourceLoader resourceLoader) {
 		this.resourcePatternResolver = ResourcePatternUtils.getResourcePatternResolver(resourceLoader);
-		this.metadataReaderFactory = new CachingMetadataReaderFactory(resourceLoader);
+		this.metadataReaderFactory = ConfigurationClassUtils.createMetadataReaderFactory(resourceLoader);
 		this.componentsIndex = CandidateComponentsIndexLoader.loadIndex(this.resourcePatternResolver.getClassLoader());
 	}
 
@@ -284,7 +286,9 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	/**
 	 * Set the {@link MetadataReaderFactory} to use.
 	 * <p>Default is a {@link CachingMetadataReaderFactory} for the specified
-	 * {@linkplain #setResourceLoader resource loader}.
+	 * {@linkplain #setResourceLoader resource loader}, or a
+	 * {@link org.springframework.core.type.classreading.SharedMetadataReaderFactory}
+	 * if its shared cache is enabled.
 	 * <p>Call this setter method <i>after</i> {@link #setResourceLoader} in order
 	 * for the given MetadataReaderFactory to override the default factory.
 	 */
@@ -388,7 +392,10 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 			boolean traceEnabled = logger.isTraceEnabled();
 			boolean debugEnabled = logger.isDebugEnabled();
 			for (String type : types) {
-				MetadataReader metadataReader = getMetadataReaderFactory().getMetadataReader(type);
+				MetadataReader metadataReader = index.getMetadataReader(type, getResourcePatternResolver());
+				if (metadataReader == null) {
+					metadataReader = getMetadataReaderFactory().getMetadataReader(type);
+				}
 				if (isCandidateComponent(metadataReader)) {
 					AnnotatedGenericBeanDefinition sbd = new AnnotatedGenericBeanDefinition(
 							metadataReader.getAnnotationMetadata());
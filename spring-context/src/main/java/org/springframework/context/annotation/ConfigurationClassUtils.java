@@ -31,10 +31,13 @@ import org.springframework.core.Conventions;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.annotation.Order;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.StandardAnnotationMetadata;
+import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
 import org.springframework.core.type.classreading.MetadataReader;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.core.type.classreading.SharedMetadataReaderFactory;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 
@@ -228,4 +231,28 @@ abstract class ConfigurationClassUtils {
 		return (order != null ? order : Ordered.LOWEST_PRECEDENCE);
 	}
 
+	/**
+	 * Create the default {@link MetadataReaderFactory} for the given resource loader:
+	 * a {@link SharedMetadataReaderFactory} if the shared cache is enabled, or a
+	 * {@link CachingMetadataReaderFactory} otherwise.
+	 * @since 5.2
+	 * @see SharedMetadataReaderFactory#isSharedCacheEnabled()
+	 */
+	static MetadataReaderFactory createMetadataReaderFactory(@Nullable ResourceLoader resourceLoader) {
+		return (SharedMetadataReaderFactory.isSharedCacheEnabled() ?
+				new SharedMetadataReaderFactory(resourceLoader) : new CachingMetadataReaderFactory(resourceLoader));
+	}
+
+	/**
+	 * Create the default {@link MetadataReaderFactory} for the given class loader:
+	 * a {@link SharedMetadataReaderFactory} if the shared cache is enabled, or a
+	 * {@link CachingMetadataReaderFactory} otherwise.
+	 * @since 5.2
+	 * @see SharedMetadataReaderFactory#isSharedCacheEnabled()
+	 */
+	static MetadataReaderFactory createMetadataReaderFactory(@Nullable ClassLoader classLoader) {
+		return (SharedMetadataReaderFactory.isSharedCacheEnabled() ?
+				new SharedMetadataReaderFactory(classLoader) : new CachingMetadataReaderFactory(classLoader));
+	}
+
 }
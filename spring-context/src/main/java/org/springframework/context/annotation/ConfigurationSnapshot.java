@@ -0,0 +1,342 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.context.index.CandidateComponentsIndexLoader;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.StandardAnnotationMetadata;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Snapshot of a bean definition registry as produced by configuration class
+ * processing, allowing for registering the same bean definitions again without
+ * parsing configuration classes, evaluating conditions and scanning for components.
+ *
+ * <p>A snapshot carries a fingerprint of the inputs that its bean definitions have
+ * been derived from: the bytecode of all referenced bean classes, the candidate
+ * component index ({@code META-INF/spring.components}, as generated by
+ * {@code spring-context-indexer}) and the active profiles. A snapshot is only
+ * applicable if the fingerprint computed at runtime is still the same.
+ *
+ * @author Daniel Ferreira
+ * @since 5.2
+ * @see ConfigurationSnapshotApplicationContext
+ * @see ConfigurationSnapshotCodec
+ */
+final class ConfigurationSnapshot {
+
+	private static final int MAGIC = 0x53504353;
+
+	private static final int VERSION = 1;
+
+
+	private final String fingerprint;
+
+	private final List<String> classNames;
+
+	private final Map<String, String> importingClasses;
+
+	private final byte[] beanDefinitions;
+
+
+	private ConfigurationSnapshot(String fingerprint, List<String> classNames,
+			Map<String, String> importingClasses, byte[] beanDefinitions) {
+
+		this.fingerprint = fingerprint;
+		this.classNames = classNames;
+		this.importingClasses = importingClasses;
+		this.beanDefinitions = beanDefinitions;
+	}
+
+
+	/**
+	 * Take a snapshot of all bean definitions in the given bean factory,
+	 * after configuration class processing.
+	 * @param beanFactory the bean factory to take the snapshot of
+	 * @param environment the environment that the bean definitions have been derived with
+	 * @param classLoader the ClassLoader to compute the fingerprint with
+	 * @return the snapshot
+	 * @throws org.springframework.beans.factory.BeanDefinitionStoreException
+	 * if a bean definition cannot be captured in a snapshot
+	 */
+	static ConfigurationSnapshot capture(ConfigurableListableBeanFactory beanFactory, Environment environment,
+			@Nullable ClassLoader classLoader) throws IOException {
+
+		Set<String> classNames = new LinkedHashSet<>();
+		ByteArrayOutputStream bos = new ByteArrayOutputStream(4096);
+		DataOutputStream out = new DataOutputStream(bos);
+		String[] beanNames = beanFactory.getBeanDefinitionNames();
+		out.writeInt(beanNames.length);
+		List<String[]> aliases = new ArrayList<>();
+		for (String beanName : beanNames) {
+			out.writeUTF(beanName);
+			ConfigurationSnapshotCodec.writeBeanDefinition(
+					out, beanName, beanFactory.getBeanDefinition(beanName), classNames);
+			for (String alias : beanFactory.getAliases(beanName)) {
+				aliases.add(new String[] {alias, beanName});
+			}
+		}
+		out.writeInt(aliases.size());
+		for (String[] alias : aliases) {
+			out.writeUTF(alias[0]);
+			out.writeUTF(alias[1]);
+		}
+		out.flush();
+
+		Map<String, String> importingClasses = new LinkedHashMap<>();
+		if (beanFactory.containsSingleton(ConfigurationClassPostProcessor.IMPORT_REGISTRY_BEAN_NAME)) {
+			ImportRegistry importRegistry = beanFactory.getBean(
+					ConfigurationClassPostProcessor.IMPORT_REGISTRY_BEAN_NAME, ImportRegistry.class);
+			for (String className : classNames) {
+				AnnotationMetadata importingClass = importRegistry.getImportingClassFor(className);
+				if (importingClass != null) {
+					importingClasses.put(className, importingClass.getClassName());
+				}
+			}
+			classNames.addAll(importingClasses.values());
+		}
+
+		List<String> classNameList = new ArrayList<>(classNames);
+		return new ConfigurationSnapshot(computeFingerprint(classNameList, environment, classLoader),
+				classNameList, importingClasses, bos.toByteArray());
+	}
+
+	/**
+	 * Read a snapshot written by {@link #writeTo}.
+	 * @param inputStream the stream to read from (not closed)
+	 * @return the snapshot
+	 * @throws IOException in case of I/O errors or an incompatible snapshot format
+	 */
+	static ConfigurationSnapshot readFrom(InputStream inputStream) throws IOException {
+		DataInputStream in = new DataInputStream(inputStream);
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a configuration snapshot");
+		}
+		int version = in.readInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported configuration snapshot version " + version);
+		}
+		String fingerprint = in.readUTF();
+		int classCount = in.readInt();
+		List<String> classNames = new ArrayList<>(classCount);
+		for (int i = 0; i < classCount; i++) {
+			classNames.add(in.readUTF());
+		}
+		int importCount = in.readInt();
+		Map<String, String> importingClasses = new LinkedHashMap<>(importCount);
+		for (int i = 0; i < importCount; i++) {
+			importingClasses.put(in.readUTF(), in.readUTF());
+		}
+		byte[] beanDefinitions = new byte[in.readInt()];
+		in.readFully(beanDefinitions);
+		return new ConfigurationSnapshot(fingerprint, classNames, importingClasses, beanDefinitions);
+	}
+
+	/**
+	 * Write this snapshot to the given stream.
+	 * @param outputStream the stream to write to (not closed)
+	 */
+	void writeTo(OutputStream outputStream) throws IOException {
+		DataOutputStream out = new DataOutputStream(outputStream);
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeUTF(this.fingerprint);
+		out.writeInt(this.classNames.size());
+		for (String className : this.classNames) {
+			out.writeUTF(className);
+		}
+		out.writeInt(this.importingClasses.size());
+		for (Map.Entry<String, String> entry : this.importingClasses.entrySet()) {
+			out.writeUTF(entry.getKey());
+			out.writeUTF(entry.getValue());
+		}
+		out.writeInt(this.beanDefinitions.length);
+		out.write(this.beanDefinitions);
+		out.flush();
+	}
+
+	/**
+	 * Determine whether this snapshot still applies, i.e. whether the
+	 * fingerprint of its inputs is unchanged.
+	 * @param environment the current environment
+	 * @param classLoader the ClassLoader to load bean classes with
+	 */
+	boolean isApplicable(Environment environment, @Nullable ClassLoader classLoader) throws IOException {
+		return this.fingerprint.equals(computeFingerprint(this.classNames, environment, classLoader));
+	}
+
+	/**
+	 * Register the bean definitions of this snapshot with the given registry,
+	 * along with a registry of import metadata for
+	 * {@link ImportAware} configuration classes.
+	 * @param registry the registry to register the bean definitions with
+	 * @param classLoader the ClassLoader to resolve classes with
+	 * @return the number of bean definitions registered
+	 * @throws IOException if the bean definitions cannot be decoded
+	 */
+	int registerBeanDefinitions(BeanDefinitionRegistry registry, @Nullable ClassLoader classLoader)
+			throws IOException {
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(this.beanDefinitions));
+		int beanCount = in.readInt();
+		Map<String, BeanDefinition> beanDefinitions = new LinkedHashMap<>(beanCount);
+		for (int i = 0; i < beanCount; i++) {
+			String beanName = in.readUTF();
+			beanDefinitions.put(beanName, ConfigurationSnapshotCodec.readBeanDefinition(in, classLoader));
+		}
+		int aliasCount = in.readInt();
+		Map<String, String> aliases = new LinkedHashMap<>(aliasCount);
+		for (int i = 0; i < aliasCount; i++) {
+			aliases.put(in.readUTF(), in.readUTF());
+		}
+
+		// Fully decoded: now register everything
+		beanDefinitions.forEach(registry::registerBeanDefinition);
+		aliases.forEach((alias, beanName) -> registry.registerAlias(beanName, alias));
+		if (registry instanceof ConfigurableListableBeanFactory) {
+			ConfigurableListableBeanFactory beanFactory = (ConfigurableListableBeanFactory) registry;
+			if (!beanFactory.containsSingleton(ConfigurationClassPostProcessor.IMPORT_REGISTRY_BEAN_NAME)) {
+				beanFactory.registerSingleton(ConfigurationClassPostProcessor.IMPORT_REGISTRY_BEAN_NAME,
+						new SnapshotImportRegistry(this.importingClasses, classLoader));
+			}
+		}
+		return beanCount;
+	}
+
+
+	/**
+	 * Compute a fingerprint of the given classes, the candidate component
+	 * indexes on the classpath and the profiles of the given environment.
+	 */
+	static String computeFingerprint(List<String> classNames, Environment environment,
+			@Nullable ClassLoader classLoader) throws IOException {
+
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("MD5");
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("Could not find MessageDigest with algorithm \"MD5\"", ex);
+		}
+		ClassLoader classLoaderToUse = (classLoader != null ? classLoader : ClassUtils.getDefaultClassLoader());
+		if (classLoaderToUse == null) {
+			classLoaderToUse = ConfigurationSnapshot.class.getClassLoader();
+		}
+
+		updateDigest(digest, "profiles:" + StringUtils.arrayToCommaDelimitedString(environment.getActiveProfiles()) +
+				";" + StringUtils.arrayToCommaDelimitedString(environment.getDefaultProfiles()));
+
+		// Candidate component indexes, independent of their order on the classpath
+		List<String> indexDigests = new ArrayList<>();
+		Enumeration<URL> indexUrls =
+				classLoaderToUse.getResources(CandidateComponentsIndexLoader.COMPONENTS_RESOURCE_LOCATION);
+		while (indexUrls.hasMoreElements()) {
+			try (InputStream is = indexUrls.nextElement().openStream()) {
+				indexDigests.add(DigestUtils.md5DigestAsHex(is));
+			}
+		}
+		Collections.sort(indexDigests);
+		updateDigest(digest, "index:" + indexDigests);
+
+		for (String className : classNames) {
+			updateDigest(digest, "class:" + className);
+			String resourceName = ClassUtils.convertClassNameToResourcePath(className) + ClassUtils.CLASS_FILE_SUFFIX;
+			InputStream is = classLoaderToUse.getResourceAsStream(resourceName);
+			if (is != null) {
+				try {
+					digest.update(StreamUtils.copyToByteArray(is));
+				}
+				finally {
+					is.close();
+				}
+			}
+		}
+		return Base64.getEncoder().encodeToString(digest.digest());
+	}
+
+	private static void updateDigest(MessageDigest digest, String value) {
+		digest.update(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+
+	/**
+	 * {@link ImportRegistry} restored from a snapshot, introspecting
+	 * importing classes on demand.
+	 */
+	private static class SnapshotImportRegistry implements ImportRegistry {
+
+		private final Map<String, String> importingClasses;
+
+		@Nullable
+		private final ClassLoader classLoader;
+
+		SnapshotImportRegistry(Map<String, String> importingClasses, @Nullable ClassLoader classLoader) {
+			this.importingClasses = new LinkedHashMap<>(importingClasses);
+			this.classLoader = classLoader;
+		}
+
+		@Override
+		@Nullable
+		public synchronized AnnotationMetadata getImportingClassFor(String importedClass) {
+			String importingClass = this.importingClasses.get(importedClass);
+			if (importingClass == null) {
+				return null;
+			}
+			try {
+				return new StandardAnnotationMetadata(ClassUtils.forName(importingClass, this.classLoader), true);
+			}
+			catch (ClassNotFoundException ex) {
+				throw new IllegalStateException("Importing class [" + importingClass + "] not found", ex);
+			}
+		}
+
+		@Override
+		public synchronized void removeImportingClass(String importingClass) {
+			this.importingClasses.values().removeIf(importingClass::equals);
+		}
+	}
+
+}
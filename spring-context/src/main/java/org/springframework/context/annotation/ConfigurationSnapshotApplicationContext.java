@@ -0,0 +1,266 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Variant of {@link AnnotationConfigApplicationContext} that registers its bean
+ * definitions from a snapshot taken at build time, skipping the parsing of
+ * configuration classes, the evaluation of conditions and component scanning
+ * on startup.
+ *
+ * <p>The snapshot gets written by {@link #writeSnapshot(OutputStream)}, typically
+ * as part of the build through {@link #main}, and captures the bean definitions
+ * right after all {@link org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor
+ * BeanDefinitionRegistryPostProcessors} have been applied, i.e. before placeholders
+ * get resolved by regular bean factory post-processors. On {@link #refresh()}, the
+ * snapshot is only used if the fingerprint of its inputs is unchanged: the
+ * bytecode of all bean classes involved, the candidate component index generated
+ * by {@code spring-context-indexer} and the active profiles. Otherwise, the
+ * registered component classes get processed as usual.
+ *
+ * <p>Conditions are expected to evaluate to the same outcome at build time and at
+ * runtime, apart from the profiles covered by the fingerprint. Since newly added
+ * component classes are only detected through a changed candidate component
+ * index, component scanning should be combined with {@code spring-context-indexer}.
+ *
+ * @author Daniel Ferreira
+ * @since 5.2
+ * @see #DEFAULT_SNAPSHOT_LOCATION
+ * @see org.springframework.context.index.CandidateComponentsIndexLoader
+ */
+public class ConfigurationSnapshotApplicationContext extends GenericApplicationContext {
+
+	/**
+	 * The default location of the configuration snapshot in the classpath.
+	 */
+	public static final String DEFAULT_SNAPSHOT_LOCATION = "META-INF/spring.context-snapshot";
+
+
+	private final Set<Class<?>> componentClasses = new LinkedHashSet<>();
+
+	@Nullable
+	private Resource snapshotResource;
+
+	private boolean snapshotLoaded = false;
+
+	private boolean snapshotCapture = false;
+
+
+	/**
+	 * Create a new ConfigurationSnapshotApplicationContext that needs to be populated
+	 * through {@link #register} calls and then manually {@linkplain #refresh refreshed}.
+	 */
+	public ConfigurationSnapshotApplicationContext() {
+	}
+
+	/**
+	 * Create a new ConfigurationSnapshotApplicationContext, deriving bean definitions
+	 * from the snapshot at the default location or, if not applicable, from the given
+	 * component classes, and automatically refreshing the context.
+	 * @param componentClasses one or more component classes,
+	 * e.g. {@link Configuration @Configuration} classes
+	 */
+	public ConfigurationSnapshotApplicationContext(Class<?>... componentClasses) {
+		register(componentClasses);
+		refresh();
+	}
+
+
+	/**
+	 * Register one or more component classes to be processed, unless an
+	 * applicable snapshot gets registered instead.
+	 * <p>Note that {@link #refresh()} must be called in order for the context
+	 * to fully process the new classes.
+	 * @param componentClasses one or more component classes,
+	 * e.g. {@link Configuration @Configuration} classes
+	 */
+	public void register(Class<?>... componentClasses) {
+		Assert.notEmpty(componentClasses, "At least one component class must be specified");
+		Collections.addAll(this.componentClasses, componentClasses);
+	}
+
+	/**
+	 * Set the resource to read the snapshot from.
+	 * <p>Default is {@value #DEFAULT_SNAPSHOT_LOCATION} in the classpath.
+	 */
+	public void setSnapshotResource(@Nullable Resource snapshotResource) {
+		this.snapshotResource = snapshotResource;
+	}
+
+	/**
+	 * Return the resource to read the snapshot from.
+	 */
+	protected Resource getSnapshotResource() {
+		return (this.snapshotResource != null ? this.snapshotResource :
+				new ClassPathResource(DEFAULT_SNAPSHOT_LOCATION, getClassLoader()));
+	}
+
+	/**
+	 * Return whether the bean definitions of this context have been registered
+	 * from a snapshot, as opposed to processing the component classes.
+	 */
+	public boolean isSnapshotLoaded() {
+		return this.snapshotLoaded;
+	}
+
+
+	/**
+	 * Register the bean definitions from the snapshot, if applicable,
+	 * or the component classes otherwise.
+	 */
+	@Override
+	protected void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+		super.postProcessBeanFactory(beanFactory);
+		if (this.snapshotCapture || !loadSnapshot()) {
+			if (!this.componentClasses.isEmpty()) {
+				new AnnotatedBeanDefinitionReader(this, getEnvironment()).register(
+						ClassUtils.toClassArray(this.componentClasses));
+			}
+		}
+	}
+
+	private boolean loadSnapshot() {
+		Resource resource = getSnapshotResource();
+		if (!resource.exists()) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("No configuration snapshot found at " + resource);
+			}
+			return false;
+		}
+		try (InputStream is = resource.getInputStream()) {
+			ConfigurationSnapshot snapshot = ConfigurationSnapshot.readFrom(is);
+			if (!snapshot.isApplicable(getEnvironment(), getClassLoader())) {
+				if (logger.isInfoEnabled()) {
+					logger.info("Configuration snapshot " + resource +
+							" does not apply to the current classpath and profiles - processing component classes");
+				}
+				return false;
+			}
+			int count = snapshot.registerBeanDefinitions(getDefaultListableBeanFactory(), getClassLoader());
+			if (logger.isDebugEnabled()) {
+				logger.debug("Registered " + count + " bean definitions from configuration snapshot " + resource);
+			}
+			this.snapshotLoaded = true;
+			return true;
+		}
+		catch (IOException ex) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("Could not read configuration snapshot " + resource +
+						" - processing component classes", ex);
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Process the component classes of this context and write the resulting bean
+	 * definitions as a snapshot to the given stream.
+	 * <p>Only performs the bean factory post-processing phase of {@link #refresh()},
+	 * without instantiating any singletons, and closes this context afterwards.
+	 * @param outputStream the stream to write the snapshot to (not closed)
+	 * @throws IOException in case of I/O errors
+	 * @throws BeanDefinitionStoreException if a bean definition
+	 * cannot be captured in a snapshot, e.g. because of an instance supplier
+	 */
+	public void writeSnapshot(OutputStream outputStream) throws IOException {
+		SnapshotCapturingPostProcessor capturingPostProcessor = new SnapshotCapturingPostProcessor();
+		this.snapshotCapture = true;
+		addBeanFactoryPostProcessor(capturingPostProcessor);
+		try {
+			prepareRefresh();
+			ConfigurableListableBeanFactory beanFactory = obtainFreshBeanFactory();
+			prepareBeanFactory(beanFactory);
+			postProcessBeanFactory(beanFactory);
+			invokeBeanFactoryPostProcessors(beanFactory);
+		}
+		finally {
+			close();
+		}
+		ConfigurationSnapshot snapshot = capturingPostProcessor.snapshot;
+		Assert.state(snapshot != null, "No configuration snapshot captured");
+		snapshot.writeTo(outputStream);
+	}
+
+
+	/**
+	 * Build step entry point: writes a snapshot for the given component classes,
+	 * with the active profiles taken from the {@code spring.profiles.active}
+	 * system property.
+	 * <p>Usage: {@code ConfigurationSnapshotApplicationContext <snapshot file> <component class>...},
+	 * e.g. with {@code build/resources/main/META-INF/spring.context-snapshot}
+	 * as snapshot file for the default location.
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length < 2) {
+			throw new IllegalArgumentException("Usage: " + ConfigurationSnapshotApplicationContext.class.getName() +
+					" <snapshot file> <component class>...");
+		}
+		ConfigurationSnapshotApplicationContext context = new ConfigurationSnapshotApplicationContext();
+		for (int i = 1; i < args.length; i++) {
+			context.register(ClassUtils.forName(args[i], context.getClassLoader()));
+		}
+		Path snapshotFile = Paths.get(args[0]).toAbsolutePath();
+		Files.createDirectories(snapshotFile.getParent());
+		try (OutputStream out = Files.newOutputStream(snapshotFile)) {
+			context.writeSnapshot(out);
+		}
+	}
+
+
+	/**
+	 * Captures the bean definitions after the registry post-processors, including
+	 * their {@code postProcessBeanFactory} callbacks, but before any other
+	 * bean factory post-processor has been applied.
+	 */
+	private class SnapshotCapturingPostProcessor implements BeanFactoryPostProcessor {
+
+		@Nullable
+		private ConfigurationSnapshot snapshot;
+
+		@Override
+		public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+			try {
+				this.snapshot = ConfigurationSnapshot.capture(beanFactory, getEnvironment(), getClassLoader());
+			}
+			catch (IOException ex) {
+				throw new BeanDefinitionStoreException("Failed to capture configuration snapshot", ex);
+			}
+		}
+	}
+
+}
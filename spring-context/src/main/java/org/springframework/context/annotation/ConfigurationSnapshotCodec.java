@@ -0,0 +1,793 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.AutowireCandidateQualifier;
+import org.springframework.beans.factory.support.GenericBeanDefinition;
+import org.springframework.beans.factory.support.LookupOverride;
+import org.springframework.beans.factory.support.ManagedArray;
+import org.springframework.beans.factory.support.ManagedList;
+import org.springframework.beans.factory.support.ManagedMap;
+import org.springframework.beans.factory.support.ManagedProperties;
+import org.springframework.beans.factory.support.ManagedSet;
+import org.springframework.beans.factory.support.MethodOverride;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.annotation.ConfigurationClassEnhancer.EnhancedConfiguration;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Compact binary encoding of bean definitions for a {@link ConfigurationSnapshot}.
+ *
+ * <p>Covers the state that bean definition readers and configuration class
+ * processing produce: bean class, factory bean and factory method, scope and
+ * lifecycle settings, dependencies, qualifiers, lookup methods, constructor
+ * argument values and property values. Values may be strings, primitive wrappers,
+ * classes, enums, bean references, inner bean definitions and (managed) collections
+ * of those. Definitions with other state, e.g. an instance supplier, cannot be
+ * encoded; attributes with values other than simple types are not retained.
+ *
+ * <p>Bean definitions for {@code @Bean} methods are restored with the same factory
+ * method semantics as {@link ConfigurationClassBeanDefinitionReader} applies, and
+ * {@code @Configuration} classes are recorded with their original class names
+ * if they have been enhanced already.
+ *
+ * @author Daniel Ferreira
+ * @since 5.2
+ */
+final class ConfigurationSnapshotCodec {
+
+	private static final byte ROOT_DEFINITION = 0;
+
+	private static final byte CHILD_DEFINITION = 1;
+
+	private static final byte BEAN_METHOD_DEFINITION = 2;
+
+	private static final byte NULL = 0;
+
+	private static final byte STRING = 1;
+
+	private static final byte TYPED_STRING = 2;
+
+	private static final byte BEAN_REFERENCE = 3;
+
+	private static final byte BEAN_NAME_REFERENCE = 4;
+
+	private static final byte BEAN_DEFINITION_HOLDER = 5;
+
+	private static final byte BEAN_DEFINITION = 6;
+
+	private static final byte MANAGED_LIST = 7;
+
+	private static final byte MANAGED_SET = 8;
+
+	private static final byte MANAGED_MAP = 9;
+
+	private static final byte MANAGED_PROPERTIES = 10;
+
+	private static final byte MANAGED_ARRAY = 11;
+
+	private static final byte LIST = 12;
+
+	private static final byte SET = 13;
+
+	private static final byte MAP = 14;
+
+	private static final byte BOOLEAN = 15;
+
+	private static final byte INTEGER = 16;
+
+	private static final byte LONG = 17;
+
+	private static final byte DOUBLE = 18;
+
+	private static final byte FLOAT = 19;
+
+	private static final byte SHORT = 20;
+
+	private static final byte BYTE = 21;
+
+	private static final byte CHARACTER = 22;
+
+	private static final byte CLASS = 23;
+
+	private static final byte ENUM = 24;
+
+
+	private ConfigurationSnapshotCodec() {
+	}
+
+
+	/**
+	 * Encode the given bean definition.
+	 * @param out the output to write to
+	 * @param beanName the name of the bean (for error messages)
+	 * @param bd the bean definition to encode
+	 * @param classNames a set to collect the names of all referenced bean classes in
+	 * @throws BeanDefinitionStoreException if the bean definition cannot be encoded
+	 */
+	static void writeBeanDefinition(DataOutputStream out, String beanName, BeanDefinition bd,
+			Set<String> classNames) throws IOException {
+
+		if (!(bd instanceof AbstractBeanDefinition)) {
+			throw new BeanDefinitionStoreException(bd.getResourceDescription(), beanName,
+					"Cannot snapshot bean definition of type [" + bd.getClass().getName() + "]");
+		}
+		AbstractBeanDefinition abd = (AbstractBeanDefinition) bd;
+		if (abd.getInstanceSupplier() != null) {
+			throw new BeanDefinitionStoreException(abd.getResourceDescription(), beanName,
+					"Cannot snapshot bean definition with instance supplier");
+		}
+
+		if (abd.getParentName() != null) {
+			out.writeByte(CHILD_DEFINITION);
+		}
+		else if (abd instanceof AnnotatedBeanDefinition &&
+				((AnnotatedBeanDefinition) abd).getFactoryMethodMetadata() != null) {
+			out.writeByte(BEAN_METHOD_DEFINITION);
+		}
+		else {
+			out.writeByte(ROOT_DEFINITION);
+		}
+		String beanClassName = getOriginalBeanClassName(abd);
+		if (beanClassName != null) {
+			classNames.add(beanClassName);
+		}
+		writeNullableString(out, beanClassName);
+		writeNullableString(out, abd.getParentName());
+		writeNullableString(out, abd.getScope());
+		out.writeBoolean(abd.isAbstract());
+		out.writeBoolean(abd.isLazyInit());
+		out.writeInt(abd.getAutowireMode());
+		out.writeInt(abd.getDependencyCheck());
+		writeStringArray(out, abd.getDependsOn());
+		out.writeBoolean(abd.isAutowireCandidate());
+		out.writeBoolean(abd.isPrimary());
+		out.writeBoolean(abd.isNonPublicAccessAllowed());
+		out.writeBoolean(abd.isLenientConstructorResolution());
+		writeNullableString(out, abd.getFactoryBeanName());
+		writeNullableString(out, abd.getFactoryMethodName());
+		writeNullableString(out, abd.getInitMethodName());
+		writeNullableString(out, abd.getDestroyMethodName());
+		out.writeBoolean(abd.isEnforceInitMethod());
+		out.writeBoolean(abd.isEnforceDestroyMethod());
+		out.writeBoolean(abd.isSynthetic());
+		out.writeInt(abd.getRole());
+		writeNullableString(out, abd.getDescription());
+		writeNullableString(out, abd.getResourceDescription());
+
+		Set<AutowireCandidateQualifier> qualifiers = abd.getQualifiers();
+		out.writeInt(qualifiers.size());
+		for (AutowireCandidateQualifier qualifier : qualifiers) {
+			out.writeUTF(qualifier.getTypeName());
+			writeAttributes(out, beanName, abd, qualifier.attributeNames(), qualifier::getAttribute, true);
+		}
+
+		Set<MethodOverride> overrides = abd.getMethodOverrides().getOverrides();
+		out.writeInt(overrides.size());
+		for (MethodOverride override : overrides) {
+			if (!(override instanceof LookupOverride)) {
+				throw new BeanDefinitionStoreException(abd.getResourceDescription(), beanName,
+						"Cannot snapshot method override of type [" + override.getClass().getName() + "]");
+			}
+			out.writeUTF(override.getMethodName());
+			writeNullableString(out, ((LookupOverride) override).getBeanName());
+		}
+
+		ConstructorArgumentValues cargs = abd.getConstructorArgumentValues();
+		Map<Integer, ConstructorArgumentValues.ValueHolder> indexedArgs = cargs.getIndexedArgumentValues();
+		out.writeInt(indexedArgs.size());
+		for (Map.Entry<Integer, ConstructorArgumentValues.ValueHolder> entry : indexedArgs.entrySet()) {
+			out.writeInt(entry.getKey());
+			writeValueHolder(out, beanName, abd, entry.getValue(), classNames);
+		}
+		List<ConstructorArgumentValues.ValueHolder> genericArgs = cargs.getGenericArgumentValues();
+		out.writeInt(genericArgs.size());
+		for (ConstructorArgumentValues.ValueHolder valueHolder : genericArgs) {
+			writeValueHolder(out, beanName, abd, valueHolder, classNames);
+		}
+
+		PropertyValue[] pvs = abd.getPropertyValues().getPropertyValues();
+		out.writeInt(pvs.length);
+		for (PropertyValue pv : pvs) {
+			out.writeUTF(pv.getName());
+			writeValue(out, beanName, abd, pv.getValue(), classNames);
+		}
+
+		writeAttributes(out, beanName, abd, abd.attributeNames(), abd::getAttribute, false);
+
+		if (abd instanceof RootBeanDefinition) {
+			RootBeanDefinition rbd = (RootBeanDefinition) abd;
+			BeanDefinitionHolder decoratedDefinition = rbd.getDecoratedDefinition();
+			out.writeBoolean(decoratedDefinition != null);
+			if (decoratedDefinition != null) {
+				writeBeanDefinitionHolder(out, decoratedDefinition, classNames);
+			}
+			Class<?> targetType = rbd.getTargetType();
+			writeNullableString(out, (targetType != null ? targetType.getName() : null));
+		}
+		else {
+			out.writeBoolean(false);
+			writeNullableString(out, null);
+		}
+	}
+
+	/**
+	 * Decode a bean definition encoded by {@link #writeBeanDefinition}.
+	 * @param in the input to read from
+	 * @param classLoader the ClassLoader to resolve class values with
+	 * @return the decoded bean definition
+	 */
+	static AbstractBeanDefinition readBeanDefinition(DataInputStream in, @Nullable ClassLoader classLoader)
+			throws IOException {
+
+		byte kind = in.readByte();
+		AbstractBeanDefinition abd;
+		if (kind == CHILD_DEFINITION) {
+			abd = new GenericBeanDefinition();
+		}
+		else if (kind == BEAN_METHOD_DEFINITION) {
+			abd = new BeanMethodDefinition();
+		}
+		else if (kind == ROOT_DEFINITION) {
+			abd = new RootBeanDefinition();
+		}
+		else {
+			throw new IOException("Unknown bean definition kind: " + kind);
+		}
+		abd.setBeanClassName(readNullableString(in));
+		abd.setParentName(readNullableString(in));
+		abd.setScope(readNullableString(in));
+		abd.setAbstract(in.readBoolean());
+		abd.setLazyInit(in.readBoolean());
+		abd.setAutowireMode(in.readInt());
+		abd.setDependencyCheck(in.readInt());
+		abd.setDependsOn(readStringArray(in));
+		abd.setAutowireCandidate(in.readBoolean());
+		abd.setPrimary(in.readBoolean());
+		abd.setNonPublicAccessAllowed(in.readBoolean());
+		abd.setLenientConstructorResolution(in.readBoolean());
+		abd.setFactoryBeanName(readNullableString(in));
+		String factoryMethodName = readNullableString(in);
+		if (kind == BEAN_METHOD_DEFINITION && factoryMethodName != null && abd.getFactoryBeanName() != null) {
+			// Instance @Bean methods are unique per configuration class, static ones are not
+			((RootBeanDefinition) abd).setUniqueFactoryMethodName(factoryMethodName);
+		}
+		else {
+			abd.setFactoryMethodName(factoryMethodName);
+		}
+		abd.setInitMethodName(readNullableString(in));
+		abd.setDestroyMethodName(readNullableString(in));
+		abd.setEnforceInitMethod(in.readBoolean());
+		abd.setEnforceDestroyMethod(in.readBoolean());
+		abd.setSynthetic(in.readBoolean());
+		abd.setRole(in.readInt());
+		abd.setDescription(readNullableString(in));
+		abd.setResourceDescription(readNullableString(in));
+
+		int qualifierCount = in.readInt();
+		for (int i = 0; i < qualifierCount; i++) {
+			AutowireCandidateQualifier qualifier = new AutowireCandidateQualifier(in.readUTF());
+			readAttributes(in, qualifier::setAttribute, classLoader);
+			abd.addQualifier(qualifier);
+		}
+
+		int overrideCount = in.readInt();
+		for (int i = 0; i < overrideCount; i++) {
+			abd.getMethodOverrides().addOverride(new LookupOverride(in.readUTF(), readNullableString(in)));
+		}
+
+		ConstructorArgumentValues cargs = abd.getConstructorArgumentValues();
+		int indexedArgCount = in.readInt();
+		for (int i = 0; i < indexedArgCount; i++) {
+			int index = in.readInt();
+			cargs.addIndexedArgumentValue(index, readValueHolder(in, classLoader));
+		}
+		int genericArgCount = in.readInt();
+		for (int i = 0; i < genericArgCount; i++) {
+			cargs.addGenericArgumentValue(readValueHolder(in, classLoader));
+		}
+
+		int pvCount = in.readInt();
+		for (int i = 0; i < pvCount; i++) {
+			String name = in.readUTF();
+			abd.getPropertyValues().addPropertyValue(name, readValue(in, classLoader));
+		}
+
+		readAttributes(in, abd::setAttribute, classLoader);
+
+		boolean hasDecoratedDefinition = in.readBoolean();
+		BeanDefinitionHolder decoratedDefinition =
+				(hasDecoratedDefinition ? readBeanDefinitionHolder(in, classLoader) : null);
+		String targetTypeName = readNullableString(in);
+		if (abd instanceof RootBeanDefinition) {
+			RootBeanDefinition rbd = (RootBeanDefinition) abd;
+			rbd.setDecoratedDefinition(decoratedDefinition);
+			if (targetTypeName != null) {
+				try {
+					rbd.setTargetType(ClassUtils.forName(targetTypeName, classLoader));
+				}
+				catch (ClassNotFoundException ex) {
+					throw new IOException("Target type [" + targetTypeName + "] not found", ex);
+				}
+			}
+		}
+		return abd;
+	}
+
+	@Nullable
+	private static String getOriginalBeanClassName(AbstractBeanDefinition abd) {
+		if (abd.hasBeanClass() && EnhancedConfiguration.class.isAssignableFrom(abd.getBeanClass())) {
+			// Enhanced @Configuration class: to be enhanced again when loading the snapshot
+			return abd.getBeanClass().getSuperclass().getName();
+		}
+		return abd.getBeanClassName();
+	}
+
+	private static void writeBeanDefinitionHolder(DataOutputStream out, BeanDefinitionHolder holder,
+			Set<String> classNames) throws IOException {
+
+		out.writeUTF(holder.getBeanName());
+		writeStringArray(out, holder.getAliases());
+		writeBeanDefinition(out, holder.getBeanName(), holder.getBeanDefinition(), classNames);
+	}
+
+	private static BeanDefinitionHolder readBeanDefinitionHolder(DataInputStream in,
+			@Nullable ClassLoader classLoader) throws IOException {
+
+		String beanName = in.readUTF();
+		String[] aliases = readStringArray(in);
+		return new BeanDefinitionHolder(readBeanDefinition(in, classLoader), beanName, aliases);
+	}
+
+	private static void writeValueHolder(DataOutputStream out, String beanName, BeanDefinition bd,
+			ConstructorArgumentValues.ValueHolder valueHolder, Set<String> classNames) throws IOException {
+
+		writeValue(out, beanName, bd, valueHolder.getValue(), classNames);
+		writeNullableString(out, valueHolder.getType());
+		writeNullableString(out, valueHolder.getName());
+	}
+
+	private static ConstructorArgumentValues.ValueHolder readValueHolder(DataInputStream in,
+			@Nullable ClassLoader classLoader) throws IOException {
+
+		Object value = readValue(in, classLoader);
+		String type = readNullableString(in);
+		String name = readNullableString(in);
+		return new ConstructorArgumentValues.ValueHolder(value, type, name);
+	}
+
+	private static void writeValue(DataOutputStream out, String beanName, BeanDefinition bd,
+			@Nullable Object value, Set<String> classNames) throws IOException {
+
+		if (value == null) {
+			out.writeByte(NULL);
+		}
+		else if (value instanceof TypedStringValue) {
+			TypedStringValue typedValue = (TypedStringValue) value;
+			out.writeByte(TYPED_STRING);
+			writeNullableString(out, typedValue.getValue());
+			writeNullableString(out, typedValue.getTargetTypeName());
+			out.writeBoolean(typedValue.isDynamic());
+		}
+		else if (value instanceof RuntimeBeanReference) {
+			RuntimeBeanReference reference = (RuntimeBeanReference) value;
+			out.writeByte(BEAN_REFERENCE);
+			out.writeUTF(reference.getBeanName());
+			out.writeBoolean(reference.isToParent());
+		}
+		else if (value instanceof RuntimeBeanNameReference) {
+			out.writeByte(BEAN_NAME_REFERENCE);
+			out.writeUTF(((RuntimeBeanNameReference) value).getBeanName());
+		}
+		else if (value instanceof BeanDefinitionHolder) {
+			out.writeByte(BEAN_DEFINITION_HOLDER);
+			writeBeanDefinitionHolder(out, (BeanDefinitionHolder) value, classNames);
+		}
+		else if (value instanceof BeanDefinition) {
+			out.writeByte(BEAN_DEFINITION);
+			writeBeanDefinition(out, beanName, (BeanDefinition) value, classNames);
+		}
+		else if (value instanceof ManagedArray) {
+			ManagedArray array = (ManagedArray) value;
+			out.writeByte(MANAGED_ARRAY);
+			out.writeUTF(array.getElementTypeName());
+			out.writeBoolean(array.isMergeEnabled());
+			writeElements(out, beanName, bd, array, classNames);
+		}
+		else if (value instanceof ManagedList) {
+			ManagedList<?> list = (ManagedList<?>) value;
+			out.writeByte(MANAGED_LIST);
+			writeNullableString(out, list.getElementTypeName());
+			out.writeBoolean(list.isMergeEnabled());
+			writeElements(out, beanName, bd, list, classNames);
+		}
+		else if (value instanceof ManagedSet) {
+			ManagedSet<?> set = (ManagedSet<?>) value;
+			out.writeByte(MANAGED_SET);
+			writeNullableString(out, set.getElementTypeName());
+			out.writeBoolean(set.isMergeEnabled());
+			writeElements(out, beanName, bd, set, classNames);
+		}
+		else if (value instanceof ManagedMap) {
+			ManagedMap<?, ?> map = (ManagedMap<?, ?>) value;
+			out.writeByte(MANAGED_MAP);
+			writeNullableString(out, map.getKeyTypeName());
+			writeNullableString(out, map.getValueTypeName());
+			out.writeBoolean(map.isMergeEnabled());
+			writeEntries(out, beanName, bd, map, classNames);
+		}
+		else if (value instanceof ManagedProperties) {
+			ManagedProperties props = (ManagedProperties) value;
+			out.writeByte(MANAGED_PROPERTIES);
+			out.writeBoolean(props.isMergeEnabled());
+			writeEntries(out, beanName, bd, props, classNames);
+		}
+		else if (value instanceof List) {
+			out.writeByte(LIST);
+			writeElements(out, beanName, bd, (List<?>) value, classNames);
+		}
+		else if (value instanceof Set) {
+			out.writeByte(SET);
+			writeElements(out, beanName, bd, (Set<?>) value, classNames);
+		}
+		else if (value instanceof Map && !(value instanceof Properties)) {
+			out.writeByte(MAP);
+			writeEntries(out, beanName, bd, (Map<?, ?>) value, classNames);
+		}
+		else if (!writeSimpleValue(out, value)) {
+			throw new BeanDefinitionStoreException(bd.getResourceDescription(), beanName,
+					"Cannot snapshot value of type [" + value.getClass().getName() + "]");
+		}
+	}
+
+	private static boolean isSimpleValue(@Nullable Object value) {
+		return (value instanceof String || value instanceof Boolean || value instanceof Integer ||
+				value instanceof Long || value instanceof Double || value instanceof Float ||
+				value instanceof Short || value instanceof Byte || value instanceof Character ||
+				value instanceof Class || value instanceof Enum);
+	}
+
+	private static boolean writeSimpleValue(DataOutputStream out, Object value) throws IOException {
+		if (value instanceof String) {
+			out.writeByte(STRING);
+			out.writeUTF((String) value);
+		}
+		else if (value instanceof Boolean) {
+			out.writeByte(BOOLEAN);
+			out.writeBoolean((Boolean) value);
+		}
+		else if (value instanceof Integer) {
+			out.writeByte(INTEGER);
+			out.writeInt((Integer) value);
+		}
+		else if (value instanceof Long) {
+			out.writeByte(LONG);
+			out.writeLong((Long) value);
+		}
+		else if (value instanceof Double) {
+			out.writeByte(DOUBLE);
+			out.writeDouble((Double) value);
+		}
+		else if (value instanceof Float) {
+			out.writeByte(FLOAT);
+			out.writeFloat((Float) value);
+		}
+		else if (value instanceof Short) {
+			out.writeByte(SHORT);
+			out.writeShort((Short) value);
+		}
+		else if (value instanceof Byte) {
+			out.writeByte(BYTE);
+			out.writeByte((Byte) value);
+		}
+		else if (value instanceof Character) {
+			out.writeByte(CHARACTER);
+			out.writeChar((Character) value);
+		}
+		else if (value instanceof Class) {
+			out.writeByte(CLASS);
+			out.writeUTF(((Class<?>) value).getName());
+		}
+		else if (value instanceof Enum) {
+			out.writeByte(ENUM);
+			out.writeUTF(((Enum<?>) value).getDeclaringClass().getName());
+			out.writeUTF(((Enum<?>) value).name());
+		}
+		else {
+			return false;
+		}
+		return true;
+	}
+
+	@Nullable
+	private static Object readValue(DataInputStream in, @Nullable ClassLoader classLoader) throws IOException {
+		byte tag = in.readByte();
+		switch (tag) {
+			case NULL:
+				return null;
+			case TYPED_STRING:
+				String value = readNullableString(in);
+				String targetTypeName = readNullableString(in);
+				TypedStringValue typedValue = (targetTypeName != null ?
+						new TypedStringValue(value, targetTypeName) : new TypedStringValue(value));
+				if (in.readBoolean()) {
+					typedValue.setDynamic();
+				}
+				return typedValue;
+			case BEAN_REFERENCE:
+				String beanName = in.readUTF();
+				return new RuntimeBeanReference(beanName, in.readBoolean());
+			case BEAN_NAME_REFERENCE:
+				return new RuntimeBeanNameReference(in.readUTF());
+			case BEAN_DEFINITION_HOLDER:
+				return readBeanDefinitionHolder(in, classLoader);
+			case BEAN_DEFINITION:
+				return readBeanDefinition(in, classLoader);
+			case MANAGED_ARRAY:
+				String arrayElementTypeName = in.readUTF();
+				boolean arrayMergeEnabled = in.readBoolean();
+				List<Object> elements = readElements(in, new ArrayList<>(), classLoader);
+				ManagedArray array = new ManagedArray(arrayElementTypeName, elements.size());
+				array.setMergeEnabled(arrayMergeEnabled);
+				array.addAll(elements);
+				return array;
+			case MANAGED_LIST:
+				ManagedList<Object> list = new ManagedList<>();
+				list.setElementTypeName(readNullableString(in));
+				list.setMergeEnabled(in.readBoolean());
+				return readElements(in, list, classLoader);
+			case MANAGED_SET:
+				ManagedSet<Object> set = new ManagedSet<>();
+				set.setElementTypeName(readNullableString(in));
+				set.setMergeEnabled(in.readBoolean());
+				return readElements(in, set, classLoader);
+			case MANAGED_MAP:
+				ManagedMap<Object, Object> map = new ManagedMap<>();
+				map.setKeyTypeName(readNullableString(in));
+				map.setValueTypeName(readNullableString(in));
+				map.setMergeEnabled(in.readBoolean());
+				return readEntries(in, map, classLoader);
+			case MANAGED_PROPERTIES:
+				ManagedProperties props = new ManagedProperties();
+				props.setMergeEnabled(in.readBoolean());
+				return readEntries(in, props, classLoader);
+			case LIST:
+				return readElements(in, new ArrayList<>(), classLoader);
+			case SET:
+				return readElements(in, new LinkedHashSet<>(), classLoader);
+			case MAP:
+				return readEntries(in, new LinkedHashMap<>(), classLoader);
+			default:
+				return readSimpleValue(in, tag, classLoader);
+		}
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static Object readSimpleValue(DataInputStream in, byte tag, @Nullable ClassLoader classLoader)
+			throws IOException {
+
+		switch (tag) {
+			case STRING:
+				return in.readUTF();
+			case BOOLEAN:
+				return in.readBoolean();
+			case INTEGER:
+				return in.readInt();
+			case LONG:
+				return in.readLong();
+			case DOUBLE:
+				return in.readDouble();
+			case FLOAT:
+				return in.readFloat();
+			case SHORT:
+				return in.readShort();
+			case BYTE:
+				return in.readByte();
+			case CHARACTER:
+				return in.readChar();
+			case CLASS:
+				return resolveClass(in.readUTF(), classLoader);
+			case ENUM:
+				Class<?> enumType = resolveClass(in.readUTF(), classLoader);
+				return Enum.valueOf((Class<Enum>) enumType, in.readUTF());
+			default:
+				throw new IOException("Unknown value tag: " + tag);
+		}
+	}
+
+	private static Class<?> resolveClass(String className, @Nullable ClassLoader classLoader) throws IOException {
+		try {
+			return ClassUtils.forName(className, classLoader);
+		}
+		catch (ClassNotFoundException ex) {
+			throw new IOException("Class [" + className + "] not found", ex);
+		}
+	}
+
+	private static void writeElements(DataOutputStream out, String beanName, BeanDefinition bd,
+			Collection<?> elements, Set<String> classNames) throws IOException {
+
+		out.writeInt(elements.size());
+		for (Object element : elements) {
+			writeValue(out, beanName, bd, element, classNames);
+		}
+	}
+
+	private static <C extends Collection<Object>> C readElements(DataInputStream in, C elements,
+			@Nullable ClassLoader classLoader) throws IOException {
+
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			elements.add(readValue(in, classLoader));
+		}
+		return elements;
+	}
+
+	private static void writeEntries(DataOutputStream out, String beanName, BeanDefinition bd,
+			Map<?, ?> entries, Set<String> classNames) throws IOException {
+
+		out.writeInt(entries.size());
+		for (Map.Entry<?, ?> entry : entries.entrySet()) {
+			writeValue(out, beanName, bd, entry.getKey(), classNames);
+			writeValue(out, beanName, bd, entry.getValue(), classNames);
+		}
+	}
+
+	private static <M extends Map<Object, Object>> M readEntries(DataInputStream in, M entries,
+			@Nullable ClassLoader classLoader) throws IOException {
+
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			Object key = readValue(in, classLoader);
+			entries.put(key, readValue(in, classLoader));
+		}
+		return entries;
+	}
+
+	private static void writeAttributes(DataOutputStream out, String beanName, BeanDefinition bd,
+			String[] attributeNames, AttributeSource attributes, boolean required) throws IOException {
+
+		Map<String, Object> simpleAttributes = new LinkedHashMap<>(attributeNames.length);
+		for (String name : attributeNames) {
+			Object value = attributes.getAttribute(name);
+			if (isSimpleValue(value)) {
+				simpleAttributes.put(name, value);
+			}
+			else if (required && value != null) {
+				throw new BeanDefinitionStoreException(bd.getResourceDescription(), beanName,
+						"Cannot snapshot attribute '" + name + "' of type [" + value.getClass().getName() + "]");
+			}
+		}
+		out.writeInt(simpleAttributes.size());
+		for (Map.Entry<String, Object> entry : simpleAttributes.entrySet()) {
+			out.writeUTF(entry.getKey());
+			writeSimpleValue(out, entry.getValue());
+		}
+	}
+
+	private static void readAttributes(DataInputStream in, AttributeTarget attributes,
+			@Nullable ClassLoader classLoader) throws IOException {
+
+		int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			String name = in.readUTF();
+			byte tag = in.readByte();
+			attributes.setAttribute(name, readSimpleValue(in, tag, classLoader));
+		}
+	}
+
+	private static void writeNullableString(DataOutputStream out, @Nullable String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	@Nullable
+	static String readNullableString(DataInputStream in) throws IOException {
+		return (in.readBoolean() ? in.readUTF() : null);
+	}
+
+	private static void writeStringArray(DataOutputStream out, @Nullable String[] values) throws IOException {
+		out.writeInt(values != null ? values.length : -1);
+		if (values != null) {
+			for (String value : values) {
+				out.writeUTF(value);
+			}
+		}
+	}
+
+	@Nullable
+	private static String[] readStringArray(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		String[] values = new String[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = in.readUTF();
+		}
+		return values;
+	}
+
+
+	@FunctionalInterface
+	private interface AttributeSource {
+
+		@Nullable
+		Object getAttribute(String name);
+	}
+
+
+	@FunctionalInterface
+	private interface AttributeTarget {
+
+		void setAttribute(String name, @Nullable Object value);
+	}
+
+
+	/**
+	 * Bean definition restored for a {@code @Bean} method, only matching
+	 * {@code @Bean}-annotated factory methods, like the original
+	 * bean definition from {@link ConfigurationClassBeanDefinitionReader}.
+	 */
+	@SuppressWarnings("serial")
+	private static class BeanMethodDefinition extends RootBeanDefinition {
+
+		BeanMethodDefinition() {
+		}
+
+		private BeanMethodDefinition(BeanMethodDefinition original) {
+			super(original);
+		}
+
+		@Override
+		public boolean isFactoryMethod(Method candidate) {
+			return (super.isFactoryMethod(candidate) && BeanAnnotationHelper.isBeanAnnotated(candidate));
+		}
+
+		@Override
+		public BeanMethodDefinition cloneBeanDefinition() {
+			return new BeanMethodDefinition(this);
+		}
+	}
+
+}
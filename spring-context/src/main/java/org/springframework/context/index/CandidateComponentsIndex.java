@@ -16,12 +16,17 @@
 
 package org.springframework.context.index;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.lang.Nullable;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.LinkedMultiValueMap;
@@ -52,9 +57,16 @@ public class CandidateComponentsIndex {
 
 	private final MultiValueMap<String, Entry> index;
 
+	private final Map<String, byte[]> classMetadata;
+
 
 	CandidateComponentsIndex(List<Properties> content) {
+		this(content, Collections.emptyMap());
+	}
+
+	CandidateComponentsIndex(List<Properties> content, Map<String, byte[]> classMetadata) {
 		this.index = parseIndex(content);
+		this.classMetadata = classMetadata;
 	}
 
 
@@ -76,6 +88,23 @@ public class CandidateComponentsIndex {
 		return Collections.emptySet();
 	}
 
+	/**
+	 * Return a {@link MetadataReader} for the specified candidate type, based on
+	 * the class metadata recorded in the index rather than on its class file.
+	 * @param type the candidate type, as returned by {@link #getCandidateTypes}
+	 * @param resourceLoader the resource loader to expose the class file resource
+	 * and the class loader from
+	 * @return the metadata reader, or {@code null} if the index does not
+	 * hold class metadata for the specified type
+	 * @throws IOException if the recorded class metadata is corrupt
+	 * @since 5.2
+	 */
+	@Nullable
+	public MetadataReader getMetadataReader(String type, ResourceLoader resourceLoader) throws IOException {
+		byte[] content = this.classMetadata.get(type);
+		return (content != null ? new IndexedMetadataReader(content, resourceLoader) : null);
+	}
+
 	private static MultiValueMap<String, Entry> parseIndex(List<Properties> content) {
 		MultiValueMap<String, Entry> index = new LinkedMultiValueMap<>();
 		for (Properties entry : content) {
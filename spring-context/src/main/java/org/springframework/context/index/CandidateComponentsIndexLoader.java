@@ -16,11 +16,15 @@
 
 package org.springframework.context.index;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentMap;
 
@@ -47,6 +51,15 @@ public final class CandidateComponentsIndexLoader {
 	 */
 	public static final String COMPONENTS_RESOURCE_LOCATION = "META-INF/spring.components";
 
+	/**
+	 * The location to look for the class metadata of the components,
+	 * recorded next to {@value #COMPONENTS_RESOURCE_LOCATION}.
+	 * <p>Optional, and can be present in multiple JAR files.
+	 * @since 5.2
+	 * @see CandidateComponentsIndex#getMetadataReader
+	 */
+	public static final String COMPONENTS_METADATA_RESOURCE_LOCATION = "META-INF/spring.components.metadata";
+
 	/**
 	 * System property that instructs Spring to ignore the index, i.e.
 	 * to always return {@code null} from {@link #loadIndex(ClassLoader)}.
@@ -110,7 +123,7 @@ public final class CandidateComponentsIndexLoader {
 				logger.debug("Loaded " + result.size() + "] index(es)");
 			}
 			int totalCount = result.stream().mapToInt(Properties::size).sum();
-			return (totalCount > 0 ? new CandidateComponentsIndex(result) : null);
+			return (totalCount > 0 ? new CandidateComponentsIndex(result, loadClassMetadata(classLoader)) : null);
 		}
 		catch (IOException ex) {
 			throw new IllegalStateException("Unable to load indexes from location [" +
@@ -118,4 +131,24 @@ public final class CandidateComponentsIndexLoader {
 		}
 	}
 
+	private static Map<String, byte[]> loadClassMetadata(ClassLoader classLoader) throws IOException {
+		Map<String, byte[]> result = new HashMap<>();
+		Enumeration<URL> urls = classLoader.getResources(COMPONENTS_METADATA_RESOURCE_LOCATION);
+		while (urls.hasMoreElements()) {
+			URL url = urls.nextElement();
+			try (InputStream is = new BufferedInputStream(url.openStream())) {
+				if (!IndexedMetadataReader.readIndex(is, result) && logger.isDebugEnabled()) {
+					logger.debug("Ignoring class metadata index of unsupported version: " + url);
+				}
+			}
+			catch (IOException ex) {
+				// Optional: class files get read for the affected components
+				if (logger.isWarnEnabled()) {
+					logger.warn("Failed to load class metadata index from " + url, ex);
+				}
+			}
+		}
+		return result;
+	}
+
 }
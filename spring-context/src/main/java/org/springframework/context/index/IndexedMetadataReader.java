@@ -0,0 +1,256 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+import org.springframework.asm.AnnotationVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Type;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.ClassMetadata;
+import org.springframework.core.type.classreading.AnnotationMetadataReadingVisitor;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.util.ClassUtils;
+
+/**
+ * {@link MetadataReader} for a candidate component whose class metadata has been
+ * recorded in the index by {@code spring-context-indexer}, avoiding to read the
+ * class file.
+ *
+ * <p>The recorded metadata consists of the class header, the class annotations
+ * and the annotated methods in their class file form. It gets replayed to the
+ * same {@link AnnotationMetadataReadingVisitor} that ASM-based class reading
+ * uses, exposing identical {@link AnnotationMetadata}.
+ *
+ * @author Daniel Ferreira
+ * @since 5.2
+ * @see CandidateComponentsIndex#getMetadataReader
+ */
+final class IndexedMetadataReader implements MetadataReader {
+
+	// Must be kept in sync with the ClassMetadataMarshaller of spring-context-indexer
+	private static final int MAGIC = 0x53434D44;
+
+	private static final int VERSION = 1;
+
+
+	private final Resource resource;
+
+	private final AnnotationMetadataReadingVisitor metadata;
+
+
+	IndexedMetadataReader(byte[] content, ResourceLoader resourceLoader) throws IOException {
+		AnnotationMetadataReadingVisitor visitor = new AnnotationMetadataReadingVisitor(resourceLoader.getClassLoader());
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(content));
+		int access = in.readInt();
+		String name = in.readUTF();
+		String superName = (in.readBoolean() ? in.readUTF() : null);
+		String[] interfaces = readNames(in);
+		visitor.visit(0, access, name, null, superName, interfaces);
+		if (in.readBoolean()) {
+			String outerName = in.readUTF();
+			visitor.visitInnerClass(name, outerName, name.substring(outerName.length() + 1), in.readInt());
+		}
+		for (String memberName : readNames(in)) {
+			visitor.visitInnerClass(memberName, name, memberName.substring(name.length() + 1), 0);
+		}
+		int annotationCount = in.readUnsignedShort();
+		for (int i = 0; i < annotationCount; i++) {
+			readAnnotation(in, visitor.visitAnnotation(in.readUTF(), true));
+		}
+		int methodCount = in.readUnsignedShort();
+		for (int i = 0; i < methodCount; i++) {
+			String methodName = in.readUTF();
+			int methodAccess = in.readInt();
+			String returnType = in.readUTF();
+			MethodVisitor methodVisitor = visitor.visitMethod(methodAccess, methodName, "()" + returnType, null, null);
+			int methodAnnotationCount = in.readUnsignedShort();
+			for (int j = 0; j < methodAnnotationCount; j++) {
+				readAnnotation(in, methodVisitor.visitAnnotation(in.readUTF(), true));
+			}
+			methodVisitor.visitEnd();
+		}
+		visitor.visitEnd();
+
+		this.metadata = visitor;
+		this.resource = resourceLoader.getResource(ResourceLoader.CLASSPATH_URL_PREFIX +
+				ClassUtils.convertClassNameToResourcePath(visitor.getClassName()) + ClassUtils.CLASS_FILE_SUFFIX);
+	}
+
+
+	@Override
+	public Resource getResource() {
+		return this.resource;
+	}
+
+	@Override
+	public ClassMetadata getClassMetadata() {
+		return this.metadata;
+	}
+
+	@Override
+	public AnnotationMetadata getAnnotationMetadata() {
+		return this.metadata;
+	}
+
+
+	/**
+	 * Read the recorded class metadata per type from the given index content.
+	 * @param is the content of a class metadata index
+	 * @param target the map to add the class metadata to, keyed by type
+	 * @return {@code false} if the content has been written by an unsupported version
+	 */
+	static boolean readIndex(InputStream is, Map<String, byte[]> target) throws IOException {
+		DataInputStream in = new DataInputStream(is);
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a class metadata index");
+		}
+		if (in.readShort() != VERSION) {
+			return false;
+		}
+		int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			String type = in.readUTF();
+			byte[] content = new byte[in.readInt()];
+			in.readFully(content);
+			target.putIfAbsent(type, content);
+		}
+		return true;
+	}
+
+	private static String[] readNames(DataInputStream in) throws IOException {
+		String[] names = new String[in.readUnsignedShort()];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = in.readUTF();
+		}
+		return names;
+	}
+
+	private static void readAnnotation(DataInputStream in, AnnotationVisitor visitor) throws IOException {
+		int count = in.readUnsignedShort();
+		for (int i = 0; i < count; i++) {
+			readValue(in, visitor, in.readUTF());
+		}
+		visitor.visitEnd();
+	}
+
+	private static void readValue(DataInputStream in, AnnotationVisitor visitor, String name) throws IOException {
+		char tag = (char) in.readUnsignedByte();
+		switch (tag) {
+			case 's':
+				visitor.visit(name, in.readUTF());
+				break;
+			case 'c':
+				visitor.visit(name, Type.getType(in.readUTF()));
+				break;
+			case 'e':
+				visitor.visitEnum(name, in.readUTF(), in.readUTF());
+				break;
+			case '@':
+				readAnnotation(in, visitor.visitAnnotation(name, in.readUTF()));
+				break;
+			case '[':
+				AnnotationVisitor arrayVisitor = visitor.visitArray(name);
+				int length = in.readUnsignedShort();
+				for (int i = 0; i < length; i++) {
+					readValue(in, arrayVisitor, null);
+				}
+				arrayVisitor.visitEnd();
+				break;
+			case 'p':
+				visitor.visit(name, readPrimitiveArray(in, (char) in.readUnsignedByte(), in.readUnsignedShort()));
+				break;
+			default:
+				visitor.visit(name, readPrimitive(in, tag));
+		}
+	}
+
+	private static Object readPrimitive(DataInputStream in, char tag) throws IOException {
+		switch (tag) {
+			case 'Z': return in.readBoolean();
+			case 'B': return in.readByte();
+			case 'C': return in.readChar();
+			case 'S': return in.readShort();
+			case 'I': return in.readInt();
+			case 'J': return in.readLong();
+			case 'F': return in.readFloat();
+			case 'D': return in.readDouble();
+			default: throw new IOException("Unknown annotation value tag '" + tag + "'");
+		}
+	}
+
+	private static Object readPrimitiveArray(DataInputStream in, char tag, int length) throws IOException {
+		switch (tag) {
+			case 'Z':
+				boolean[] booleans = new boolean[length];
+				for (int i = 0; i < length; i++) {
+					booleans[i] = in.readBoolean();
+				}
+				return booleans;
+			case 'B':
+				byte[] bytes = new byte[length];
+				in.readFully(bytes);
+				return bytes;
+			case 'C':
+				char[] chars = new char[length];
+				for (int i = 0; i < length; i++) {
+					chars[i] = in.readChar();
+				}
+				return chars;
+			case 'S':
+				short[] shorts = new short[length];
+				for (int i = 0; i < length; i++) {
+					shorts[i] = in.readShort();
+				}
+				return shorts;
+			case 'I':
+				int[] ints = new int[length];
+				for (int i = 0; i < length; i++) {
+					ints[i] = in.readInt();
+				}
+				return ints;
+			case 'J':
+				long[] longs = new long[length];
+				for (int i = 0; i < length; i++) {
+					longs[i] = in.readLong();
+				}
+				return longs;
+			case 'F':
+				float[] floats = new float[length];
+				for (int i = 0; i < length; i++) {
+					floats[i] = in.readFloat();
+				}
+				return floats;
+			case 'D':
+				double[] doubles = new double[length];
+				for (int i = 0; i < length; i++) {
+					doubles[i] = in.readDouble();
+				}
+				return doubles;
+			default:
+				throw new IOException("Unknown primitive array tag '" + tag + "'");
+		}
+	}
+
+}
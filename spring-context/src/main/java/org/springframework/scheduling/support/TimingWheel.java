@@ -0,0 +1,373 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.util.Assert;
+
+/**
+ * A hashed timing wheel for large numbers of timeouts that are pushed back
+ * far more often than they expire, such as heartbeat and inactivity checks
+ * of long-lived connections.
+ *
+ * <p>Timeouts are kept in a fixed number of buckets, one per tick, and a
+ * single task on the given {@link TaskScheduler} processes the bucket of each
+ * tick as it elapses, so that only timeouts whose deadline is due are
+ * visited. Pushing back the deadline of a timeout with {@link Timeout#reset}
+ * merely records the new deadline: the timeout is moved to the right bucket
+ * when its current bucket comes up. Deadlines are accurate to one tick.
+ *
+ * <p>Tasks run on the thread of the scheduler and should not block.
+ *
+ * @author Daniel Ferreira
+ * @since 5.2
+ * @see #newTimeout(Runnable, long)
+ */
+public class TimingWheel {
+
+	/**
+	 * The default number of ticks per wheel.
+	 */
+	public static final int DEFAULT_TICKS_PER_WHEEL = 512;
+
+	private static final Log logger = LogFactory.getLog(TimingWheel.class);
+
+
+	private final TaskScheduler taskScheduler;
+
+	private final long tickDuration;
+
+	private final Bucket[] buckets;
+
+	/** The last tick whose bucket was processed, guarded by the buckets. */
+	private long processedTick;
+
+	@Nullable
+	private ScheduledFuture<?> tickFuture;
+
+	private boolean running;
+
+
+	/**
+	 * Create a timing wheel with the {@link #DEFAULT_TICKS_PER_WHEEL default}
+	 * number of ticks.
+	 * @param taskScheduler the scheduler to process ticks with
+	 * @param tickDuration the duration of a tick in milliseconds
+	 */
+	public TimingWheel(TaskScheduler taskScheduler, long tickDuration) {
+		this(taskScheduler, tickDuration, DEFAULT_TICKS_PER_WHEEL);
+	}
+
+	/**
+	 * Create a timing wheel.
+	 * @param taskScheduler the scheduler to process ticks with
+	 * @param tickDuration the duration of a tick in milliseconds
+	 * @param ticksPerWheel the number of buckets
+	 */
+	public TimingWheel(TaskScheduler taskScheduler, long tickDuration, int ticksPerWheel) {
+		Assert.notNull(taskScheduler, "TaskScheduler must not be null");
+		Assert.isTrue(tickDuration > 0, "Tick duration must be greater than 0");
+		Assert.isTrue(ticksPerWheel > 0, "Ticks per wheel must be greater than 0");
+		this.taskScheduler = taskScheduler;
+		this.tickDuration = tickDuration;
+		this.buckets = new Bucket[ticksPerWheel];
+		for (int i = 0; i < ticksPerWheel; i++) {
+			this.buckets[i] = new Bucket();
+		}
+		this.processedTick = System.currentTimeMillis() / tickDuration;
+	}
+
+
+	/**
+	 * Return the duration of a tick in milliseconds.
+	 */
+	public long getTickDuration() {
+		return this.tickDuration;
+	}
+
+	/**
+	 * Return the number of buckets.
+	 */
+	public int getTicksPerWheel() {
+		return this.buckets.length;
+	}
+
+	/**
+	 * Start processing ticks. Timeouts may be created before the wheel is
+	 * started, but do not expire until it is.
+	 */
+	public synchronized void start() {
+		if (!this.running) {
+			this.running = true;
+			this.tickFuture = this.taskScheduler.scheduleWithFixedDelay(this::advance, this.tickDuration);
+		}
+	}
+
+	/**
+	 * Stop processing ticks, keeping the pending timeouts.
+	 */
+	public synchronized void stop() {
+		if (this.running) {
+			this.running = false;
+			if (this.tickFuture != null) {
+				this.tickFuture.cancel(true);
+				this.tickFuture = null;
+			}
+		}
+	}
+
+	/**
+	 * Whether the wheel is processing ticks.
+	 */
+	public synchronized boolean isRunning() {
+		return this.running;
+	}
+
+	/**
+	 * Schedule the given task to run once the given delay has elapsed.
+	 * @param task the task to run
+	 * @param delay the delay in milliseconds
+	 * @return the timeout, which can be reset to run the task again or later,
+	 * or cancelled
+	 */
+	public Timeout newTimeout(Runnable task, long delay) {
+		Timeout timeout = newTimeout(task);
+		timeout.reset(delay);
+		return timeout;
+	}
+
+	/**
+	 * Create a timeout for the given task that is not scheduled until it is
+	 * {@link Timeout#reset reset}, e.g. for a task that needs to refer to its
+	 * own timeout.
+	 * @param task the task to run
+	 * @return the timeout
+	 */
+	public Timeout newTimeout(Runnable task) {
+		Assert.notNull(task, "Task must not be null");
+		return new Timeout(task);
+	}
+
+	/**
+	 * Process the buckets of all ticks elapsed since the previous call, running
+	 * the tasks of expired timeouts and moving the others to the bucket of
+	 * their current deadline.
+	 */
+	private void advance() {
+		long now = System.currentTimeMillis();
+		long currentTick = now / this.tickDuration;
+		List<Timeout> expired = null;
+		synchronized (this.buckets) {
+			// After a long pause, visiting every bucket once is enough
+			this.processedTick = Math.max(this.processedTick, currentTick - this.buckets.length);
+			while (this.processedTick < currentTick) {
+				this.processedTick++;
+				Timeout timeout = this.buckets[index(this.processedTick)].removeAll();
+				while (timeout != null) {
+					Timeout next = timeout.next;
+					timeout.next = null;
+					if (!timeout.cancelled) {
+						if (timeout.deadline <= now) {
+							if (expired == null) {
+								expired = new ArrayList<>();
+							}
+							expired.add(timeout);
+						}
+						else {
+							place(timeout);
+						}
+					}
+					timeout = next;
+				}
+			}
+		}
+		if (expired != null) {
+			for (Timeout timeout : expired) {
+				timeout.expire();
+			}
+		}
+	}
+
+	/**
+	 * Put the given timeout in the bucket of its deadline, unless it is in the
+	 * bucket of an earlier deadline already. Must be called with the buckets locked.
+	 */
+	private void place(Timeout timeout) {
+		long deadline = timeout.deadline;
+		if (timeout.bucket != null) {
+			if (timeout.cancelled || timeout.scheduledDeadline <= deadline) {
+				return;
+			}
+			timeout.bucket.remove(timeout);
+		}
+		if (timeout.cancelled) {
+			return;
+		}
+		long tick = Math.max((deadline + this.tickDuration - 1) / this.tickDuration, this.processedTick + 1);
+		timeout.scheduledDeadline = deadline;
+		this.buckets[index(tick)].add(timeout);
+	}
+
+	private int index(long tick) {
+		return (int) (tick % this.buckets.length);
+	}
+
+
+	/**
+	 * A task scheduled on a {@link TimingWheel}.
+	 */
+	public final class Timeout {
+
+		private final Runnable task;
+
+		private volatile long deadline;
+
+		private volatile boolean cancelled;
+
+		/** The bucket holding this timeout, set and cleared with the buckets locked. */
+		@Nullable
+		private volatile Bucket bucket;
+
+		private volatile long scheduledDeadline;
+
+		@Nullable
+		private Timeout previous;
+
+		@Nullable
+		private Timeout next;
+
+		Timeout(Runnable task) {
+			this.task = task;
+		}
+
+		/**
+		 * Return the time in milliseconds at which the task is due to run.
+		 */
+		public long getDeadline() {
+			return this.deadline;
+		}
+
+		/**
+		 * Whether this timeout was cancelled.
+		 */
+		public boolean isCancelled() {
+			return this.cancelled;
+		}
+
+		/**
+		 * Schedule the task to run once the given delay has elapsed, instead of
+		 * at the current deadline, or again if it has run already. This is cheap
+		 * if the new deadline is not earlier than the current one.
+		 * <p>Has no effect if this timeout was cancelled.
+		 * @param delay the delay in milliseconds
+		 */
+		public void reset(long delay) {
+			long deadline = System.currentTimeMillis() + delay;
+			this.deadline = deadline;
+			// The wheel clears the bucket before it reads the deadline:
+			// either it sees the new deadline, or we see that it took the timeout out
+			if (this.bucket == null || deadline < this.scheduledDeadline) {
+				synchronized (buckets) {
+					place(this);
+				}
+			}
+		}
+
+		/**
+		 * Cancel this timeout, so that the task does not run anymore.
+		 */
+		public void cancel() {
+			this.cancelled = true;
+			if (this.bucket != null) {
+				synchronized (buckets) {
+					Bucket bucket = this.bucket;
+					if (bucket != null) {
+						bucket.remove(this);
+					}
+				}
+			}
+		}
+
+		private void expire() {
+			try {
+				this.task.run();
+			}
+			catch (Throwable ex) {
+				logger.error("Unexpected error occurred in timing wheel task", ex);
+			}
+		}
+	}
+
+
+	/**
+	 * A doubly-linked list of timeouts, guarded by the buckets.
+	 */
+	private static final class Bucket {
+
+		@Nullable
+		private Timeout head;
+
+		void add(Timeout timeout) {
+			timeout.bucket = this;
+			timeout.previous = null;
+			timeout.next = this.head;
+			if (this.head != null) {
+				this.head.previous = timeout;
+			}
+			this.head = timeout;
+		}
+
+		void remove(Timeout timeout) {
+			if (timeout.previous != null) {
+				timeout.previous.next = timeout.next;
+			}
+			else {
+				this.head = timeout.next;
+			}
+			if (timeout.next != null) {
+				timeout.next.previous = timeout.previous;
+			}
+			timeout.previous = null;
+			timeout.next = null;
+			timeout.bucket = null;
+		}
+
+		/**
+		 * Take all timeouts out of this bucket, returning the first one: the
+		 * others can be reached through their {@code next} references.
+		 */
+		@Nullable
+		Timeout removeAll() {
+			Timeout head = this.head;
+			for (Timeout timeout = head; timeout != null; timeout = timeout.next) {
+				timeout.bucket = null;
+				timeout.previous = null;
+			}
+			this.head = null;
+			return head;
+		}
+	}
+
+}
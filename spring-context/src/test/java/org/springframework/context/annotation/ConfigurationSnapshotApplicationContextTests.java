@@ -0,0 +1,179 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+
+import org.junit.Test;
+
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.ManagedList;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.tests.sample.beans.TestBean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ConfigurationSnapshotApplicationContext}.
+ *
+ * @author Daniel Ferreira
+ */
+public class ConfigurationSnapshotApplicationContextTests {
+
+	@Test
+	public void registerBeanDefinitionsFromSnapshot() throws IOException {
+		ConfigurationSnapshotApplicationContext ctx = new ConfigurationSnapshotApplicationContext();
+		ctx.register(SnapshotConfig.class);
+		ctx.setSnapshotResource(new ByteArrayResource(writeSnapshot()));
+		ctx.refresh();
+
+		assertTrue(ctx.isSnapshotLoaded());
+		assertFalse(ctx.getBeanDefinition("husband") instanceof AnnotatedBeanDefinition);
+		assertFalse(ctx.containsBeanDefinition("profiled"));
+
+		TestBean husband = ctx.getBean("husband", TestBean.class);
+		assertSame(ctx.getBean("wife"), husband.getSpouse());
+		assertEquals(SnapshotConfig.class.getName(), ctx.getBean(ImportedConfig.class).importMetadata.getClassName());
+
+		TestBean registered = ctx.getBean("registeredAlias", TestBean.class);
+		assertEquals("registered", registered.getName());
+		Collection<?> friends = registered.getFriends();
+		assertEquals(2, friends.size());
+		assertTrue(friends.contains(ctx.getBean("wife")));
+		ctx.close();
+	}
+
+	@Test
+	public void processComponentClassesWithoutSnapshot() {
+		ConfigurationSnapshotApplicationContext ctx = new ConfigurationSnapshotApplicationContext();
+		ctx.register(SnapshotConfig.class);
+		ctx.setSnapshotResource(new ClassPathResource("no-such-snapshot", getClass()));
+		ctx.refresh();
+
+		assertFalse(ctx.isSnapshotLoaded());
+		assertTrue(ctx.getBeanDefinition("husband") instanceof AnnotatedBeanDefinition);
+		TestBean husband = ctx.getBean("husband", TestBean.class);
+		assertSame(ctx.getBean("wife"), husband.getSpouse());
+		ctx.close();
+	}
+
+	@Test
+	public void processComponentClassesWithSnapshotForOtherProfiles() throws IOException {
+		ConfigurationSnapshotApplicationContext ctx = new ConfigurationSnapshotApplicationContext();
+		ctx.register(SnapshotConfig.class);
+		ctx.setSnapshotResource(new ByteArrayResource(writeSnapshot()));
+		ctx.getEnvironment().setActiveProfiles("snapshot");
+		ctx.refresh();
+
+		assertFalse(ctx.isSnapshotLoaded());
+		assertTrue(ctx.containsBeanDefinition("profiled"));
+		ctx.close();
+	}
+
+	@Test
+	public void processComponentClassesWithCorruptSnapshot() {
+		ConfigurationSnapshotApplicationContext ctx = new ConfigurationSnapshotApplicationContext();
+		ctx.register(SnapshotConfig.class);
+		ctx.setSnapshotResource(new ByteArrayResource(new byte[] {1, 2, 3}));
+		ctx.refresh();
+
+		assertFalse(ctx.isSnapshotLoaded());
+		assertNotNull(ctx.getBean("husband"));
+		ctx.close();
+	}
+
+	@Test(expected = BeanDefinitionStoreException.class)
+	public void writeSnapshotWithInstanceSupplier() throws IOException {
+		ConfigurationSnapshotApplicationContext ctx = new ConfigurationSnapshotApplicationContext();
+		ctx.register(SnapshotConfig.class);
+		ctx.registerBean("supplied", TestBean.class, () -> new TestBean());
+		ctx.writeSnapshot(new ByteArrayOutputStream());
+	}
+
+
+	private static byte[] writeSnapshot() throws IOException {
+		ConfigurationSnapshotApplicationContext ctx = new ConfigurationSnapshotApplicationContext();
+		ctx.register(SnapshotConfig.class);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ctx.writeSnapshot(out);
+		assertFalse(ctx.isActive());
+		return out.toByteArray();
+	}
+
+
+	@Configuration
+	@Import({ImportedConfig.class, SnapshotRegistrar.class})
+	static class SnapshotConfig {
+
+		@Bean
+		public TestBean husband() {
+			TestBean husband = new TestBean("husband");
+			husband.setSpouse(wife());
+			return husband;
+		}
+
+		@Bean
+		public TestBean wife() {
+			return new TestBean("wife");
+		}
+
+		@Bean
+		@Profile("snapshot")
+		public TestBean profiled() {
+			return new TestBean("profiled");
+		}
+	}
+
+
+	@Configuration
+	static class ImportedConfig implements ImportAware {
+
+		AnnotationMetadata importMetadata;
+
+		@Override
+		public void setImportMetadata(AnnotationMetadata importMetadata) {
+			this.importMetadata = importMetadata;
+		}
+	}
+
+
+	static class SnapshotRegistrar implements ImportBeanDefinitionRegistrar {
+
+		@Override
+		public void registerBeanDefinitions(AnnotationMetadata importingClassMetadata, BeanDefinitionRegistry registry) {
+			RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+			bd.getPropertyValues().add("name", new TypedStringValue("registered"));
+			ManagedList<Object> friends = new ManagedList<>();
+			friends.add(new RuntimeBeanReference("wife"));
+			friends.add(new BeanDefinitionHolder(new RootBeanDefinition(TestBean.class), "inner"));
+			bd.getPropertyValues().add("friends", friends);
+			registry.registerBeanDefinition("registered", bd);
+			registry.registerAlias("registered", "registeredAlias");
+		}
+	}
+
+}
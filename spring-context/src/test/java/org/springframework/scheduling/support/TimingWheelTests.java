@@ -0,0 +1,153 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.support;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.springframework.scheduling.TaskScheduler;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link TimingWheel}.
+ *
+ * @author Daniel Ferreira
+ */
+public class TimingWheelTests {
+
+	private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+
+	private final ScheduledFuture<?> future = mock(ScheduledFuture.class);
+
+	private TimingWheel wheel;
+
+	private Runnable tick;
+
+
+	@Before
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public void setup() {
+		when(this.taskScheduler.scheduleWithFixedDelay(any(Runnable.class), eq(1L))).thenReturn((ScheduledFuture) this.future);
+		this.wheel = new TimingWheel(this.taskScheduler, 1, 8);
+		this.wheel.start();
+
+		ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+		verify(this.taskScheduler).scheduleWithFixedDelay(captor.capture(), eq(1L));
+		this.tick = captor.getValue();
+	}
+
+
+	@Test
+	public void startAndStop() {
+		assertTrue(this.wheel.isRunning());
+		this.wheel.start();
+		this.wheel.stop();
+		assertFalse(this.wheel.isRunning());
+
+		verify(this.taskScheduler, times(1)).scheduleWithFixedDelay(any(Runnable.class), eq(1L));
+		verify(this.future).cancel(true);
+	}
+
+	@Test
+	public void expiredTimeout() throws Exception {
+		AtomicInteger count = new AtomicInteger();
+		this.wheel.newTimeout(count::incrementAndGet, 5);
+
+		this.tick.run();
+		assertEquals(0, count.get());
+
+		Thread.sleep(20);
+		this.tick.run();
+		assertEquals(1, count.get());
+
+		Thread.sleep(20);
+		this.tick.run();
+		assertEquals(1, count.get());
+	}
+
+	@Test
+	public void expiredTimeoutBeyondWheel() throws Exception {
+		AtomicInteger count = new AtomicInteger();
+		this.wheel.newTimeout(count::incrementAndGet, 30);
+
+		Thread.sleep(15);
+		this.tick.run();
+		assertEquals(0, count.get());
+
+		Thread.sleep(30);
+		this.tick.run();
+		assertEquals(1, count.get());
+	}
+
+	@Test
+	public void resetTimeout() throws Exception {
+		AtomicInteger count = new AtomicInteger();
+		TimingWheel.Timeout timeout = this.wheel.newTimeout(count::incrementAndGet, 5);
+		timeout.reset(1000);
+
+		Thread.sleep(20);
+		this.tick.run();
+		assertEquals(0, count.get());
+
+		timeout.reset(5);
+		Thread.sleep(20);
+		this.tick.run();
+		assertEquals(1, count.get());
+
+		timeout.reset(5);
+		Thread.sleep(20);
+		this.tick.run();
+		assertEquals(2, count.get());
+	}
+
+	@Test
+	public void cancelTimeout() throws Exception {
+		AtomicInteger count = new AtomicInteger();
+		TimingWheel.Timeout timeout = this.wheel.newTimeout(count::incrementAndGet, 5);
+		timeout.cancel();
+		assertTrue(timeout.isCancelled());
+
+		Thread.sleep(20);
+		this.tick.run();
+		assertEquals(0, count.get());
+
+		timeout.reset(5);
+		Thread.sleep(20);
+		this.tick.run();
+		assertEquals(0, count.get());
+	}
+
+	@Test
+	public void taskFailure() throws Exception {
+		AtomicInteger count = new AtomicInteger();
+		this.wheel.newTimeout(() -> {
+			throw new IllegalStateException("expected");
+		}, 5);
+		this.wheel.newTimeout(count::incrementAndGet, 5);
+
+		Thread.sleep(20);
+		this.tick.run();
+		assertEquals(1, count.get());
+	}
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.convert.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.core.convert.TypeDescriptor;
+
+/**
+ * Benchmarks for {@link GenericConversionService#convert}, covering simple
+ * scalar conversions as well as element-wise collection conversions.
+ *
+ * @author Daniel Ferreira
+ */
+@BenchmarkMode(Mode.Throughput)
+public class GenericConversionServiceBenchmark {
+
+	@Benchmark
+	public Integer convertStringToInteger(ConversionState state) {
+		return state.conversionService.convert("4711", Integer.class);
+	}
+
+	@Benchmark
+	public Object convertWithTypeDescriptors(ConversionState state) {
+		return state.conversionService.convert("true", state.stringType, state.booleanType);
+	}
+
+	@Benchmark
+	public Object convertListOfStringsToSetOfIntegers(ConversionState state) {
+		return state.conversionService.convert(state.source, state.sourceListType, state.targetSetType);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class ConversionState {
+
+		@Param({"10", "1000"})
+		public int elementCount;
+
+		public GenericConversionService conversionService;
+
+		public List<String> source;
+
+		public TypeDescriptor stringType = TypeDescriptor.valueOf(String.class);
+
+		public TypeDescriptor booleanType = TypeDescriptor.valueOf(Boolean.class);
+
+		public TypeDescriptor sourceListType;
+
+		public TypeDescriptor targetSetType;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.conversionService = new DefaultConversionService();
+			this.source = new ArrayList<>(this.elementCount);
+			for (int i = 0; i < this.elementCount; i++) {
+				this.source.add(String.valueOf(i));
+			}
+			this.sourceListType = TypeDescriptor.collection(List.class, TypeDescriptor.valueOf(String.class));
+			this.targetSetType = TypeDescriptor.collection(Set.class, TypeDescriptor.valueOf(Integer.class));
+		}
+	}
+
+}
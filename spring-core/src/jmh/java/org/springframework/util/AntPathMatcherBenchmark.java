@@ -0,0 +1,78 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link AntPathMatcher#match(String, String)} against
+ * typical request mapping patterns.
+ *
+ * @author Daniel Ferreira
+ */
+@BenchmarkMode(Mode.Throughput)
+public class AntPathMatcherBenchmark {
+
+	@Benchmark
+	public void matchAll(MatcherState state, Blackhole bh) {
+		for (String pattern : state.patterns) {
+			for (String path : state.paths) {
+				bh.consume(state.matcher.match(pattern, path));
+			}
+		}
+	}
+
+	@Benchmark
+	public void extractVariables(MatcherState state, Blackhole bh) {
+		bh.consume(state.matcher.extractUriTemplateVariables("/api/users/{userId}/orders/{orderId}",
+				"/api/users/42/orders/1234"));
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class MatcherState {
+
+		@Param({"true", "false"})
+		public boolean cachePatterns;
+
+		public AntPathMatcher matcher;
+
+		public String[] patterns = new String[] {
+				"/api/users", "/api/users/{userId}", "/api/users/{userId}/orders/{orderId}",
+				"/static/**/*.js", "/api/*/settings", "/docs/**", "/api/users/{userId:\\d+}/avatar.{ext}"};
+
+		public String[] paths = new String[] {
+				"/api/users", "/api/users/42", "/api/users/42/orders/1234",
+				"/static/app/vendor/lib.js", "/api/tenants/settings", "/docs/reference/index.html",
+				"/api/users/42/avatar.png", "/not/matching/anything"};
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.matcher = new AntPathMatcher();
+			this.matcher.setCachePatterns(this.cachePatterns);
+		}
+	}
+
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.cglib.reflect.FastClass;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Invokes a given {@link Method} on a target, with the same contract as
+ * {@link Method#invoke}: exceptions thrown by the method itself are wrapped
+ * in an {@link InvocationTargetException}, while an unsuitable target or
+ * unsuitable arguments lead to an {@link IllegalArgumentException}.
+ *
+ * <p>Used by the handler method adapters for {@code @RequestMapping},
+ * {@code @MessageMapping}, {@code @JmsListener} and {@code @EventListener}
+ * methods. By default, methods are invoked through reflection. If the
+ * {@value #GENERATED_ACCESSORS_PROPERTY_NAME} flag is set, public methods of
+ * public classes are invoked through a generated CGLIB {@link FastClass}
+ * instead, which calls the method directly; other methods, including those
+ * of hidden classes, keep using reflection.
+ *
+ * @author Daniel Ferreira
+ * @since 5.2
+ * @see #forMethod(Method)
+ */
+public abstract class MethodAccessor {
+
+	/**
+	 * System property that instructs Spring to invoke handler methods through
+	 * generated accessors rather than through reflection, wherever possible.
+	 * <p>The default is "false".
+	 * @see #forMethod(Method)
+	 */
+	public static final String GENERATED_ACCESSORS_PROPERTY_NAME = "spring.method-accessor.generated";
+
+	private static final boolean generatedAccessors = SpringProperties.getFlag(GENERATED_ACCESSORS_PROPERTY_NAME);
+
+	private static final Log logger = LogFactory.getLog(MethodAccessor.class);
+
+	private static final Map<Method, MethodAccessor> generatedAccessorCache = new ConcurrentReferenceHashMap<>(256);
+
+
+	private final Method method;
+
+
+	MethodAccessor(Method method) {
+		Assert.notNull(method, "Method must not be null");
+		this.method = method;
+	}
+
+
+	/**
+	 * Return the method that this accessor invokes.
+	 */
+	public final Method getMethod() {
+		return this.method;
+	}
+
+	/**
+	 * Whether this accessor calls the method through generated code rather than
+	 * through reflection.
+	 */
+	public abstract boolean isGenerated();
+
+	/**
+	 * Invoke the method on the given target with the given arguments.
+	 * @param target the target instance, or {@code null} for a static method
+	 * @param args the arguments for the method
+	 * @return the value returned by the method
+	 * @throws IllegalAccessException if the method is not accessible
+	 * @throws IllegalArgumentException if the target or the arguments do not
+	 * match the method
+	 * @throws InvocationTargetException if the method itself throws an exception
+	 * @see Method#invoke
+	 */
+	@Nullable
+	public abstract Object invoke(@Nullable Object target, Object... args)
+			throws IllegalAccessException, InvocationTargetException;
+
+	@Override
+	public String toString() {
+		return (isGenerated() ? "Generated" : "Reflective") + " accessor for " + this.method.toGenericString();
+	}
+
+
+	/**
+	 * Return the accessor to use for the given method: a generated accessor if the
+	 * {@value #GENERATED_ACCESSORS_PROPERTY_NAME} flag is set and the method
+	 * allows for it, or a reflective accessor otherwise.
+	 * @param method the method to invoke
+	 * @return the corresponding accessor (never {@code null})
+	 */
+	public static MethodAccessor forMethod(Method method) {
+		return (generatedAccessors ? generated(method) : reflective(method));
+	}
+
+	/**
+	 * Return an accessor that invokes the given method through reflection,
+	 * making the method accessible if necessary.
+	 * @param method the method to invoke
+	 * @return the corresponding accessor (never {@code null})
+	 */
+	public static MethodAccessor reflective(Method method) {
+		return new ReflectiveMethodAccessor(method);
+	}
+
+	/**
+	 * Return an accessor that invokes the given method through generated code,
+	 * falling back to reflection for non-public methods, for methods of non-public
+	 * or hidden classes, and for classes that no accessor can be generated for.
+	 * <p>Accessors are cached per method.
+	 * @param method the method to invoke
+	 * @return the corresponding accessor (never {@code null})
+	 */
+	public static MethodAccessor generated(Method method) {
+		MethodAccessor accessor = generatedAccessorCache.get(method);
+		if (accessor == null) {
+			accessor = createGeneratedAccessor(method);
+			generatedAccessorCache.put(method, accessor);
+		}
+		return accessor;
+	}
+
+	private static MethodAccessor createGeneratedAccessor(Method method) {
+		MethodAccessor reflective = reflective(method);
+		Class<?> declaringClass = method.getDeclaringClass();
+		if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(declaringClass.getModifiers()) ||
+				declaringClass.getClassLoader() == null || declaringClass.getName().indexOf('/') != -1) {
+			return reflective;
+		}
+		try {
+			FastClass fastClass = FastClass.create(declaringClass);
+			int index = fastClass.getIndex(method.getName(), method.getParameterTypes());
+			if (index < 0) {
+				return reflective;
+			}
+			return new FastClassMethodAccessor(method, fastClass, index, reflective);
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to generate accessor for " + method.toGenericString() +
+						", falling back to reflection: " + ex);
+			}
+			return reflective;
+		}
+	}
+
+
+	private static class ReflectiveMethodAccessor extends MethodAccessor {
+
+		ReflectiveMethodAccessor(Method method) {
+			super(method);
+			ReflectionUtils.makeAccessible(method);
+		}
+
+		@Override
+		public boolean isGenerated() {
+			return false;
+		}
+
+		@Override
+		@Nullable
+		public Object invoke(@Nullable Object target, Object... args)
+				throws IllegalAccessException, InvocationTargetException {
+
+			return getMethod().invoke(target, args);
+		}
+	}
+
+
+	/**
+	 * Invokes the method through a CGLIB {@link FastClass}. Calls that the
+	 * generated code would not reject the way reflection does, such as a
+	 * {@code null} argument for a primitive parameter or an argument that needs
+	 * a widening conversion, are delegated to reflection.
+	 */
+	private static class FastClassMethodAccessor extends MethodAccessor {
+
+		private final FastClass fastClass;
+
+		private final int index;
+
+		private final boolean isStatic;
+
+		private final Class<?>[] parameterTypes;
+
+		private final boolean[] primitiveParameters;
+
+		private final MethodAccessor reflective;
+
+		FastClassMethodAccessor(Method method, FastClass fastClass, int index, MethodAccessor reflective) {
+			super(method);
+			this.fastClass = fastClass;
+			this.index = index;
+			this.isStatic = Modifier.isStatic(method.getModifiers());
+			Class<?>[] parameterTypes = method.getParameterTypes();
+			this.primitiveParameters = new boolean[parameterTypes.length];
+			for (int i = 0; i < parameterTypes.length; i++) {
+				this.primitiveParameters[i] = parameterTypes[i].isPrimitive();
+				parameterTypes[i] = ClassUtils.resolvePrimitiveIfNecessary(parameterTypes[i]);
+			}
+			this.parameterTypes = parameterTypes;
+			this.reflective = reflective;
+		}
+
+		@Override
+		public boolean isGenerated() {
+			return true;
+		}
+
+		@Override
+		@Nullable
+		public Object invoke(@Nullable Object target, Object... args)
+				throws IllegalAccessException, InvocationTargetException {
+
+			if (!isInvocable(target, args)) {
+				return this.reflective.invoke(target, args);
+			}
+			return this.fastClass.invoke(this.index, target, args);
+		}
+
+		private boolean isInvocable(@Nullable Object target, @Nullable Object[] args) {
+			if (args == null || args.length != this.parameterTypes.length) {
+				return false;
+			}
+			if (!this.isStatic && !this.fastClass.getJavaClass().isInstance(target)) {
+				return false;
+			}
+			for (int i = 0; i < args.length; i++) {
+				Object arg = args[i];
+				if (arg != null ? !this.parameterTypes[i].isInstance(arg) : this.primitiveParameters[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+}
@@ -18,10 +18,15 @@ package org.springframework.core.annotation;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Array;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -32,6 +37,7 @@ import java.util.Set;
 import org.springframework.core.BridgeMethodResolver;
 import org.springframework.lang.Nullable;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
@@ -107,6 +113,12 @@ public abstract class AnnotatedElementUtils {
 
 	private static final Processor<Boolean> alwaysTrueAnnotationProcessor = new AlwaysTrueBooleanAnnotationProcessor();
 
+	private static final Map<AnnotatedElement, AnnotationIndex> getSemanticsIndexCache =
+			new ConcurrentReferenceHashMap<>(256);
+
+	private static final Map<AnnotatedElement, AnnotationIndex> findSemanticsIndexCache =
+			new ConcurrentReferenceHashMap<>(256);
+
 
 	/**
 	 * Build an adapted {@link AnnotatedElement} for the given annotations,
@@ -261,6 +273,10 @@ public abstract class AnnotatedElementUtils {
 		if (element.isAnnotationPresent(annotationType)) {
 			return true;
 		}
+		AnnotationIndex index = getAnnotationIndex(element, false);
+		if (index != null) {
+			return (index.getOccurrence(annotationType, null) != null);
+		}
 		return Boolean.TRUE.equals(searchWithGetSemantics(element, annotationType, null, alwaysTrueAnnotationProcessor));
 	}
 
@@ -277,6 +293,10 @@ public abstract class AnnotatedElementUtils {
 	 * @return {@code true} if a matching annotation is present
 	 */
 	public static boolean isAnnotated(AnnotatedElement element, String annotationName) {
+		AnnotationIndex index = getAnnotationIndex(element, false);
+		if (index != null) {
+			return (index.getOccurrence(null, annotationName) != null);
+		}
 		return Boolean.TRUE.equals(searchWithGetSemantics(element, null, annotationName, alwaysTrueAnnotationProcessor));
 	}
 
@@ -301,10 +321,7 @@ public abstract class AnnotatedElementUtils {
 	public static AnnotationAttributes getMergedAnnotationAttributes(
 			AnnotatedElement element, Class<? extends Annotation> annotationType) {
 
-		AnnotationAttributes attributes = searchWithGetSemantics(element, annotationType, null,
-				new MergedAnnotationAttributesProcessor());
-		AnnotationUtils.postProcessAnnotationAttributes(element, attributes, false, false);
-		return attributes;
+		return getMergedAnnotationAttributes(element, annotationType, null, false, false, false);
 	}
 
 	/**
@@ -360,10 +377,8 @@ public abstract class AnnotatedElementUtils {
 	public static AnnotationAttributes getMergedAnnotationAttributes(AnnotatedElement element,
 			String annotationName, boolean classValuesAsString, boolean nestedAnnotationsAsMap) {
 
-		AnnotationAttributes attributes = searchWithGetSemantics(element, null, annotationName,
-				new MergedAnnotationAttributesProcessor(classValuesAsString, nestedAnnotationsAsMap));
-		AnnotationUtils.postProcessAnnotationAttributes(element, attributes, classValuesAsString, nestedAnnotationsAsMap);
-		return attributes;
+		return getMergedAnnotationAttributes(
+				element, null, annotationName, classValuesAsString, nestedAnnotationsAsMap, false);
 	}
 
 	/**
@@ -397,6 +412,19 @@ public abstract class AnnotatedElementUtils {
 			return null;
 		}
 
+		// Merged annotation from the index, synthesized once per element...
+		AnnotationIndex index = getAnnotationIndex(element, false);
+		if (index != null) {
+			AnnotationOccurrence occurrence = index.getOccurrence(annotationType, null);
+			if (occurrence == null) {
+				return null;
+			}
+			A merged = occurrence.getMergedAnnotation(element, annotationType);
+			if (merged != null) {
+				return merged;
+			}
+		}
+
 		// Exhaustive retrieval of merged annotation attributes...
 		AnnotationAttributes attributes = getMergedAnnotationAttributes(element, annotationType);
 		return (attributes != null ? AnnotationUtils.synthesizeAnnotation(attributes, annotationType, element) : null);
@@ -599,6 +627,10 @@ public abstract class AnnotatedElementUtils {
 		if (element.isAnnotationPresent(annotationType)) {
 			return true;
 		}
+		AnnotationIndex index = getAnnotationIndex(element, true);
+		if (index != null) {
+			return (index.getOccurrence(annotationType, null) != null);
+		}
 		return Boolean.TRUE.equals(searchWithFindSemantics(element, annotationType, null, alwaysTrueAnnotationProcessor));
 	}
 
@@ -633,10 +665,8 @@ public abstract class AnnotatedElementUtils {
 	public static AnnotationAttributes findMergedAnnotationAttributes(AnnotatedElement element,
 			Class<? extends Annotation> annotationType, boolean classValuesAsString, boolean nestedAnnotationsAsMap) {
 
-		AnnotationAttributes attributes = searchWithFindSemantics(element, annotationType, null,
-				new MergedAnnotationAttributesProcessor(classValuesAsString, nestedAnnotationsAsMap));
-		AnnotationUtils.postProcessAnnotationAttributes(element, attributes, classValuesAsString, nestedAnnotationsAsMap);
-		return attributes;
+		return getMergedAnnotationAttributes(
+				element, annotationType, null, classValuesAsString, nestedAnnotationsAsMap, true);
 	}
 
 	/**
@@ -670,10 +700,8 @@ public abstract class AnnotatedElementUtils {
 	public static AnnotationAttributes findMergedAnnotationAttributes(AnnotatedElement element,
 			String annotationName, boolean classValuesAsString, boolean nestedAnnotationsAsMap) {
 
-		AnnotationAttributes attributes = searchWithFindSemantics(element, null, annotationName,
-				new MergedAnnotationAttributesProcessor(classValuesAsString, nestedAnnotationsAsMap));
-		AnnotationUtils.postProcessAnnotationAttributes(element, attributes, classValuesAsString, nestedAnnotationsAsMap);
-		return attributes;
+		return getMergedAnnotationAttributes(
+				element, null, annotationName, classValuesAsString, nestedAnnotationsAsMap, true);
 	}
 
 	/**
@@ -707,6 +735,19 @@ public abstract class AnnotatedElementUtils {
 			return null;
 		}
 
+		// Merged annotation from the index, synthesized once per element...
+		AnnotationIndex index = getAnnotationIndex(element, true);
+		if (index != null) {
+			AnnotationOccurrence occurrence = index.getOccurrence(annotationType, null);
+			if (occurrence == null) {
+				return null;
+			}
+			A merged = occurrence.getMergedAnnotation(element, annotationType);
+			if (merged != null) {
+				return merged;
+			}
+		}
+
 		// Exhaustive retrieval of merged annotation attributes...
 		AnnotationAttributes attributes = findMergedAnnotationAttributes(element, annotationType, false, false);
 		return (attributes != null ? AnnotationUtils.synthesizeAnnotation(attributes, annotationType, element) : null);
@@ -873,6 +914,10 @@ public abstract class AnnotatedElementUtils {
 			@Nullable Class<? extends Annotation> containerType, Processor<T> processor) {
 
 		try {
+			if (containerType == null && !processor.alwaysProcesses() &&
+					!isPresentInIndex(element, annotationTypes, annotationName, false)) {
+				return null;
+			}
 			return searchWithGetSemantics(element, annotationTypes, annotationName, containerType, processor,
 					new HashSet<>(), 0);
 		}
@@ -1004,8 +1049,10 @@ public abstract class AnnotatedElementUtils {
 		for (Annotation annotation : annotations) {
 			Class<? extends Annotation> currentAnnotationType = annotation.annotationType();
 			if (!AnnotationUtils.hasPlainJavaAnnotationsOnly(currentAnnotationType)) {
+				processor.enterMetaAnnotations(element, annotation);
 				T result = searchWithGetSemantics(currentAnnotationType, annotationTypes,
 						annotationName, containerType, processor, visited, metaDepth + 1);
+				processor.exitMetaAnnotations();
 				if (result != null) {
 					processor.postProcess(element, annotation, result);
 					if (processor.aggregates() && metaDepth == 0) {
@@ -1068,6 +1115,10 @@ public abstract class AnnotatedElementUtils {
 		}
 
 		try {
+			if (containerType == null && !processor.alwaysProcesses() &&
+					!isPresentInIndex(element, annotationTypes, annotationName, true)) {
+				return null;
+			}
 			return searchWithFindSemantics(
 					element, annotationTypes, annotationName, containerType, processor, new HashSet<>(), 0);
 		}
@@ -1143,8 +1194,10 @@ public abstract class AnnotatedElementUtils {
 					for (Annotation annotation : annotations) {
 						Class<? extends Annotation> currentAnnotationType = annotation.annotationType();
 						if (!AnnotationUtils.hasPlainJavaAnnotationsOnly(currentAnnotationType)) {
+							processor.enterMetaAnnotations(currentAnnotationType, annotation);
 							T result = searchWithFindSemantics(currentAnnotationType, annotationTypes, annotationName,
 									containerType, processor, visited, metaDepth + 1);
+							processor.exitMetaAnnotations();
 							if (result != null) {
 								processor.postProcess(currentAnnotationType, annotation, result);
 								if (aggregatedResults != null && metaDepth == 0) {
@@ -1268,6 +1321,170 @@ public abstract class AnnotatedElementUtils {
 		return null;
 	}
 
+	/**
+	 * Get the merged attributes of the first annotation of the specified
+	 * {@code annotationType} or {@code annotationName} on the supplied element,
+	 * following <em>get</em> or <em>find</em> semantics.
+	 * <p>For classes and members, the merge is replayed along the path recorded
+	 * in the {@linkplain #getAnnotationIndex annotation index} rather than by
+	 * searching the hierarchy again. Attributes that preserve Class references
+	 * and nested annotations are merged once per element and returned as copies.
+	 * @param element the annotated element
+	 * @param annotationType the annotation type to find
+	 * @param annotationName the fully qualified class name of the annotation
+	 * type to find (as an alternative to {@code annotationType})
+	 * @param classValuesAsString whether to convert Class references into Strings or to
+	 * preserve them as Class references
+	 * @param nestedAnnotationsAsMap whether to convert nested Annotation instances into
+	 * {@code AnnotationAttributes} maps or to preserve them as Annotation instances
+	 * @param findSemantics whether to follow <em>find</em> semantics rather
+	 * than <em>get</em> semantics
+	 * @return the merged {@code AnnotationAttributes}, or {@code null} if not found
+	 * @since 5.2
+	 */
+	@Nullable
+	private static AnnotationAttributes getMergedAnnotationAttributes(AnnotatedElement element,
+			@Nullable Class<? extends Annotation> annotationType, @Nullable String annotationName,
+			boolean classValuesAsString, boolean nestedAnnotationsAsMap, boolean findSemantics) {
+
+		AnnotationIndex index = getAnnotationIndex(element, findSemantics);
+		if (index != null) {
+			AnnotationOccurrence occurrence = index.getOccurrence(annotationType, annotationName);
+			if (occurrence == null) {
+				return null;
+			}
+			if (!classValuesAsString && !nestedAnnotationsAsMap) {
+				AnnotationAttributes attributes = occurrence.getMergedAttributes(element);
+				if (attributes != null) {
+					return copyAttributes(attributes);
+				}
+			}
+			else {
+				AnnotationAttributes attributes =
+						occurrence.mergeAttributes(element, classValuesAsString, nestedAnnotationsAsMap);
+				if (attributes != null) {
+					return attributes;
+				}
+			}
+			// Otherwise let the search below skip the annotation that failed to introspect...
+		}
+
+		MergedAnnotationAttributesProcessor processor =
+				new MergedAnnotationAttributesProcessor(classValuesAsString, nestedAnnotationsAsMap);
+		AnnotationAttributes attributes = (findSemantics ?
+				searchWithFindSemantics(element, annotationType, annotationName, processor) :
+				searchWithGetSemantics(element, annotationType, annotationName, processor));
+		AnnotationUtils.postProcessAnnotationAttributes(element, attributes, classValuesAsString, nestedAnnotationsAsMap);
+		return attributes;
+	}
+
+	/**
+	 * Copy the supplied attributes, including any array values, so that the
+	 * copy can be handed out without exposing the original.
+	 * @param attributes the attributes to copy
+	 * @return the copy
+	 * @since 5.2
+	 */
+	private static AnnotationAttributes copyAttributes(AnnotationAttributes attributes) {
+		AnnotationAttributes copy = new AnnotationAttributes(attributes);
+		for (Map.Entry<String, Object> entry : copy.entrySet()) {
+			Object value = entry.getValue();
+			if (value != null && value.getClass().isArray()) {
+				int length = Array.getLength(value);
+				Object array = Array.newInstance(value.getClass().getComponentType(), length);
+				System.arraycopy(value, 0, array, 0, length);
+				entry.setValue(array);
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * Get the index of the annotations present within the hierarchy of the
+	 * supplied element under <em>get</em> or <em>find</em> semantics.
+	 * <p>The index is built by a single exhaustive search per element and
+	 * cached. It records the first occurrence of each annotation type, which
+	 * is the one that a search for that type would find, together with the
+	 * meta-annotations leading to it.
+	 * @param element the annotated element
+	 * @param findSemantics whether to index the element under <em>find</em>
+	 * semantics rather than under <em>get</em> semantics
+	 * @return the index, or {@code null} if the element is not indexable
+	 * @since 5.2
+	 */
+	@Nullable
+	private static AnnotationIndex getAnnotationIndex(AnnotatedElement element, boolean findSemantics) {
+		// Only index elements with stable identity, not ad-hoc adapters from forAnnotations
+		if (!(element instanceof Class || element instanceof Member)) {
+			return null;
+		}
+
+		Map<AnnotatedElement, AnnotationIndex> cache = (findSemantics ? findSemanticsIndexCache : getSemanticsIndexCache);
+		AnnotationIndex index = cache.get(element);
+		if (index == null) {
+			AnnotationIndexProcessor processor = new AnnotationIndexProcessor();
+			try {
+				if (findSemantics) {
+					searchWithFindSemantics(element, Collections.emptySet(), null, null, processor, new HashSet<>(), 0);
+				}
+				else {
+					searchWithGetSemantics(element, Collections.emptySet(), null, null, processor, new HashSet<>(), 0);
+				}
+			}
+			catch (Throwable ex) {
+				AnnotationUtils.rethrowAnnotationConfigurationException(ex);
+				throw new IllegalStateException("Failed to introspect annotations on " + element, ex);
+			}
+			index = processor.getIndex();
+			cache.put(element, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Determine whether any of the given annotation types may be found on the
+	 * supplied element, consulting its {@linkplain #getAnnotationIndex annotation index}.
+	 * <p>Used to skip searches that aggregate all occurrences of an annotation
+	 * type when none is present.
+	 * @param element the annotated element
+	 * @param annotationTypes the annotation types to find
+	 * @param annotationName the fully qualified class name of the annotation
+	 * type to find (as an alternative to {@code annotationType})
+	 * @param findSemantics whether to consult the index for <em>find</em>
+	 * semantics rather than for <em>get</em> semantics
+	 * @return {@code false} if none of the annotation types is present,
+	 * {@code true} if one of them might be present
+	 * @since 5.2
+	 */
+	private static boolean isPresentInIndex(AnnotatedElement element,
+			Set<Class<? extends Annotation>> annotationTypes, @Nullable String annotationName,
+			boolean findSemantics) {
+
+		AnnotationIndex index = getAnnotationIndex(element, findSemantics);
+		if (index == null) {
+			return true;
+		}
+		if (annotationName != null && index.getOccurrence(null, annotationName) != null) {
+			return true;
+		}
+		for (Class<? extends Annotation> annotationType : annotationTypes) {
+			if (index.getOccurrence(annotationType, null) != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Clear the index of annotations present per annotated element.
+	 * @since 5.2
+	 * @see AnnotationUtils#clearCache()
+	 */
+	static void clearCache() {
+		getSemanticsIndexCache.clear();
+		findSemanticsIndexCache.clear();
+	}
+
 	/**
 	 * Get the array of raw (unsynthesized) annotations from the {@code value}
 	 * attribute of the supplied repeatable annotation {@code container}.
@@ -1425,6 +1642,28 @@ public abstract class AnnotatedElementUtils {
 		 */
 		void postProcess(@Nullable AnnotatedElement annotatedElement, Annotation annotation, T result);
 
+		/**
+		 * Callback before the search descends into the meta-annotations of
+		 * the supplied annotation.
+		 * <p>The arguments are the ones that {@link #postProcess} receives for
+		 * the same annotation if a result is found within its meta-annotations.
+		 * @param annotatedElement the element that is annotated with the
+		 * supplied annotation; may be {@code null} if unknown
+		 * @param annotation the annotation whose meta-annotations are searched
+		 * @since 5.2
+		 * @see #exitMetaAnnotations()
+		 */
+		default void enterMetaAnnotations(@Nullable AnnotatedElement annotatedElement, Annotation annotation) {
+		}
+
+		/**
+		 * Callback after the search returned from the meta-annotations of the
+		 * annotation passed to the matching {@link #enterMetaAnnotations} call.
+		 * @since 5.2
+		 */
+		default void exitMetaAnnotations() {
+		}
+
 		/**
 		 * Determine if this processor always processes annotations regardless of
 		 * whether or not the target annotation has been found.
@@ -1513,6 +1752,194 @@ public abstract class AnnotatedElementUtils {
 	}
 
 
+	/**
+	 * {@link SimpleAnnotationProcessor} that processes every annotation in the
+	 * hierarchy and records it in an {@link AnnotationIndex} along with the
+	 * meta-annotations leading to it, never terminating the search early.
+	 * @since 5.2
+	 */
+	private static class AnnotationIndexProcessor extends SimpleAnnotationProcessor<Object> {
+
+		private final Deque<MetaAnnotationStep> path = new ArrayDeque<>();
+
+		private final AnnotationIndex index = new AnnotationIndex();
+
+		public AnnotationIndexProcessor() {
+			super(true);
+		}
+
+		@Override
+		@Nullable
+		public Object process(@Nullable AnnotatedElement annotatedElement, Annotation annotation, int metaDepth) {
+			this.index.add(annotatedElement, annotation, this.path);
+			return CONTINUE;
+		}
+
+		@Override
+		public void enterMetaAnnotations(@Nullable AnnotatedElement annotatedElement, Annotation annotation) {
+			this.path.push(new MetaAnnotationStep(annotatedElement, annotation));
+		}
+
+		@Override
+		public void exitMetaAnnotations() {
+			this.path.pop();
+		}
+
+		public AnnotationIndex getIndex() {
+			return this.index;
+		}
+	}
+
+
+	/**
+	 * Index of the annotations present within the hierarchy of an annotated
+	 * element, holding the first occurrence per annotation type and per
+	 * annotation type name.
+	 * <p>Since the indexing search visits annotations in the same order as a
+	 * search for a specific annotation type, the first occurrence of a type
+	 * is the one that such a search would find.
+	 * @since 5.2
+	 */
+	private static class AnnotationIndex {
+
+		private final Map<Class<? extends Annotation>, AnnotationOccurrence> occurrencesByType = new HashMap<>();
+
+		private final Map<String, AnnotationOccurrence> occurrencesByName = new HashMap<>();
+
+		void add(@Nullable AnnotatedElement annotatedElement, Annotation annotation, Deque<MetaAnnotationStep> path) {
+			Class<? extends Annotation> annotationType = annotation.annotationType();
+			if (!this.occurrencesByType.containsKey(annotationType)) {
+				AnnotationOccurrence occurrence = new AnnotationOccurrence(
+						annotatedElement, annotation, path.toArray(new MetaAnnotationStep[0]));
+				this.occurrencesByType.put(annotationType, occurrence);
+				this.occurrencesByName.putIfAbsent(annotationType.getName(), occurrence);
+			}
+		}
+
+		@Nullable
+		AnnotationOccurrence getOccurrence(
+				@Nullable Class<? extends Annotation> annotationType, @Nullable String annotationName) {
+
+			if (annotationType != null) {
+				return this.occurrencesByType.get(annotationType);
+			}
+			return (annotationName != null ? this.occurrencesByName.get(annotationName) : null);
+		}
+	}
+
+
+	/**
+	 * The first occurrence of an annotation type within the hierarchy of an
+	 * annotated element, along with the meta-annotations through which it
+	 * was reached, from the innermost one to the one on the element.
+	 * <p>Lazily holds the merged attributes and the merged annotation for
+	 * that element.
+	 * @since 5.2
+	 */
+	private static class AnnotationOccurrence {
+
+		@Nullable
+		private final AnnotatedElement annotatedElement;
+
+		private final Annotation annotation;
+
+		private final MetaAnnotationStep[] path;
+
+		@Nullable
+		private volatile AnnotationAttributes mergedAttributes;
+
+		@Nullable
+		private volatile Annotation mergedAnnotation;
+
+		AnnotationOccurrence(@Nullable AnnotatedElement annotatedElement, Annotation annotation,
+				MetaAnnotationStep[] path) {
+
+			this.annotatedElement = annotatedElement;
+			this.annotation = annotation;
+			this.path = path;
+		}
+
+		/**
+		 * Get the merged attributes, preserving Class references and nested
+		 * annotations. The returned instance is shared and must be copied
+		 * before being exposed.
+		 */
+		@Nullable
+		AnnotationAttributes getMergedAttributes(AnnotatedElement element) {
+			AnnotationAttributes attributes = this.mergedAttributes;
+			if (attributes == null) {
+				attributes = mergeAttributes(element, false, false);
+				this.mergedAttributes = attributes;
+			}
+			return attributes;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Nullable
+		<A extends Annotation> A getMergedAnnotation(AnnotatedElement element, Class<A> annotationType) {
+			Annotation annotation = this.mergedAnnotation;
+			if (annotation == null) {
+				AnnotationAttributes attributes = getMergedAttributes(element);
+				if (attributes == null) {
+					return null;
+				}
+				annotation = AnnotationUtils.synthesizeAnnotation(attributes, annotationType, element);
+				this.mergedAnnotation = annotation;
+			}
+			return (A) annotation;
+		}
+
+		/**
+		 * Merge the attributes of this occurrence by replaying the steps that a
+		 * {@link MergedAnnotationAttributesProcessor} takes during a search.
+		 * @return the merged attributes, or {@code null} if the annotations
+		 * could not be introspected
+		 */
+		@Nullable
+		AnnotationAttributes mergeAttributes(AnnotatedElement element,
+				boolean classValuesAsString, boolean nestedAnnotationsAsMap) {
+
+			MergedAnnotationAttributesProcessor processor =
+					new MergedAnnotationAttributesProcessor(classValuesAsString, nestedAnnotationsAsMap);
+			AnnotationAttributes attributes;
+			try {
+				attributes = processor.process(this.annotatedElement, this.annotation, this.path.length);
+				if (attributes == null) {
+					return null;
+				}
+				for (MetaAnnotationStep step : this.path) {
+					processor.postProcess(step.annotatedElement, step.annotation, attributes);
+				}
+			}
+			catch (Throwable ex) {
+				AnnotationUtils.rethrowAnnotationConfigurationException(ex);
+				return null;
+			}
+			AnnotationUtils.postProcessAnnotationAttributes(element, attributes, classValuesAsString, nestedAnnotationsAsMap);
+			return attributes;
+		}
+	}
+
+
+	/**
+	 * An annotation whose meta-annotations have been searched, together with
+	 * the element passed to {@link Processor#postProcess} for it.
+	 * @since 5.2
+	 */
+	private static class MetaAnnotationStep {
+
+		@Nullable
+		final AnnotatedElement annotatedElement;
+
+		final Annotation annotation;
+
+		MetaAnnotationStep(@Nullable AnnotatedElement annotatedElement, Annotation annotation) {
+			this.annotatedElement = annotatedElement;
+			this.annotation = annotation;
+		}
+	}
+
+
 	/**
 	 * {@link Processor} that gets the {@code AnnotationAttributes} for the
 	 * target annotation during the {@link #process} phase and then merges
@@ -29,6 +29,7 @@ import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -128,6 +129,9 @@ public abstract class AnnotationUtils {
 	private static final Map<AnnotatedElement, Annotation[]> declaredAnnotationsCache =
 			new ConcurrentReferenceHashMap<>(256);
 
+	private static final Map<AnnotatedElement, AnnotationIndex> annotationIndexCache =
+			new ConcurrentReferenceHashMap<>(256);
+
 	private static final Map<Class<?>, Set<Method>> annotatedBaseTypeCache =
 			new ConcurrentReferenceHashMap<>(256);
 
@@ -517,36 +521,10 @@ public abstract class AnnotationUtils {
 		A result = (A) findAnnotationCache.get(cacheKey);
 
 		if (result == null) {
-			Method resolvedMethod = BridgeMethodResolver.findBridgedMethod(method);
-			result = findAnnotation((AnnotatedElement) resolvedMethod, annotationType);
-			if (result == null) {
-				result = searchOnInterfaces(method, annotationType, method.getDeclaringClass().getInterfaces());
-			}
-
-			Class<?> clazz = method.getDeclaringClass();
-			while (result == null) {
-				clazz = clazz.getSuperclass();
-				if (clazz == null || clazz == Object.class) {
-					break;
-				}
-				Set<Method> annotatedMethods = getAnnotatedMethodsInBaseType(clazz);
-				if (!annotatedMethods.isEmpty()) {
-					for (Method annotatedMethod : annotatedMethods) {
-						if (isOverride(method, annotatedMethod)) {
-							Method resolvedSuperMethod = BridgeMethodResolver.findBridgedMethod(annotatedMethod);
-							result = findAnnotation((AnnotatedElement) resolvedSuperMethod, annotationType);
-							if (result != null) {
-								break;
-							}
-						}
-					}
-				}
-				if (result == null) {
-					result = searchOnInterfaces(method, annotationType, clazz.getInterfaces());
-				}
-			}
-
-			if (result != null) {
+			AnnotationIndex index = getAnnotationIndex(method);
+			A annotation = index.getAnnotation(annotationType);
+			if (annotation != null) {
+				result = synthesizeAnnotation(annotation, index.getSource(annotationType));
 				result = synthesizeAnnotation(result, method);
 				findAnnotationCache.put(cacheKey, result);
 			}
@@ -555,22 +533,117 @@ public abstract class AnnotationUtils {
 		return result;
 	}
 
-	@Nullable
-	private static <A extends Annotation> A searchOnInterfaces(Method method, Class<A> annotationType, Class<?>... ifcs) {
+	/**
+	 * Get the index of the annotations that {@link #findAnnotation(Class, Class)}
+	 * or {@link #findAnnotation(Method, Class)} finds on the supplied class or
+	 * method, building it with a single traversal on first access.
+	 * @param element the class or method to index
+	 * @return the cached index
+	 * @since 5.2
+	 */
+	private static AnnotationIndex getAnnotationIndex(AnnotatedElement element) {
+		AnnotationIndex index = annotationIndexCache.get(element);
+		if (index == null) {
+			index = new AnnotationIndex();
+			if (element instanceof Class) {
+				indexClassAnnotations((Class<?>) element, index, new HashSet<>());
+			}
+			else {
+				indexMethodAnnotations((Method) element, index);
+			}
+			annotationIndexCache.put(element, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Index the annotations on the given method in the order in which
+	 * {@link #findAnnotation(Method, Class)} searches for them: on the
+	 * (possibly bridged) method, on the methods it overrides in locally
+	 * declared interfaces, and then in the class and interface hierarchy.
+	 * @param method the method to index
+	 * @param index the index to add annotations to
+	 * @since 5.2
+	 */
+	private static void indexMethodAnnotations(Method method, AnnotationIndex index) {
+		Method resolvedMethod = BridgeMethodResolver.findBridgedMethod(method);
+		indexAnnotations(resolvedMethod, resolvedMethod, index, new HashSet<>());
+		indexOnInterfaces(method, index, method.getDeclaringClass().getInterfaces());
+
+		Class<?> clazz = method.getDeclaringClass();
+		while (true) {
+			clazz = clazz.getSuperclass();
+			if (clazz == null || clazz == Object.class) {
+				break;
+			}
+			Set<Method> annotatedMethods = getAnnotatedMethodsInBaseType(clazz);
+			if (!annotatedMethods.isEmpty()) {
+				for (Method annotatedMethod : annotatedMethods) {
+					if (isOverride(method, annotatedMethod)) {
+						Method resolvedSuperMethod = BridgeMethodResolver.findBridgedMethod(annotatedMethod);
+						indexAnnotations(resolvedSuperMethod, resolvedSuperMethod, index, new HashSet<>());
+					}
+				}
+			}
+			indexOnInterfaces(method, index, clazz.getInterfaces());
+		}
+	}
+
+	/**
+	 * Index the annotations that are present or meta-present on the methods
+	 * that the given method overrides in the given interfaces, in the manner
+	 * of {@link #getAnnotation(Method, Class)}.
+	 * @since 5.2
+	 */
+	private static void indexOnInterfaces(Method method, AnnotationIndex index, Class<?>... ifcs) {
 		for (Class<?> ifc : ifcs) {
 			Set<Method> annotatedMethods = getAnnotatedMethodsInBaseType(ifc);
 			if (!annotatedMethods.isEmpty()) {
 				for (Method annotatedMethod : annotatedMethods) {
 					if (isOverride(method, annotatedMethod)) {
-						A annotation = getAnnotation(annotatedMethod, annotationType);
-						if (annotation != null) {
-							return annotation;
+						Method resolvedMethod = BridgeMethodResolver.findBridgedMethod(annotatedMethod);
+						try {
+							Annotation[] annotations = resolvedMethod.getAnnotations();
+							index.add(annotations, resolvedMethod);
+							for (Annotation metaAnn : annotations) {
+								index.add(metaAnn.annotationType().getAnnotations(), resolvedMethod);
+							}
+						}
+						catch (Throwable ex) {
+							handleIntrospectionFailure(resolvedMethod, ex);
 						}
 					}
 				}
 			}
 		}
-		return null;
+	}
+
+	/**
+	 * Index the annotations declared on the given element and, recursively,
+	 * their meta-annotations in the order in which
+	 * {@link #findAnnotation(AnnotatedElement, Class)} searches for them.
+	 * @param annotatedElement the element to index
+	 * @param source the element that a found annotation is attributed to
+	 * @param index the index to add annotations to
+	 * @param visited the set of annotations that have already been visited
+	 * @since 5.2
+	 */
+	private static void indexAnnotations(AnnotatedElement annotatedElement, AnnotatedElement source,
+			AnnotationIndex index, Set<Annotation> visited) {
+
+		try {
+			Annotation[] annotations = getDeclaredAnnotations(annotatedElement);
+			index.add(annotations, source);
+			for (Annotation declaredAnn : annotations) {
+				Class<? extends Annotation> declaredType = declaredAnn.annotationType();
+				if (!isInJavaLangAnnotationPackage(declaredType) && visited.add(declaredAnn)) {
+					indexAnnotations(declaredType, source, index, visited);
+				}
+			}
+		}
+		catch (Throwable ex) {
+			handleIntrospectionFailure(annotatedElement, ex);
+		}
 	}
 
 	/**
@@ -724,7 +797,7 @@ public abstract class AnnotationUtils {
 		AnnotationCacheKey cacheKey = new AnnotationCacheKey(clazz, annotationType);
 		A result = (A) findAnnotationCache.get(cacheKey);
 		if (result == null) {
-			result = findAnnotation(clazz, annotationType, new HashSet<>());
+			result = getAnnotationIndex(clazz).getAnnotation(annotationType);
 			if (result != null && synthesize) {
 				result = synthesizeAnnotation(result, clazz);
 				findAnnotationCache.put(cacheKey, result);
@@ -734,48 +807,39 @@ public abstract class AnnotationUtils {
 	}
 
 	/**
-	 * Perform the search algorithm for {@link #findAnnotation(Class, Class)},
-	 * avoiding endless recursion by tracking which annotations have already
-	 * been <em>visited</em>.
-	 * @param clazz the class to look for annotations on
-	 * @param annotationType the type of annotation to look for
+	 * Index the annotations on the given class in the order in which
+	 * {@link #findAnnotation(Class, Class)} searches for them, avoiding
+	 * endless recursion by tracking which annotations have already been
+	 * <em>visited</em>.
+	 * @param clazz the class to index
+	 * @param index the index to add annotations to
 	 * @param visited the set of annotations that have already been visited
-	 * @return the first matching annotation, or {@code null} if not found
+	 * @since 5.2
 	 */
-	@Nullable
-	private static <A extends Annotation> A findAnnotation(Class<?> clazz, Class<A> annotationType, Set<Annotation> visited) {
+	private static void indexClassAnnotations(Class<?> clazz, AnnotationIndex index, Set<Annotation> visited) {
 		try {
-			A annotation = clazz.getDeclaredAnnotation(annotationType);
-			if (annotation != null) {
-				return annotation;
-			}
-			for (Annotation declaredAnn : getDeclaredAnnotations(clazz)) {
+			Annotation[] annotations = getDeclaredAnnotations(clazz);
+			index.add(annotations, clazz);
+			for (Annotation declaredAnn : annotations) {
 				Class<? extends Annotation> declaredType = declaredAnn.annotationType();
 				if (!isInJavaLangAnnotationPackage(declaredType) && visited.add(declaredAnn)) {
-					annotation = findAnnotation(declaredType, annotationType, visited);
-					if (annotation != null) {
-						return annotation;
-					}
+					indexClassAnnotations(declaredType, index, visited);
 				}
 			}
 		}
 		catch (Throwable ex) {
 			handleIntrospectionFailure(clazz, ex);
-			return null;
+			return;
 		}
 
 		for (Class<?> ifc : clazz.getInterfaces()) {
-			A annotation = findAnnotation(ifc, annotationType, visited);
-			if (annotation != null) {
-				return annotation;
-			}
+			indexClassAnnotations(ifc, index, visited);
 		}
 
 		Class<?> superclass = clazz.getSuperclass();
-		if (superclass == null || superclass == Object.class) {
-			return null;
+		if (superclass != null && superclass != Object.class) {
+			indexClassAnnotations(superclass, index, visited);
 		}
-		return findAnnotation(superclass, annotationType, visited);
 	}
 
 	/**
@@ -1976,11 +2040,49 @@ public abstract class AnnotationUtils {
 		findAnnotationCache.clear();
 		metaPresentCache.clear();
 		declaredAnnotationsCache.clear();
+		annotationIndexCache.clear();
 		annotatedBaseTypeCache.clear();
 		synthesizableCache.clear();
 		attributeAliasesCache.clear();
 		attributeMethodsCache.clear();
 		aliasDescriptorCache.clear();
+		AnnotatedElementUtils.clearCache();
+	}
+
+
+	/**
+	 * Index of the annotations that {@link #findAnnotation(Class, Class)} or
+	 * {@link #findAnnotation(Method, Class)} finds on a class or method, holding
+	 * the first one per annotation type in search order along with the element
+	 * it is attributed to.
+	 * @since 5.2
+	 */
+	private static final class AnnotationIndex {
+
+		private final Map<Class<? extends Annotation>, Annotation> annotations = new HashMap<>();
+
+		private final Map<Class<? extends Annotation>, AnnotatedElement> sources = new HashMap<>();
+
+		void add(Annotation[] annotations, AnnotatedElement source) {
+			for (Annotation annotation : annotations) {
+				Class<? extends Annotation> annotationType = annotation.annotationType();
+				if (!this.annotations.containsKey(annotationType)) {
+					this.annotations.put(annotationType, annotation);
+					this.sources.put(annotationType, source);
+				}
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		@Nullable
+		<A extends Annotation> A getAnnotation(Class<A> annotationType) {
+			return (A) this.annotations.get(annotationType);
+		}
+
+		@Nullable
+		AnnotatedElement getSource(Class<? extends Annotation> annotationType) {
+			return this.sources.get(annotationType);
+		}
 	}
 
 
@@ -16,6 +16,7 @@
 
 package org.springframework.core.codec;
 
+import java.io.IOException;
 import java.util.Map;
 
 import reactor.core.publisher.Flux;
@@ -46,6 +47,8 @@ public class ResourceEncoder extends AbstractSingleValueEncoder<Resource> {
 
 	private final int bufferSize;
 
+	private int memoryMapThreshold;
+
 
 	public ResourceEncoder() {
 		this(DEFAULT_BUFFER_SIZE);
@@ -58,6 +61,28 @@ public class ResourceEncoder extends AbstractSingleValueEncoder<Resource> {
 	}
 
 
+	/**
+	 * Set the size up to which file resources are memory-mapped into a single
+	 * buffer rather than read in chunks of the configured buffer size.
+	 * Mapping avoids copying small, frequently served files out of the file
+	 * system cache.
+	 * <p>By default this is set to 0, i.e. resources are never mapped.
+	 * @since 5.2
+	 * @see DataBufferUtils#readMapped
+	 */
+	public void setMemoryMapThreshold(int memoryMapThreshold) {
+		Assert.isTrue(memoryMapThreshold >= 0, "'memoryMapThreshold' must be >= 0");
+		this.memoryMapThreshold = memoryMapThreshold;
+	}
+
+	/**
+	 * Return the configured memory map threshold.
+	 * @since 5.2
+	 */
+	public int getMemoryMapThreshold() {
+		return this.memoryMapThreshold;
+	}
+
 	@Override
 	public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
 		Class<?> clazz = elementType.toClass();
@@ -73,7 +98,22 @@ public class ResourceEncoder extends AbstractSingleValueEncoder<Resource> {
 			logger.debug(logPrefix + "Writing [" + resource + "]");
 		}
 
+		if (shouldMap(resource)) {
+			return DataBufferUtils.readMapped(resource, 0, -1, dataBufferFactory);
+		}
 		return DataBufferUtils.read(resource, dataBufferFactory, this.bufferSize);
 	}
 
+	private boolean shouldMap(Resource resource) {
+		if (this.memoryMapThreshold > 0 && resource.isFile()) {
+			try {
+				return (resource.contentLength() <= this.memoryMapThreshold);
+			}
+			catch (IOException ex) {
+				// read it in chunks instead
+			}
+		}
+		return false;
+	}
+
 }
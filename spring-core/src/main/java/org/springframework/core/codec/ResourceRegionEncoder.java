@@ -59,6 +59,8 @@ public class ResourceRegionEncoder extends AbstractEncoder<ResourceRegion> {
 
 	private final int bufferSize;
 
+	private int memoryMapThreshold;
+
 
 	public ResourceRegionEncoder() {
 		this(DEFAULT_BUFFER_SIZE);
@@ -70,6 +72,29 @@ public class ResourceRegionEncoder extends AbstractEncoder<ResourceRegion> {
 		this.bufferSize = bufferSize;
 	}
 
+
+	/**
+	 * Set the size up to which regions of file resources are memory-mapped
+	 * into a single buffer rather than read in chunks of the configured
+	 * buffer size.
+	 * <p>By default this is set to 0, i.e. regions are never mapped.
+	 * @since 5.2
+	 * @see DataBufferUtils#readMapped
+	 */
+	public void setMemoryMapThreshold(int memoryMapThreshold) {
+		Assert.isTrue(memoryMapThreshold >= 0, "'memoryMapThreshold' must be >= 0");
+		this.memoryMapThreshold = memoryMapThreshold;
+	}
+
+	/**
+	 * Return the configured memory map threshold.
+	 * @since 5.2
+	 */
+	public int getMemoryMapThreshold() {
+		return this.memoryMapThreshold;
+	}
+
+
 	@Override
 	public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
 		return super.canEncode(elementType, mimeType)
@@ -140,6 +165,9 @@ public class ResourceRegionEncoder extends AbstractEncoder<ResourceRegion> {
 					"Writing region " + position + "-" + (position + count) + " of [" + resource + "]");
 		}
 
+		if (this.memoryMapThreshold > 0 && count <= this.memoryMapThreshold && resource.isFile()) {
+			return DataBufferUtils.readMapped(resource, position, count, bufferFactory);
+		}
 		Flux<DataBuffer> in = DataBufferUtils.read(resource, position, bufferFactory, this.bufferSize);
 		return DataBufferUtils.takeUntilByteCount(in, count);
 	}
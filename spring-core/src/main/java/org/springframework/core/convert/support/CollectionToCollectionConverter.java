@@ -19,6 +19,7 @@ package org.springframework.core.convert.support;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
+import java.util.function.Function;
 
 import org.springframework.core.CollectionFactory;
 import org.springframework.core.convert.ConversionService;
@@ -48,6 +49,15 @@ final class CollectionToCollectionConverter implements ConditionalGenericConvert
 	}
 
 
+	/**
+	 * Return the ConversionService that elements are converted with.
+	 * @since 5.2
+	 */
+	ConversionService getConversionService() {
+		return this.conversionService;
+	}
+
+
 	@Override
 	public Set<ConvertiblePair> getConvertibleTypes() {
 		return Collections.singleton(new ConvertiblePair(Collection.class, Collection.class));
@@ -62,6 +72,20 @@ final class CollectionToCollectionConverter implements ConditionalGenericConvert
 	@Override
 	@Nullable
 	public Object convert(@Nullable Object source, TypeDescriptor sourceType, TypeDescriptor targetType) {
+		TypeDescriptor elementDesc = targetType.getElementTypeDescriptor();
+		return convert(source, targetType, elementDesc, sourceElement -> this.conversionService.convert(
+				sourceElement, sourceType.elementTypeDescriptor(sourceElement), elementDesc));
+	}
+
+	/**
+	 * Convert the given source collection, delegating to the given function
+	 * for converting each element to the target element type.
+	 * @since 5.2
+	 */
+	@Nullable
+	Object convert(@Nullable Object source, TypeDescriptor targetType,
+			@Nullable TypeDescriptor elementDesc, Function<Object, Object> elementConverter) {
+
 		if (source == null) {
 			return null;
 		}
@@ -72,7 +96,6 @@ final class CollectionToCollectionConverter implements ConditionalGenericConvert
 		if (!copyRequired && sourceCollection.isEmpty()) {
 			return source;
 		}
-		TypeDescriptor elementDesc = targetType.getElementTypeDescriptor();
 		if (elementDesc == null && !copyRequired) {
 			return source;
 		}
@@ -86,8 +109,7 @@ final class CollectionToCollectionConverter implements ConditionalGenericConvert
 		}
 		else {
 			for (Object sourceElement : sourceCollection) {
-				Object targetElement = this.conversionService.convert(sourceElement,
-						sourceType.elementTypeDescriptor(sourceElement), elementDesc);
+				Object targetElement = elementConverter.apply(sourceElement);
 				target.add(targetElement);
 				if (sourceElement != targetElement) {
 					copyRequired = true;
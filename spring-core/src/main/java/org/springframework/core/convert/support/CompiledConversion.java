@@ -0,0 +1,63 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.convert.support;
+
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.lang.Nullable;
+
+/**
+ * A conversion between a fixed source and target {@link TypeDescriptor},
+ * with its converter resolved up front by a {@link GenericConversionService}.
+ *
+ * <p>Intended for callers that repeatedly convert values of the same types,
+ * e.g. in a loop: a handle avoids the converter lookup per invocation and,
+ * for collection conversions, resolves the element conversion once per
+ * element class rather than once per element. Handles are thread-safe and
+ * follow converters subsequently added to or removed from the service.
+ *
+ * @author Daniel Ferreira
+ * @since 5.2
+ * @see GenericConversionService#compile(TypeDescriptor, TypeDescriptor)
+ */
+public interface CompiledConversion {
+
+	/**
+	 * Return the type descriptor of the values to convert from.
+	 */
+	TypeDescriptor getSourceType();
+
+	/**
+	 * Return the type descriptor of the values to convert to.
+	 */
+	TypeDescriptor getTargetType();
+
+	/**
+	 * Convert the given source object, which must be an instance of the
+	 * {@linkplain #getSourceType() source type}, to the target type.
+	 * <p>Behaves like {@link GenericConversionService#convert(Object, TypeDescriptor, TypeDescriptor)}
+	 * with this handle's source and target type.
+	 * @param source the source object to convert (may be {@code null})
+	 * @return the converted object
+	 * @throws ConversionException if a conversion exception occurred
+	 * @throws IllegalArgumentException if the source object is not an instance
+	 * of the source type
+	 */
+	@Nullable
+	Object convert(@Nullable Object source);
+
+}
@@ -27,6 +27,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import org.springframework.core.DecoratingProxy;
 import org.springframework.core.ResolvableType;
@@ -78,6 +80,8 @@ public class GenericConversionService implements ConfigurableConversionService {
 
 	private final Map<ConverterCacheKey, GenericConverter> converterCache = new ConcurrentReferenceHashMap<>(64);
 
+	private final AtomicInteger converterGeneration = new AtomicInteger();
+
 
 	// ConverterRegistry implementation
 
@@ -212,6 +216,26 @@ public class GenericConversionService implements ConfigurableConversionService {
 		return convert(source, TypeDescriptor.forObject(source), targetType);
 	}
 
+	/**
+	 * Obtain a reusable handle for converting values of the given source type
+	 * to the given target type.
+	 * <p>The handle resolves the converter once rather than on every
+	 * {@link #convert(Object, TypeDescriptor, TypeDescriptor)} invocation,
+	 * and for collection to collection conversions also resolves the element
+	 * conversion once per element class. It is re-resolved automatically when
+	 * converters are added to or removed from this service.
+	 * @param sourceType context about the source type to convert from (required)
+	 * @param targetType context about the target type to convert to (required)
+	 * @return the conversion handle
+	 * @throws IllegalArgumentException if sourceType or targetType is {@code null}
+	 * @since 5.2
+	 */
+	public CompiledConversion compile(TypeDescriptor sourceType, TypeDescriptor targetType) {
+		Assert.notNull(sourceType, "Source type to convert from cannot be null");
+		Assert.notNull(targetType, "Target type to convert to cannot be null");
+		return new DefaultCompiledConversion(sourceType, targetType);
+	}
+
 	@Override
 	public String toString() {
 		return this.converters.toString();
@@ -304,6 +328,7 @@ public class GenericConversionService implements ConfigurableConversionService {
 
 	private void invalidateCache() {
 		this.converterCache.clear();
+		this.converterGeneration.incrementAndGet();
 	}
 
 	@Nullable
@@ -443,6 +468,172 @@ public class GenericConversionService implements ConfigurableConversionService {
 	}
 
 
+	/**
+	 * {@link CompiledConversion} that holds on to the converter resolved for its
+	 * source and target type, until the registered converters change.
+	 */
+	private final class DefaultCompiledConversion implements CompiledConversion {
+
+		private final TypeDescriptor sourceType;
+
+		private final TypeDescriptor targetType;
+
+		@Nullable
+		private volatile ResolvedConverter resolvedConverter;
+
+		public DefaultCompiledConversion(TypeDescriptor sourceType, TypeDescriptor targetType) {
+			this.sourceType = sourceType;
+			this.targetType = targetType;
+		}
+
+		@Override
+		public TypeDescriptor getSourceType() {
+			return this.sourceType;
+		}
+
+		@Override
+		public TypeDescriptor getTargetType() {
+			return this.targetType;
+		}
+
+		@Override
+		@Nullable
+		public Object convert(@Nullable Object source) {
+			if (source != null && !this.sourceType.getObjectType().isInstance(source)) {
+				throw new IllegalArgumentException("Source to convert from must be an instance of [" +
+						this.sourceType + "]; instead it was a [" + source.getClass().getName() + "]");
+			}
+			GenericConverter converter = getResolvedConverter();
+			if (converter != null) {
+				Object result = ConversionUtils.invokeConverter(converter, source, this.sourceType, this.targetType);
+				return handleResult(this.sourceType, this.targetType, result);
+			}
+			return handleConverterNotFound(source, this.sourceType, this.targetType);
+		}
+
+		@Nullable
+		private GenericConverter getResolvedConverter() {
+			int generation = converterGeneration.get();
+			ResolvedConverter resolvedConverter = this.resolvedConverter;
+			if (resolvedConverter == null || resolvedConverter.generation != generation) {
+				resolvedConverter = new ResolvedConverter(generation, resolveConverter());
+				this.resolvedConverter = resolvedConverter;
+			}
+			return resolvedConverter.converter;
+		}
+
+		@Nullable
+		private GenericConverter resolveConverter() {
+			GenericConverter converter = getConverter(this.sourceType, this.targetType);
+			if (converter instanceof CollectionToCollectionConverter) {
+				CollectionToCollectionConverter collectionConverter = (CollectionToCollectionConverter) converter;
+				TypeDescriptor elementType = this.targetType.getElementTypeDescriptor();
+				if (elementType != null && collectionConverter.getConversionService() == GenericConversionService.this) {
+					return new CompiledCollectionConverter(collectionConverter, elementType,
+							new CompiledElementConversion(this.sourceType, elementType));
+				}
+			}
+			return converter;
+		}
+
+		@Override
+		public String toString() {
+			return (this.sourceType + " -> " + this.targetType);
+		}
+	}
+
+
+	/**
+	 * A converter resolved for a {@link DefaultCompiledConversion}, along with the
+	 * generation of registered converters that it was resolved against.
+	 */
+	private static final class ResolvedConverter {
+
+		private final int generation;
+
+		@Nullable
+		private final GenericConverter converter;
+
+		public ResolvedConverter(int generation, @Nullable GenericConverter converter) {
+			this.generation = generation;
+			this.converter = converter;
+		}
+	}
+
+
+	/**
+	 * Converts the elements of a source collection through a {@link CompiledConversion}
+	 * for the class of the last element seen, recompiling whenever the element class
+	 * changes.
+	 */
+	private final class CompiledElementConversion implements Function<Object, Object> {
+
+		private final TypeDescriptor sourceType;
+
+		private final TypeDescriptor elementType;
+
+		@Nullable
+		private volatile CompiledConversion lastConversion;
+
+		public CompiledElementConversion(TypeDescriptor sourceType, TypeDescriptor elementType) {
+			this.sourceType = sourceType;
+			this.elementType = elementType;
+		}
+
+		@Override
+		@Nullable
+		public Object apply(@Nullable Object sourceElement) {
+			if (sourceElement == null) {
+				return GenericConversionService.this.convert(
+						null, this.sourceType.getElementTypeDescriptor(), this.elementType);
+			}
+			CompiledConversion conversion = this.lastConversion;
+			if (conversion == null || conversion.getSourceType().getType() != sourceElement.getClass()) {
+				conversion = compile(this.sourceType.elementTypeDescriptor(sourceElement), this.elementType);
+				this.lastConversion = conversion;
+			}
+			return conversion.convert(sourceElement);
+		}
+	}
+
+
+	/**
+	 * Applies a {@link CollectionToCollectionConverter} with compiled element conversions.
+	 */
+	private static final class CompiledCollectionConverter implements GenericConverter {
+
+		private final CollectionToCollectionConverter converter;
+
+		private final TypeDescriptor elementType;
+
+		private final Function<Object, Object> elementConversion;
+
+		public CompiledCollectionConverter(CollectionToCollectionConverter converter,
+				TypeDescriptor elementType, Function<Object, Object> elementConversion) {
+
+			this.converter = converter;
+			this.elementType = elementType;
+			this.elementConversion = elementConversion;
+		}
+
+		@Override
+		public Set<ConvertiblePair> getConvertibleTypes() {
+			return this.converter.getConvertibleTypes();
+		}
+
+		@Override
+		@Nullable
+		public Object convert(@Nullable Object source, TypeDescriptor sourceType, TypeDescriptor targetType) {
+			return this.converter.convert(source, targetType, this.elementType, this.elementConversion);
+		}
+
+		@Override
+		public String toString() {
+			return this.converter.toString();
+		}
+	}
+
+
 	/**
 	 * Key for use with the converter cache.
 	 */
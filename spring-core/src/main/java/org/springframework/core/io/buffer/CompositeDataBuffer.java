@@ -0,0 +1,588 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * {@link DataBuffer} that presents the readable bytes of several buffers as a
+ * single buffer, without copying them. Created by
+ * {@link DataBufferUtils#join(org.reactivestreams.Publisher)}.
+ *
+ * <p>The composite takes ownership of its components, and
+ * {@linkplain DataBufferUtils#release(DataBuffer) releases} them once it is
+ * released itself. Reads, searches and input streams span component
+ * boundaries. {@link #asByteBuffer(int, int)} only shares data with this
+ * buffer if the requested range lies within a single component; otherwise
+ * the range is copied into a new {@code ByteBuffer}. Growing the capacity
+ * appends a component allocated by the {@linkplain #factory() factory}.
+ *
+ * <p>Releasing a composite that has already been released fails, unless none
+ * of its components is a {@link PooledDataBuffer}: in that case it is a no-op,
+ * as for any other non-pooled buffer.
+ *
+ * @author Daniel Ferreira
+ * @since 5.2
+ */
+class CompositeDataBuffer implements PooledDataBuffer {
+
+	private static final int MIN_GROWTH = DefaultDataBufferFactory.DEFAULT_INITIAL_CAPACITY;
+
+
+	private final DataBufferFactory dataBufferFactory;
+
+	private final List<Component> components;
+
+	@Nullable
+	private final CompositeDataBuffer parent;
+
+	private final AtomicInteger refCount = new AtomicInteger(1);
+
+	private int capacity;
+
+	private int readPosition;
+
+	private int writePosition;
+
+
+	/**
+	 * Create a composite of the readable bytes of the given buffers. Buffers
+	 * without readable bytes are released right away.
+	 */
+	CompositeDataBuffer(DataBufferFactory dataBufferFactory, List<? extends DataBuffer> dataBuffers) {
+		Assert.notNull(dataBufferFactory, "DataBufferFactory must not be null");
+		Assert.notNull(dataBuffers, "DataBuffers must not be null");
+		this.dataBufferFactory = dataBufferFactory;
+		this.components = new ArrayList<>(dataBuffers.size());
+		this.parent = null;
+		for (DataBuffer dataBuffer : dataBuffers) {
+			int length = dataBuffer.readableByteCount();
+			if (length > 0) {
+				this.components.add(new Component(dataBuffer, dataBuffer.readPosition(), this.capacity, length));
+				this.capacity += length;
+			}
+			else {
+				DataBufferUtils.release(dataBuffer);
+			}
+		}
+		this.writePosition = this.capacity;
+	}
+
+	private CompositeDataBuffer(CompositeDataBuffer parent, List<Component> components, int length) {
+		this.dataBufferFactory = parent.dataBufferFactory;
+		this.components = components;
+		this.parent = (parent.parent != null ? parent.parent : parent);
+		this.capacity = length;
+		this.writePosition = length;
+	}
+
+
+	@Override
+	public DataBufferFactory factory() {
+		return this.dataBufferFactory;
+	}
+
+	@Override
+	public int indexOf(IntPredicate predicate, int fromIndex) {
+		Assert.notNull(predicate, "'predicate' must not be null");
+		if (fromIndex < 0) {
+			fromIndex = 0;
+		}
+		else if (fromIndex >= this.writePosition) {
+			return -1;
+		}
+		for (int i = componentIndex(fromIndex); i < this.components.size(); i++) {
+			Component component = this.components.get(i);
+			if (component.offset >= this.writePosition) {
+				break;
+			}
+			int start = component.start + Math.max(fromIndex - component.offset, 0);
+			int end = component.start + Math.min(component.length, this.writePosition - component.offset);
+			int result = component.buffer.indexOf(predicate, start);
+			if (result != -1 && result < end) {
+				return component.offset + result - component.start;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int lastIndexOf(IntPredicate predicate, int fromIndex) {
+		Assert.notNull(predicate, "'predicate' must not be null");
+		int index = Math.min(fromIndex, this.writePosition - 1);
+		if (index < 0) {
+			return -1;
+		}
+		for (int i = componentIndex(index); i >= 0; i--) {
+			Component component = this.components.get(i);
+			int from = component.start + Math.min(index - component.offset, component.length - 1);
+			int result = component.buffer.lastIndexOf(predicate, from);
+			if (result >= component.start) {
+				return component.offset + result - component.start;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int readableByteCount() {
+		return this.writePosition - this.readPosition;
+	}
+
+	@Override
+	public int writableByteCount() {
+		return this.capacity - this.writePosition;
+	}
+
+	@Override
+	public int readPosition() {
+		return this.readPosition;
+	}
+
+	@Override
+	public CompositeDataBuffer readPosition(int readPosition) {
+		assertIndex(readPosition >= 0, "'readPosition' %d must be >= 0", readPosition);
+		assertIndex(readPosition <= this.writePosition, "'readPosition' %d must be <= %d",
+				readPosition, this.writePosition);
+
+		this.readPosition = readPosition;
+		return this;
+	}
+
+	@Override
+	public int writePosition() {
+		return this.writePosition;
+	}
+
+	@Override
+	public CompositeDataBuffer writePosition(int writePosition) {
+		assertIndex(writePosition >= this.readPosition, "'writePosition' %d must be >= %d",
+				writePosition, this.readPosition);
+		assertIndex(writePosition <= this.capacity, "'writePosition' %d must be <= %d",
+				writePosition, this.capacity);
+
+		this.writePosition = writePosition;
+		return this;
+	}
+
+	@Override
+	public int capacity() {
+		return this.capacity;
+	}
+
+	@Override
+	public CompositeDataBuffer capacity(int newCapacity) {
+		Assert.isTrue(newCapacity > 0,
+				String.format("'newCapacity' %d must be higher than 0", newCapacity));
+		if (this.parent != null) {
+			throw new UnsupportedOperationException("Changing the capacity of a sliced buffer is not supported");
+		}
+
+		if (newCapacity > this.capacity) {
+			int length = newCapacity - this.capacity;
+			DataBuffer dataBuffer = this.dataBufferFactory.allocateBuffer(length);
+			dataBuffer.writePosition(dataBuffer.capacity());
+			this.components.add(new Component(dataBuffer, 0, this.capacity, length));
+			this.capacity = newCapacity;
+		}
+		else if (newCapacity < this.capacity) {
+			for (int i = this.components.size() - 1; i >= 0; i--) {
+				Component component = this.components.get(i);
+				if (component.offset >= newCapacity) {
+					this.components.remove(i);
+					DataBufferUtils.release(component.buffer);
+				}
+				else {
+					component.length = Math.min(component.length, newCapacity - component.offset);
+					break;
+				}
+			}
+			this.capacity = newCapacity;
+			if (this.readPosition < newCapacity) {
+				this.writePosition = Math.min(this.writePosition, newCapacity);
+			}
+			else {
+				this.readPosition = newCapacity;
+				this.writePosition = newCapacity;
+			}
+		}
+		return this;
+	}
+
+	@Override
+	public byte getByte(int index) {
+		assertIndex(index >= 0, "index %d must be >= 0", index);
+		assertIndex(index <= this.writePosition - 1, "index %d must be <= %d",
+				index, this.writePosition - 1);
+
+		Component component = this.components.get(componentIndex(index));
+		return component.buffer.getByte(component.start + index - component.offset);
+	}
+
+	@Override
+	public byte read() {
+		assertIndex(this.readPosition <= this.writePosition - 1, "readPosition %d must be <= %d",
+				this.readPosition, this.writePosition - 1);
+		byte b = getByte(this.readPosition);
+		this.readPosition++;
+		return b;
+	}
+
+	@Override
+	public CompositeDataBuffer read(byte[] destination) {
+		Assert.notNull(destination, "'destination' must not be null");
+		read(destination, 0, destination.length);
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer read(byte[] destination, int offset, int length) {
+		Assert.notNull(destination, "'destination' must not be null");
+		assertIndex(this.readPosition <= this.writePosition - length,
+				"readPosition %d and length %d should be smaller than writePosition %d",
+				this.readPosition, length, this.writePosition);
+
+		int index = this.readPosition;
+		while (length > 0) {
+			Component component = this.components.get(componentIndex(index));
+			int count = Math.min(length, component.offset + component.length - index);
+			component.asByteBuffer(index, count).get(destination, offset, count);
+			index += count;
+			offset += count;
+			length -= count;
+		}
+		this.readPosition = index;
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(byte b) {
+		ensureCapacity(1);
+		Component component = this.components.get(componentIndex(this.writePosition));
+		component.asByteBuffer(this.writePosition, 1).put(0, b);
+		this.writePosition++;
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(byte[] source) {
+		Assert.notNull(source, "'source' must not be null");
+		write(source, 0, source.length);
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(byte[] source, int offset, int length) {
+		Assert.notNull(source, "'source' must not be null");
+		write(ByteBuffer.wrap(source, offset, length));
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(DataBuffer... buffers) {
+		if (!ObjectUtils.isEmpty(buffers)) {
+			ByteBuffer[] byteBuffers = new ByteBuffer[buffers.length];
+			for (int i = 0; i < buffers.length; i++) {
+				byteBuffers[i] = buffers[i].asByteBuffer();
+			}
+			write(byteBuffers);
+		}
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(ByteBuffer... byteBuffers) {
+		Assert.notEmpty(byteBuffers, "'byteBuffers' must not be empty");
+		int length = 0;
+		for (ByteBuffer byteBuffer : byteBuffers) {
+			length += byteBuffer.remaining();
+		}
+		ensureCapacity(length);
+		for (ByteBuffer byteBuffer : byteBuffers) {
+			write(byteBuffer);
+		}
+		return this;
+	}
+
+	private void write(ByteBuffer source) {
+		ensureCapacity(source.remaining());
+		while (source.hasRemaining()) {
+			Component component = this.components.get(componentIndex(this.writePosition));
+			int count = Math.min(source.remaining(), component.offset + component.length - this.writePosition);
+			ByteBuffer tmp = source.duplicate();
+			((Buffer) tmp).limit(tmp.position() + count);
+			component.asByteBuffer(this.writePosition, count).put(tmp);
+			((Buffer) source).position(source.position() + count);
+			this.writePosition += count;
+		}
+	}
+
+	@Override
+	public CompositeDataBuffer slice(int index, int length) {
+		checkIndex(index, length);
+		List<Component> slices = new ArrayList<>();
+		int offset = 0;
+		while (offset < length) {
+			Component component = this.components.get(componentIndex(index + offset));
+			int start = component.start + index + offset - component.offset;
+			int count = Math.min(length - offset, component.offset + component.length - index - offset);
+			slices.add(new Component(component.buffer, start, offset, count));
+			offset += count;
+		}
+		return new CompositeDataBuffer(this, slices, length);
+	}
+
+	@Override
+	public ByteBuffer asByteBuffer() {
+		return asByteBuffer(this.readPosition, readableByteCount());
+	}
+
+	@Override
+	public ByteBuffer asByteBuffer(int index, int length) {
+		checkIndex(index, length);
+		if (length == 0) {
+			return ByteBuffer.allocate(0);
+		}
+		Component component = this.components.get(componentIndex(index));
+		if (index + length <= component.offset + component.length) {
+			return component.asByteBuffer(index, length);
+		}
+		ByteBuffer result = ByteBuffer.allocate(length);
+		while (result.hasRemaining()) {
+			component = this.components.get(componentIndex(index));
+			int count = Math.min(result.remaining(), component.offset + component.length - index);
+			result.put(component.asByteBuffer(index, count));
+			index += count;
+		}
+		((Buffer) result).flip();
+		return result;
+	}
+
+	@Override
+	public InputStream asInputStream() {
+		return new CompositeDataBufferInputStream(false);
+	}
+
+	@Override
+	public InputStream asInputStream(boolean releaseOnClose) {
+		return new CompositeDataBufferInputStream(releaseOnClose);
+	}
+
+	@Override
+	public OutputStream asOutputStream() {
+		return new CompositeDataBufferOutputStream();
+	}
+
+	@Override
+	public boolean isAllocated() {
+		return (this.parent != null ? this.parent.isAllocated() : this.refCount.get() > 0);
+	}
+
+	@Override
+	public PooledDataBuffer retain() {
+		if (this.parent != null) {
+			this.parent.retain();
+			return this;
+		}
+		int count;
+		do {
+			count = this.refCount.get();
+			if (count <= 0) {
+				throw new IllegalStateException("Cannot retain a buffer that has been released");
+			}
+		}
+		while (!this.refCount.compareAndSet(count, count + 1));
+		return this;
+	}
+
+	@Override
+	public boolean release() {
+		if (this.parent != null) {
+			return this.parent.release();
+		}
+		int count;
+		do {
+			count = this.refCount.get();
+			if (count <= 0) {
+				if (!hasPooledComponents()) {
+					// Like releasing a non-pooled buffer
+					return false;
+				}
+				throw new IllegalStateException("Buffer has already been released");
+			}
+		}
+		while (!this.refCount.compareAndSet(count, count - 1));
+		if (count > 1) {
+			return false;
+		}
+		for (Component component : this.components) {
+			DataBufferUtils.release(component.buffer);
+		}
+		return true;
+	}
+
+	private boolean hasPooledComponents() {
+		for (Component component : this.components) {
+			if (component.buffer instanceof PooledDataBuffer) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Return the index of the component that holds the byte at the given index.
+	 */
+	private int componentIndex(int index) {
+		int low = 0;
+		int high = this.components.size() - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (this.components.get(mid).offset <= index) {
+				low = mid;
+			}
+			else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	private void ensureCapacity(int length) {
+		if (length <= writableByteCount()) {
+			return;
+		}
+		capacity(Math.max(this.writePosition + length, this.capacity + MIN_GROWTH));
+	}
+
+	@Override
+	public String toString() {
+		return String.format("CompositeDataBuffer (r: %d, w: %d, c: %d, components: %d)",
+				this.readPosition, this.writePosition, this.capacity, this.components.size());
+	}
+
+
+	private void checkIndex(int index, int length) {
+		assertIndex(index >= 0, "index %d must be >= 0", index);
+		assertIndex(length >= 0, "length %d must be >= 0", length);
+		assertIndex(index + length <= this.capacity, "index %d and length %d must be <= %d",
+				index, length, this.capacity);
+	}
+
+	private static void assertIndex(boolean expression, String format, Object... args) {
+		if (!expression) {
+			String message = String.format(format, args);
+			throw new IndexOutOfBoundsException(message);
+		}
+	}
+
+
+	/**
+	 * A region of a component buffer, and its offset in the composite.
+	 */
+	private static final class Component {
+
+		final DataBuffer buffer;
+
+		final int start;
+
+		final int offset;
+
+		int length;
+
+		Component(DataBuffer buffer, int start, int offset, int length) {
+			this.buffer = buffer;
+			this.start = start;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		ByteBuffer asByteBuffer(int index, int count) {
+			return this.buffer.asByteBuffer(this.start + index - this.offset, count);
+		}
+	}
+
+
+	private class CompositeDataBufferInputStream extends InputStream {
+
+		private final boolean releaseOnClose;
+
+		private boolean closed;
+
+		CompositeDataBufferInputStream(boolean releaseOnClose) {
+			this.releaseOnClose = releaseOnClose;
+		}
+
+		@Override
+		public int available() {
+			return readableByteCount();
+		}
+
+		@Override
+		public int read() {
+			return available() > 0 ? CompositeDataBuffer.this.read() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] bytes, int off, int len) throws IOException {
+			int available = available();
+			if (available > 0) {
+				len = Math.min(len, available);
+				CompositeDataBuffer.this.read(bytes, off, len);
+				return len;
+			}
+			else {
+				return -1;
+			}
+		}
+
+		@Override
+		public void close() {
+			if (this.releaseOnClose && !this.closed) {
+				this.closed = true;
+				release();
+			}
+		}
+	}
+
+
+	private class CompositeDataBufferOutputStream extends OutputStream {
+
+		@Override
+		public void write(int b) throws IOException {
+			CompositeDataBuffer.this.write((byte) b);
+		}
+
+		@Override
+		public void write(byte[] bytes, int off, int len) throws IOException {
+			CompositeDataBuffer.this.write(bytes, off, len);
+		}
+	}
+
+}
@@ -20,14 +20,22 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.AsynchronousFileChannel;
 import java.nio.channels.Channel;
 import java.nio.channels.Channels;
 import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -45,6 +53,7 @@ import reactor.core.publisher.SynchronousSink;
 import org.springframework.core.io.Resource;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
 
 /**
  * Utility class for working with {@link DataBuffer DataBuffers}.
@@ -57,6 +66,8 @@ public abstract class DataBufferUtils {
 
 	private static final Consumer<DataBuffer> RELEASE_CONSUMER = DataBufferUtils::release;
 
+	private static final Map<Path, MappedFile> mappedFileCache = new ConcurrentReferenceHashMap<>(64);
+
 
 	//---------------------------------------------------------------------
 	// Reading
@@ -204,6 +215,85 @@ public abstract class DataBufferUtils {
 		return position == 0 ? result : skipUntilByteCount(result, position);
 	}
 
+	/**
+	 * Map a region of the given file {@code Resource} into memory, and wrap it
+	 * as a single {@code DataBuffer}.
+	 * <p>Compared to {@link #read(Resource, long, DataBufferFactory, int)},
+	 * this avoids copying the content from the file system cache, which makes
+	 * it well suited for small files that are served often. The mapping is
+	 * read-only, and stays valid until the returned buffer is garbage collected.
+	 * <p>Files of up to 2GB are mapped once as a whole, and the mapping is
+	 * shared by all regions read from the file for as long as its size and
+	 * last-modified time stay the same, and memory permits.
+	 * @param resource the file resource to map
+	 * @param position the position of the region to map
+	 * @param count the length of the region to map, or a negative value to map
+	 * everything from {@code position} to the end of the file
+	 * @param dataBufferFactory the factory to wrap the mapped region with
+	 * @return a flux with a single data buffer for the mapped region, or an
+	 * empty flux if the region is empty
+	 * @since 5.2
+	 */
+	public static Flux<DataBuffer> readMapped(
+			Resource resource, long position, long count, DataBufferFactory dataBufferFactory) {
+
+		Assert.notNull(resource, "'resource' must not be null");
+		Assert.notNull(dataBufferFactory, "'dataBufferFactory' must not be null");
+		Assert.isTrue(position >= 0, "'position' must be >= 0");
+
+		return Flux.defer(() -> {
+			try {
+				Path path = resource.getFile().toPath().toAbsolutePath();
+				BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+				long length = Math.max(attributes.size() - position, 0);
+				if (count >= 0) {
+					length = Math.min(length, count);
+				}
+				if (length == 0) {
+					return Flux.empty();
+				}
+				if (length > Integer.MAX_VALUE) {
+					return Flux.error(new IllegalArgumentException(
+							"Cannot map " + length + " bytes of " + resource + " into a single buffer"));
+				}
+				ByteBuffer byteBuffer;
+				if (attributes.size() <= Integer.MAX_VALUE) {
+					byteBuffer = getMappedFile(path, attributes).duplicate();
+					((Buffer) byteBuffer).limit((int) (position + length));
+					((Buffer) byteBuffer).position((int) position);
+					byteBuffer = byteBuffer.slice();
+				}
+				else {
+					try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+						byteBuffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+					}
+				}
+				return Flux.just(dataBufferFactory.wrap(byteBuffer));
+			}
+			catch (IOException ex) {
+				return Flux.error(ex);
+			}
+		});
+	}
+
+	/**
+	 * Return the read-only mapping of the given file, mapping it anew if the
+	 * cached mapping is gone or was created for a different size or
+	 * last-modified time of the file.
+	 */
+	private static MappedByteBuffer getMappedFile(Path path, BasicFileAttributes attributes) throws IOException {
+		long lastModified = attributes.lastModifiedTime().toMillis();
+		MappedFile mappedFile = mappedFileCache.get(path);
+		if (mappedFile == null || !mappedFile.matches(attributes.size(), lastModified)) {
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+				MappedByteBuffer byteBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, attributes.size());
+				mappedFile = new MappedFile(attributes.size(), lastModified, byteBuffer);
+			}
+			mappedFileCache.put(path, mappedFile);
+		}
+		return mappedFile.getByteBuffer();
+	}
+
 
 	//---------------------------------------------------------------------
 	// Writing
@@ -432,6 +522,11 @@ public abstract class DataBufferUtils {
 	 * {@linkplain #release(DataBuffer) released}.
 	 * <p>Note that the given data buffers do <strong>not</strong> have to be
 	 * released. They will be released as part of the returned composite.
+	 * <p>As of 5.2, buffers created by a {@link DefaultDataBufferFactory} are
+	 * no longer copied into a single buffer, but joined into a composite view
+	 * (or returned as is, if there is only one). Such a composite is a
+	 * {@link PooledDataBuffer}, but releasing it more than once is a no-op
+	 * unless the joined buffers are pooled themselves.
 	 * @param dataBuffers the data buffers that are to be composed
 	 * @return a buffer that is composed from the {@code dataBuffers} argument
 	 * @since 5.0.3
@@ -442,11 +537,19 @@ public abstract class DataBufferUtils {
 		return Flux.from(dataBuffers)
 				.collectList()
 				.filter(list -> !list.isEmpty())
-				.map(list -> list.get(0).factory().join(list))
+				.map(DataBufferUtils::joinList)
 				.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
 
 	}
 
+	private static DataBuffer joinList(List<DataBuffer> dataBuffers) {
+		DataBufferFactory factory = dataBuffers.get(0).factory();
+		if (factory instanceof DefaultDataBufferFactory) {
+			return (dataBuffers.size() == 1 ? dataBuffers.get(0) : new CompositeDataBuffer(factory, dataBuffers));
+		}
+		return factory.join(dataBuffers);
+	}
+
 
 	private static class ReadableByteChannelGenerator implements Consumer<SynchronousSink<DataBuffer>> {
 
@@ -547,6 +650,34 @@ public abstract class DataBufferUtils {
 	}
 
 
+	/**
+	 * A read-only mapping of a whole file, along with the size and the
+	 * last-modified time of the file when it was mapped.
+	 */
+	private static class MappedFile {
+
+		private final long size;
+
+		private final long lastModified;
+
+		private final MappedByteBuffer byteBuffer;
+
+		public MappedFile(long size, long lastModified, MappedByteBuffer byteBuffer) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.byteBuffer = byteBuffer;
+		}
+
+		public boolean matches(long size, long lastModified) {
+			return (this.size == size && this.lastModified == lastModified);
+		}
+
+		public MappedByteBuffer getByteBuffer() {
+			return this.byteBuffer;
+		}
+	}
+
+
 	private static class WritableByteChannelSubscriber extends BaseSubscriber<DataBuffer> {
 
 		private final FluxSink<DataBuffer> sink;
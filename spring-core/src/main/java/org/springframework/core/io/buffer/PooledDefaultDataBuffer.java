@@ -0,0 +1,209 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * {@link DefaultDataBuffer} whose memory is a chunk obtained from a
+ * {@link PooledDefaultDataBufferFactory}, and handed back once the buffer is
+ * released.
+ *
+ * <p>Chunks replaced by a change in capacity are only handed back on release
+ * as well, since slices and byte buffer views obtained earlier may still refer
+ * to them.
+ *
+ * @author Daniel Ferreira
+ * @since 5.2
+ */
+class PooledDefaultDataBuffer extends DefaultDataBuffer implements PooledDataBuffer {
+
+	private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+
+
+	private final PooledDefaultDataBufferFactory dataBufferFactory;
+
+	private final AtomicInteger refCount = new AtomicInteger(1);
+
+	private ByteBuffer chunk;
+
+	@Nullable
+	private ByteBuffer allocatedChunk;
+
+	@Nullable
+	private List<ByteBuffer> replacedChunks;
+
+	@Nullable
+	private PooledDefaultDataBufferFactory.LeakTracker leakTracker;
+
+
+	PooledDefaultDataBuffer(PooledDefaultDataBufferFactory dataBufferFactory, ByteBuffer chunk, int capacity) {
+		super(dataBufferFactory, limit(chunk, capacity));
+		this.dataBufferFactory = dataBufferFactory;
+		this.chunk = chunk;
+	}
+
+	private static ByteBuffer limit(ByteBuffer chunk, int capacity) {
+		ByteBuffer duplicate = chunk.duplicate();
+		((Buffer) duplicate).clear().limit(capacity);
+		return duplicate;
+	}
+
+
+	void setLeakTracker(PooledDefaultDataBufferFactory.LeakTracker leakTracker) {
+		this.leakTracker = leakTracker;
+	}
+
+	@Override
+	public boolean isAllocated() {
+		return this.refCount.get() > 0;
+	}
+
+	@Override
+	public PooledDataBuffer retain() {
+		int count;
+		do {
+			count = this.refCount.get();
+			if (count <= 0) {
+				throw new IllegalStateException("Cannot retain a buffer that has been released");
+			}
+		}
+		while (!this.refCount.compareAndSet(count, count + 1));
+		return this;
+	}
+
+	@Override
+	public boolean release() {
+		int count;
+		do {
+			count = this.refCount.get();
+			if (count <= 0) {
+				throw new IllegalStateException("Buffer has already been released");
+			}
+		}
+		while (!this.refCount.compareAndSet(count, count - 1));
+		if (count > 1) {
+			return false;
+		}
+		ByteBuffer chunk = this.chunk;
+		// Fail fast on further access rather than read or write recycled memory
+		super.setNativeBuffer(EMPTY_BUFFER);
+		this.dataBufferFactory.recycle(chunk);
+		if (this.replacedChunks != null) {
+			for (ByteBuffer replacedChunk : this.replacedChunks) {
+				this.dataBufferFactory.recycle(replacedChunk);
+			}
+			this.replacedChunks = null;
+		}
+		this.dataBufferFactory.deallocated(this, this.leakTracker);
+		return true;
+	}
+
+	@Override
+	ByteBuffer allocate(int capacity, boolean direct) {
+		if (!isAllocated()) {
+			throw new IllegalStateException("Buffer has been released");
+		}
+		ByteBuffer chunk = this.dataBufferFactory.acquire(capacity);
+		this.allocatedChunk = chunk;
+		return limit(chunk, capacity).slice();
+	}
+
+	@Override
+	void setNativeBuffer(ByteBuffer byteBuffer) {
+		super.setNativeBuffer(byteBuffer);
+		if (this.allocatedChunk != null) {
+			if (this.replacedChunks == null) {
+				this.replacedChunks = new ArrayList<>(2);
+			}
+			this.replacedChunks.add(this.chunk);
+			this.chunk = this.allocatedChunk;
+			this.allocatedChunk = null;
+		}
+	}
+
+	@Override
+	DefaultDataBuffer createSlice(ByteBuffer slice, int length) {
+		return new PooledSlicedDataBuffer(slice, this.dataBufferFactory, length, this);
+	}
+
+	@Override
+	public InputStream asInputStream(boolean releaseOnClose) {
+		InputStream inputStream = asInputStream();
+		if (!releaseOnClose) {
+			return inputStream;
+		}
+		return new FilterInputStream(inputStream) {
+			private boolean closed;
+			@Override
+			public void close() throws IOException {
+				if (!this.closed) {
+					this.closed = true;
+					release();
+				}
+			}
+		};
+	}
+
+	@Override
+	public String toString() {
+		return String.format("PooledDefaultDataBuffer (r: %d, w: %d, c: %d)",
+				readPosition(), writePosition(), capacity());
+	}
+
+
+	/**
+	 * Slice of a pooled buffer, sharing the reference count of its parent.
+	 */
+	private static class PooledSlicedDataBuffer extends SlicedDefaultDataBuffer implements PooledDataBuffer {
+
+		private final PooledDataBuffer parent;
+
+		PooledSlicedDataBuffer(ByteBuffer byteBuffer, DefaultDataBufferFactory dataBufferFactory,
+				int length, PooledDataBuffer parent) {
+
+			super(byteBuffer, dataBufferFactory, length);
+			this.parent = parent;
+		}
+
+		@Override
+		public boolean isAllocated() {
+			return this.parent.isAllocated();
+		}
+
+		@Override
+		public PooledDataBuffer retain() {
+			this.parent.retain();
+			return this;
+		}
+
+		@Override
+		public boolean release() {
+			return this.parent.release();
+		}
+	}
+
+}
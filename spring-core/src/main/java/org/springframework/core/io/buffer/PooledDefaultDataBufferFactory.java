@@ -0,0 +1,371 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.NamedThreadLocal;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Extension of {@link DefaultDataBufferFactory} that recycles the memory of
+ * the buffers it allocates. Intended for runtimes without Netty (i.e. Servlet,
+ * Undertow), where every allocated buffer is otherwise new garbage.
+ *
+ * <p>Buffers allocated by this factory implement {@link PooledDataBuffer}, and
+ * return their memory to the pool once released, typically through
+ * {@link DataBufferUtils#release(DataBuffer)}. Capacities are rounded up to a
+ * power of two size class; each size class carves fixed-size chunks out of
+ * larger slabs, and each thread keeps a small cache of recently released
+ * chunks in front of the shared pool. Buffers larger than the
+ * {@linkplain #getMaxPooledCapacity() maximum pooled capacity} are allocated
+ * and discarded as with {@link DefaultDataBufferFactory}. Buffers created by
+ * {@code wrap} are never pooled.
+ *
+ * <p>The memory of a pooled buffer is not cleared between uses, and must not
+ * be accessed once the buffer is released. To help find buffers that are
+ * never released, a sample of allocations records its call site, which is
+ * logged if the buffer is garbage collected before it was released.
+ *
+ * @author Daniel Ferreira
+ * @since 5.2
+ * @see PooledDataBuffer
+ */
+public class PooledDefaultDataBufferFactory extends DefaultDataBufferFactory {
+
+	/**
+	 * The default maximum capacity of pooled buffers.
+	 */
+	public static final int DEFAULT_MAX_POOLED_CAPACITY = 64 * 1024;
+
+	/**
+	 * The default number of released chunks each thread caches per size class.
+	 */
+	public static final int DEFAULT_THREAD_CACHE_SIZE = 16;
+
+	/**
+	 * The default leak detection sampling interval.
+	 */
+	public static final int DEFAULT_LEAK_DETECTION_INTERVAL = 128;
+
+	private static final int MIN_CHUNK_SIZE = 64;
+
+	private static final int SLAB_SIZE = 64 * 1024;
+
+	private static final Log logger = LogFactory.getLog(PooledDefaultDataBufferFactory.class);
+
+
+	private final boolean preferDirect;
+
+	private final int maxPooledCapacity;
+
+	private final SizeClass[] sizeClasses;
+
+	private final ThreadLocal<ArrayDeque<ByteBuffer>[]> threadCaches =
+			new NamedThreadLocal<>("PooledDefaultDataBufferFactory thread cache");
+
+	private volatile int threadCacheSize = DEFAULT_THREAD_CACHE_SIZE;
+
+	private volatile int leakDetectionInterval = DEFAULT_LEAK_DETECTION_INTERVAL;
+
+	private final ReferenceQueue<PooledDataBuffer> leakQueue = new ReferenceQueue<>();
+
+	private final Set<LeakTracker> leakTrackers = ConcurrentHashMap.newKeySet();
+
+	private final AtomicInteger activeAllocations = new AtomicInteger();
+
+
+	/**
+	 * Creates a new {@code PooledDefaultDataBufferFactory} with default settings.
+	 */
+	public PooledDefaultDataBufferFactory() {
+		this(false);
+	}
+
+	/**
+	 * Creates a new {@code PooledDefaultDataBufferFactory}, indicating whether
+	 * direct buffers should be pooled.
+	 * @param preferDirect {@code true} if direct buffers are to be preferred;
+	 * {@code false} otherwise
+	 */
+	public PooledDefaultDataBufferFactory(boolean preferDirect) {
+		this(preferDirect, DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_POOLED_CAPACITY);
+	}
+
+	/**
+	 * Creates a new {@code PooledDefaultDataBufferFactory}, indicating whether
+	 * direct buffers should be pooled, what the capacity is to be used for
+	 * {@link #allocateBuffer()}, and up to what capacity buffers are pooled.
+	 * @param preferDirect {@code true} if direct buffers are to be preferred;
+	 * {@code false} otherwise
+	 * @param defaultInitialCapacity the capacity of buffers created by
+	 * {@link #allocateBuffer()}
+	 * @param maxPooledCapacity the maximum capacity of pooled buffers;
+	 * larger buffers are not pooled
+	 */
+	public PooledDefaultDataBufferFactory(boolean preferDirect, int defaultInitialCapacity, int maxPooledCapacity) {
+		super(preferDirect, defaultInitialCapacity);
+		Assert.isTrue(maxPooledCapacity >= MIN_CHUNK_SIZE, "'maxPooledCapacity' should be at least " + MIN_CHUNK_SIZE);
+		Assert.isTrue(maxPooledCapacity <= (1 << 30), "'maxPooledCapacity' should be at most 1 GB");
+		this.preferDirect = preferDirect;
+		this.sizeClasses = new SizeClass[sizeClassIndex(maxPooledCapacity) + 1];
+		for (int i = 0; i < this.sizeClasses.length; i++) {
+			this.sizeClasses[i] = new SizeClass(MIN_CHUNK_SIZE << i, preferDirect);
+		}
+		this.maxPooledCapacity = MIN_CHUNK_SIZE << (this.sizeClasses.length - 1);
+	}
+
+
+	/**
+	 * Return the maximum capacity of pooled buffers, i.e. the configured
+	 * maximum rounded up to a power of two.
+	 */
+	public int getMaxPooledCapacity() {
+		return this.maxPooledCapacity;
+	}
+
+	/**
+	 * Set the number of released chunks each thread caches per size class
+	 * before handing them back to the shared pool.
+	 * <p>By default this is set to {@value #DEFAULT_THREAD_CACHE_SIZE}. Set it
+	 * to 0 to always use the shared pool.
+	 */
+	public void setThreadCacheSize(int threadCacheSize) {
+		Assert.isTrue(threadCacheSize >= 0, "'threadCacheSize' must be >= 0");
+		this.threadCacheSize = threadCacheSize;
+	}
+
+	/**
+	 * Return the configured number of chunks cached per thread and size class.
+	 */
+	public int getThreadCacheSize() {
+		return this.threadCacheSize;
+	}
+
+	/**
+	 * Set the leak detection sampling interval: on average, one out of this
+	 * many allocations records its call site, which is logged if the buffer
+	 * is garbage collected without having been released.
+	 * <p>By default this is set to {@value #DEFAULT_LEAK_DETECTION_INTERVAL}.
+	 * Set it to 1 to track every allocation, or to 0 to disable leak detection.
+	 */
+	public void setLeakDetectionInterval(int leakDetectionInterval) {
+		Assert.isTrue(leakDetectionInterval >= 0, "'leakDetectionInterval' must be >= 0");
+		this.leakDetectionInterval = leakDetectionInterval;
+	}
+
+	/**
+	 * Return the configured leak detection sampling interval.
+	 */
+	public int getLeakDetectionInterval() {
+		return this.leakDetectionInterval;
+	}
+
+	/**
+	 * Return the number of pooled buffers that have been allocated and not yet
+	 * released, not counting buffers that were garbage collected and reported
+	 * as leaks.
+	 */
+	public int getActiveAllocations() {
+		return this.activeAllocations.get();
+	}
+
+
+	@Override
+	public DefaultDataBuffer allocateBuffer(int initialCapacity) {
+		if (initialCapacity > this.maxPooledCapacity) {
+			return super.allocateBuffer(initialCapacity);
+		}
+		Assert.isTrue(initialCapacity >= 0, "'initialCapacity' must be >= 0");
+		ByteBuffer chunk = acquire(initialCapacity);
+		PooledDefaultDataBuffer dataBuffer = new PooledDefaultDataBuffer(this, chunk, initialCapacity);
+		this.activeAllocations.incrementAndGet();
+		int interval = this.leakDetectionInterval;
+		if (interval > 0) {
+			reportLeaks();
+			if (interval == 1 || ThreadLocalRandom.current().nextInt(interval) == 0) {
+				LeakTracker leakTracker = new LeakTracker(dataBuffer, this.leakQueue);
+				this.leakTrackers.add(leakTracker);
+				dataBuffer.setLeakTracker(leakTracker);
+			}
+		}
+		return dataBuffer;
+	}
+
+	/**
+	 * Acquire a chunk large enough for the given capacity, from the thread
+	 * cache if possible. Capacities beyond the maximum pooled capacity are
+	 * allocated, but never pooled.
+	 */
+	ByteBuffer acquire(int capacity) {
+		if (capacity > this.maxPooledCapacity) {
+			return (this.preferDirect ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity));
+		}
+		int index = sizeClassIndex(capacity);
+		ArrayDeque<ByteBuffer> cache = getThreadCache(index);
+		ByteBuffer chunk = (cache != null ? cache.pollFirst() : null);
+		return (chunk != null ? chunk : this.sizeClasses[index].acquire());
+	}
+
+	/**
+	 * Return a chunk obtained from {@link #acquire} to the pool.
+	 */
+	void recycle(ByteBuffer chunk) {
+		int chunkSize = chunk.capacity();
+		if (chunkSize > this.maxPooledCapacity || chunkSize < MIN_CHUNK_SIZE || Integer.bitCount(chunkSize) != 1) {
+			return;
+		}
+		((Buffer) chunk).clear();
+		int index = sizeClassIndex(chunkSize);
+		ArrayDeque<ByteBuffer> cache = getThreadCache(index);
+		if (cache != null && cache.size() < this.threadCacheSize) {
+			cache.addFirst(chunk);
+		}
+		else {
+			this.sizeClasses[index].release(chunk);
+		}
+	}
+
+	/**
+	 * Invoked when a pooled buffer has been released.
+	 */
+	void deallocated(PooledDefaultDataBuffer dataBuffer, @Nullable LeakTracker leakTracker) {
+		if (leakTracker != null) {
+			leakTracker.clear();
+			this.leakTrackers.remove(leakTracker);
+		}
+		this.activeAllocations.decrementAndGet();
+	}
+
+	@Nullable
+	private ArrayDeque<ByteBuffer> getThreadCache(int index) {
+		if (this.threadCacheSize == 0) {
+			return null;
+		}
+		ArrayDeque<ByteBuffer>[] caches = this.threadCaches.get();
+		if (caches == null) {
+			@SuppressWarnings({"unchecked", "rawtypes"})
+			ArrayDeque<ByteBuffer>[] newCaches = new ArrayDeque[this.sizeClasses.length];
+			caches = newCaches;
+			this.threadCaches.set(caches);
+		}
+		ArrayDeque<ByteBuffer> cache = caches[index];
+		if (cache == null) {
+			cache = new ArrayDeque<>();
+			caches[index] = cache;
+		}
+		return cache;
+	}
+
+	private void reportLeaks() {
+		LeakTracker leakTracker = (LeakTracker) this.leakQueue.poll();
+		while (leakTracker != null) {
+			if (this.leakTrackers.remove(leakTracker)) {
+				this.activeAllocations.decrementAndGet();
+				if (logger.isErrorEnabled()) {
+					logger.error("DataBuffer leak detected: a pooled buffer was garbage-collected " +
+							"before it was released", leakTracker.allocationSite);
+				}
+			}
+			leakTracker = (LeakTracker) this.leakQueue.poll();
+		}
+	}
+
+	private static int sizeClassIndex(int capacity) {
+		if (capacity <= MIN_CHUNK_SIZE) {
+			return 0;
+		}
+		return (32 - Integer.numberOfLeadingZeros(capacity - 1)) - Integer.numberOfTrailingZeros(MIN_CHUNK_SIZE);
+	}
+
+	@Override
+	public String toString() {
+		return "PooledDefaultDataBufferFactory (preferDirect=" + this.preferDirect +
+				", maxPooledCapacity=" + this.maxPooledCapacity + ")";
+	}
+
+
+	/**
+	 * Shared pool of the chunks of one size, carved out of slabs on demand.
+	 */
+	private static final class SizeClass {
+
+		private final int chunkSize;
+
+		private final int chunksPerSlab;
+
+		private final boolean direct;
+
+		private final ArrayDeque<ByteBuffer> chunks = new ArrayDeque<>();
+
+		SizeClass(int chunkSize, boolean direct) {
+			this.chunkSize = chunkSize;
+			this.chunksPerSlab = Math.max(1, SLAB_SIZE / chunkSize);
+			this.direct = direct;
+		}
+
+		synchronized ByteBuffer acquire() {
+			ByteBuffer chunk = this.chunks.pollFirst();
+			if (chunk == null) {
+				allocateSlab();
+				chunk = this.chunks.pollFirst();
+			}
+			return chunk;
+		}
+
+		synchronized void release(ByteBuffer chunk) {
+			this.chunks.addFirst(chunk);
+		}
+
+		private void allocateSlab() {
+			int slabSize = this.chunkSize * this.chunksPerSlab;
+			ByteBuffer slab = (this.direct ? ByteBuffer.allocateDirect(slabSize) : ByteBuffer.allocate(slabSize));
+			for (int offset = 0; offset < slabSize; offset += this.chunkSize) {
+				((Buffer) slab).limit(offset + this.chunkSize).position(offset);
+				this.chunks.addLast(slab.slice());
+			}
+		}
+	}
+
+
+	/**
+	 * Records the allocation site of a sampled buffer, and is enqueued once
+	 * that buffer is garbage collected.
+	 */
+	static final class LeakTracker extends WeakReference<PooledDataBuffer> {
+
+		private final Throwable allocationSite;
+
+		LeakTracker(PooledDefaultDataBuffer dataBuffer, ReferenceQueue<PooledDataBuffer> queue) {
+			super(dataBuffer, queue);
+			this.allocationSite = new Throwable("Allocation site of " + dataBuffer);
+		}
+	}
+
+}
@@ -0,0 +1,412 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Bounded, concurrent cache of {@link MetadataReader} instances, keyed by the
+ * identity of the {@link ClassLoader} that the metadata is resolved against and
+ * the URL of the class file. Cached entries are only reused for an unchanged
+ * last-modified timestamp of the class file.
+ *
+ * <p>Class loaders are only weakly referenced by the cache keys. Readers for a
+ * class loader that is not the cache's own class loader or one of its parents,
+ * e.g. for a web application or a test, are softly referenced, since they refer
+ * to their class loader in turn: the cache does not keep such class loaders
+ * alive once they have been discarded.
+ *
+ * <p>Lookups are lock-striped across a fixed number of segments, each evicting
+ * its least recently used entries beyond its share of the cache limit. Class
+ * files are read outside of the segment locks.
+ *
+ * <p>A process-wide instance is available through {@link #getSharedInstance()},
+ * allowing class metadata to be shared across application contexts.
+ *
+ * @author Daniel Ferreira
+ * @since 5.2
+ * @see SharedMetadataReaderFactory
+ */
+public final class MetadataReaderCache {
+
+	/**
+	 * Default maximum number of entries for the shared cache: 4096.
+	 */
+	public static final int DEFAULT_CACHE_LIMIT = 4096;
+
+	private static final int SEGMENT_COUNT = 16;
+
+	private static final MetadataReaderCache sharedInstance = new MetadataReaderCache(DEFAULT_CACHE_LIMIT);
+
+
+	private final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+	private volatile int cacheLimit;
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private final LongAdder evictionCount = new LongAdder();
+
+	private final LongAdder totalLoadTime = new LongAdder();
+
+	private final ReferenceQueue<ClassLoader> collectedClassLoaders = new ReferenceQueue<>();
+
+
+	/**
+	 * Create a new cache with the given maximum number of entries.
+	 * @param cacheLimit the maximum number of entries
+	 */
+	public MetadataReaderCache(int cacheLimit) {
+		setCacheLimit(cacheLimit);
+		for (int i = 0; i < this.segments.length; i++) {
+			this.segments[i] = new Segment();
+		}
+	}
+
+
+	/**
+	 * Return the process-wide cache instance.
+	 */
+	public static MetadataReaderCache getSharedInstance() {
+		return sharedInstance;
+	}
+
+
+	/**
+	 * Specify the maximum number of entries, enforced on subsequent additions.
+	 * <p>The limit is distributed evenly across the lock segments.
+	 */
+	public void setCacheLimit(int cacheLimit) {
+		Assert.isTrue(cacheLimit > 0, "Cache limit must be greater than 0");
+		this.cacheLimit = cacheLimit;
+	}
+
+	/**
+	 * Return the maximum number of entries.
+	 */
+	public int getCacheLimit() {
+		return this.cacheLimit;
+	}
+
+	/**
+	 * Return the current number of entries.
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : this.segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Remove all entries, keeping the statistics.
+	 */
+	public void clear() {
+		for (Segment segment : this.segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	/**
+	 * Return a snapshot of the statistics of this cache.
+	 */
+	public Statistics getStatistics() {
+		return new Statistics(this.hitCount.sum(), this.missCount.sum(),
+				this.evictionCount.sum(), this.totalLoadTime.sum(), size());
+	}
+
+
+	/**
+	 * Return the cached {@link MetadataReader} for the given class file resource,
+	 * loading it through the given loader on a miss. Resources that cannot be
+	 * identified by URL and timestamp get loaded without caching.
+	 */
+	MetadataReader getMetadataReader(Resource resource, @Nullable ClassLoader classLoader,
+			MetadataReaderLoader loader) throws IOException {
+
+		purgeCollectedClassLoaders();
+
+		CacheKey key;
+		long lastModified;
+		try {
+			key = new CacheKey(classLoader, resource.getURL().toExternalForm(), this.collectedClassLoaders);
+			lastModified = resource.lastModified();
+		}
+		catch (IOException ex) {
+			return loader.load(resource);
+		}
+
+		Segment segment = this.segments[(key.hashCode() & 0x7fffffff) % SEGMENT_COUNT];
+		CacheEntry entry;
+		synchronized (segment) {
+			entry = segment.get(key);
+		}
+		if (entry != null && entry.lastModified == lastModified) {
+			MetadataReader metadataReader = entry.getMetadataReader();
+			if (metadataReader != null) {
+				this.hitCount.increment();
+				return metadataReader;
+			}
+		}
+
+		this.missCount.increment();
+		long start = System.nanoTime();
+		MetadataReader metadataReader = loader.load(resource);
+		this.totalLoadTime.add(System.nanoTime() - start);
+		synchronized (segment) {
+			segment.put(key, new CacheEntry(metadataReader, lastModified, isCacheSafe(classLoader)));
+		}
+		return metadataReader;
+	}
+
+	/**
+	 * Remove the entries for class loaders that have been garbage-collected,
+	 * along with entries whose softly referenced reader has been cleared.
+	 */
+	private void purgeCollectedClassLoaders() {
+		if (this.collectedClassLoaders.poll() == null) {
+			return;
+		}
+		while (this.collectedClassLoaders.poll() != null) {
+			// drain
+		}
+		for (Segment segment : this.segments) {
+			synchronized (segment) {
+				segment.entrySet().removeIf(entry ->
+						entry.getKey().isClassLoaderCollected() || entry.getValue().getMetadataReader() == null);
+			}
+		}
+	}
+
+	/**
+	 * Whether the given class loader is the class loader of this cache or one of
+	 * its parents, i.e. lives at least as long as this cache.
+	 */
+	private static boolean isCacheSafe(@Nullable ClassLoader classLoader) {
+		if (classLoader == null) {
+			return true;
+		}
+		ClassLoader current = MetadataReaderCache.class.getClassLoader();
+		while (current != null) {
+			if (current == classLoader) {
+				return true;
+			}
+			current = current.getParent();
+		}
+		return false;
+	}
+
+
+	/**
+	 * Strategy for loading a {@link MetadataReader} on a cache miss.
+	 */
+	@FunctionalInterface
+	interface MetadataReaderLoader {
+
+		MetadataReader load(Resource resource) throws IOException;
+	}
+
+
+	/**
+	 * Snapshot of the statistics of a {@link MetadataReaderCache}.
+	 */
+	public static final class Statistics {
+
+		private final long hitCount;
+
+		private final long missCount;
+
+		private final long evictionCount;
+
+		private final long totalLoadTime;
+
+		private final int size;
+
+		Statistics(long hitCount, long missCount, long evictionCount, long totalLoadTime, int size) {
+			this.hitCount = hitCount;
+			this.missCount = missCount;
+			this.evictionCount = evictionCount;
+			this.totalLoadTime = totalLoadTime;
+			this.size = size;
+		}
+
+		/**
+		 * Return the number of lookups served from the cache.
+		 */
+		public long getHitCount() {
+			return this.hitCount;
+		}
+
+		/**
+		 * Return the number of lookups that required reading a class file,
+		 * including reads of modified class files.
+		 */
+		public long getMissCount() {
+			return this.missCount;
+		}
+
+		/**
+		 * Return the ratio of lookups served from the cache, or 0 if none happened yet.
+		 */
+		public double getHitRatio() {
+			long requestCount = this.hitCount + this.missCount;
+			return (requestCount > 0 ? (double) this.hitCount / requestCount : 0);
+		}
+
+		/**
+		 * Return the number of entries evicted because of the cache limit.
+		 */
+		public long getEvictionCount() {
+			return this.evictionCount;
+		}
+
+		/**
+		 * Return the total time spent reading class files, in nanoseconds.
+		 */
+		public long getTotalLoadTime() {
+			return this.totalLoadTime;
+		}
+
+		/**
+		 * Return the average time spent reading a class file, in nanoseconds.
+		 */
+		public long getAverageLoadTime() {
+			return (this.missCount > 0 ? this.totalLoadTime / this.missCount : 0);
+		}
+
+		/**
+		 * Return the number of entries at the time of the snapshot.
+		 */
+		public int getSize() {
+			return this.size;
+		}
+
+		@Override
+		public String toString() {
+			return "MetadataReaderCache statistics: size=" + this.size + ", hits=" + this.hitCount +
+					", misses=" + this.missCount + ", evictions=" + this.evictionCount + ", load time=" +
+					TimeUnit.NANOSECONDS.toMillis(this.totalLoadTime) + " ms";
+		}
+	}
+
+
+	private static final class CacheKey {
+
+		@Nullable
+		private final WeakReference<ClassLoader> classLoaderReference;
+
+		private final int classLoaderHash;
+
+		private final String url;
+
+		CacheKey(@Nullable ClassLoader classLoader, String url, ReferenceQueue<ClassLoader> queue) {
+			this.classLoaderReference = (classLoader != null ? new WeakReference<>(classLoader, queue) : null);
+			this.classLoaderHash = System.identityHashCode(classLoader);
+			this.url = url;
+		}
+
+		boolean isClassLoaderCollected() {
+			return (this.classLoaderReference != null && this.classLoaderReference.get() == null);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof CacheKey)) {
+				return false;
+			}
+			CacheKey otherKey = (CacheKey) other;
+			if (this.classLoaderHash != otherKey.classLoaderHash || !this.url.equals(otherKey.url)) {
+				return false;
+			}
+			if (this.classLoaderReference == null || otherKey.classLoaderReference == null) {
+				return (this.classLoaderReference == otherKey.classLoaderReference);
+			}
+			ClassLoader classLoader = this.classLoaderReference.get();
+			return (classLoader != null && classLoader == otherKey.classLoaderReference.get());
+		}
+
+		@Override
+		public int hashCode() {
+			return this.classLoaderHash * 31 + this.url.hashCode();
+		}
+	}
+
+
+	private static final class CacheEntry {
+
+		@Nullable
+		private final MetadataReader metadataReader;
+
+		@Nullable
+		private final Reference<MetadataReader> metadataReaderReference;
+
+		final long lastModified;
+
+		CacheEntry(MetadataReader metadataReader, long lastModified, boolean strong) {
+			this.metadataReader = (strong ? metadataReader : null);
+			this.metadataReaderReference = (strong ? null : new SoftReference<>(metadataReader));
+			this.lastModified = lastModified;
+		}
+
+		@Nullable
+		MetadataReader getMetadataReader() {
+			return (this.metadataReaderReference != null ? this.metadataReaderReference.get() : this.metadataReader);
+		}
+	}
+
+
+	@SuppressWarnings("serial")
+	private final class Segment extends LinkedHashMap<CacheKey, CacheEntry> {
+
+		Segment() {
+			super(16, 0.75f, true);
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<CacheKey, CacheEntry> eldest) {
+			int segmentLimit = (cacheLimit + SEGMENT_COUNT - 1) / SEGMENT_COUNT;
+			if (size() > segmentLimit) {
+				evictionCount.increment();
+				return true;
+			}
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.IOException;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.lang.Nullable;
+
+/**
+ * {@link MetadataReaderFactory} backed by a {@link MetadataReaderCache} that is
+ * typically shared across factories, and therefore across application contexts:
+ * by default, the process-wide {@linkplain MetadataReaderCache#getSharedInstance()
+ * shared instance}.
+ *
+ * <p>As opposed to {@link CachingMetadataReaderFactory}, the cache is bounded
+ * also when shared, and survives the end of a single configuration run. Cached
+ * class metadata is only reused for the same class loader and an unchanged
+ * class file.
+ *
+ * @author Daniel Ferreira
+ * @since 5.2
+ * @see #SHARED_CACHE_PROPERTY_NAME
+ */
+public class SharedMetadataReaderFactory extends SimpleMetadataReaderFactory {
+
+	/**
+	 * System property that instructs Spring's annotation configuration support to
+	 * read class metadata through a {@code SharedMetadataReaderFactory} rather than
+	 * a {@link CachingMetadataReaderFactory} per application context.
+	 * <p>The default is "false".
+	 * @see #isSharedCacheEnabled()
+	 */
+	public static final String SHARED_CACHE_PROPERTY_NAME = "spring.metadata.shared-cache";
+
+
+	private final MetadataReaderCache cache;
+
+
+	/**
+	 * Create a new SharedMetadataReaderFactory for the default class loader,
+	 * using the process-wide cache.
+	 */
+	public SharedMetadataReaderFactory() {
+		this.cache = MetadataReaderCache.getSharedInstance();
+	}
+
+	/**
+	 * Create a new SharedMetadataReaderFactory for the given {@link ResourceLoader},
+	 * using the process-wide cache.
+	 * @param resourceLoader the Spring ResourceLoader to use
+	 * (also determines the ClassLoader to use)
+	 */
+	public SharedMetadataReaderFactory(@Nullable ResourceLoader resourceLoader) {
+		this(resourceLoader, MetadataReaderCache.getSharedInstance());
+	}
+
+	/**
+	 * Create a new SharedMetadataReaderFactory for the given {@link ClassLoader},
+	 * using the process-wide cache.
+	 * @param classLoader the ClassLoader to use
+	 */
+	public SharedMetadataReaderFactory(@Nullable ClassLoader classLoader) {
+		super(classLoader);
+		this.cache = MetadataReaderCache.getSharedInstance();
+	}
+
+	/**
+	 * Create a new SharedMetadataReaderFactory for the given {@link ResourceLoader},
+	 * using the given cache.
+	 * @param resourceLoader the Spring ResourceLoader to use
+	 * (also determines the ClassLoader to use)
+	 * @param cache the cache to use
+	 */
+	public SharedMetadataReaderFactory(@Nullable ResourceLoader resourceLoader, MetadataReaderCache cache) {
+		super(resourceLoader);
+		this.cache = cache;
+	}
+
+
+	/**
+	 * Return the cache that this factory uses.
+	 */
+	public final MetadataReaderCache getCache() {
+		return this.cache;
+	}
+
+	@Override
+	public MetadataReader getMetadataReader(Resource resource) throws IOException {
+		return this.cache.getMetadataReader(resource, getResourceLoader().getClassLoader(), super::getMetadataReader);
+	}
+
+
+	/**
+	 * Return whether the {@value #SHARED_CACHE_PROPERTY_NAME} flag is set.
+	 */
+	public static boolean isSharedCacheEnabled() {
+		return SpringProperties.getFlag(SHARED_CACHE_PROPERTY_NAME);
+	}
+
+}
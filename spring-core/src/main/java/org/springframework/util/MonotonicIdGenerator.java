@@ -0,0 +1,55 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@link IdGenerator} that combines a random prefix, chosen once per
+ * instance with {@link SecureRandom}, with a counter incremented by 1 with
+ * each call. Ids are thus unique across instances with high probability, as
+ * with {@link AlternativeJdkIdGenerator}, while each id costs no more than an
+ * atomic increment, as with {@link SimpleIdGenerator}.
+ *
+ * <p>Ids are predictable from one another and must not be used where that
+ * matters, e.g. for security tokens.
+ *
+ * @author Daniel Ferreira
+ * @since 5.2
+ */
+public class MonotonicIdGenerator implements IdGenerator {
+
+	private final long mostSigBits;
+
+	private final AtomicLong leastSigBits;
+
+
+	public MonotonicIdGenerator() {
+		SecureRandom secureRandom = new SecureRandom();
+		this.mostSigBits = secureRandom.nextLong();
+		this.leastSigBits = new AtomicLong(secureRandom.nextLong());
+	}
+
+
+	@Override
+	public UUID generateId() {
+		return new UUID(this.mostSigBits, this.leastSigBits.incrementAndGet());
+	}
+
+}
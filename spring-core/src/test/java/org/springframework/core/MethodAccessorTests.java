@@ -0,0 +1,190 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+
+import org.springframework.util.ReflectionUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link MethodAccessor}.
+ *
+ * @author Daniel Ferreira
+ */
+public class MethodAccessorTests {
+
+	private final Method concat = ReflectionUtils.findMethod(PublicHandler.class, "concat", String.class, int.class);
+
+
+	@Test
+	public void reflective() throws Exception {
+		MethodAccessor accessor = MethodAccessor.reflective(this.concat);
+		assertFalse(accessor.isGenerated());
+		assertSame(this.concat, accessor.getMethod());
+		assertEquals("a1", accessor.invoke(new PublicHandler(), "a", 1));
+	}
+
+	@Test
+	public void generated() throws Exception {
+		MethodAccessor accessor = MethodAccessor.generated(this.concat);
+		assertTrue(accessor.isGenerated());
+		assertSame(accessor, MethodAccessor.generated(this.concat));
+		assertEquals("a1", accessor.invoke(new PublicHandler(), "a", 1));
+		assertEquals("null2", accessor.invoke(new PublicHandler(), null, 2));
+	}
+
+	@Test
+	public void generatedWithOverridingTarget() throws Exception {
+		MethodAccessor accessor = MethodAccessor.generated(this.concat);
+		assertEquals("sub:a1", accessor.invoke(new PublicHandler() {
+			@Override
+			public String concat(String value, int count) {
+				return "sub:" + super.concat(value, count);
+			}
+		}, "a", 1));
+	}
+
+	@Test
+	public void generatedForStaticMethod() throws Exception {
+		Method method = ReflectionUtils.findMethod(PublicHandler.class, "twice", long.class);
+		MethodAccessor accessor = MethodAccessor.generated(method);
+		assertTrue(accessor.isGenerated());
+		assertEquals(4L, accessor.invoke(null, 2L));
+	}
+
+	@Test
+	public void generatedForInterfaceMethod() throws Exception {
+		Method method = ReflectionUtils.findMethod(Greeter.class, "greet", String.class);
+		MethodAccessor accessor = MethodAccessor.generated(method);
+		assertTrue(accessor.isGenerated());
+		assertEquals("Hello a", accessor.invoke((Greeter) name -> "Hello " + name, "a"));
+	}
+
+	@Test
+	public void generatedWrapsExceptionFromMethod() throws Exception {
+		Method method = ReflectionUtils.findMethod(PublicHandler.class, "fail");
+		MethodAccessor accessor = MethodAccessor.generated(method);
+		assertTrue(accessor.isGenerated());
+		try {
+			accessor.invoke(new PublicHandler());
+			fail("Expected InvocationTargetException");
+		}
+		catch (InvocationTargetException ex) {
+			assertTrue(ex.getTargetException() instanceof IOException);
+		}
+	}
+
+	@Test
+	public void generatedRejectsArgumentsLikeReflection() throws Exception {
+		MethodAccessor accessor = MethodAccessor.generated(this.concat);
+		assertIllegalArgument(accessor, new PublicHandler(), "a", null);
+		assertIllegalArgument(accessor, new PublicHandler(), "a", 1L);
+		assertIllegalArgument(accessor, new PublicHandler(), 1, 1);
+		assertIllegalArgument(accessor, new PublicHandler(), "a");
+		assertIllegalArgument(accessor, "not a handler", "a", 1);
+	}
+
+	@Test
+	public void generatedAllowsWideningLikeReflection() throws Exception {
+		Method method = ReflectionUtils.findMethod(PublicHandler.class, "twice", long.class);
+		assertEquals(6L, MethodAccessor.generated(method).invoke(null, 3));
+	}
+
+	@Test
+	public void generatedFallsBackForNonPublicClass() throws Exception {
+		Method method = ReflectionUtils.findMethod(PackagePrivateHandler.class, "echo", String.class);
+		MethodAccessor accessor = MethodAccessor.generated(method);
+		assertFalse(accessor.isGenerated());
+		assertEquals("a", accessor.invoke(new PackagePrivateHandler(), "a"));
+	}
+
+	@Test
+	public void generatedFallsBackForNonPublicMethod() throws Exception {
+		Method method = ReflectionUtils.findMethod(PublicHandler.class, "hidden");
+		MethodAccessor accessor = MethodAccessor.generated(method);
+		assertFalse(accessor.isGenerated());
+		assertEquals("hidden", accessor.invoke(new PublicHandler()));
+	}
+
+	@Test
+	public void generatedFallsBackForHiddenClass() throws Exception {
+		Runnable lambda = () -> {};
+		Method method = ReflectionUtils.findMethod(lambda.getClass(), "run");
+		assertFalse(MethodAccessor.generated(method).isGenerated());
+	}
+
+	@Test
+	public void generatedFallsBackForBootstrapClass() throws Exception {
+		Method method = ReflectionUtils.findMethod(String.class, "length");
+		MethodAccessor accessor = MethodAccessor.generated(method);
+		assertFalse(accessor.isGenerated());
+		assertEquals(3, accessor.invoke("abc"));
+	}
+
+	private static void assertIllegalArgument(MethodAccessor accessor, Object target, Object... args)
+			throws Exception {
+
+		try {
+			accessor.invoke(target, args);
+			fail("Expected IllegalArgumentException");
+		}
+		catch (IllegalArgumentException ex) {
+			// expected
+		}
+	}
+
+
+	public static class PublicHandler {
+
+		public String concat(String value, int count) {
+			return value + count;
+		}
+
+		public static long twice(long value) {
+			return value * 2;
+		}
+
+		public void fail() throws IOException {
+			throw new IOException("failure");
+		}
+
+		String hidden() {
+			return "hidden";
+		}
+	}
+
+
+	public interface Greeter {
+
+		String greet(String name);
+	}
+
+
+	static class PackagePrivateHandler {
+
+		public String echo(String value) {
+			return value;
+		}
+	}
+
+}
@@ -147,6 +147,23 @@ public class AnnotatedElementUtilsTests {
 		assertTrue(isAnnotated(ComposedTransactionalComponentClass.class, ComposedTransactionalComponent.class.getName()));
 	}
 
+	@Test
+	public void repeatedQueriesForPresentAndAbsentAnnotations() {
+		for (int i = 0; i < 2; i++) {
+			assertFalse(isAnnotated(ComposedTransactionalComponentClass.class, Order.class));
+			assertFalse(hasAnnotation(SubTransactionalComponentClass.class, Order.class));
+			assertNull(findMergedAnnotation(SubTransactionalComponentClass.class, Order.class));
+			assertTrue(getAllMergedAnnotations(SubTransactionalComponentClass.class, Order.class).isEmpty());
+
+			assertTrue(isAnnotated(ComposedTransactionalComponentClass.class, Transactional.class));
+			assertFalse(isAnnotated(SubTransactionalComponentClass.class, Transactional.class));
+			assertTrue(hasAnnotation(SubTransactionalComponentClass.class, Transactional.class));
+			assertNotNull(findMergedAnnotation(SubTransactionalComponentClass.class, Transactional.class));
+			assertEquals(1, findAllMergedAnnotations(SubTransactionalComponentClass.class, Component.class).size());
+			AnnotationUtils.clearCache();
+		}
+	}
+
 	@Test
 	public void getAllAnnotationAttributesOnNonAnnotatedClass() {
 		assertNull(getAllAnnotationAttributes(NonAnnotatedClass.class, TX_NAME));
@@ -357,6 +374,32 @@ public class AnnotatedElementUtilsTests {
 		assertTrue(isAnnotated(element, name));
 	}
 
+	@Test
+	public void getMergedAnnotationAttributesReturnsCopies() {
+		Class<?> element = AliasedComposedContextConfigClass.class;
+		AnnotationAttributes attributes = getMergedAnnotationAttributes(element, ContextConfig.class);
+		assertNotNull(attributes);
+		attributes.getStringArray("locations")[0] = "modified.xml";
+		attributes.put("value", asArray("modified.xml"));
+
+		attributes = getMergedAnnotationAttributes(element, ContextConfig.class);
+		assertArrayEquals("value", asArray("test.xml"), attributes.getStringArray("value"));
+		assertArrayEquals("locations", asArray("test.xml"), attributes.getStringArray("locations"));
+		assertArrayEquals(asArray("test.xml"), getMergedAnnotation(element, ContextConfig.class).locations());
+	}
+
+	@Test
+	public void getMergedAnnotationIsSynthesizedOncePerElement() {
+		Class<?> element = AliasedComposedContextConfigClass.class;
+		ContextConfig contextConfig = getMergedAnnotation(element, ContextConfig.class);
+		assertNotNull(contextConfig);
+		assertSame(contextConfig, getMergedAnnotation(element, ContextConfig.class));
+		assertArrayEquals(asArray("test.xml"), contextConfig.locations());
+
+		AnnotationUtils.clearCache();
+		assertNotSame(contextConfig, getMergedAnnotation(element, ContextConfig.class));
+	}
+
 	@Test
 	public void getMergedAnnotationAttributesWithAliasedValueComposedAnnotation() {
 		Class<?> element = AliasedValueComposedContextConfigClass.class;
@@ -16,6 +16,10 @@
 
 package org.springframework.core.codec;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
 import java.util.Map;
 
 import org.junit.Test;
@@ -25,10 +29,13 @@ import reactor.test.StepVerifier;
 
 import org.springframework.core.ResolvableType;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.lang.Nullable;
+import org.springframework.util.FileCopyUtils;
 import org.springframework.util.MimeType;
 import org.springframework.util.MimeTypeUtils;
 
@@ -72,6 +79,51 @@ public class ResourceEncoderTests extends AbstractEncoderTestCase<ResourceEncode
 				.verifyComplete());
 	}
 
+	@Test
+	public void encodeMemoryMapped() throws Exception {
+		this.encoder.setMemoryMapThreshold(1024);
+		Resource resource = new ClassPathResource("ResourceRegionEncoderTests.txt", getClass());
+		byte[] expected = FileCopyUtils.copyToByteArray(resource.getInputStream());
+
+		testEncodeAll(Flux.just(resource), Resource.class, step -> step
+				.consumeNextWith(expectBytes(expected))
+				.verifyComplete());
+	}
+
+	@Test
+	public void encodeMemoryMappedOnce() throws Exception {
+		this.encoder.setMemoryMapThreshold(1024);
+		Path file = Files.createTempFile("ResourceEncoderTests", null);
+		try {
+			Files.write(file, this.bytes);
+			FileTime lastModified = Files.getLastModifiedTime(file);
+			Resource resource = new FileSystemResource(file);
+
+			testEncodeAll(Flux.just(resource), Resource.class, step -> step
+					.consumeNextWith(expectBytes(this.bytes))
+					.verifyComplete());
+
+			// Replace the file, keeping size and last-modified time: still served from the first mapping
+			Path replacement = Files.createTempFile(file.getParent(), "ResourceEncoderTests", null);
+			Files.write(replacement, "bar".getBytes(UTF_8));
+			Files.move(replacement, file, StandardCopyOption.REPLACE_EXISTING);
+			Files.setLastModifiedTime(file, lastModified);
+
+			testEncodeAll(Flux.just(resource), Resource.class, step -> step
+					.consumeNextWith(expectBytes(this.bytes))
+					.verifyComplete());
+
+			Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified.toMillis() + 1000));
+
+			testEncodeAll(Flux.just(resource), Resource.class, step -> step
+					.consumeNextWith(expectBytes("bar".getBytes(UTF_8)))
+					.verifyComplete());
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
 	@Override
 	protected void testEncodeError(Publisher<?> input, ResolvableType outputType,
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
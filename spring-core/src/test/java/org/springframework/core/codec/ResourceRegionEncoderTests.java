@@ -16,6 +16,10 @@
 
 package org.springframework.core.codec;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
 import java.util.Collections;
 import java.util.function.Consumer;
 
@@ -26,6 +30,7 @@ import reactor.test.StepVerifier;
 
 import org.springframework.core.ResolvableType;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
@@ -81,6 +86,63 @@ public class ResourceRegionEncoderTests  {
 				.verify();
 	}
 
+	@Test
+	public void shouldEncodeResourceRegionMemoryMapped() throws Exception {
+		this.encoder.setMemoryMapThreshold(1024);
+		ResourceRegion region = new ResourceRegion(
+				new ClassPathResource("ResourceRegionEncoderTests.txt", getClass()), 7, 9);
+		Flux<DataBuffer> result = this.encoder.encode(Mono.just(region), this.bufferFactory,
+				ResolvableType.forClass(ResourceRegion.class),
+				MimeTypeUtils.APPLICATION_OCTET_STREAM,
+				Collections.emptyMap());
+
+		StepVerifier.create(result)
+				.consumeNextWith(stringConsumer("Framework"))
+				.expectComplete()
+				.verify();
+	}
+
+	@Test
+	public void shouldEncodeResourceRegionsMemoryMappedOnce() throws Exception {
+		this.encoder.setMemoryMapThreshold(1024);
+		Path file = Files.createTempFile("ResourceRegionEncoderTests", null);
+		try {
+			Files.write(file, "Spring Framework".getBytes(UTF_8));
+			FileTime lastModified = Files.getLastModifiedTime(file);
+			Resource resource = new FileSystemResource(file);
+
+			StepVerifier.create(encodeRegion(resource, 0, 6))
+					.consumeNextWith(stringConsumer("Spring"))
+					.expectComplete()
+					.verify();
+
+			// Replace the file, keeping size and last-modified time: still served from the first mapping
+			Path replacement = Files.createTempFile(file.getParent(), "ResourceRegionEncoderTests", null);
+			Files.write(replacement, "Summer Framework".getBytes(UTF_8));
+			Files.move(replacement, file, StandardCopyOption.REPLACE_EXISTING);
+			Files.setLastModifiedTime(file, lastModified);
+
+			StepVerifier.create(encodeRegion(resource, 7, 9))
+					.consumeNextWith(stringConsumer("Framework"))
+					.expectComplete()
+					.verify();
+			StepVerifier.create(encodeRegion(resource, 0, 6))
+					.consumeNextWith(stringConsumer("Spring"))
+					.expectComplete()
+					.verify();
+
+			Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified.toMillis() + 1000));
+
+			StepVerifier.create(encodeRegion(resource, 0, 6))
+					.consumeNextWith(stringConsumer("Summer"))
+					.expectComplete()
+					.verify();
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
 	@Test
 	public void shouldEncodeMultipleResourceRegionsFileResource() throws Exception {
 		Resource resource = new ClassPathResource("ResourceRegionEncoderTests.txt", getClass());
@@ -144,6 +206,13 @@ public class ResourceRegionEncoderTests  {
 				.verify();
 	}
 
+	private Flux<DataBuffer> encodeRegion(Resource resource, long position, long count) {
+		return this.encoder.encode(Mono.just(new ResourceRegion(resource, position, count)), this.bufferFactory,
+				ResolvableType.forClass(ResourceRegion.class),
+				MimeTypeUtils.APPLICATION_OCTET_STREAM,
+				Collections.emptyMap());
+	}
+
 	protected Consumer<DataBuffer> stringConsumer(String expected) {
 		return dataBuffer -> {
 			String value =
@@ -640,6 +640,62 @@ public class GenericConversionServiceTests {
 				conversionService.convert("test", TypeDescriptor.valueOf(String.class), new TypeDescriptor(getClass().getField("integerCollection"))));
 	}
 
+	@Test
+	public void compiledConversion() {
+		conversionService.addConverterFactory(new StringToNumberConverterFactory());
+		CompiledConversion conversion =
+				conversionService.compile(TypeDescriptor.valueOf(String.class), TypeDescriptor.valueOf(Integer.class));
+		assertEquals(Integer.valueOf(3), conversion.convert("3"));
+		assertEquals(Integer.valueOf(4), conversion.convert("4"));
+		assertNull(conversion.convert(null));
+	}
+
+	@Test
+	public void compiledConversionFollowsConverterChanges() {
+		CompiledConversion conversion =
+				conversionService.compile(TypeDescriptor.valueOf(String.class), TypeDescriptor.valueOf(Integer.class));
+		try {
+			conversion.convert("3");
+			fail("Should have thrown ConverterNotFoundException");
+		}
+		catch (ConverterNotFoundException ex) {
+			// expected
+		}
+		conversionService.addConverterFactory(new StringToNumberConverterFactory());
+		assertEquals(Integer.valueOf(3), conversion.convert("3"));
+		conversionService.removeConvertible(String.class, Number.class);
+		try {
+			conversion.convert("3");
+			fail("Should have thrown ConverterNotFoundException");
+		}
+		catch (ConverterNotFoundException ex) {
+			// expected
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void compiledConversionWithWrongSourceType() {
+		conversionService.compile(TypeDescriptor.valueOf(String.class), TypeDescriptor.valueOf(Integer.class))
+				.convert(3L);
+	}
+
+	@Test
+	public void compiledCollectionConversion() throws Exception {
+		DefaultConversionService.addDefaultConverters(conversionService);
+		List<Object> source = Arrays.asList("1", "2", 3L, null, "5");
+		TypeDescriptor sourceType = TypeDescriptor.forObject(source);
+		TypeDescriptor targetType = new TypeDescriptor(getClass().getField("list"));
+
+		CompiledConversion conversion = conversionService.compile(sourceType, targetType);
+		Object expected = conversionService.convert(source, sourceType, targetType);
+		assertEquals(Arrays.asList(1, 2, 3, null, 5), expected);
+		assertEquals(expected, conversion.convert(source));
+		assertEquals(Arrays.asList(6, 7), conversion.convert(Arrays.asList("6", 7L)));
+
+		List<Integer> integers = Arrays.asList(1, 2);
+		assertSame(integers, conversion.convert(integers));
+	}
+
 
 	@ExampleAnnotation(active = true)
 	public String annotatedString;
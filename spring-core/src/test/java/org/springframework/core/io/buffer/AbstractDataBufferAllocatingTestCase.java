@@ -60,7 +60,9 @@ public abstract class AbstractDataBufferAllocatingTestCase {
 				{new NettyDataBufferFactory(new PooledByteBufAllocator(true, 1, 1, 8192, 11, 0, 0, 0, true))},
 				{new NettyDataBufferFactory(new PooledByteBufAllocator(false, 1, 1, 8192, 11, 0, 0, 0, true))},
 				{new DefaultDataBufferFactory(true)},
-				{new DefaultDataBufferFactory(false)}
+				{new DefaultDataBufferFactory(false)},
+				{new PooledDefaultDataBufferFactory(true)},
+				{new PooledDefaultDataBufferFactory(false)}
 
 		};
 	}
@@ -126,6 +128,10 @@ public abstract class AbstractDataBufferAllocatingTestCase {
 				assertEquals("ByteBuf Leak: " + total + " unreleased allocations", 0, total);
 			}
 		}
+		else if (this.bufferFactory instanceof PooledDefaultDataBufferFactory) {
+			int total = ((PooledDefaultDataBufferFactory) this.bufferFactory).getActiveAllocations();
+			assertEquals("DataBuffer Leak: " + total + " unreleased allocations", 0, total);
+		}
 	}
 
 	private static long getAllocations(List<PoolArenaMetric> metrics) {
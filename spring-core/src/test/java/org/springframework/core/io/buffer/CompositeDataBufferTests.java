@@ -0,0 +1,189 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.io.buffer.support.DataBufferTestUtils;
+import org.springframework.util.StreamUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link CompositeDataBuffer}.
+ *
+ * @author Daniel Ferreira
+ */
+public class CompositeDataBufferTests extends AbstractDataBufferAllocatingTestCase {
+
+	@Test
+	public void read() {
+		CompositeDataBuffer composite = createComposite("foo", "bar", "baz");
+		assertEquals(9, composite.capacity());
+		assertEquals(9, composite.readableByteCount());
+		assertEquals(0, composite.writableByteCount());
+		assertEquals('b', composite.getByte(3));
+		assertEquals('z', composite.getByte(8));
+
+		assertEquals('f', composite.read());
+		byte[] bytes = new byte[5];
+		composite.read(bytes);
+		assertArrayEquals("oobar".getBytes(StandardCharsets.UTF_8), bytes);
+		assertEquals(3, composite.readableByteCount());
+		release(composite);
+	}
+
+	@Test
+	public void readableBytesOfComponentsOnly() {
+		DataBuffer foo = stringBuffer("xfoo");
+		foo.read();
+		DataBuffer empty = createDataBuffer(1);
+		CompositeDataBuffer composite = new CompositeDataBuffer(this.bufferFactory,
+				Arrays.asList(foo, empty, stringBuffer("bar")));
+
+		assertEquals("foobar", DataBufferTestUtils.dumpString(composite, StandardCharsets.UTF_8));
+		release(composite);
+	}
+
+	@Test
+	public void indexOf() {
+		CompositeDataBuffer composite = createComposite("ab", "cd", "ce");
+		assertEquals(2, composite.indexOf(b -> b == 'c', 0));
+		assertEquals(4, composite.indexOf(b -> b == 'c', 3));
+		assertEquals(3, composite.indexOf(b -> b == 'd', -1));
+		assertEquals(-1, composite.indexOf(b -> b == 'z', 0));
+		assertEquals(-1, composite.indexOf(b -> b == 'a', 6));
+
+		assertEquals(4, composite.lastIndexOf(b -> b == 'c', 5));
+		assertEquals(2, composite.lastIndexOf(b -> b == 'c', 3));
+		assertEquals(0, composite.lastIndexOf(b -> b == 'a', Integer.MAX_VALUE));
+		assertEquals(-1, composite.lastIndexOf(b -> b == 'e', 4));
+		assertEquals(-1, composite.lastIndexOf(b -> b == 'a', -1));
+		release(composite);
+	}
+
+	@Test
+	public void asByteBuffer() {
+		CompositeDataBuffer composite = createComposite("foo", "bar");
+		ByteBuffer single = composite.asByteBuffer(3, 3);
+		assertEquals(3, single.remaining());
+		assertEquals('b', single.get(0));
+
+		ByteBuffer spanning = composite.asByteBuffer(1, 4);
+		byte[] bytes = new byte[4];
+		spanning.get(bytes);
+		assertArrayEquals("ooba".getBytes(StandardCharsets.UTF_8), bytes);
+
+		composite.read();
+		assertEquals(5, composite.asByteBuffer().remaining());
+		release(composite);
+	}
+
+	@Test
+	public void asInputStream() throws Exception {
+		CompositeDataBuffer composite = createComposite("foo", "bar", "baz");
+		InputStream inputStream = composite.asInputStream(true);
+		assertEquals('f', inputStream.read());
+		assertEquals("oobarbaz", StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8));
+		assertEquals(-1, inputStream.read());
+		inputStream.close();
+		assertFalse(composite.isAllocated());
+	}
+
+	@Test
+	public void write() {
+		CompositeDataBuffer composite = createComposite("foo", "bar");
+		composite.writePosition(3);
+		composite.write((byte) 'B');
+		composite.write("AZ-".getBytes(StandardCharsets.UTF_8));
+		composite.write(ByteBuffer.wrap("qux".getBytes(StandardCharsets.UTF_8)));
+		assertTrue(composite.capacity() >= 10);
+
+		assertEquals("fooBAZ-qux", DataBufferTestUtils.dumpString(composite, StandardCharsets.UTF_8));
+		release(composite);
+	}
+
+	@Test
+	public void capacityDecrease() {
+		CompositeDataBuffer composite = createComposite("foo", "bar", "baz");
+		composite.read();
+		composite.capacity(4);
+		assertEquals(4, composite.capacity());
+		assertEquals(4, composite.writePosition());
+		assertEquals("oob", DataBufferTestUtils.dumpString(composite, StandardCharsets.UTF_8));
+
+		composite.capacity(2);
+		assertEquals(2, composite.readPosition());
+		assertEquals(2, composite.writePosition());
+		release(composite);
+	}
+
+	@Test
+	public void slice() {
+		CompositeDataBuffer composite = createComposite("foo", "bar", "baz");
+		DataBuffer slice = composite.slice(2, 5);
+		assertEquals(5, slice.readableByteCount());
+		assertEquals(1, slice.indexOf(b -> b == 'b', 0));
+		assertEquals("obarb", DataBufferTestUtils.dumpString(slice, StandardCharsets.UTF_8));
+
+		DataBufferUtils.retain(slice);
+		assertFalse(DataBufferUtils.release(composite));
+		assertTrue(DataBufferUtils.release(slice));
+		assertFalse(composite.isAllocated());
+	}
+
+	@Test
+	public void releaseTwice() {
+		CompositeDataBuffer composite = createComposite("foo", "bar");
+		assertTrue(composite.release());
+		assertFalse(composite.isAllocated());
+
+		boolean pooledComponents = (this.bufferFactory.getClass() != DefaultDataBufferFactory.class);
+		try {
+			assertFalse(composite.release());
+			assertFalse(pooledComponents);
+		}
+		catch (IllegalStateException ex) {
+			assertTrue(pooledComponents);
+		}
+	}
+
+	@Test
+	public void join() {
+		Flux<DataBuffer> flux = Flux.just(stringBuffer("foo"), stringBuffer("bar"));
+		DataBuffer result = DataBufferUtils.join(flux).block();
+		assertEquals(this.bufferFactory instanceof DefaultDataBufferFactory, result instanceof CompositeDataBuffer);
+		assertEquals("foobar", DataBufferTestUtils.dumpString(result, StandardCharsets.UTF_8));
+		release(result);
+	}
+
+
+	private CompositeDataBuffer createComposite(String... values) {
+		DataBuffer[] buffers = new DataBuffer[values.length];
+		for (int i = 0; i < values.length; i++) {
+			buffers[i] = stringBuffer(values[i]);
+		}
+		return new CompositeDataBuffer(this.bufferFactory, Arrays.asList(buffers));
+	}
+
+}
@@ -241,6 +241,41 @@ public class DataBufferUtilsTests extends AbstractDataBufferAllocatingTestCase {
 				.verify(Duration.ofSeconds(5));
 	}
 
+	@Test
+	public void readMapped() throws Exception {
+		Flux<DataBuffer> flux = DataBufferUtils.readMapped(this.resource, 3, 5, this.bufferFactory);
+
+		StepVerifier.create(flux)
+				.consumeNextWith(stringConsumer("barba"))
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	public void readMappedToEnd() throws Exception {
+		Flux<DataBuffer> flux = DataBufferUtils.readMapped(this.resource, 9, -1, this.bufferFactory);
+
+		StepVerifier.create(flux)
+				.consumeNextWith(stringConsumer("qux"))
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+
+		flux = DataBufferUtils.readMapped(this.resource, 12, 3, this.bufferFactory);
+		StepVerifier.create(flux)
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	public void readMappedNoFile() throws Exception {
+		Resource resource = new ByteArrayResource("foobarbazqux".getBytes());
+		Flux<DataBuffer> flux = DataBufferUtils.readMapped(resource, 0, -1, this.bufferFactory);
+
+		StepVerifier.create(flux)
+				.expectError(IOException.class)
+				.verify(Duration.ofSeconds(5));
+	}
+
 	@Test
 	public void writeOutputStream() throws Exception {
 		DataBuffer foo = stringBuffer("foo");
@@ -41,7 +41,9 @@ public class PooledDataBufferTests {
 				{new NettyDataBufferFactory(new UnpooledByteBufAllocator(true))},
 				{new NettyDataBufferFactory(new UnpooledByteBufAllocator(false))},
 				{new NettyDataBufferFactory(new PooledByteBufAllocator(true))},
-				{new NettyDataBufferFactory(new PooledByteBufAllocator(false))}};
+				{new NettyDataBufferFactory(new PooledByteBufAllocator(false))},
+				{new PooledDefaultDataBufferFactory(true)},
+				{new PooledDefaultDataBufferFactory(false)}};
 	}
 
 	private PooledDataBuffer createDataBuffer(int capacity) {
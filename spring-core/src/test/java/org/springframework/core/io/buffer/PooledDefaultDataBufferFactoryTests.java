@@ -0,0 +1,198 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import org.springframework.core.io.buffer.support.DataBufferTestUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link PooledDefaultDataBufferFactory}.
+ *
+ * @author Daniel Ferreira
+ */
+public class PooledDefaultDataBufferFactoryTests {
+
+	private final PooledDefaultDataBufferFactory factory = new PooledDefaultDataBufferFactory();
+
+
+	@Test
+	public void releaseRecyclesMemory() {
+		DefaultDataBuffer buffer = this.factory.allocateBuffer(100);
+		assertTrue(buffer instanceof PooledDataBuffer);
+		assertEquals(100, buffer.capacity());
+		ByteBuffer memory = buffer.getNativeBuffer();
+		buffer.write("foo".getBytes(StandardCharsets.UTF_8));
+		assertEquals(1, this.factory.getActiveAllocations());
+		assertTrue(DataBufferUtils.release(buffer));
+		assertEquals(0, this.factory.getActiveAllocations());
+
+		DefaultDataBuffer other = this.factory.allocateBuffer(120);
+		assertEquals(120, other.capacity());
+		assertSame(memory.array(), other.getNativeBuffer().array());
+		assertEquals(memory.arrayOffset(), other.getNativeBuffer().arrayOffset());
+		DataBufferUtils.release(other);
+	}
+
+	@Test
+	public void releaseRecyclesMemoryWithoutThreadCache() {
+		this.factory.setThreadCacheSize(0);
+		DefaultDataBuffer buffer = this.factory.allocateBuffer(64);
+		int offset = buffer.getNativeBuffer().arrayOffset();
+		DataBufferUtils.release(buffer);
+
+		DefaultDataBuffer other = this.factory.allocateBuffer(64);
+		assertEquals(offset, other.getNativeBuffer().arrayOffset());
+		DataBufferUtils.release(other);
+	}
+
+	@Test
+	public void sizeClassesDoNotShareMemory() {
+		DefaultDataBuffer buffer = this.factory.allocateBuffer(64);
+		DefaultDataBuffer other = this.factory.allocateBuffer(65);
+		assertNotSame(buffer.getNativeBuffer().array(), other.getNativeBuffer().array());
+		DataBufferUtils.release(buffer);
+		DataBufferUtils.release(other);
+	}
+
+	@Test
+	public void capacityIncrease() {
+		DefaultDataBuffer buffer = this.factory.allocateBuffer(1);
+		byte[] bytes = new byte[1000];
+		bytes[999] = 42;
+		buffer.write((byte) 'a');
+		buffer.write(bytes);
+		assertTrue(buffer.capacity() >= 1001);
+		assertEquals('a', buffer.read());
+		assertEquals(42, buffer.getByte(1000));
+		assertEquals(1, this.factory.getActiveAllocations());
+		DataBufferUtils.release(buffer);
+		assertEquals(0, this.factory.getActiveAllocations());
+	}
+
+	@Test
+	public void largeBufferNotPooled() {
+		DefaultDataBuffer buffer = this.factory.allocateBuffer(this.factory.getMaxPooledCapacity() + 1);
+		assertFalse(buffer instanceof PooledDataBuffer);
+		assertEquals(0, this.factory.getActiveAllocations());
+	}
+
+	@Test
+	public void sliceSharesReferenceCount() {
+		DefaultDataBuffer buffer = this.factory.allocateBuffer(8);
+		buffer.write("foobar".getBytes(StandardCharsets.UTF_8));
+		DataBuffer slice = buffer.slice(3, 3);
+		assertTrue(slice instanceof PooledDataBuffer);
+
+		DataBufferUtils.retain(slice);
+		assertFalse(DataBufferUtils.release(buffer));
+		assertTrue(((PooledDataBuffer) slice).isAllocated());
+		assertTrue(DataBufferUtils.release(slice));
+		assertFalse(((PooledDataBuffer) buffer).isAllocated());
+		assertFalse(((PooledDataBuffer) slice).isAllocated());
+	}
+
+	@Test
+	public void sliceKeepsMemoryReplacedByCapacityIncrease() {
+		DefaultDataBuffer buffer = this.factory.allocateBuffer(8);
+		ByteBuffer memory = buffer.getNativeBuffer();
+		buffer.write("abcdefgh".getBytes(StandardCharsets.UTF_8));
+		DataBuffer slice = buffer.slice(0, 4);
+		buffer.write(new byte[100]);
+
+		DefaultDataBuffer other = this.factory.allocateBuffer(8);
+		other.write("XXXXXXXX".getBytes(StandardCharsets.UTF_8));
+		assertEquals("abcd", DataBufferTestUtils.dumpString(slice, StandardCharsets.UTF_8));
+		DataBufferUtils.release(other);
+		DataBufferUtils.release(buffer);
+
+		// Replaced memory is recycled along with the buffer
+		other = this.factory.allocateBuffer(8);
+		assertSame(memory.array(), other.getNativeBuffer().array());
+		assertEquals(memory.arrayOffset(), other.getNativeBuffer().arrayOffset());
+		DataBufferUtils.release(other);
+		assertEquals(0, this.factory.getActiveAllocations());
+	}
+
+	@Test
+	public void accessAfterRelease() {
+		DefaultDataBuffer buffer = this.factory.allocateBuffer(8);
+		buffer.write((byte) 'a');
+		DataBufferUtils.release(buffer);
+		assertEquals(0, buffer.capacity());
+		try {
+			buffer.read();
+			fail("IndexOutOfBoundsException expected");
+		}
+		catch (IndexOutOfBoundsException ex) {
+			// expected
+		}
+		try {
+			buffer.write(new byte[16]);
+			fail("IllegalStateException expected");
+		}
+		catch (IllegalStateException ex) {
+			// expected
+		}
+	}
+
+	@Test
+	public void inputStreamReleaseOnClose() throws Exception {
+		DefaultDataBuffer buffer = this.factory.allocateBuffer(8);
+		buffer.write((byte) 'a');
+		InputStream inputStream = buffer.asInputStream(true);
+		assertEquals('a', inputStream.read());
+		inputStream.close();
+		inputStream.close();
+		assertFalse(((PooledDataBuffer) buffer).isAllocated());
+	}
+
+	@Test
+	public void joinAllocatesPooledBuffer() {
+		DataBuffer foo = this.factory.wrap("foo".getBytes(StandardCharsets.UTF_8));
+		DataBuffer bar = this.factory.allocateBuffer(3);
+		bar.write("bar".getBytes(StandardCharsets.UTF_8));
+
+		DataBuffer result = this.factory.join(Arrays.asList(foo, bar));
+		assertTrue(result instanceof PooledDataBuffer);
+		assertEquals("foobar", DataBufferTestUtils.dumpString(result, StandardCharsets.UTF_8));
+		assertEquals(1, this.factory.getActiveAllocations());
+		DataBufferUtils.release(result);
+		assertEquals(0, this.factory.getActiveAllocations());
+	}
+
+	@Test
+	public void leakDetection() throws Exception {
+		this.factory.setLeakDetectionInterval(1);
+		this.factory.allocateBuffer(16);
+		assertEquals(1, this.factory.getActiveAllocations());
+		for (int i = 0; i < 50 && this.factory.getActiveAllocations() > 0; i++) {
+			System.gc();
+			Thread.sleep(20);
+			DataBufferUtils.release(this.factory.allocateBuffer(16));
+		}
+		assertEquals(0, this.factory.getActiveAllocations());
+	}
+
+}
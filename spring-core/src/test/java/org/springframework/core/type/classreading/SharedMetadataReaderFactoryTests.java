@@ -0,0 +1,150 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.FileCopyUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SharedMetadataReaderFactory} and {@link MetadataReaderCache}.
+ *
+ * @author Daniel Ferreira
+ */
+public class SharedMetadataReaderFactoryTests {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final MetadataReaderCache cache = new MetadataReaderCache(MetadataReaderCache.DEFAULT_CACHE_LIMIT);
+
+
+	@Test
+	public void metadataSharedAcrossFactories() throws Exception {
+		ClassLoader classLoader = getClass().getClassLoader();
+		MetadataReader first = new SharedMetadataReaderFactory(
+				new DefaultResourceLoader(classLoader), this.cache).getMetadataReader(getClass().getName());
+		MetadataReader second = new SharedMetadataReaderFactory(
+				new DefaultResourceLoader(classLoader), this.cache).getMetadataReader(getClass().getName());
+
+		assertSame(first, second);
+		assertEquals(getClass().getName(), second.getClassMetadata().getClassName());
+		MetadataReaderCache.Statistics statistics = this.cache.getStatistics();
+		assertEquals(1, statistics.getHitCount());
+		assertEquals(1, statistics.getMissCount());
+		assertEquals(0.5, statistics.getHitRatio(), 0);
+		assertEquals(1, statistics.getSize());
+	}
+
+	@Test
+	public void metadataNotSharedAcrossClassLoaders() throws Exception {
+		URLClassLoader otherClassLoader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+		MetadataReader first = new SharedMetadataReaderFactory(
+				new DefaultResourceLoader(getClass().getClassLoader()), this.cache).getMetadataReader(getClass().getName());
+		MetadataReader second = new SharedMetadataReaderFactory(
+				new DefaultResourceLoader(otherClassLoader), this.cache).getMetadataReader(getClass().getName());
+
+		assertNotSame(first, second);
+		assertEquals(2, this.cache.getStatistics().getMissCount());
+		assertEquals(2, this.cache.size());
+	}
+
+	@Test
+	public void metadataSharedForChildClassLoader() throws Exception {
+		URLClassLoader childClassLoader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+		MetadataReader first = new SharedMetadataReaderFactory(
+				new DefaultResourceLoader(childClassLoader), this.cache).getMetadataReader(getClass().getName());
+		MetadataReader second = new SharedMetadataReaderFactory(
+				new DefaultResourceLoader(childClassLoader), this.cache).getMetadataReader(getClass().getName());
+
+		assertSame(first, second);
+		assertEquals(1, this.cache.getStatistics().getHitCount());
+	}
+
+	@Test
+	public void modifiedClassFileIsReadAgain() throws Exception {
+		File classFile = this.temporaryFolder.newFile("SharedMetadataReaderFactoryTests.class");
+		try (InputStream in = getClass().getResourceAsStream(getClass().getSimpleName() + ".class")) {
+			Files.copy(in, classFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		SharedMetadataReaderFactory factory = new SharedMetadataReaderFactory(null, this.cache);
+		MetadataReader first = factory.getMetadataReader(new FileSystemResource(classFile));
+		assertSame(first, factory.getMetadataReader(new FileSystemResource(classFile)));
+
+		assertTrue(classFile.setLastModified(classFile.lastModified() + 2000));
+		MetadataReader second = factory.getMetadataReader(new FileSystemResource(classFile));
+		assertNotSame(first, second);
+		assertEquals(2, this.cache.getStatistics().getMissCount());
+		assertEquals(1, this.cache.size());
+	}
+
+	@Test
+	public void cacheLimitEnforced() throws Exception {
+		MetadataReaderCache cache = new MetadataReaderCache(16);
+		SharedMetadataReaderFactory factory = new SharedMetadataReaderFactory(null, cache);
+		Class<?>[] types = {String.class, Integer.class, Long.class, Short.class, Byte.class, Character.class,
+				Boolean.class, Double.class, Float.class, Number.class, Object.class, Class.class,
+				Thread.class, Runnable.class, Exception.class, Error.class, Throwable.class, Math.class,
+				StringBuilder.class, CharSequence.class, Comparable.class, Iterable.class, Enum.class,
+				Void.class, System.class, Runtime.class, Process.class, Package.class, Override.class,
+				Deprecated.class, SafeVarargs.class, FunctionalInterface.class};
+		for (Class<?> type : types) {
+			factory.getMetadataReader(type.getName());
+		}
+
+		MetadataReaderCache.Statistics statistics = cache.getStatistics();
+		assertTrue(statistics.getSize() <= 16);
+		assertEquals(types.length, statistics.getMissCount());
+		assertEquals(types.length - statistics.getSize(), statistics.getEvictionCount());
+	}
+
+	@Test
+	public void resourceWithoutUrlNotCached() throws Exception {
+		byte[] content = FileCopyUtils.copyToByteArray(
+				getClass().getResourceAsStream(getClass().getSimpleName() + ".class"));
+		Resource resource = new ByteArrayResource(content);
+		SharedMetadataReaderFactory factory = new SharedMetadataReaderFactory(null, this.cache);
+
+		assertEquals(getClass().getName(), factory.getMetadataReader(resource).getClassMetadata().getClassName());
+		assertEquals(0, this.cache.getStatistics().getMissCount());
+		assertEquals(0, this.cache.size());
+	}
+
+	@Test
+	public void innerClassWithDotSyntax() throws Exception {
+		SharedMetadataReaderFactory factory = new SharedMetadataReaderFactory(null, this.cache);
+		String className = MetadataReaderCache.Statistics.class.getName().replace('$', '.');
+		assertEquals(MetadataReaderCache.Statistics.class.getName(),
+				factory.getMetadataReader(className).getClassMetadata().getClassName());
+	}
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+/**
+ * Benchmarks for {@link org.springframework.expression.spel.standard.SpelExpression#getValue}
+ * in interpreted and compiled mode.
+ *
+ * @author Daniel Ferreira
+ */
+@BenchmarkMode(Mode.Throughput)
+public class SpelExpressionBenchmark {
+
+	@Benchmark
+	public Object propertyNavigation(ExpressionState state) {
+		return state.propertyExpression.getValue(state.root);
+	}
+
+	@Benchmark
+	public Object arithmeticAndComparison(ExpressionState state) {
+		return state.arithmeticExpression.getValue(state.root);
+	}
+
+	@Benchmark
+	public Object methodInvocation(ExpressionState state) {
+		return state.methodExpression.getValue(state.root);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class ExpressionState {
+
+		@Param({"OFF", "IMMEDIATE"})
+		public SpelCompilerMode compilerMode;
+
+		public Expression propertyExpression;
+
+		public Expression arithmeticExpression;
+
+		public Expression methodExpression;
+
+		public Person root;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			SpelExpressionParser parser = new SpelExpressionParser(
+					new SpelParserConfiguration(this.compilerMode, getClass().getClassLoader()));
+			this.propertyExpression = parser.parseExpression("address.city");
+			this.arithmeticExpression = parser.parseExpression("age * 2 + 10 > 50");
+			this.methodExpression = parser.parseExpression("name.toUpperCase().substring(1, 3)");
+			this.root = new Person("Jane", 34, new Address("Berlin"));
+			// Warm up once so that compiled mode has produced its generated class
+			this.propertyExpression.getValue(this.root);
+			this.arithmeticExpression.getValue(this.root);
+			this.methodExpression.getValue(this.root);
+		}
+	}
+
+
+	public static class Person {
+
+		private final String name;
+
+		private final int age;
+
+		private final Address address;
+
+		public Person(String name, int age, Address address) {
+			this.name = name;
+			this.age = age;
+			this.address = address;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public int getAge() {
+			return this.age;
+		}
+
+		public Address getAddress() {
+			return this.address;
+		}
+	}
+
+
+	public static class Address {
+
+		private final String city;
+
+		public Address(String city) {
+			this.city = city;
+		}
+
+		public String getCity() {
+			return this.city;
+		}
+	}
+
+}
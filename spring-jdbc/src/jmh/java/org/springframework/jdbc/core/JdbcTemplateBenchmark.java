@@ -0,0 +1,147 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+/**
+ * Benchmarks for {@link JdbcTemplate} row mapping against an in-memory HSQLDB.
+ *
+ * @author Daniel Ferreira
+ */
+@BenchmarkMode(Mode.Throughput)
+public class JdbcTemplateBenchmark {
+
+	private static final String QUERY = "SELECT id, name, amount, active FROM item";
+
+	@Benchmark
+	public List<Item> lambdaRowMapper(DatabaseState state) {
+		return state.jdbcTemplate.query(QUERY, (rs, rowNum) ->
+				new Item(rs.getLong(1), rs.getString(2), rs.getBigDecimal(3).doubleValue(), rs.getBoolean(4)));
+	}
+
+	@Benchmark
+	public List<Item> beanPropertyRowMapper(DatabaseState state) {
+		return state.jdbcTemplate.query(QUERY, state.beanPropertyRowMapper);
+	}
+
+	@Benchmark
+	public List<Map<String, Object>> queryForList(DatabaseState state) {
+		return state.jdbcTemplate.queryForList(QUERY);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class DatabaseState {
+
+		@Param({"10", "1000"})
+		public int rowCount;
+
+		public EmbeddedDatabase database;
+
+		public JdbcTemplate jdbcTemplate;
+
+		public BeanPropertyRowMapper<Item> beanPropertyRowMapper = BeanPropertyRowMapper.newInstance(Item.class);
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.database = new EmbeddedDatabaseBuilder().generateUniqueName(true)
+					.setType(EmbeddedDatabaseType.HSQL).build();
+			this.jdbcTemplate = new JdbcTemplate(this.database);
+			this.jdbcTemplate.execute("CREATE TABLE item (id BIGINT PRIMARY KEY, name VARCHAR(50), " +
+					"amount DECIMAL(10,2), active BOOLEAN)");
+			for (int i = 0; i < this.rowCount; i++) {
+				this.jdbcTemplate.update("INSERT INTO item VALUES (?, ?, ?, ?)", i, "item-" + i, i * 1.5, i % 2 == 0);
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			this.database.shutdown();
+		}
+	}
+
+
+	public static class Item {
+
+		private long id;
+
+		private String name;
+
+		private double amount;
+
+		private boolean active;
+
+		public Item() {
+		}
+
+		public Item(long id, String name, double amount, boolean active) {
+			this.id = id;
+			this.name = name;
+			this.amount = amount;
+			this.active = active;
+		}
+
+		public long getId() {
+			return this.id;
+		}
+
+		public void setId(long id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public double getAmount() {
+			return this.amount;
+		}
+
+		public void setAmount(double amount) {
+			this.amount = amount;
+		}
+
+		public boolean isActive() {
+			return this.active;
+		}
+
+		public void setActive(boolean active) {
+			this.active = active;
+		}
+	}
+
+}
@@ -0,0 +1,398 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.messaging;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * The {@code Map} behind {@link MessageHeaders}, more compact than a
+ * {@code HashMap} for the handful of headers a message typically has.
+ *
+ * <p>Entries are kept in flat key and value arrays, except for the headers
+ * that are replaced whenever the headers of a message are copied (id,
+ * timestamp and native headers), which have fixed slots of their own.
+ * A {@link #copy()} shares the arrays with the original map: either map may
+ * append entries in place as long as the other did not claim the same
+ * positions, while any other change first copies the arrays.
+ *
+ * <p>Serialized as a {@code HashMap}, for compatibility with the serialized
+ * form of {@code MessageHeaders}.
+ *
+ * @author Daniel Ferreira
+ * @since 5.2
+ */
+@SuppressWarnings("serial")
+final class CompactHeaderMap extends AbstractMap<String, Object> implements Serializable {
+
+	/**
+	 * Keys with a fixed slot. "nativeHeaders" is the key used by
+	 * {@code NativeMessageHeaderAccessor}.
+	 */
+	private static final String[] SLOT_KEYS = {MessageHeaders.ID, MessageHeaders.TIMESTAMP, "nativeHeaders"};
+
+	private static final Object NULL_VALUE = new Object();
+
+	private static final int INITIAL_CAPACITY = 8;
+
+
+	/** Values of the keys with a fixed slot: {@code null} if absent. */
+	private Object[] slots;
+
+	private Entries entries;
+
+	/** The number of entries, from the start of the arrays, that belong to this map. */
+	private int count;
+
+	@Nullable
+	private transient Set<Map.Entry<String, Object>> entrySet;
+
+
+	CompactHeaderMap() {
+		this.slots = new Object[SLOT_KEYS.length];
+		this.entries = new Entries(INITIAL_CAPACITY);
+	}
+
+	CompactHeaderMap(Map<String, Object> map) {
+		this.slots = new Object[SLOT_KEYS.length];
+		this.entries = new Entries(Math.max(map.size(), INITIAL_CAPACITY));
+		putAll(map);
+	}
+
+	private CompactHeaderMap(CompactHeaderMap original) {
+		this.slots = original.slots.clone();
+		this.entries = original.entries;
+		this.count = original.count;
+	}
+
+
+	/**
+	 * Return a copy of this map that shares its arrays until either map changes.
+	 */
+	CompactHeaderMap copy() {
+		if (this.count > 0) {
+			this.entries.markShared();
+		}
+		return new CompactHeaderMap(this);
+	}
+
+
+	@Override
+	public int size() {
+		int size = this.count;
+		for (Object value : this.slots) {
+			if (value != null) {
+				size++;
+			}
+		}
+		return size;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		int slot = slotIndex(key);
+		return (slot != -1 ? this.slots[slot] != null : indexOf(key) != -1);
+	}
+
+	@Override
+	@Nullable
+	public Object get(Object key) {
+		int slot = slotIndex(key);
+		if (slot != -1) {
+			return unmask(this.slots[slot]);
+		}
+		int index = indexOf(key);
+		return (index != -1 ? this.entries.values[index] : null);
+	}
+
+	@Override
+	@Nullable
+	public Object put(String key, @Nullable Object value) {
+		int slot = slotIndex(key);
+		if (slot != -1) {
+			Object previous = this.slots[slot];
+			this.slots[slot] = (value != null ? value : NULL_VALUE);
+			return unmask(previous);
+		}
+		int index = indexOf(key);
+		if (index != -1) {
+			Object previous = this.entries.values[index];
+			if (previous != value) {
+				ensureOwnEntries(this.count);
+				this.entries.values[index] = value;
+			}
+			return previous;
+		}
+		if (!this.entries.claim(this.count)) {
+			copyEntries(Math.max(this.count * 2, INITIAL_CAPACITY));
+			this.entries.claim(this.count);
+		}
+		this.entries.keys[this.count] = key;
+		this.entries.values[this.count] = value;
+		this.count++;
+		return null;
+	}
+
+	@Override
+	@Nullable
+	public Object remove(Object key) {
+		int slot = slotIndex(key);
+		if (slot != -1) {
+			Object previous = this.slots[slot];
+			this.slots[slot] = null;
+			return unmask(previous);
+		}
+		int index = indexOf(key);
+		if (index == -1) {
+			return null;
+		}
+		Object previous = this.entries.values[index];
+		ensureOwnEntries(this.count);
+		Entries entries = this.entries;
+		int moved = this.count - index - 1;
+		System.arraycopy(entries.keys, index + 1, entries.keys, index, moved);
+		System.arraycopy(entries.values, index + 1, entries.values, index, moved);
+		this.count--;
+		entries.keys[this.count] = null;
+		entries.values[this.count] = null;
+		entries.release(this.count);
+		return previous;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < this.slots.length; i++) {
+			this.slots[i] = null;
+		}
+		this.entries = new Entries(INITIAL_CAPACITY);
+		this.count = 0;
+	}
+
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		Set<Map.Entry<String, Object>> entrySet = this.entrySet;
+		if (entrySet == null) {
+			entrySet = new EntrySet();
+			this.entrySet = entrySet;
+		}
+		return entrySet;
+	}
+
+
+	private static int slotIndex(@Nullable Object key) {
+		for (int i = 0; i < SLOT_KEYS.length; i++) {
+			if (SLOT_KEYS[i] == key) {
+				return i;
+			}
+		}
+		for (int i = 0; i < SLOT_KEYS.length; i++) {
+			if (SLOT_KEYS[i].equals(key)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private int indexOf(@Nullable Object key) {
+		String[] keys = this.entries.keys;
+		for (int i = 0; i < this.count; i++) {
+			if (keys[i] == key) {
+				return i;
+			}
+		}
+		if (key != null) {
+			for (int i = 0; i < this.count; i++) {
+				if (key.equals(keys[i])) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	@Nullable
+	private static Object unmask(@Nullable Object value) {
+		return (value != NULL_VALUE ? value : null);
+	}
+
+	/**
+	 * Make sure the entries can be changed in place, copying them if shared.
+	 */
+	private void ensureOwnEntries(int capacity) {
+		if (this.entries.isShared()) {
+			copyEntries(Math.max(capacity, INITIAL_CAPACITY));
+		}
+	}
+
+	private void copyEntries(int capacity) {
+		Entries entries = new Entries(capacity);
+		System.arraycopy(this.entries.keys, 0, entries.keys, 0, this.count);
+		System.arraycopy(this.entries.values, 0, entries.values, 0, this.count);
+		entries.used = this.count;
+		this.entries = entries;
+	}
+
+	private Object writeReplace() {
+		return new HashMap<>(this);
+	}
+
+
+	/**
+	 * Key and value arrays, possibly shared by several maps, each of which
+	 * sees the entries up to its own count. Positions past the counts of all
+	 * maps are claimed by the first map to append an entry there.
+	 */
+	private static final class Entries {
+
+		final String[] keys;
+
+		final Object[] values;
+
+		/** The number of positions claimed by maps sharing these entries. */
+		private int used;
+
+		private boolean shared;
+
+		Entries(int capacity) {
+			this.keys = new String[capacity];
+			this.values = new Object[capacity];
+		}
+
+		synchronized boolean claim(int index) {
+			if (index == this.used && index < this.keys.length) {
+				this.used++;
+				return true;
+			}
+			return false;
+		}
+
+		synchronized void release(int used) {
+			this.used = used;
+		}
+
+		synchronized void markShared() {
+			this.shared = true;
+		}
+
+		synchronized boolean isShared() {
+			return this.shared;
+		}
+	}
+
+
+	private class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+
+		@Override
+		public int size() {
+			return CompactHeaderMap.this.size();
+		}
+
+		@Override
+		public Iterator<Map.Entry<String, Object>> iterator() {
+			return new EntryIterator();
+		}
+
+		@Override
+		public void clear() {
+			CompactHeaderMap.this.clear();
+		}
+	}
+
+
+	/**
+	 * Iterates over the slots and then the entries.
+	 */
+	private class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+
+		private int position = -1;
+
+		@Nullable
+		private String lastKey;
+
+		EntryIterator() {
+			advance();
+		}
+
+		private void advance() {
+			this.position++;
+			while (this.position < SLOT_KEYS.length && slots[this.position] == null) {
+				this.position++;
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return (this.position < SLOT_KEYS.length + count);
+		}
+
+		@Override
+		public Map.Entry<String, Object> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Map.Entry<String, Object> entry;
+			if (this.position < SLOT_KEYS.length) {
+				entry = new WriteThroughEntry(SLOT_KEYS[this.position], unmask(slots[this.position]));
+			}
+			else {
+				int index = this.position - SLOT_KEYS.length;
+				entry = new WriteThroughEntry(entries.keys[index], entries.values[index]);
+			}
+			this.lastKey = entry.getKey();
+			advance();
+			return entry;
+		}
+
+		@Override
+		public void remove() {
+			if (this.lastKey == null) {
+				throw new IllegalStateException();
+			}
+			boolean slot = (slotIndex(this.lastKey) != -1);
+			CompactHeaderMap.this.remove(this.lastKey);
+			if (!slot) {
+				// The following entries moved up by one
+				this.position--;
+			}
+			this.lastKey = null;
+		}
+	}
+
+
+	private class WriteThroughEntry extends SimpleEntry<String, Object> {
+
+		WriteThroughEntry(String key, @Nullable Object value) {
+			super(key, value);
+		}
+
+		@Override
+		@Nullable
+		public Object setValue(@Nullable Object value) {
+			put(getKey(), value);
+			return super.setValue(value);
+		}
+	}
+
+}
@@ -22,7 +22,6 @@ import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -134,7 +133,7 @@ public class MessageHeaders implements Map<String, Object>, Serializable {
 	 * @param timestamp the {@link #TIMESTAMP} header value
 	 */
 	protected MessageHeaders(@Nullable Map<String, Object> headers, @Nullable UUID id, @Nullable Long timestamp) {
-		this.headers = (headers != null ? new HashMap<>(headers) : new HashMap<>());
+		this.headers = copyHeaders(headers);
 
 		if (id == null) {
 			this.headers.put(ID, getIdGenerator().generateId());
@@ -164,7 +163,7 @@ public class MessageHeaders implements Map<String, Object>, Serializable {
 	 * @param keysToIgnore the keys of the entries to ignore
 	 */
 	private MessageHeaders(MessageHeaders original, Set<String> keysToIgnore) {
-		this.headers = new HashMap<>(original.headers.size());
+		this.headers = new CompactHeaderMap();
 		original.headers.forEach((key, value) -> {
 			if (!keysToIgnore.contains(key)) {
 				this.headers.put(key, value);
@@ -173,10 +172,29 @@ public class MessageHeaders implements Map<String, Object>, Serializable {
 	}
 
 
+	private static Map<String, Object> copyHeaders(@Nullable Map<String, Object> headers) {
+		if (headers == null) {
+			return new CompactHeaderMap();
+		}
+		Map<String, Object> map = (headers instanceof MessageHeaders ? ((MessageHeaders) headers).headers : headers);
+		return (map instanceof CompactHeaderMap ? ((CompactHeaderMap) map).copy() : new CompactHeaderMap(map));
+	}
+
 	protected Map<String, Object> getRawHeaders() {
 		return this.headers;
 	}
 
+	/**
+	 * Set the strategy for generating the ids of messages that do not specify
+	 * one, e.g. a {@link org.springframework.util.MonotonicIdGenerator} for
+	 * cheaper ids than the random ones generated by default.
+	 * @param generator the id generator, or {@code null} to restore the default
+	 * @since 5.2
+	 */
+	public static void setIdGenerator(@Nullable IdGenerator generator) {
+		idGenerator = generator;
+	}
+
 	protected static IdGenerator getIdGenerator() {
 		IdGenerator generator = idGenerator;
 		return (generator != null ? generator : defaultIdGenerator);
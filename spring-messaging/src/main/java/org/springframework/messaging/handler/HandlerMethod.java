@@ -27,6 +27,7 @@ import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.core.BridgeMethodResolver;
 import org.springframework.core.GenericTypeResolver;
+import org.springframework.core.MethodAccessor;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.core.annotation.SynthesizingMethodParameter;
@@ -71,6 +72,8 @@ public class HandlerMethod {
 
 	private final Method bridgedMethod;
 
+	private final MethodAccessor methodAccessor;
+
 	private final MethodParameter[] parameters;
 
 	@Nullable
@@ -88,6 +91,7 @@ public class HandlerMethod {
 		this.beanType = ClassUtils.getUserClass(bean);
 		this.method = method;
 		this.bridgedMethod = BridgeMethodResolver.findBridgedMethod(method);
+		this.methodAccessor = MethodAccessor.forMethod(this.bridgedMethod);
 		this.parameters = initMethodParameters();
 	}
 
@@ -103,6 +107,7 @@ public class HandlerMethod {
 		this.beanType = ClassUtils.getUserClass(bean);
 		this.method = bean.getClass().getMethod(methodName, parameterTypes);
 		this.bridgedMethod = BridgeMethodResolver.findBridgedMethod(this.method);
+		this.methodAccessor = MethodAccessor.forMethod(this.bridgedMethod);
 		this.parameters = initMethodParameters();
 	}
 
@@ -124,6 +129,7 @@ public class HandlerMethod {
 		this.beanType = ClassUtils.getUserClass(beanType);
 		this.method = method;
 		this.bridgedMethod = BridgeMethodResolver.findBridgedMethod(method);
+		this.methodAccessor = MethodAccessor.forMethod(this.bridgedMethod);
 		this.parameters = initMethodParameters();
 	}
 
@@ -137,6 +143,7 @@ public class HandlerMethod {
 		this.beanType = handlerMethod.beanType;
 		this.method = handlerMethod.method;
 		this.bridgedMethod = handlerMethod.bridgedMethod;
+		this.methodAccessor = handlerMethod.methodAccessor;
 		this.parameters = handlerMethod.parameters;
 		this.resolvedFromHandlerMethod = handlerMethod.resolvedFromHandlerMethod;
 	}
@@ -152,6 +159,7 @@ public class HandlerMethod {
 		this.beanType = handlerMethod.beanType;
 		this.method = handlerMethod.method;
 		this.bridgedMethod = handlerMethod.bridgedMethod;
+		this.methodAccessor = handlerMethod.methodAccessor;
 		this.parameters = handlerMethod.parameters;
 		this.resolvedFromHandlerMethod = handlerMethod;
 	}
@@ -217,6 +225,15 @@ public class HandlerMethod {
 		return this.bridgedMethod;
 	}
 
+	/**
+	 * Return the accessor for invoking the {@linkplain #getBridgedMethod() bridged method},
+	 * resolved once for this handler method and shared with copies of it.
+	 * @since 5.2
+	 */
+	protected MethodAccessor getMethodAccessor() {
+		return this.methodAccessor;
+	}
+
 	/**
 	 * Return the method parameters for this handler method.
 	 */
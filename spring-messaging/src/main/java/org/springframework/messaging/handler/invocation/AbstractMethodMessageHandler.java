@@ -21,7 +21,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -50,6 +52,7 @@ import org.springframework.util.ClassUtils;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.util.ObjectUtils;
 import org.springframework.util.concurrent.ListenableFuture;
 import org.springframework.util.concurrent.ListenableFutureCallback;
 
@@ -61,6 +64,12 @@ import org.springframework.util.concurrent.ListenableFutureCallback;
  * <p>Also supports discovering and invoking exception handling methods to process
  * exceptions raised during message handling.
  *
+ * <p>Destinations without a direct match are checked only against the mappings
+ * whose patterns can match them, as determined through an index of the leading
+ * path segments of the patterns when subclasses provide them (see
+ * {@link #getLeadingDestinationSegments}). The resulting candidate mappings are
+ * cached per destination, up to the {@link #setDestinationCacheLimit limit}.
+ *
  * @author Rossen Stoyanchev
  * @author Juergen Hoeller
  * @since 4.0
@@ -82,6 +91,12 @@ public abstract class AbstractMethodMessageHandler<T>
 	 */
 	private static final String SCOPED_TARGET_NAME_PREFIX = "scopedTarget.";
 
+	/**
+	 * Default maximum number of entries for the destination cache: 1024.
+	 * @since 5.2
+	 */
+	public static final int DEFAULT_DESTINATION_CACHE_LIMIT = 1024;
+
 
 	protected final Log logger = LogFactory.getLog(getClass());
 
@@ -108,6 +123,30 @@ public abstract class AbstractMethodMessageHandler<T>
 
 	private final MultiValueMap<String, T> destinationLookup = new LinkedMultiValueMap<>(64);
 
+	/** Mappings by the leading path segments of their destination patterns. */
+	private volatile DestinationIndex destinationIndex = new DestinationIndex(null);
+
+	private volatile int destinationCacheLimit = DEFAULT_DESTINATION_CACHE_LIMIT;
+
+	/** Map from lookup destination to candidate mappings for fast look-ups. */
+	private final Map<String, List<T>> destinationCache = new ConcurrentHashMap<>(DEFAULT_DESTINATION_CACHE_LIMIT);
+
+	/** Map from lookup destination to candidate mappings, in access order, with locking. */
+	@SuppressWarnings("serial")
+	private final Map<String, List<T>> destinationCacheOrder =
+			new LinkedHashMap<String, List<T>>(DEFAULT_DESTINATION_CACHE_LIMIT, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, List<T>> eldest) {
+					if (size() > getDestinationCacheLimit()) {
+						destinationCache.remove(eldest.getKey());
+						return true;
+					}
+					else {
+						return false;
+					}
+				}
+			};
+
 	private final Map<Class<?>, AbstractExceptionHandlerMethodResolver> exceptionHandlerCache =
 			new ConcurrentHashMap<>(64);
 
@@ -140,6 +179,26 @@ public abstract class AbstractMethodMessageHandler<T>
 		return this.destinationPrefixes;
 	}
 
+	/**
+	 * Specify the maximum number of entries for the cache of candidate mappings
+	 * per destination, used for destinations without a direct match.
+	 * <p>Default is 1024. Set it to 0 to turn the cache off.
+	 * @since 5.2
+	 * @see #DEFAULT_DESTINATION_CACHE_LIMIT
+	 */
+	public void setDestinationCacheLimit(int destinationCacheLimit) {
+		this.destinationCacheLimit = destinationCacheLimit;
+		clearDestinationCache();
+	}
+
+	/**
+	 * Return the maximum number of entries for the destination cache.
+	 * @since 5.2
+	 */
+	public int getDestinationCacheLimit() {
+		return this.destinationCacheLimit;
+	}
+
 	/**
 	 * Sets the list of custom {@code HandlerMethodArgumentResolver}s that will be used
 	 * after resolvers for supported argument type.
@@ -343,6 +402,7 @@ public abstract class AbstractMethodMessageHandler<T>
 					oldHandlerMethod.getBean() + "' bean method\n" + oldHandlerMethod + " mapped.");
 		}
 
+		DestinationIndex index = getDestinationIndex();
 		this.handlerMethods.put(mapping, newHandlerMethod);
 		if (logger.isTraceEnabled()) {
 			logger.trace("Mapped \"" + mapping + "\" onto " + newHandlerMethod);
@@ -351,6 +411,9 @@ public abstract class AbstractMethodMessageHandler<T>
 		for (String pattern : getDirectLookupDestinations(mapping)) {
 			this.destinationLookup.add(pattern, mapping);
 		}
+
+		index.addMapping(mapping);
+		clearDestinationCache();
 	}
 
 	/**
@@ -377,6 +440,51 @@ public abstract class AbstractMethodMessageHandler<T>
 	 */
 	protected abstract Set<String> getDirectLookupDestinations(T mapping);
 
+	/**
+	 * Return, for each destination pattern of the mapping, the leading path
+	 * segments that every destination matched by the pattern starts with, as
+	 * returned by {@link #getDestinationSegments} for such a destination. An
+	 * empty list indicates that the pattern can match any destination.
+	 * <p>The default implementation returns {@code null}, in which case the
+	 * mapping is checked for every destination without a direct match.
+	 * @param mapping the mapping to index
+	 * @return the leading segments per pattern, or {@code null} if not known
+	 * @since 5.2
+	 */
+	@Nullable
+	protected Collection<List<String>> getLeadingDestinationSegments(T mapping) {
+		return null;
+	}
+
+	/**
+	 * Split the given lookup destination into path segments for an indexed
+	 * lookup of the mappings that may match it.
+	 * <p>The default implementation returns {@code null}, in which case all
+	 * mappings are checked for destinations without a direct match.
+	 * @param lookupDestination the destination to split
+	 * @return the path segments, or {@code null} to check all mappings
+	 * @since 5.2
+	 * @see #getLeadingDestinationSegments
+	 */
+	@Nullable
+	protected List<String> getDestinationSegments(String lookupDestination) {
+		return null;
+	}
+
+	/**
+	 * Return the state that {@link #getLeadingDestinationSegments} and
+	 * {@link #getDestinationSegments} depend on, such as the configuration of
+	 * the {@code PathMatcher} used to split destinations. The index of mappings
+	 * is rebuilt, and cached candidate mappings dropped, whenever this state is
+	 * no longer equal to the state that the index was built with.
+	 * <p>The default implementation returns {@code null}.
+	 * @since 5.2
+	 */
+	@Nullable
+	protected Object getDestinationSegmentsState() {
+		return null;
+	}
+
 	/**
 	 * Return a logger to set on {@link HandlerMethodReturnValueHandlerComposite}.
 	 * @since 5.1
@@ -476,9 +584,8 @@ public abstract class AbstractMethodMessageHandler<T>
 			addMatchesToCollection(mappingsByUrl, message, matches);
 		}
 		if (matches.isEmpty()) {
-			// No direct hits, go through all mappings
-			Set<T> allMappings = this.handlerMethods.keySet();
-			addMatchesToCollection(allMappings, message, matches);
+			// No direct hits, go through all mappings that may match
+			addMatchesToCollection(getCandidateMappings(lookupDestination), message, matches);
 		}
 		if (matches.isEmpty()) {
 			handleNoMatch(this.handlerMethods.keySet(), lookupDestination, message);
@@ -505,6 +612,60 @@ public abstract class AbstractMethodMessageHandler<T>
 		handleMatch(bestMatch.mapping, bestMatch.handlerMethod, lookupDestination, message);
 	}
 
+	private Collection<T> getCandidateMappings(String lookupDestination) {
+		DestinationIndex index = getDestinationIndex();
+		List<T> candidates = this.destinationCache.get(lookupDestination);
+		if (candidates != null) {
+			return candidates;
+		}
+		List<String> segments = getDestinationSegments(lookupDestination);
+		if (segments == null) {
+			return this.handlerMethods.keySet();
+		}
+		candidates = index.getCandidateMappings(segments);
+		if (getDestinationCacheLimit() > 0) {
+			synchronized (this.destinationCacheOrder) {
+				if (this.destinationIndex == index) {
+					this.destinationCacheOrder.put(lookupDestination, candidates);
+					this.destinationCache.put(lookupDestination, candidates);
+				}
+			}
+		}
+		return candidates;
+	}
+
+	/**
+	 * Return the index of mappings for the current
+	 * {@link #getDestinationSegmentsState() state}, rebuilding it from all
+	 * mappings if necessary.
+	 */
+	private DestinationIndex getDestinationIndex() {
+		Object state = getDestinationSegmentsState();
+		DestinationIndex index = this.destinationIndex;
+		if (!index.isIndexFor(state)) {
+			synchronized (this.destinationCacheOrder) {
+				index = this.destinationIndex;
+				if (!index.isIndexFor(state)) {
+					index = new DestinationIndex(state);
+					for (T mapping : this.handlerMethods.keySet()) {
+						index.addMapping(mapping);
+					}
+					this.destinationIndex = index;
+					this.destinationCacheOrder.clear();
+					this.destinationCache.clear();
+				}
+			}
+		}
+		return index;
+	}
+
+	private void clearDestinationCache() {
+		synchronized (this.destinationCacheOrder) {
+			this.destinationCacheOrder.clear();
+			this.destinationCache.clear();
+		}
+	}
+
 	private void addMatchesToCollection(Collection<T> mappingsToCheck, Message<?> message, List<Match> matches) {
 		for (T mapping : mappingsToCheck) {
 			T match = getMatchingMapping(mapping, message);
@@ -647,6 +808,71 @@ public abstract class AbstractMethodMessageHandler<T>
 	}
 
 
+	/**
+	 * Index of mappings by the leading path segments of their destination
+	 * patterns, for a given {@link #getDestinationSegmentsState() state}.
+	 */
+	private class DestinationIndex {
+
+		@Nullable
+		private final Object state;
+
+		private final SegmentNode root = new SegmentNode();
+
+		/** Mappings without leading path segments, to check for every destination. */
+		private final List<T> unindexedMappings = new ArrayList<>();
+
+		public DestinationIndex(@Nullable Object state) {
+			this.state = state;
+		}
+
+		public boolean isIndexFor(@Nullable Object state) {
+			return ObjectUtils.nullSafeEquals(this.state, state);
+		}
+
+		public void addMapping(T mapping) {
+			Collection<List<String>> leadingSegments = getLeadingDestinationSegments(mapping);
+			if (leadingSegments != null) {
+				for (List<String> segments : leadingSegments) {
+					SegmentNode node = this.root;
+					for (String segment : segments) {
+						node = node.children.computeIfAbsent(segment, key -> new SegmentNode());
+					}
+					node.mappings.add(mapping);
+				}
+			}
+			else {
+				this.unindexedMappings.add(mapping);
+			}
+		}
+
+		public List<T> getCandidateMappings(List<String> segments) {
+			Set<T> result = new LinkedHashSet<>(this.unindexedMappings);
+			SegmentNode node = this.root;
+			result.addAll(node.mappings);
+			for (String segment : segments) {
+				node = node.children.get(segment);
+				if (node == null) {
+					break;
+				}
+				result.addAll(node.mappings);
+			}
+			return new ArrayList<>(result);
+		}
+	}
+
+
+	/**
+	 * A node in the index of mappings by leading destination path segments.
+	 */
+	private class SegmentNode {
+
+		private final Map<String, SegmentNode> children = new HashMap<>(4);
+
+		private final List<T> mappings = new ArrayList<>(1);
+	}
+
+
 	/**
 	 * A thin wrapper around a matched HandlerMethod and its matched mapping for
 	 * the purpose of comparing the best match with a comparator in the context
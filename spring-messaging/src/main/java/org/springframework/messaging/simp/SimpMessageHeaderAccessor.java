@@ -83,6 +83,16 @@ public class SimpMessageHeaderAccessor extends NativeMessageHeaderAccessor {
 	 */
 	public static final String IGNORE_ERROR = "simpIgnoreError";
 
+	/**
+	 * A header that the broker sets on the messages it broadcasts to several
+	 * subscribers for one and the same message. The value is an
+	 * {@link java.util.concurrent.atomic.AtomicReference} shared by all those
+	 * messages, which a protocol encoder may use to encode the common part of
+	 * the message only once.
+	 * @since 5.2
+	 */
+	public static final String SHARED_ENCODING_HEADER = "simpSharedEncoding";
+
 
 	/**
 	 * A constructor for creating new message headers.
@@ -18,7 +18,9 @@ package org.springframework.messaging.simp.annotation.support;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -75,7 +77,9 @@ import org.springframework.stereotype.Controller;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ObjectUtils;
 import org.springframework.util.PathMatcher;
+import org.springframework.util.StringUtils;
 import org.springframework.util.StringValueResolver;
 import org.springframework.validation.Validator;
 
@@ -107,6 +111,9 @@ public class SimpAnnotationMethodMessageHandler extends AbstractMethodMessageHan
 
 	private boolean slashPathSeparator = true;
 
+	@Nullable
+	private volatile PathMatcherState pathMatcherState;
+
 	@Nullable
 	private Validator validator;
 
@@ -444,6 +451,75 @@ public class SimpAnnotationMethodMessageHandler extends AbstractMethodMessageHan
 		return result;
 	}
 
+	/**
+	 * Return the leading literal path segments of each destination pattern, as
+	 * long as the configured {@code PathMatcher} is a case-sensitive
+	 * {@link AntPathMatcher}, which matches those segments one by one.
+	 */
+	@Override
+	@Nullable
+	protected Collection<List<String>> getLeadingDestinationSegments(SimpMessageMappingInfo mapping) {
+		AntPathMatcher pathMatcher = getSegmentMatcher();
+		if (pathMatcher == null) {
+			return null;
+		}
+		Set<String> patterns = mapping.getDestinationConditions().getPatterns();
+		if (patterns.isEmpty()) {
+			return Collections.singletonList(Collections.emptyList());
+		}
+		List<List<String>> result = new ArrayList<>(patterns.size());
+		for (String pattern : patterns) {
+			String[] segments = tokenizeDestination(pathMatcher, pattern);
+			int count = 0;
+			while (count < segments.length && isLiteralSegment(segments[count])) {
+				count++;
+			}
+			result.add(Arrays.asList(segments).subList(0, count));
+		}
+		return result;
+	}
+
+	@Override
+	@Nullable
+	protected List<String> getDestinationSegments(String lookupDestination) {
+		AntPathMatcher pathMatcher = getSegmentMatcher();
+		return (pathMatcher != null ? Arrays.asList(tokenizeDestination(pathMatcher, lookupDestination)) : null);
+	}
+
+	/**
+	 * Return the {@code PathMatcher} along with the settings that destinations
+	 * are split by, so that the index of mappings is rebuilt after a call to
+	 * {@link #setPathMatcher} or a change to the settings of the matcher.
+	 */
+	@Override
+	protected Object getDestinationSegmentsState() {
+		PathMatcher pathMatcher = this.pathMatcher;
+		PathMatcherState state = this.pathMatcherState;
+		if (state == null || !state.isStateOf(pathMatcher)) {
+			state = new PathMatcherState(pathMatcher);
+			this.pathMatcherState = state;
+		}
+		return state;
+	}
+
+	@Nullable
+	private AntPathMatcher getSegmentMatcher() {
+		PathMatcher pathMatcher = this.pathMatcher;
+		if (pathMatcher.getClass() == AntPathMatcher.class && ((AntPathMatcher) pathMatcher).isCaseSensitive()) {
+			return (AntPathMatcher) pathMatcher;
+		}
+		return null;
+	}
+
+	private static boolean isLiteralSegment(String segment) {
+		return (segment.indexOf('*') == -1 && segment.indexOf('?') == -1 && segment.indexOf('{') == -1);
+	}
+
+	private static String[] tokenizeDestination(AntPathMatcher pathMatcher, String destination) {
+		return StringUtils.tokenizeToStringArray(destination, pathMatcher.getPathSeparator(),
+				pathMatcher.isTrimTokens(), true);
+	}
+
 	@Override
 	@Nullable
 	protected String getDestination(Message<?> message) {
@@ -512,4 +588,48 @@ public class SimpAnnotationMethodMessageHandler extends AbstractMethodMessageHan
 		return new AnnotationExceptionHandlerMethodResolver(beanType);
 	}
 
+
+	/**
+	 * The {@code PathMatcher} settings that destinations are split by.
+	 */
+	private static final class PathMatcherState {
+
+		private final PathMatcher pathMatcher;
+
+		@Nullable
+		private final String pathSeparator;
+
+		private final boolean caseSensitive;
+
+		private final boolean trimTokens;
+
+		public PathMatcherState(PathMatcher pathMatcher) {
+			this.pathMatcher = pathMatcher;
+			if (pathMatcher instanceof AntPathMatcher) {
+				AntPathMatcher antPathMatcher = (AntPathMatcher) pathMatcher;
+				this.pathSeparator = antPathMatcher.getPathSeparator();
+				this.caseSensitive = antPathMatcher.isCaseSensitive();
+				this.trimTokens = antPathMatcher.isTrimTokens();
+			}
+			else {
+				this.pathSeparator = null;
+				this.caseSensitive = false;
+				this.trimTokens = false;
+			}
+		}
+
+		public boolean isStateOf(PathMatcher pathMatcher) {
+			if (this.pathMatcher != pathMatcher) {
+				return false;
+			}
+			if (pathMatcher instanceof AntPathMatcher) {
+				AntPathMatcher antPathMatcher = (AntPathMatcher) pathMatcher;
+				return (ObjectUtils.nullSafeEquals(this.pathSeparator, antPathMatcher.getPathSeparator()) &&
+						this.caseSensitive == antPathMatcher.isCaseSensitive() &&
+						this.trimTokens == antPathMatcher.isTrimTokens());
+			}
+			return true;
+		}
+	}
+
 }
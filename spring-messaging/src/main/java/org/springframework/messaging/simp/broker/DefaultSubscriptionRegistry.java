@@ -16,10 +16,14 @@
 
 package org.springframework.messaging.simp.broker;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -51,6 +55,11 @@ import org.springframework.util.StringUtils;
  * in memory and uses a {@link org.springframework.util.PathMatcher PathMatcher}
  * for matching destinations.
  *
+ * <p>As of 5.2, destinations that are not in the cache are resolved through
+ * an index of the subscribed destination patterns by path segment when the
+ * {@code PathMatcher} is a plain {@link AntPathMatcher}, so that only the
+ * patterns that can possibly match are checked, rather than all of them.
+ *
  * <p>As of 4.2, this class supports a {@link #setSelectorHeaderName selector}
  * header on subscription messages with Spring EL expressions evaluated against
  * the headers to filter out messages in addition to destination matching.
@@ -181,7 +190,7 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 		if (info != null) {
 			String destination = info.removeSubscription(subsId);
 			if (destination != null) {
-				this.destinationCache.updateAfterRemovedSubscription(sessionId, subsId);
+				this.destinationCache.updateAfterRemovedSubscription(destination, sessionId, subsId);
 			}
 		}
 	}
@@ -272,21 +281,17 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 					}
 				};
 
+		/** Index of subscribed destination patterns, guarded by the update cache lock. */
+		@Nullable
+		private DestinationIndex destinationIndex;
+
 
 		public LinkedMultiValueMap<String, String> getSubscriptions(String destination, Message<?> message) {
 			LinkedMultiValueMap<String, String> result = this.accessCache.get(destination);
 			if (result == null) {
 				synchronized (this.updateCache) {
-					result = new LinkedMultiValueMap<>();
-					for (SessionSubscriptionInfo info : subscriptionRegistry.getAllSubscriptions()) {
-						for (String destinationPattern : info.getDestinations()) {
-							if (getPathMatcher().match(destinationPattern, destination)) {
-								for (Subscription sub : info.getSubscriptions(destinationPattern)) {
-									result.add(info.sessionId, sub.getId());
-								}
-							}
-						}
-					}
+					DestinationIndex index = getDestinationIndex();
+					result = (index != null ? index.findSubscriptions(destination) : findSubscriptions(destination));
 					if (!result.isEmpty()) {
 						this.updateCache.put(destination, result.deepCopy());
 						this.accessCache.put(destination, result);
@@ -296,8 +301,52 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 			return result;
 		}
 
+		private LinkedMultiValueMap<String, String> findSubscriptions(String destination) {
+			LinkedMultiValueMap<String, String> result = new LinkedMultiValueMap<>();
+			for (SessionSubscriptionInfo info : subscriptionRegistry.getAllSubscriptions()) {
+				for (String destinationPattern : info.getDestinations()) {
+					if (getPathMatcher().match(destinationPattern, destination)) {
+						for (Subscription sub : info.getSubscriptions(destinationPattern)) {
+							result.add(info.sessionId, sub.getId());
+						}
+					}
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Return the destination index for the current {@code PathMatcher},
+		 * (re-)building it from all subscriptions if necessary, or {@code null}
+		 * if the {@code PathMatcher} does not allow for an index.
+		 */
+		@Nullable
+		private DestinationIndex getDestinationIndex() {
+			PathMatcher pathMatcher = getPathMatcher();
+			if (pathMatcher.getClass() != AntPathMatcher.class) {
+				this.destinationIndex = null;
+				return null;
+			}
+			DestinationIndex index = this.destinationIndex;
+			if (index == null || !index.isIndexFor((AntPathMatcher) pathMatcher)) {
+				index = new DestinationIndex((AntPathMatcher) pathMatcher);
+				for (SessionSubscriptionInfo info : subscriptionRegistry.getAllSubscriptions()) {
+					for (String destinationPattern : info.getDestinations()) {
+						for (Subscription sub : info.getSubscriptions(destinationPattern)) {
+							index.addSubscription(destinationPattern, info.getSessionId(), sub.getId());
+						}
+					}
+				}
+				this.destinationIndex = index;
+			}
+			return index;
+		}
+
 		public void updateAfterNewSubscription(String destination, String sessionId, String subsId) {
 			synchronized (this.updateCache) {
+				if (this.destinationIndex != null) {
+					this.destinationIndex.addSubscription(destination, sessionId, subsId);
+				}
 				this.updateCache.forEach((cachedDestination, subscriptions) -> {
 					if (getPathMatcher().match(destination, cachedDestination)) {
 						// Subscription id's may also be populated via getSubscriptions()
@@ -311,8 +360,11 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 			}
 		}
 
-		public void updateAfterRemovedSubscription(String sessionId, String subsId) {
+		public void updateAfterRemovedSubscription(String destinationPattern, String sessionId, String subsId) {
 			synchronized (this.updateCache) {
+				if (this.destinationIndex != null) {
+					this.destinationIndex.removeSubscription(destinationPattern, sessionId, subsId);
+				}
 				Set<String> destinationsToRemove = new HashSet<>();
 				this.updateCache.forEach((destination, sessionMap) -> {
 					List<String> subscriptions = sessionMap.get(sessionId);
@@ -338,6 +390,13 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 
 		public void updateAfterRemovedSession(SessionSubscriptionInfo info) {
 			synchronized (this.updateCache) {
+				if (this.destinationIndex != null) {
+					for (String destination : info.getDestinations()) {
+						for (Subscription sub : info.getSubscriptions(destination)) {
+							this.destinationIndex.removeSubscription(destination, info.getSessionId(), sub.getId());
+						}
+					}
+				}
 				Set<String> destinationsToRemove = new HashSet<>();
 				this.updateCache.forEach((destination, sessionMap) -> {
 					if (sessionMap.remove(info.getSessionId()) != null) {
@@ -363,6 +422,222 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 	}
 
 
+	/**
+	 * Index of subscribed destination patterns by path segment, following the
+	 * tokenization of a given {@link AntPathMatcher}. A pattern segment is either
+	 * a literal, a wildcard for a single segment (containing '*', '?' or '{'), or
+	 * "**" for any remaining segments. The index yields the patterns that can
+	 * match a destination, each of which is then checked with the PathMatcher.
+	 * Not thread-safe: all access is guarded by the destination cache.
+	 */
+	private static final class DestinationIndex {
+
+		private final AntPathMatcher pathMatcher;
+
+		private final String pathSeparator;
+
+		private final boolean caseSensitive;
+
+		private final boolean trimTokens;
+
+		/** Map from destination pattern to {@code <sessionId, subscriptionId>}. */
+		private final Map<String, DestinationPattern> patterns = new HashMap<>();
+
+		private final IndexNode root = new IndexNode();
+
+		public DestinationIndex(AntPathMatcher pathMatcher) {
+			this.pathMatcher = pathMatcher;
+			this.pathSeparator = pathMatcher.getPathSeparator();
+			this.caseSensitive = pathMatcher.isCaseSensitive();
+			this.trimTokens = pathMatcher.isTrimTokens();
+		}
+
+		public boolean isIndexFor(AntPathMatcher pathMatcher) {
+			return (this.pathMatcher == pathMatcher && this.pathSeparator.equals(pathMatcher.getPathSeparator()) &&
+					this.caseSensitive == pathMatcher.isCaseSensitive() && this.trimTokens == pathMatcher.isTrimTokens());
+		}
+
+		public void addSubscription(String destination, String sessionId, String subsId) {
+			DestinationPattern pattern = this.patterns.get(destination);
+			if (pattern == null) {
+				pattern = new DestinationPattern(destination);
+				this.patterns.put(destination, pattern);
+				String[] segments = tokenize(destination);
+				IndexNode node = this.root;
+				for (String segment : segments) {
+					if (segment.equals("**")) {
+						node.catchAll = addPattern(node.catchAll, pattern);
+						node = null;
+						break;
+					}
+					node = node.getOrCreateChild(segment);
+				}
+				if (node != null) {
+					node.terminal = addPattern(node.terminal, pattern);
+				}
+			}
+			List<String> subsForSession = pattern.subscriptions.get(sessionId);
+			if (subsForSession == null || !subsForSession.contains(subsId)) {
+				pattern.subscriptions.add(sessionId, subsId);
+			}
+		}
+
+		public void removeSubscription(String destination, String sessionId, String subsId) {
+			DestinationPattern pattern = this.patterns.get(destination);
+			if (pattern == null) {
+				return;
+			}
+			List<String> subsForSession = pattern.subscriptions.get(sessionId);
+			if (subsForSession != null) {
+				subsForSession.remove(subsId);
+				if (subsForSession.isEmpty()) {
+					pattern.subscriptions.remove(sessionId);
+				}
+			}
+			if (pattern.subscriptions.isEmpty()) {
+				this.patterns.remove(destination);
+				removePattern(this.root, tokenize(destination), 0, pattern);
+			}
+		}
+
+		public LinkedMultiValueMap<String, String> findSubscriptions(String destination) {
+			List<DestinationPattern> candidates = new ArrayList<>();
+			collectCandidates(this.root, tokenize(destination), 0, candidates);
+			LinkedMultiValueMap<String, String> result = new LinkedMultiValueMap<>();
+			for (DestinationPattern candidate : candidates) {
+				if (this.pathMatcher.match(candidate.pattern, destination)) {
+					candidate.subscriptions.forEach((sessionId, subIds) -> {
+						for (String subId : subIds) {
+							result.add(sessionId, subId);
+						}
+					});
+				}
+			}
+			return result;
+		}
+
+		private void collectCandidates(IndexNode node, String[] segments, int index, List<DestinationPattern> result) {
+			if (node.catchAll != null) {
+				result.addAll(node.catchAll);
+			}
+			if (index == segments.length) {
+				if (node.terminal != null) {
+					result.addAll(node.terminal);
+				}
+				// "/a/*" matches "/a/"
+				if (node.wildcardChild != null && node.wildcardChild.terminal != null) {
+					result.addAll(node.wildcardChild.terminal);
+				}
+				return;
+			}
+			if (node.literalChildren != null) {
+				IndexNode child = node.literalChildren.get(getLiteralKey(segments[index]));
+				if (child != null) {
+					collectCandidates(child, segments, index + 1, result);
+				}
+			}
+			if (node.wildcardChild != null) {
+				collectCandidates(node.wildcardChild, segments, index + 1, result);
+			}
+		}
+
+		private boolean removePattern(IndexNode node, String[] segments, int index, DestinationPattern pattern) {
+			if (index == segments.length) {
+				if (node.terminal != null && node.terminal.remove(pattern) && node.terminal.isEmpty()) {
+					node.terminal = null;
+				}
+			}
+			else if (segments[index].equals("**")) {
+				if (node.catchAll != null && node.catchAll.remove(pattern) && node.catchAll.isEmpty()) {
+					node.catchAll = null;
+				}
+			}
+			else if (isWildcard(segments[index])) {
+				if (node.wildcardChild != null && removePattern(node.wildcardChild, segments, index + 1, pattern)) {
+					node.wildcardChild = null;
+				}
+			}
+			else if (node.literalChildren != null) {
+				String key = getLiteralKey(segments[index]);
+				IndexNode child = node.literalChildren.get(key);
+				if (child != null && removePattern(child, segments, index + 1, pattern)) {
+					node.literalChildren.remove(key);
+					if (node.literalChildren.isEmpty()) {
+						node.literalChildren = null;
+					}
+				}
+			}
+			return node.isEmpty();
+		}
+
+		private String[] tokenize(String destination) {
+			return StringUtils.tokenizeToStringArray(destination, this.pathSeparator, this.trimTokens, true);
+		}
+
+		private String getLiteralKey(String segment) {
+			return (this.caseSensitive ? segment : segment.toLowerCase(Locale.ENGLISH));
+		}
+
+		private static boolean isWildcard(String segment) {
+			return (segment.indexOf('*') != -1 || segment.indexOf('?') != -1 || segment.indexOf('{') != -1);
+		}
+
+		private static Set<DestinationPattern> addPattern(
+				@Nullable Set<DestinationPattern> patterns, DestinationPattern pattern) {
+
+			Set<DestinationPattern> result = (patterns != null ? patterns : new LinkedHashSet<>(4));
+			result.add(pattern);
+			return result;
+		}
+
+
+		private final class IndexNode {
+
+			@Nullable
+			private Map<String, IndexNode> literalChildren;
+
+			@Nullable
+			private IndexNode wildcardChild;
+
+			@Nullable
+			private Set<DestinationPattern> catchAll;
+
+			@Nullable
+			private Set<DestinationPattern> terminal;
+
+			public IndexNode getOrCreateChild(String segment) {
+				if (isWildcard(segment)) {
+					if (this.wildcardChild == null) {
+						this.wildcardChild = new IndexNode();
+					}
+					return this.wildcardChild;
+				}
+				if (this.literalChildren == null) {
+					this.literalChildren = new HashMap<>(4);
+				}
+				return this.literalChildren.computeIfAbsent(getLiteralKey(segment), key -> new IndexNode());
+			}
+
+			public boolean isEmpty() {
+				return (this.literalChildren == null && this.wildcardChild == null &&
+						this.catchAll == null && this.terminal == null);
+			}
+		}
+	}
+
+
+	private static final class DestinationPattern {
+
+		private final String pattern;
+
+		private final LinkedMultiValueMap<String, String> subscriptions = new LinkedMultiValueMap<>(4);
+
+		public DestinationPattern(String pattern) {
+			this.pattern = pattern;
+		}
+	}
+
+
 	/**
 	 * Provide access to session subscriptions by sessionId.
 	 */
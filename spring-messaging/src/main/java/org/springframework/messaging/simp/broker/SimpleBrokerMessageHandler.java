@@ -19,9 +19,10 @@ package org.springframework.messaging.simp.broker;
 import java.security.Principal;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
@@ -34,6 +35,7 @@ import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.messaging.support.MessageHeaderInitializer;
 import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.support.TimingWheel;
 import org.springframework.util.Assert;
 import org.springframework.util.MultiValueMap;
 import org.springframework.util.PathMatcher;
@@ -76,7 +78,7 @@ public class SimpleBrokerMessageHandler extends AbstractBrokerMessageHandler {
 	private final Map<String, SessionInfo> sessions = new ConcurrentHashMap<>();
 
 	@Nullable
-	private ScheduledFuture<?> heartbeatFuture;
+	private TimingWheel heartbeatTimer;
 
 
 	/**
@@ -256,7 +258,10 @@ public class SimpleBrokerMessageHandler extends AbstractBrokerMessageHandler {
 		if (this.taskScheduler != null) {
 			long interval = initHeartbeatTaskDelay();
 			if (interval > 0) {
-				this.heartbeatFuture = this.taskScheduler.scheduleWithFixedDelay(new HeartbeatTask(), interval);
+				if (this.heartbeatTimer == null) {
+					this.heartbeatTimer = new TimingWheel(this.taskScheduler, interval);
+				}
+				this.heartbeatTimer.start();
 			}
 		}
 		else {
@@ -281,8 +286,8 @@ public class SimpleBrokerMessageHandler extends AbstractBrokerMessageHandler {
 	@Override
 	public void stopInternal() {
 		publishBrokerUnavailableEvent();
-		if (this.heartbeatFuture != null) {
-			this.heartbeatFuture.cancel(true);
+		if (this.heartbeatTimer != null) {
+			this.heartbeatTimer.stop();
 		}
 	}
 
@@ -310,7 +315,9 @@ public class SimpleBrokerMessageHandler extends AbstractBrokerMessageHandler {
 				long[] heartbeatOut = getHeartbeatValue();
 				Principal user = SimpMessageHeaderAccessor.getUser(headers);
 				MessageChannel outChannel = getClientOutboundChannelForSession(sessionId);
-				this.sessions.put(sessionId, new SessionInfo(sessionId, user, outChannel, heartbeatIn, heartbeatOut));
+				SessionInfo info = new SessionInfo(sessionId, user, outChannel, heartbeatIn, heartbeatOut);
+				this.sessions.put(sessionId, info);
+				scheduleHeartbeat(info);
 				SimpMessageHeaderAccessor connectAck = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT_ACK);
 				initHeaders(connectAck);
 				connectAck.setSessionId(sessionId);
@@ -363,8 +370,21 @@ public class SimpleBrokerMessageHandler extends AbstractBrokerMessageHandler {
 		}
 	}
 
+	private void scheduleHeartbeat(SessionInfo info) {
+		TimingWheel heartbeatTimer = this.heartbeatTimer;
+		long checkTime = info.getNextCheckTime();
+		if (heartbeatTimer != null && checkTime > 0) {
+			TimingWheel.Timeout timeout = heartbeatTimer.newTimeout(new HeartbeatTask(info));
+			info.setHeartbeatTimeout(timeout);
+			timeout.reset(Math.max(checkTime - System.currentTimeMillis(), 0));
+		}
+	}
+
 	private void handleDisconnect(String sessionId, @Nullable Principal user, @Nullable Message<?> origMessage) {
-		this.sessions.remove(sessionId);
+		SessionInfo info = this.sessions.remove(sessionId);
+		if (info != null) {
+			info.cancelHeartbeat();
+		}
 		this.subscriptionRegistry.unregisterAllSubscriptions(sessionId);
 		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.DISCONNECT_ACK);
 		accessor.setSessionId(sessionId);
@@ -385,12 +405,16 @@ public class SimpleBrokerMessageHandler extends AbstractBrokerMessageHandler {
 			logger.debug("Broadcasting to " + subscriptions.size() + " sessions.");
 		}
 		long now = System.currentTimeMillis();
+		AtomicReference<Object> sharedEncoding = (countSubscriptions(subscriptions) > 1 ? new AtomicReference<>() : null);
 		subscriptions.forEach((sessionId, subscriptionIds) -> {
 			for (String subscriptionId : subscriptionIds) {
 				SimpMessageHeaderAccessor headerAccessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
 				initHeaders(headerAccessor);
 				headerAccessor.setSessionId(sessionId);
 				headerAccessor.setSubscriptionId(subscriptionId);
+				if (sharedEncoding != null) {
+					headerAccessor.setHeader(SimpMessageHeaderAccessor.SHARED_ENCODING_HEADER, sharedEncoding);
+				}
 				headerAccessor.copyHeadersIfAbsent(message.getHeaders());
 				headerAccessor.setLeaveMutable(true);
 				Object payload = message.getPayload();
@@ -413,6 +437,14 @@ public class SimpleBrokerMessageHandler extends AbstractBrokerMessageHandler {
 		});
 	}
 
+	private static int countSubscriptions(MultiValueMap<String, String> subscriptions) {
+		int count = 0;
+		for (List<String> subscriptionIds : subscriptions.values()) {
+			count += subscriptionIds.size();
+		}
+		return count;
+	}
+
 	@Override
 	public String toString() {
 		return "SimpleBrokerMessageHandler [" + this.subscriptionRegistry + "]";
@@ -439,6 +471,9 @@ public class SimpleBrokerMessageHandler extends AbstractBrokerMessageHandler {
 
 		private volatile long lastWriteTime;
 
+		@Nullable
+		private volatile TimingWheel.Timeout heartbeatTimeout;
+
 
 		public SessionInfo(String sessionId, @Nullable Principal user, MessageChannel outboundChannel,
 				@Nullable long[] clientHeartbeat, @Nullable long[] serverHeartbeat) {
@@ -495,30 +530,85 @@ public class SimpleBrokerMessageHandler extends AbstractBrokerMessageHandler {
 		public void setLastWriteTime(long lastWriteTime) {
 			this.lastWriteTime = lastWriteTime;
 		}
+
+		/**
+		 * Return the earliest time at which a read or write could be overdue,
+		 * or 0 if there are no heartbeats.
+		 */
+		public long getNextCheckTime() {
+			long time = Long.MAX_VALUE;
+			if (this.readInterval > 0) {
+				time = this.lastReadTime + this.readInterval + 1;
+			}
+			if (this.writeInterval > 0) {
+				time = Math.min(time, this.lastWriteTime + this.writeInterval + 1);
+			}
+			return (time != Long.MAX_VALUE ? time : 0);
+		}
+
+		@Nullable
+		public TimingWheel.Timeout getHeartbeatTimeout() {
+			return this.heartbeatTimeout;
+		}
+
+		public void setHeartbeatTimeout(TimingWheel.Timeout heartbeatTimeout) {
+			this.heartbeatTimeout = heartbeatTimeout;
+		}
+
+		public void cancelHeartbeat() {
+			TimingWheel.Timeout timeout = this.heartbeatTimeout;
+			if (timeout != null) {
+				timeout.cancel();
+			}
+		}
 	}
 
 
+	/**
+	 * Checks the read and write activity of a session once a heartbeat
+	 * interval may have elapsed, and reschedules itself for the next one.
+	 */
 	private class HeartbeatTask implements Runnable {
 
+		private final SessionInfo info;
+
+		HeartbeatTask(SessionInfo info) {
+			this.info = info;
+		}
+
 		@Override
 		public void run() {
+			SessionInfo info = this.info;
 			long now = System.currentTimeMillis();
-			for (SessionInfo info : sessions.values()) {
-				if (info.getReadInterval() > 0 && (now - info.getLastReadTime()) > info.getReadInterval()) {
-					handleDisconnect(info.getSessionId(), info.getUser(), null);
+			if (info.getReadInterval() > 0 && (now - info.getLastReadTime()) > info.getReadInterval()) {
+				handleDisconnect(info.getSessionId(), info.getUser(), null);
+				return;
+			}
+			if (info.getWriteInterval() > 0 && (now - info.getLastWriteTime()) > info.getWriteInterval()) {
+				SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.HEARTBEAT);
+				accessor.setSessionId(info.getSessionId());
+				Principal user = info.getUser();
+				if (user != null) {
+					accessor.setUser(user);
 				}
-				if (info.getWriteInterval() > 0 && (now - info.getLastWriteTime()) > info.getWriteInterval()) {
-					SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.HEARTBEAT);
-					accessor.setSessionId(info.getSessionId());
-					Principal user = info.getUser();
-					if (user != null) {
-						accessor.setUser(user);
-					}
-					initHeaders(accessor);
-					accessor.setLeaveMutable(true);
-					MessageHeaders headers = accessor.getMessageHeaders();
+				initHeaders(accessor);
+				accessor.setLeaveMutable(true);
+				MessageHeaders headers = accessor.getMessageHeaders();
+				try {
 					info.getClientOutboundChannel().send(MessageBuilder.createMessage(EMPTY_PAYLOAD, headers));
 				}
+				catch (Throwable ex) {
+					if (logger.isErrorEnabled()) {
+						logger.error("Failed to send heartbeat to session " + info.getSessionId(), ex);
+					}
+				}
+				finally {
+					info.setLastWriteTime(now);
+				}
+			}
+			TimingWheel.Timeout timeout = info.getHeartbeatTimeout();
+			if (timeout != null) {
+				timeout.reset(Math.max(info.getNextCheckTime() - now, 0));
 			}
 		}
 	}
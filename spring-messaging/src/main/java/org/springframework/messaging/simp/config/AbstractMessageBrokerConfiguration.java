@@ -39,6 +39,7 @@ import org.springframework.messaging.converter.StringMessageConverter;
 import org.springframework.messaging.handler.invocation.HandlerMethodArgumentResolver;
 import org.springframework.messaging.handler.invocation.HandlerMethodReturnValueHandler;
 import org.springframework.messaging.simp.SimpLogging;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.annotation.support.SimpAnnotationMethodMessageHandler;
 import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
@@ -132,6 +133,7 @@ public abstract class AbstractMessageBrokerConfiguration implements ApplicationC
 		if (reg.hasInterceptors()) {
 			channel.setInterceptors(reg.getInterceptors());
 		}
+		configureSessionLanes(channel, reg);
 		return channel;
 	}
 
@@ -168,6 +170,7 @@ public abstract class AbstractMessageBrokerConfiguration implements ApplicationC
 		if (reg.hasInterceptors()) {
 			channel.setInterceptors(reg.getInterceptors());
 		}
+		configureSessionLanes(channel, reg);
 		return channel;
 	}
 
@@ -204,9 +207,17 @@ public abstract class AbstractMessageBrokerConfiguration implements ApplicationC
 		reg.interceptors(new ImmutableMessageChannelInterceptor());
 		channel.setLogger(SimpLogging.forLog(channel.getLogger()));
 		channel.setInterceptors(reg.getInterceptors());
+		configureSessionLanes(channel, reg);
 		return channel;
 	}
 
+	private void configureSessionLanes(ExecutorSubscribableChannel channel, ChannelRegistration registration) {
+		if (registration.getSessionLaneCount() > 0) {
+			channel.setLaneCount(registration.getSessionLaneCount());
+			channel.setLaneKeyResolver(message -> SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+		}
+	}
+
 	@Bean
 	public ThreadPoolTaskExecutor brokerChannelExecutor() {
 		ChannelRegistration reg = getBrokerRegistry().getBrokerChannelRegistration();
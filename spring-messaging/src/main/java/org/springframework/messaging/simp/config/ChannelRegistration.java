@@ -23,6 +23,7 @@ import java.util.List;
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.Assert;
 
 /**
  * A registration class for customizing the configuration for a
@@ -38,6 +39,8 @@ public class ChannelRegistration {
 
 	private final List<ChannelInterceptor> interceptors = new ArrayList<>();
 
+	private int sessionLaneCount;
+
 
 	/**
 	 * Configure the thread pool backing this message channel.
@@ -69,6 +72,22 @@ public class ChannelRegistration {
 		return this;
 	}
 
+	/**
+	 * Handle the messages of each session one at a time and in the order in which
+	 * they were sent, spreading sessions over the given number of lanes on the
+	 * thread pool backing this message channel.
+	 * <p>By default, there are no lanes, and the messages of a session may be
+	 * handled concurrently and in any order.
+	 * @param laneCount the number of lanes, or 0 to turn lanes off
+	 * @since 5.2
+	 * @see org.springframework.messaging.support.ExecutorSubscribableChannel#setLaneCount
+	 */
+	public ChannelRegistration sessionLanes(int laneCount) {
+		Assert.isTrue(laneCount >= 0, "Lane count must not be negative");
+		this.sessionLaneCount = laneCount;
+		return this;
+	}
+
 	/**
 	 * Configure interceptors for the message channel.
 	 * @deprecated as of 4.3.12, in favor of {@link #interceptors(ChannelInterceptor...)}
@@ -94,4 +113,8 @@ public class ChannelRegistration {
 		return this.interceptors;
 	}
 
+	protected int getSessionLaneCount() {
+		return this.sessionLaneCount;
+	}
+
 }
@@ -55,6 +55,18 @@ public class StompBrokerRelayRegistration extends AbstractBrokerRegistration {
 	@Nullable
 	private TcpOperations<byte[]> tcpClient;
 
+	@Nullable
+	private Integer writeHighWatermark;
+
+	@Nullable
+	private Integer writeLowWatermark;
+
+	@Nullable
+	private Integer sendQueueCapacity;
+
+	@Nullable
+	private StompBrokerRelayMessageHandler.OverflowStrategy sendQueueOverflowStrategy;
+
 	private boolean autoStartup = true;
 
 	@Nullable
@@ -182,6 +194,57 @@ public class StompBrokerRelayRegistration extends AbstractBrokerRegistration {
 		this.tcpClient = tcpClient;
 	}
 
+	/**
+	 * Configure the number of bytes written to the broker connection of a client
+	 * session but not yet flushed, above which forwarding further messages from
+	 * that client is paused and messages are held in a send queue instead.
+	 * <p>By default this is not set, in which case messages are always forwarded
+	 * right away.
+	 * @since 5.2
+	 * @see StompBrokerRelayMessageHandler#setWriteHighWatermark
+	 */
+	public StompBrokerRelayRegistration setWriteHighWatermark(int writeHighWatermark) {
+		this.writeHighWatermark = writeHighWatermark;
+		return this;
+	}
+
+	/**
+	 * Configure the number of bytes not yet written to the broker connection of
+	 * a paused client session, below which forwarding is resumed.
+	 * <p>By default this is half of the high watermark.
+	 * @since 5.2
+	 * @see StompBrokerRelayMessageHandler#setWriteLowWatermark
+	 */
+	public StompBrokerRelayRegistration setWriteLowWatermark(int writeLowWatermark) {
+		this.writeLowWatermark = writeLowWatermark;
+		return this;
+	}
+
+	/**
+	 * Configure the maximum number of SEND frames to hold in the send queue of
+	 * a paused client session.
+	 * <p>By default this is set to 1000.
+	 * @since 5.2
+	 * @see StompBrokerRelayMessageHandler#setSendQueueCapacity
+	 */
+	public StompBrokerRelayRegistration setSendQueueCapacity(int sendQueueCapacity) {
+		this.sendQueueCapacity = sendQueueCapacity;
+		return this;
+	}
+
+	/**
+	 * Configure what to do with a SEND frame from a client whose send queue is full.
+	 * <p>By default the session is disconnected.
+	 * @since 5.2
+	 * @see StompBrokerRelayMessageHandler#setSendQueueOverflowStrategy
+	 */
+	public StompBrokerRelayRegistration setSendQueueOverflowStrategy(
+			StompBrokerRelayMessageHandler.OverflowStrategy overflowStrategy) {
+
+		this.sendQueueOverflowStrategy = overflowStrategy;
+		return this;
+	}
+
 	/**
 	 * Configure whether the {@link StompBrokerRelayMessageHandler} should start
 	 * automatically when the Spring ApplicationContext is refreshed.
@@ -258,6 +321,18 @@ public class StompBrokerRelayRegistration extends AbstractBrokerRegistration {
 		if (this.tcpClient != null) {
 			handler.setTcpClient(this.tcpClient);
 		}
+		if (this.writeHighWatermark != null) {
+			handler.setWriteHighWatermark(this.writeHighWatermark);
+		}
+		if (this.writeLowWatermark != null) {
+			handler.setWriteLowWatermark(this.writeLowWatermark);
+		}
+		if (this.sendQueueCapacity != null) {
+			handler.setSendQueueCapacity(this.sendQueueCapacity);
+		}
+		if (this.sendQueueOverflowStrategy != null) {
+			handler.setSendQueueOverflowStrategy(this.sendQueueOverflowStrategy);
+		}
 
 		handler.setAutoStartup(this.autoStartup);
 
@@ -16,11 +16,10 @@
 
 package org.springframework.messaging.simp.stomp;
 
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.List;
-import java.util.Queue;
-import java.util.concurrent.LinkedBlockingQueue;
 
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
@@ -42,6 +41,10 @@ import org.springframework.util.MultiValueMap;
  * be used any more as its internal state is not guaranteed to be consistent.
  * It is expected that the underlying session is closed at that point.
  *
+ * <p>Input that contains complete frames only is decoded in place. Content of an
+ * incomplete frame is copied into a single buffer, to which further input is
+ * appended, so that fragments are not copied again on every decoding attempt.
+ *
  * @author Rossen Stoyanchev
  * @since 4.0.3
  * @see StompDecoder
@@ -52,7 +55,9 @@ public class BufferingStompDecoder {
 
 	private final int bufferSizeLimit;
 
-	private final Queue<ByteBuffer> chunks = new LinkedBlockingQueue<>();
+	/** Buffered content of an incomplete frame, from index 0 up to the position. */
+	@Nullable
+	private ByteBuffer buffer;
 
 	@Nullable
 	private volatile Integer expectedContentLength;
@@ -101,51 +106,72 @@ public class BufferingStompDecoder {
 	 * @throws StompConversionException raised in case of decoding issues
 	 */
 	public List<Message<byte[]>> decode(ByteBuffer newBuffer) {
-		this.chunks.add(newBuffer);
-		checkBufferLimits();
+		checkBufferLimits(getBufferSize() + newBuffer.remaining());
 
-		Integer contentLength = this.expectedContentLength;
-		if (contentLength != null && getBufferSize() < contentLength) {
-			return Collections.emptyList();
+		ByteBuffer bufferToDecode;
+		if (getBufferSize() == 0) {
+			bufferToDecode = newBuffer;
 		}
+		else {
+			ByteBuffer buffer = append(newBuffer);
+			Integer contentLength = this.expectedContentLength;
+			if (contentLength != null && buffer.position() < contentLength) {
+				return Collections.emptyList();
+			}
+			bufferToDecode = buffer.duplicate();
+			((Buffer) bufferToDecode).flip();
+		}
+		this.expectedContentLength = null;
 
-		ByteBuffer bufferToDecode = assembleChunksAndReset();
 		MultiValueMap<String, String> headers = new LinkedMultiValueMap<>();
 		List<Message<byte[]>> messages = this.stompDecoder.decode(bufferToDecode, headers);
 
 		if (bufferToDecode.hasRemaining()) {
-			this.chunks.add(bufferToDecode);
+			if (bufferToDecode == newBuffer) {
+				append(newBuffer);
+			}
+			else {
+				this.buffer = bufferToDecode.compact();
+			}
 			this.expectedContentLength = StompHeaderAccessor.getContentLength(headers);
 		}
+		else {
+			this.buffer = null;
+		}
 
 		return messages;
 	}
 
-	private ByteBuffer assembleChunksAndReset() {
-		ByteBuffer result;
-		if (this.chunks.size() == 1) {
-			result = this.chunks.remove();
-		}
-		else {
-			result = ByteBuffer.allocate(getBufferSize());
-			for (ByteBuffer partial : this.chunks) {
-				result.put(partial);
+	/**
+	 * Append the remaining content of the given buffer to the buffered content,
+	 * growing the buffer if necessary.
+	 */
+	private ByteBuffer append(ByteBuffer newBuffer) {
+		ByteBuffer buffer = this.buffer;
+		int size = (buffer != null ? buffer.position() : 0);
+		int required = size + newBuffer.remaining();
+		if (buffer == null || buffer.capacity() < required) {
+			int capacity = (buffer != null ? buffer.capacity() * 2 : 256);
+			ByteBuffer newTarget = ByteBuffer.allocate(Math.max(required, Math.min(capacity, this.bufferSizeLimit)));
+			if (buffer != null) {
+				((Buffer) buffer).flip();
+				newTarget.put(buffer);
 			}
-			result.flip();
+			buffer = newTarget;
+			this.buffer = buffer;
 		}
-		this.chunks.clear();
-		this.expectedContentLength = null;
-		return result;
+		buffer.put(newBuffer);
+		return buffer;
 	}
 
-	private void checkBufferLimits() {
+	private void checkBufferLimits(int bufferSize) {
 		Integer contentLength = this.expectedContentLength;
 		if (contentLength != null && contentLength > this.bufferSizeLimit) {
 			throw new StompConversionException(
 					"STOMP 'content-length' header value " + this.expectedContentLength +
 					"  exceeds configured buffer size limit " + this.bufferSizeLimit);
 		}
-		if (getBufferSize() > this.bufferSizeLimit) {
+		if (bufferSize > this.bufferSizeLimit) {
 			throw new StompConversionException("The configured STOMP buffer size limit of " +
 					this.bufferSizeLimit + " bytes has been exceeded");
 		}
@@ -155,11 +181,8 @@ public class BufferingStompDecoder {
 	 * Calculate the current buffer size.
 	 */
 	public int getBufferSize() {
-		int size = 0;
-		for (ByteBuffer buffer : this.chunks) {
-			size = size + buffer.remaining();
-		}
-		return size;
+		ByteBuffer buffer = this.buffer;
+		return (buffer != null ? buffer.position() : 0);
 	}
 
 	/**
@@ -17,9 +17,11 @@
 package org.springframework.messaging.simp.stomp;
 
 import java.security.Principal;
+import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
@@ -49,6 +51,7 @@ import org.springframework.util.Assert;
 import org.springframework.util.concurrent.ListenableFuture;
 import org.springframework.util.concurrent.ListenableFutureCallback;
 import org.springframework.util.concurrent.ListenableFutureTask;
+import org.springframework.util.concurrent.SettableListenableFuture;
 
 /**
  * A {@link org.springframework.messaging.MessageHandler} that handles messages by
@@ -75,6 +78,13 @@ import org.springframework.util.concurrent.ListenableFutureTask;
  * <li>{@link #setSystemHeartbeatReceiveInterval}</li>
  * </ul>
  *
+ * <p>Optionally, the relay can apply flow control to the TCP connections of client
+ * sessions, see {@link #setWriteHighWatermark}. Once the bytes written to such a
+ * connection but not yet flushed exceed the high watermark, further messages from
+ * that client are held in a bounded send queue until the backlog falls below the
+ * low watermark, and the configured {@link OverflowStrategy} applies when the send
+ * queue is full.
+ *
  * @author Rossen Stoyanchev
  * @author Andy Wilkinson
  * @since 4.0
@@ -136,6 +146,14 @@ public class StompBrokerRelayMessageHandler extends AbstractBrokerMessageHandler
 	@Nullable
 	private MessageHeaderInitializer headerInitializer;
 
+	private int writeHighWatermark;
+
+	private int writeLowWatermark = -1;
+
+	private int sendQueueCapacity = 1000;
+
+	private OverflowStrategy sendQueueOverflowStrategy = OverflowStrategy.DISCONNECT;
+
 	private final Stats stats = new Stats();
 
 	private final Map<String, StompConnectionHandler> connectionHandlers = new ConcurrentHashMap<>();
@@ -380,6 +398,88 @@ public class StompBrokerRelayMessageHandler extends AbstractBrokerMessageHandler
 		return this.headerInitializer;
 	}
 
+	/**
+	 * Configure the number of bytes written to the TCP connection of a client
+	 * session but not yet flushed, above which forwarding further messages from
+	 * that client is paused. Messages are then held in a per-session send queue
+	 * until the backlog falls below the {@link #setWriteLowWatermark low watermark}.
+	 * <p>By default this is set to 0, in which case messages are always forwarded
+	 * right away. The "system" connection is never paused.
+	 * @param writeHighWatermark the high watermark in bytes
+	 * @since 5.2
+	 * @see #setSendQueueCapacity
+	 */
+	public void setWriteHighWatermark(int writeHighWatermark) {
+		this.writeHighWatermark = writeHighWatermark;
+	}
+
+	/**
+	 * Return the configured high watermark in bytes.
+	 * @since 5.2
+	 */
+	public int getWriteHighWatermark() {
+		return this.writeHighWatermark;
+	}
+
+	/**
+	 * Configure the number of bytes written to the TCP connection of a paused
+	 * client session but not yet flushed, below which forwarding is resumed.
+	 * <p>By default this is half of the {@link #setWriteHighWatermark high watermark}.
+	 * @param writeLowWatermark the low watermark in bytes
+	 * @since 5.2
+	 */
+	public void setWriteLowWatermark(int writeLowWatermark) {
+		this.writeLowWatermark = writeLowWatermark;
+	}
+
+	/**
+	 * Return the low watermark in bytes.
+	 * @since 5.2
+	 */
+	public int getWriteLowWatermark() {
+		return (this.writeLowWatermark >= 0 ? this.writeLowWatermark : this.writeHighWatermark / 2);
+	}
+
+	/**
+	 * Configure the maximum number of STOMP SEND frames to hold in the send queue
+	 * of a paused client session. Other frames, e.g. SUBSCRIBE or DISCONNECT, are
+	 * always queued.
+	 * <p>By default this is set to 1000.
+	 * @param sendQueueCapacity the maximum number of queued frames per session
+	 * @since 5.2
+	 * @see #setSendQueueOverflowStrategy
+	 */
+	public void setSendQueueCapacity(int sendQueueCapacity) {
+		this.sendQueueCapacity = sendQueueCapacity;
+	}
+
+	/**
+	 * Return the configured maximum number of queued frames per session.
+	 * @since 5.2
+	 */
+	public int getSendQueueCapacity() {
+		return this.sendQueueCapacity;
+	}
+
+	/**
+	 * Configure what to do with a SEND frame from a client whose send queue is full.
+	 * <p>By default the session is disconnected.
+	 * @param sendQueueOverflowStrategy the overflow strategy to use
+	 * @since 5.2
+	 */
+	public void setSendQueueOverflowStrategy(OverflowStrategy sendQueueOverflowStrategy) {
+		Assert.notNull(sendQueueOverflowStrategy, "OverflowStrategy must not be null");
+		this.sendQueueOverflowStrategy = sendQueueOverflowStrategy;
+	}
+
+	/**
+	 * Return the configured overflow strategy.
+	 * @since 5.2
+	 */
+	public OverflowStrategy getSendQueueOverflowStrategy() {
+		return this.sendQueueOverflowStrategy;
+	}
+
 	/**
 	 * Return a String describing internal state and counters.
 	 */
@@ -394,6 +494,30 @@ public class StompBrokerRelayMessageHandler extends AbstractBrokerMessageHandler
 		return this.connectionHandlers.size();
 	}
 
+	/**
+	 * Return the total number of frames currently held in the send queues of
+	 * paused client sessions.
+	 * @since 5.2
+	 * @see #setWriteHighWatermark
+	 */
+	public int getSendQueueSize() {
+		int size = 0;
+		for (StompConnectionHandler handler : this.connectionHandlers.values()) {
+			size += handler.getSendQueueSize();
+		}
+		return size;
+	}
+
+	/**
+	 * Return how many times forwarding was paused for a client session because
+	 * the write backlog of its TCP connection exceeded the high watermark.
+	 * @since 5.2
+	 * @see #setWriteHighWatermark
+	 */
+	public int getWritePauseCount() {
+		return this.stats.getWritePauseCount();
+	}
+
 
 	@Override
 	protected void startInternal() {
@@ -585,6 +709,13 @@ public class StompBrokerRelayMessageHandler extends AbstractBrokerMessageHandler
 
 		private volatile boolean isStompConnected;
 
+		private final AtomicInteger pendingWriteBytes = new AtomicInteger();
+
+		/** Frames held back while forwarding is paused, also used as the lock for the flow control state. */
+		private final Queue<PendingFrame> sendQueue = new ArrayDeque<>();
+
+		private boolean writePaused;
+
 
 		protected StompConnectionHandler(String sessionId, StompHeaderAccessor connectHeaders) {
 			this(sessionId, connectHeaders, true);
@@ -608,6 +739,12 @@ public class StompBrokerRelayMessageHandler extends AbstractBrokerMessageHandler
 			return this.tcpConnection;
 		}
 
+		public int getSendQueueSize() {
+			synchronized (this.sendQueue) {
+				return this.sendQueue.size();
+			}
+		}
+
 		@Override
 		public void afterConnected(TcpConnection<byte[]> connection) {
 			if (logger.isDebugEnabled()) {
@@ -826,7 +963,92 @@ public class StompBrokerRelayMessageHandler extends AbstractBrokerMessageHandler
 				logger.trace("Forwarding " + accessor.getDetailedLogMessage(message.getPayload()));
 			}
 
-			ListenableFuture<Void> future = conn.send((Message<byte[]>) messageToSend);
+			if (this.isRemoteClientSession && getWriteHighWatermark() > 0) {
+				return forwardWithFlowControl(conn, (Message<byte[]>) messageToSend, accessor);
+			}
+			return send(conn, (Message<byte[]>) messageToSend, accessor);
+		}
+
+		private ListenableFuture<Void> forwardWithFlowControl(
+				TcpConnection<byte[]> conn, Message<byte[]> message, StompHeaderAccessor accessor) {
+
+			synchronized (this.sendQueue) {
+				if (!this.writePaused && this.sendQueue.isEmpty()) {
+					return sendWithFlowControl(conn, message, accessor);
+				}
+				if (this.sendQueue.size() < getSendQueueCapacity() || !StompCommand.SEND.equals(accessor.getCommand())) {
+					PendingFrame frame = new PendingFrame(message, accessor);
+					this.sendQueue.add(frame);
+					return frame.future;
+				}
+			}
+
+			if (getSendQueueOverflowStrategy() == OverflowStrategy.DROP) {
+				stats.incrementDroppedCount();
+				if (logger.isDebugEnabled()) {
+					logger.debug("Send queue full in session " + this.sessionId + ", dropping " +
+							accessor.getShortLogMessage(message.getPayload()));
+				}
+			}
+			else {
+				stats.incrementOverflowDisconnectCount();
+				handleTcpConnectionFailure("Send queue exceeded the allowed limit of " +
+						getSendQueueCapacity() + " frames while the broker connection was paused.", null);
+			}
+			return EMPTY_TASK;
+		}
+
+		/**
+		 * Send the given message, keeping track of the bytes not yet written.
+		 * Invoked while holding the send queue lock.
+		 */
+		private ListenableFuture<Void> sendWithFlowControl(
+				TcpConnection<byte[]> conn, Message<byte[]> message, StompHeaderAccessor accessor) {
+
+			int size = message.getPayload().length;
+			if (this.pendingWriteBytes.addAndGet(size) >= getWriteHighWatermark() && !this.writePaused) {
+				this.writePaused = true;
+				stats.incrementWritePauseCount();
+				if (logger.isDebugEnabled()) {
+					logger.debug("Pausing forwarding in session " + this.sessionId + ", " +
+							this.pendingWriteBytes.get() + " bytes not yet written");
+				}
+			}
+			ListenableFuture<Void> future = send(conn, message, accessor);
+			future.addCallback(result -> afterWrite(size), ex -> afterWrite(size));
+			return future;
+		}
+
+		private void afterWrite(int size) {
+			if (this.pendingWriteBytes.addAndGet(-size) > getWriteLowWatermark()) {
+				return;
+			}
+			synchronized (this.sendQueue) {
+				if (!this.writePaused || this.pendingWriteBytes.get() > getWriteLowWatermark()) {
+					return;
+				}
+				this.writePaused = false;
+				if (logger.isDebugEnabled()) {
+					logger.debug("Resuming forwarding in session " + this.sessionId + ", " +
+							this.sendQueue.size() + " frames queued");
+				}
+				PendingFrame frame;
+				while (!this.writePaused && (frame = this.sendQueue.poll()) != null) {
+					TcpConnection<byte[]> conn = this.tcpConnection;
+					if (conn == null) {
+						this.sendQueue.clear();
+						break;
+					}
+					SettableListenableFuture<Void> future = frame.future;
+					sendWithFlowControl(conn, frame.message, frame.accessor).addCallback(future::set, future::setException);
+				}
+			}
+		}
+
+		private ListenableFuture<Void> send(
+				TcpConnection<byte[]> conn, Message<byte[]> message, StompHeaderAccessor accessor) {
+
+			ListenableFuture<Void> future = conn.send(message);
 			future.addCallback(new ListenableFutureCallback<Void>() {
 				@Override
 				public void onSuccess(@Nullable Void result) {
@@ -884,6 +1106,11 @@ public class StompBrokerRelayMessageHandler extends AbstractBrokerMessageHandler
 
 			this.isStompConnected = false;
 
+			synchronized (this.sendQueue) {
+				this.sendQueue.clear();
+				this.writePaused = false;
+			}
+
 			TcpConnection<byte[]> conn = this.tcpConnection;
 			this.tcpConnection = null;
 			if (conn != null) {
@@ -998,6 +1225,24 @@ public class StompBrokerRelayMessageHandler extends AbstractBrokerMessageHandler
 	}
 
 
+	/**
+	 * A frame held in the send queue of a paused client session.
+	 */
+	private static class PendingFrame {
+
+		private final Message<byte[]> message;
+
+		private final StompHeaderAccessor accessor;
+
+		private final SettableListenableFuture<Void> future = new SettableListenableFuture<>();
+
+		PendingFrame(Message<byte[]> message, StompHeaderAccessor accessor) {
+			this.message = message;
+			this.accessor = accessor;
+		}
+	}
+
+
 	private static class VoidCallable implements Callable<Void> {
 
 		@Override
@@ -1015,6 +1260,12 @@ public class StompBrokerRelayMessageHandler extends AbstractBrokerMessageHandler
 
 		private final AtomicInteger disconnect = new AtomicInteger();
 
+		private final AtomicInteger writePause = new AtomicInteger();
+
+		private final AtomicInteger dropped = new AtomicInteger();
+
+		private final AtomicInteger overflowDisconnect = new AtomicInteger();
+
 		public void incrementConnectCount() {
 			this.connect.incrementAndGet();
 		}
@@ -1027,12 +1278,50 @@ public class StompBrokerRelayMessageHandler extends AbstractBrokerMessageHandler
 			this.disconnect.incrementAndGet();
 		}
 
+		public void incrementWritePauseCount() {
+			this.writePause.incrementAndGet();
+		}
+
+		public int getWritePauseCount() {
+			return this.writePause.get();
+		}
+
+		public void incrementDroppedCount() {
+			this.dropped.incrementAndGet();
+		}
+
+		public void incrementOverflowDisconnectCount() {
+			this.overflowDisconnect.incrementAndGet();
+		}
+
 		public String toString() {
 			return (connectionHandlers.size() + " sessions, " + getTcpClientInfo() +
 					(isBrokerAvailable() ? " (available)" : " (not available)") +
 					", processed CONNECT(" + this.connect.get() + ")-CONNECTED(" +
-					this.connected.get() + ")-DISCONNECT(" + this.disconnect.get() + ")");
+					this.connected.get() + ")-DISCONNECT(" + this.disconnect.get() + ")" +
+					(getWriteHighWatermark() > 0 ? ", flow control QUEUED(" + getSendQueueSize() + ")-PAUSED(" +
+							this.writePause.get() + ")-DROPPED(" + this.dropped.get() + ")-OVERFLOW(" +
+							this.overflowDisconnect.get() + ")" : ""));
 		}
 	}
 
+
+	/**
+	 * Enum for options of what to do with a SEND frame from a client whose
+	 * send queue is full.
+	 * @since 5.2
+	 */
+	public enum OverflowStrategy {
+
+		/**
+		 * Send a STOMP ERROR frame to the client and close its connection.
+		 */
+		DISCONNECT,
+
+		/**
+		 * Drop the SEND frame.
+		 */
+		DROP
+	}
+
 }
@@ -16,12 +16,14 @@
 
 package org.springframework.messaging.simp.stomp;
 
-import java.io.ByteArrayOutputStream;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.logging.Log;
 
@@ -43,6 +45,11 @@ import org.springframework.util.MultiValueMap;
  * partial content. The caller is then responsible for dealing with that
  * incomplete content by buffering until there is more input available.
  *
+ * <p>The command and headers are decoded directly from the input buffer, and
+ * frequently used header names and values, e.g. "destination" and its value,
+ * are shared between frames rather than decoded into a new {@code String} each
+ * time. The payload is copied out of the buffer once.
+ *
  * @author Andy Wilkinson
  * @author Rossen Stoyanchev
  * @since 4.0
@@ -53,9 +60,20 @@ public class StompDecoder {
 
 	private static final Log logger = SimpLogging.forLogName(StompDecoder.class);
 
+	/** Headers whose values are likely to repeat across frames, and hence worth sharing. */
+	private static final Set<String> SHARED_VALUE_HEADERS = new HashSet<>(Arrays.asList(
+			StompHeaderAccessor.STOMP_DESTINATION_HEADER, StompHeaderAccessor.STOMP_CONTENT_TYPE_HEADER,
+			StompHeaderAccessor.STOMP_SUBSCRIPTION_HEADER, StompHeaderAccessor.STOMP_ACK_HEADER,
+			StompHeaderAccessor.STOMP_ACCEPT_VERSION_HEADER, StompHeaderAccessor.STOMP_HEARTBEAT_HEADER,
+			StompHeaderAccessor.STOMP_HOST_HEADER, StompHeaderAccessor.STOMP_VERSION_HEADER,
+			StompHeaderAccessor.STOMP_LOGIN_HEADER));
+
+
 	@Nullable
 	private MessageHeaderInitializer headerInitializer;
 
+	private final SharedStrings sharedStrings = new SharedStrings();
+
 
 	/**
 	 * Configure a {@link MessageHeaderInitializer} to apply to the headers of
@@ -207,36 +225,28 @@ public class StompDecoder {
 	}
 
 	private String readCommand(ByteBuffer byteBuffer) {
-		ByteArrayOutputStream command = new ByteArrayOutputStream(256);
-		while (byteBuffer.remaining() > 0 && !tryConsumeEndOfLine(byteBuffer)) {
-			command.write(byteBuffer.get());
-		}
-		return new String(command.toByteArray(), StandardCharsets.UTF_8);
+		int start = byteBuffer.position();
+		int end = readLine(byteBuffer);
+		return this.sharedStrings.get(byteBuffer, start, (end >= 0 ? end : byteBuffer.position()));
 	}
 
 	private void readHeaders(ByteBuffer byteBuffer, StompHeaderAccessor headerAccessor) {
 		while (true) {
-			ByteArrayOutputStream headerStream = new ByteArrayOutputStream(256);
-			boolean headerComplete = false;
-			while (byteBuffer.hasRemaining()) {
-				if (tryConsumeEndOfLine(byteBuffer)) {
-					headerComplete = true;
-					break;
-				}
-				headerStream.write(byteBuffer.get());
-			}
-			if (headerStream.size() > 0 && headerComplete) {
-				String header = new String(headerStream.toByteArray(), StandardCharsets.UTF_8);
-				int colonIndex = header.indexOf(':');
-				if (colonIndex <= 0) {
+			int start = byteBuffer.position();
+			int end = readLine(byteBuffer);
+			if (end > start) {
+				int colonIndex = indexOf(byteBuffer, (byte) ':', start, end);
+				if (colonIndex <= start) {
 					if (byteBuffer.remaining() > 0) {
+						String header = decodeString(byteBuffer, start, end);
 						throw new StompConversionException("Illegal header: '" + header +
 								"'. A header must be of the form <name>:[<value>].");
 					}
 				}
 				else {
-					String headerName = unescape(header.substring(0, colonIndex));
-					String headerValue = unescape(header.substring(colonIndex + 1));
+					String headerName = readHeaderString(byteBuffer, start, colonIndex, true);
+					String headerValue = readHeaderString(byteBuffer, colonIndex + 1, end,
+							SHARED_VALUE_HEADERS.contains(headerName));
 					try {
 						headerAccessor.addNativeHeader(headerName, headerValue);
 					}
@@ -253,6 +263,54 @@ public class StompDecoder {
 		}
 	}
 
+	/**
+	 * Read up to and including the next EOL, returning the index at which the
+	 * line content ends, or -1 if the buffer has no further EOL, in which case
+	 * all remaining content is consumed.
+	 */
+	private int readLine(ByteBuffer byteBuffer) {
+		while (byteBuffer.hasRemaining()) {
+			int end = byteBuffer.position();
+			if (tryConsumeEndOfLine(byteBuffer)) {
+				return end;
+			}
+			((Buffer) byteBuffer).position(end + 1);
+		}
+		return -1;
+	}
+
+	private static int indexOf(ByteBuffer byteBuffer, byte b, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (byteBuffer.get(i) == b) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private String readHeaderString(ByteBuffer byteBuffer, int start, int end, boolean share) {
+		if (indexOf(byteBuffer, (byte) '\\', start, end) != -1) {
+			return unescape(decodeString(byteBuffer, start, end));
+		}
+		return (share ? this.sharedStrings.get(byteBuffer, start, end) : decodeString(byteBuffer, start, end));
+	}
+
+	private static String decodeString(ByteBuffer byteBuffer, int start, int end) {
+		if (byteBuffer.hasArray()) {
+			return new String(byteBuffer.array(), byteBuffer.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+		}
+		return new String(copyBytes(byteBuffer, start, end), StandardCharsets.UTF_8);
+	}
+
+	private static byte[] copyBytes(ByteBuffer byteBuffer, int start, int end) {
+		ByteBuffer slice = byteBuffer.duplicate();
+		((Buffer) slice).limit(end);
+		((Buffer) slice).position(start);
+		byte[] bytes = new byte[end - start];
+		slice.get(bytes);
+		return bytes;
+	}
+
 	/**
 	 * See STOMP Spec 1.2:
 	 * <a href="http://stomp.github.io/stomp-specification-1.2.html#Value_Encoding">"Value Encoding"</a>.
@@ -319,16 +377,14 @@ public class StompDecoder {
 			}
 		}
 		else {
-			ByteArrayOutputStream payload = new ByteArrayOutputStream(256);
-			while (byteBuffer.remaining() > 0) {
-				byte b = byteBuffer.get();
-				if (b == 0) {
-					return payload.toByteArray();
-				}
-				else {
-					payload.write(b);
-				}
+			int start = byteBuffer.position();
+			int end = indexOf(byteBuffer, (byte) 0, start, byteBuffer.limit());
+			if (end != -1) {
+				byte[] payload = copyBytes(byteBuffer, start, end);
+				((Buffer) byteBuffer).position(end + 1);
+				return payload;
 			}
+			((Buffer) byteBuffer).position(byteBuffer.limit());
 		}
 		return null;
 	}
@@ -357,4 +413,65 @@ public class StompDecoder {
 		return false;
 	}
 
+
+	/**
+	 * A fixed-size cache of short strings decoded from UTF-8 bytes, looked up
+	 * by their bytes so that repeated header names and values can be decoded
+	 * without creating a new {@code String}. Entries are replaced when slots
+	 * collide; concurrent access at worst leads to a string being decoded anew.
+	 */
+	private static class SharedStrings {
+
+		private static final int SIZE = 512;
+
+		private static final int MAX_LENGTH = 64;
+
+		private final SharedString[] entries = new SharedString[SIZE];
+
+		String get(ByteBuffer byteBuffer, int start, int end) {
+			int length = end - start;
+			if (length > MAX_LENGTH) {
+				return decodeString(byteBuffer, start, end);
+			}
+			int hash = 0;
+			for (int i = start; i < end; i++) {
+				hash = 31 * hash + byteBuffer.get(i);
+			}
+			int index = (hash ^ (hash >>> 16)) & (SIZE - 1);
+			SharedString entry = this.entries[index];
+			if (entry != null && entry.matches(byteBuffer, start, end)) {
+				return entry.value;
+			}
+			byte[] bytes = copyBytes(byteBuffer, start, end);
+			entry = new SharedString(bytes, new String(bytes, StandardCharsets.UTF_8));
+			this.entries[index] = entry;
+			return entry.value;
+		}
+	}
+
+
+	private static class SharedString {
+
+		private final byte[] bytes;
+
+		private final String value;
+
+		SharedString(byte[] bytes, String value) {
+			this.bytes = bytes;
+			this.value = value;
+		}
+
+		boolean matches(ByteBuffer byteBuffer, int start, int end) {
+			if (this.bytes.length != end - start) {
+				return false;
+			}
+			for (int i = 0; i < this.bytes.length; i++) {
+				if (this.bytes[i] != byteBuffer.get(start + i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
 }
@@ -20,12 +20,14 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.logging.Log;
 
@@ -40,6 +42,12 @@ import org.springframework.util.Assert;
 /**
  * An encoder for STOMP frames.
  *
+ * <p>MESSAGE frames that the broker broadcasts to several subscribers carry a
+ * {@link SimpMessageHeaderAccessor#SHARED_ENCODING_HEADER shared encoding}
+ * header. For those, the command, the common headers and the body are encoded
+ * once and reused for every subscriber, with only the "subscription" and
+ * "message-id" headers encoded per frame.
+ *
  * @author Andy Wilkinson
  * @author Rossen Stoyanchev
  * @since 4.0
@@ -108,6 +116,16 @@ public class StompEncoder  {
 					throw new IllegalStateException("Missing STOMP command: " + headers);
 				}
 
+				if (StompCommand.MESSAGE.equals(command)) {
+					Object sharedEncoding = headers.get(SimpMessageHeaderAccessor.SHARED_ENCODING_HEADER);
+					if (sharedEncoding instanceof AtomicReference) {
+						byte[] bytes = encodeSharedMessage(headers, payload, (AtomicReference<?>) sharedEncoding);
+						if (bytes != null) {
+							return bytes;
+						}
+					}
+				}
+
 				output.write(command.toString().getBytes(StandardCharsets.UTF_8));
 				output.write(LF);
 				writeHeaders(command, headers, payload, output);
@@ -123,6 +141,106 @@ public class StompEncoder  {
 		}
 	}
 
+	/**
+	 * Encode a MESSAGE frame, reusing the encoded common part shared with the
+	 * other frames of the same broadcast, or return {@code null} if the frame
+	 * cannot be encoded that way.
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private byte[] encodeSharedMessage(Map<String, Object> headers, byte[] payload,
+			AtomicReference<?> sharedEncoding) throws IOException {
+
+		Map<String, List<String>> nativeHeaders =
+				(Map<String, List<String>>) headers.get(NativeMessageHeaderAccessor.NATIVE_HEADERS);
+		if (nativeHeaders == null) {
+			return null;
+		}
+		List<String> subscriptionIds = nativeHeaders.get(StompHeaderAccessor.STOMP_SUBSCRIPTION_HEADER);
+		List<String> messageIds = nativeHeaders.get(StompHeaderAccessor.STOMP_MESSAGE_ID_HEADER);
+		if (subscriptionIds == null || subscriptionIds.size() != 1 || messageIds == null || messageIds.size() != 1) {
+			return null;
+		}
+
+		Object cached = sharedEncoding.get();
+		SharedMessageFrame frame = (cached instanceof SharedMessageFrame ? (SharedMessageFrame) cached : null);
+		if (frame == null || !frame.matches(nativeHeaders, payload)) {
+			// First frame of the broadcast, or one that was changed along the way
+			frame = encodeSharedMessageFrame(nativeHeaders, payload);
+			if (cached == null) {
+				((AtomicReference<Object>) sharedEncoding).compareAndSet(null, frame);
+			}
+		}
+		else if (logger.isTraceEnabled()) {
+			logger.trace("Encoding STOMP MESSAGE from shared encoding, headers=" + nativeHeaders);
+		}
+
+		byte[] subscriptionId = encodeHeaderValue(subscriptionIds.get(0), true);
+		byte[] messageId = encodeHeaderValue(messageIds.get(0), true);
+		byte[] subscriptionKey = encodeHeaderKey(StompHeaderAccessor.STOMP_SUBSCRIPTION_HEADER, true);
+		byte[] messageIdKey = encodeHeaderKey(StompHeaderAccessor.STOMP_MESSAGE_ID_HEADER, true);
+
+		byte[] bytes = new byte[frame.prefix.length + subscriptionKey.length + subscriptionId.length +
+				messageIdKey.length + messageId.length + 4 + frame.suffix.length];
+		int pos = 0;
+		pos = append(frame.prefix, bytes, pos);
+		pos = append(subscriptionKey, bytes, pos);
+		bytes[pos++] = COLON;
+		pos = append(subscriptionId, bytes, pos);
+		bytes[pos++] = LF;
+		pos = append(messageIdKey, bytes, pos);
+		bytes[pos++] = COLON;
+		pos = append(messageId, bytes, pos);
+		bytes[pos++] = LF;
+		append(frame.suffix, bytes, pos);
+		return bytes;
+	}
+
+	private SharedMessageFrame encodeSharedMessageFrame(Map<String, List<String>> nativeHeaders, byte[] payload)
+			throws IOException {
+
+		if (logger.isTraceEnabled()) {
+			logger.trace("Encoding STOMP MESSAGE, headers=" + nativeHeaders);
+		}
+
+		Map<String, List<String>> sharedHeaders = new LinkedHashMap<>(nativeHeaders.size());
+		ByteArrayOutputStream baos = new ByteArrayOutputStream(128);
+		DataOutputStream output = new DataOutputStream(baos);
+		output.write(StompCommand.MESSAGE.toString().getBytes(StandardCharsets.UTF_8));
+		output.write(LF);
+		for (Entry<String, List<String>> entry : nativeHeaders.entrySet()) {
+			if (SharedMessageFrame.isFrameSpecific(entry.getKey())) {
+				continue;
+			}
+			sharedHeaders.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+			byte[] encodedKey = encodeHeaderKey(entry.getKey(), true);
+			for (String value : entry.getValue()) {
+				output.write(encodedKey);
+				output.write(COLON);
+				output.write(encodeHeaderValue(value, true));
+				output.write(LF);
+			}
+		}
+		byte[] prefix = baos.toByteArray();
+
+		baos = new ByteArrayOutputStream(32 + payload.length);
+		output = new DataOutputStream(baos);
+		output.write("content-length:".getBytes(StandardCharsets.UTF_8));
+		output.write(Integer.toString(payload.length).getBytes(StandardCharsets.UTF_8));
+		output.write(LF);
+		output.write(LF);
+		writeBody(payload, output);
+		output.write((byte) 0);
+		byte[] suffix = baos.toByteArray();
+
+		return new SharedMessageFrame(payload, sharedHeaders, prefix, suffix);
+	}
+
+	private static int append(byte[] source, byte[] target, int pos) {
+		System.arraycopy(source, 0, target, pos, source.length);
+		return pos + source.length;
+	}
+
 	private void writeHeaders(StompCommand command, Map<String, Object> headers, byte[] payload,
 			DataOutputStream output) throws IOException {
 
@@ -232,4 +350,57 @@ public class StompEncoder  {
 		output.write(payload);
 	}
 
+
+	/**
+	 * The encoded part of a MESSAGE frame shared by all frames of a broadcast:
+	 * the command with all headers other than "subscription", "message-id" and
+	 * "content-length" as the prefix, and the "content-length" header with the
+	 * body as the suffix.
+	 */
+	private static final class SharedMessageFrame {
+
+		private final byte[] payload;
+
+		private final Map<String, List<String>> headers;
+
+		private final byte[] prefix;
+
+		private final byte[] suffix;
+
+		SharedMessageFrame(byte[] payload, Map<String, List<String>> headers, byte[] prefix, byte[] suffix) {
+			this.payload = payload;
+			this.headers = headers;
+			this.prefix = prefix;
+			this.suffix = suffix;
+		}
+
+		/**
+		 * Whether a frame with the given headers and payload encodes to this
+		 * shared part, i.e. has the same payload and the same headers apart
+		 * from the frame-specific ones.
+		 */
+		boolean matches(Map<String, List<String>> nativeHeaders, byte[] payload) {
+			if (payload != this.payload) {
+				return false;
+			}
+			int count = 0;
+			for (Entry<String, List<String>> entry : nativeHeaders.entrySet()) {
+				if (isFrameSpecific(entry.getKey())) {
+					continue;
+				}
+				if (!entry.getValue().equals(this.headers.get(entry.getKey()))) {
+					return false;
+				}
+				count++;
+			}
+			return (count == this.headers.size());
+		}
+
+		static boolean isFrameSpecific(String headerName) {
+			return (StompHeaderAccessor.STOMP_SUBSCRIPTION_HEADER.equals(headerName) ||
+					StompHeaderAccessor.STOMP_MESSAGE_ID_HEADER.equals(headerName) ||
+					StompHeaderAccessor.STOMP_CONTENT_LENGTH_HEADER.equals(headerName));
+		}
+	}
+
 }
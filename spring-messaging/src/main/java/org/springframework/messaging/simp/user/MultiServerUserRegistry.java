@@ -21,6 +21,8 @@ import java.net.UnknownHostException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -32,6 +34,9 @@ import org.springframework.core.Ordered;
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.user.UserRegistryDeltaCodec.Operation;
+import org.springframework.messaging.simp.user.UserRegistryDeltaCodec.SessionState;
+import org.springframework.messaging.simp.user.UserRegistryDeltaCodec.Update;
 import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
 
@@ -42,6 +47,10 @@ import org.springframework.util.ObjectUtils;
  * handled by {@link UserRegistryMessageHandler} which in turn notifies this
  * registry when updates are received.
  *
+ * <p>Remote registries are either received as complete snapshots or, when
+ * incremental synchronization is used, kept up to date through sequenced
+ * deltas whose result is checked against a digest of the remote registry.
+ *
  * @author Rossen Stoyanchev
  * @since 4.2
  */
@@ -59,6 +68,17 @@ public class MultiServerUserRegistry implements SimpUserRegistry, SmartApplicati
 	/* Cross-server session lookup (e.g. same user connected to multiple servers) */
 	private final SessionLookup sessionLookup = new SessionLookup();
 
+	/* Remote registries kept up to date through incremental updates */
+	private final Map<String, RemoteRegistryState> remoteStates = new ConcurrentHashMap<>();
+
+	/* Local sessions as of the last incremental update */
+	@Nullable
+	private Map<String, SessionState> localSessions;
+
+	private long localSequence;
+
+	private volatile boolean fullUpdateRequested;
+
 
 	/**
 	 * Create an instance wrapping the local user registry.
@@ -168,13 +188,95 @@ public class MultiServerUserRegistry implements SimpUserRegistry, SmartApplicati
 		UserRegistrySnapshot registry = (UserRegistrySnapshot) converter.fromMessage(message, UserRegistrySnapshot.class);
 		if (registry != null && !registry.getId().equals(this.id)) {
 			registry.init(expirationPeriod, this.sessionLookup);
+			this.remoteStates.remove(registry.getId());
 			this.remoteRegistries.put(registry.getId(), registry);
 		}
 	}
 
+	/**
+	 * Return the binary encoded incremental update for the local registry: a
+	 * full update the first time and whenever another server asked for it, a
+	 * delta if sessions or subscriptions changed since the last update, or a
+	 * digest otherwise.
+	 */
+	synchronized byte[] getLocalRegistryUpdate() {
+		Map<String, SessionState> sessions = getLocalSessions();
+		Map<String, SessionState> previous = this.localSessions;
+		this.localSessions = sessions;
+		Update update;
+		if (previous == null || this.fullUpdateRequested) {
+			this.fullUpdateRequested = false;
+			update = Update.full(this.id, ++this.localSequence, sessions);
+		}
+		else {
+			List<Operation> operations = UserRegistryDeltaCodec.diff(previous, sessions);
+			long hash = UserRegistryDeltaCodec.hash(sessions);
+			if (operations.isEmpty()) {
+				update = Update.digest(this.id, this.localSequence, sessions.size(), hash);
+			}
+			else if (operations.size() >= sessions.size()) {
+				update = Update.full(this.id, ++this.localSequence, sessions);
+			}
+			else {
+				update = Update.delta(this.id, ++this.localSequence, operations, sessions.size(), hash);
+			}
+		}
+		return UserRegistryDeltaCodec.encode(update);
+	}
+
+	private Map<String, SessionState> getLocalSessions() {
+		Set<SimpUser> users = this.localRegistry.getUsers();
+		Map<String, SessionState> sessions = new LinkedHashMap<>(users.size() * 2);
+		for (SimpUser user : users) {
+			for (SimpSession session : user.getSessions()) {
+				SessionState state = new SessionState(user.getName());
+				for (SimpSubscription subscription : session.getSubscriptions()) {
+					state.subscriptions.put(subscription.getId(), subscription.getDestination());
+				}
+				sessions.put(session.getId(), state);
+			}
+		}
+		return sessions;
+	}
+
+	/**
+	 * Apply a binary encoded incremental update from another server.
+	 * @return a request for a full update to broadcast if the update could not
+	 * be applied because of a sequence gap or a digest mismatch, or
+	 * {@code null} otherwise
+	 */
+	@Nullable
+	byte[] addRemoteRegistryUpdate(byte[] payload, long expirationPeriod) {
+		Update update = UserRegistryDeltaCodec.decode(payload);
+		if (update.originId.equals(this.id)) {
+			return null;
+		}
+		if (update.type == UserRegistryDeltaCodec.RESYNC) {
+			if (update.targetId.equals(this.id)) {
+				this.fullUpdateRequested = true;
+			}
+			return null;
+		}
+		if (update.type == UserRegistryDeltaCodec.FULL) {
+			RemoteRegistryState state = new RemoteRegistryState(update, expirationPeriod);
+			this.remoteStates.put(update.originId, state);
+			this.remoteRegistries.put(update.originId, state.snapshot);
+			return null;
+		}
+		RemoteRegistryState state = this.remoteStates.get(update.originId);
+		if (state != null) {
+			state.snapshot.extendExpiration(expirationPeriod);
+			if (state.apply(update)) {
+				return null;
+			}
+		}
+		return UserRegistryDeltaCodec.encode(Update.resync(this.id, update.originId));
+	}
+
 	void purgeExpiredRegistries() {
 		long now = System.currentTimeMillis();
 		this.remoteRegistries.entrySet().removeIf(entry -> entry.getValue().isExpired(now));
+		this.remoteStates.entrySet().removeIf(entry -> entry.getValue().snapshot.isExpired(now));
 	}
 
 
@@ -235,6 +337,10 @@ public class MultiServerUserRegistry implements SimpUserRegistry, SmartApplicati
 			return (now > this.expirationTime);
 		}
 
+		public void extendExpiration(long expirationPeriod) {
+			this.expirationTime = System.currentTimeMillis() + expirationPeriod;
+		}
+
 		public void init(long expirationPeriod, SessionLookup sessionLookup) {
 			this.expirationTime = System.currentTimeMillis() + expirationPeriod;
 			for (TransferSimpUser user : this.users.values()) {
@@ -297,6 +403,14 @@ public class MultiServerUserRegistry implements SimpUserRegistry, SmartApplicati
 			}
 		}
 
+		/**
+		 * Constructor to create user from incrementally synchronized sessions.
+		 */
+		public TransferSimpUser(String name, Set<TransferSimpSession> sessions) {
+			this.name = name;
+			this.sessions = sessions;
+		}
+
 		public void setName(String name) {
 			this.name = name;
 		}
@@ -416,6 +530,17 @@ public class MultiServerUserRegistry implements SimpUserRegistry, SmartApplicati
 			return this.id;
 		}
 
+		/**
+		 * Constructor to create session from incrementally synchronized state.
+		 */
+		public TransferSimpSession(String id, Map<String, String> subscriptions) {
+			this.id = id;
+			this.user = new TransferSimpUser();
+			this.subscriptions = new HashSet<>(subscriptions.size());
+			subscriptions.forEach((subscriptionId, destination) ->
+					this.subscriptions.add(new TransferSimpSubscription(subscriptionId, destination)));
+		}
+
 		public void setUser(TransferSimpUser user) {
 			this.user = user;
 		}
@@ -496,6 +621,15 @@ public class MultiServerUserRegistry implements SimpUserRegistry, SmartApplicati
 			return this.id;
 		}
 
+		/**
+		 * Constructor to create subscription from incrementally synchronized state.
+		 */
+		public TransferSimpSubscription(String id, String destination) {
+			this.id = id;
+			this.session = new TransferSimpSession();
+			this.destination = destination;
+		}
+
 		public void setSession(TransferSimpSession session) {
 			this.session = session;
 		}
@@ -539,6 +673,124 @@ public class MultiServerUserRegistry implements SimpUserRegistry, SmartApplicati
 	}
 
 
+	/**
+	 * State of a remote registry kept up to date through incremental updates.
+	 * The sessions are tracked separately and, after each update, the users
+	 * that changed are replaced in the snapshot used for lookups.
+	 */
+	private class RemoteRegistryState {
+
+		private final UserRegistrySnapshot snapshot;
+
+		private final Map<String, SessionState> sessions;
+
+		private final Map<String, Set<String>> userSessions = new HashMap<>();
+
+		private long sequence;
+
+		private long hash;
+
+		private boolean inSync = true;
+
+		public RemoteRegistryState(Update update, long expirationPeriod) {
+			this.snapshot = new UserRegistrySnapshot();
+			this.snapshot.setId(update.originId);
+			this.snapshot.setUserMap(new ConcurrentHashMap<>());
+			this.snapshot.init(expirationPeriod, sessionLookup);
+			this.sessions = update.sessions;
+			this.sequence = update.sequence;
+			this.hash = UserRegistryDeltaCodec.hash(this.sessions);
+			this.sessions.forEach((sessionId, session) ->
+					this.userSessions.computeIfAbsent(session.userName, name -> new HashSet<>(2)).add(sessionId));
+			this.userSessions.keySet().forEach(this::updateUser);
+		}
+
+		/**
+		 * Apply a delta or check a digest.
+		 * @return {@code false} if this state is, or turned out to be, out of sync
+		 */
+		public synchronized boolean apply(Update update) {
+			if (this.inSync && update.type == UserRegistryDeltaCodec.DELTA && update.sequence == this.sequence + 1) {
+				Set<String> userNames = new HashSet<>();
+				for (Operation operation : update.operations) {
+					apply(operation, userNames);
+				}
+				userNames.forEach(this::updateUser);
+				this.sequence = update.sequence;
+			}
+			else if (update.type != UserRegistryDeltaCodec.DIGEST || update.sequence != this.sequence) {
+				this.inSync = false;
+			}
+			this.inSync = (this.inSync && update.sessionCount == this.sessions.size() && update.hash == this.hash);
+			return this.inSync;
+		}
+
+		private void apply(Operation operation, Set<String> userNames) {
+			String sessionId = operation.sessionId;
+			SessionState session = this.sessions.get(sessionId);
+			switch (operation.type) {
+				case UserRegistryDeltaCodec.SESSION_ADDED:
+					if (session != null) {
+						removeSession(sessionId, session, userNames);
+					}
+					session = new SessionState(operation.value);
+					this.sessions.put(sessionId, session);
+					this.hash += UserRegistryDeltaCodec.hash(sessionId, session);
+					this.userSessions.computeIfAbsent(session.userName, name -> new HashSet<>(2)).add(sessionId);
+					userNames.add(session.userName);
+					break;
+				case UserRegistryDeltaCodec.SESSION_REMOVED:
+					if (session != null) {
+						removeSession(sessionId, session, userNames);
+					}
+					break;
+				case UserRegistryDeltaCodec.SUBSCRIBED:
+				case UserRegistryDeltaCodec.UNSUBSCRIBED:
+					if (session != null) {
+						String subscriptionId = operation.value;
+						String destination = (operation.type == UserRegistryDeltaCodec.SUBSCRIBED ?
+								session.subscriptions.put(subscriptionId, operation.destination) :
+								session.subscriptions.remove(subscriptionId));
+						if (destination != null) {
+							this.hash -= UserRegistryDeltaCodec.subscriptionHash(sessionId, subscriptionId, destination);
+						}
+						if (operation.type == UserRegistryDeltaCodec.SUBSCRIBED) {
+							this.hash += UserRegistryDeltaCodec.subscriptionHash(
+									sessionId, subscriptionId, operation.destination);
+						}
+						userNames.add(session.userName);
+					}
+					break;
+			}
+		}
+
+		private void removeSession(String sessionId, SessionState session, Set<String> userNames) {
+			this.sessions.remove(sessionId);
+			this.hash -= UserRegistryDeltaCodec.hash(sessionId, session);
+			Set<String> sessionIds = this.userSessions.get(session.userName);
+			if (sessionIds != null && sessionIds.remove(sessionId) && sessionIds.isEmpty()) {
+				this.userSessions.remove(session.userName);
+			}
+			userNames.add(session.userName);
+		}
+
+		private void updateUser(String userName) {
+			Set<String> sessionIds = this.userSessions.get(userName);
+			if (sessionIds == null) {
+				this.snapshot.getUserMap().remove(userName);
+				return;
+			}
+			Set<TransferSimpSession> transferSessions = new HashSet<>(sessionIds.size());
+			for (String sessionId : sessionIds) {
+				transferSessions.add(new TransferSimpSession(sessionId, this.sessions.get(sessionId).subscriptions));
+			}
+			TransferSimpUser user = new TransferSimpUser(userName, transferSessions);
+			user.afterDeserialization(sessionLookup);
+			this.snapshot.getUserMap().put(userName, user);
+		}
+	}
+
+
 	/**
 	 * Helper class to find user sessions across all servers.
 	 */
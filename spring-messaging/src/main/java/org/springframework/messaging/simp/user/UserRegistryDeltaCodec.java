@@ -0,0 +1,379 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.messaging.simp.user;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.converter.MessageConversionException;
+
+/**
+ * Binary encoding of the user registry updates exchanged by
+ * {@link UserRegistryMessageHandler} when incremental synchronization is on.
+ *
+ * <p>Every update starts with a zero byte, which never starts a JSON document,
+ * followed by a format version, the update type, the id of the originating
+ * registry and its sequence number. There are four types of updates:
+ * <ul>
+ * <li>{@link #FULL} &mdash; all sessions and subscriptions of a registry.
+ * <li>{@link #DELTA} &mdash; the sessions and subscriptions added or removed
+ * since the previous update, followed by a digest of the resulting state.
+ * <li>{@link #DIGEST} &mdash; the digest of an unchanged registry.
+ * <li>{@link #RESYNC} &mdash; a request for a full update of another registry,
+ * sent when a sequence gap or a digest mismatch is detected.
+ * </ul>
+ * The digest is a session count along with an order-independent hash of all
+ * sessions and subscriptions, which both sides maintain independently.
+ *
+ * @author Daniel Ferreira
+ * @since 5.2
+ */
+final class UserRegistryDeltaCodec {
+
+	static final byte FULL = 1;
+
+	static final byte DELTA = 2;
+
+	static final byte DIGEST = 3;
+
+	static final byte RESYNC = 4;
+
+	static final byte SESSION_ADDED = 1;
+
+	static final byte SESSION_REMOVED = 2;
+
+	static final byte SUBSCRIBED = 3;
+
+	static final byte UNSUBSCRIBED = 4;
+
+	private static final byte MAGIC = 0;
+
+	private static final byte VERSION = 1;
+
+
+	private UserRegistryDeltaCodec() {
+	}
+
+
+	/**
+	 * Whether the given message payload is an update in this format.
+	 */
+	static boolean isUpdate(Object payload) {
+		return (payload instanceof byte[] && ((byte[]) payload).length > 2 && ((byte[]) payload)[0] == MAGIC);
+	}
+
+	static byte[] encode(Update update) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			out.writeByte(MAGIC);
+			out.writeByte(VERSION);
+			out.writeByte(update.type);
+			out.writeUTF(update.originId);
+			out.writeLong(update.sequence);
+			switch (update.type) {
+				case FULL:
+					out.writeInt(update.sessions.size());
+					for (Map.Entry<String, SessionState> entry : update.sessions.entrySet()) {
+						SessionState session = entry.getValue();
+						out.writeUTF(entry.getKey());
+						out.writeUTF(session.userName);
+						out.writeInt(session.subscriptions.size());
+						for (Map.Entry<String, String> subscription : session.subscriptions.entrySet()) {
+							out.writeUTF(subscription.getKey());
+							out.writeUTF(subscription.getValue());
+						}
+					}
+					break;
+				case DELTA:
+					out.writeInt(update.operations.size());
+					for (Operation operation : update.operations) {
+						out.writeByte(operation.type);
+						out.writeUTF(operation.sessionId);
+						if (operation.type != SESSION_REMOVED) {
+							out.writeUTF(operation.value);
+						}
+						if (operation.type == SUBSCRIBED) {
+							out.writeUTF(operation.destination);
+						}
+					}
+					out.writeInt(update.sessionCount);
+					out.writeLong(update.hash);
+					break;
+				case DIGEST:
+					out.writeInt(update.sessionCount);
+					out.writeLong(update.hash);
+					break;
+				case RESYNC:
+					out.writeUTF(update.targetId);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown update type " + update.type);
+			}
+			out.flush();
+		}
+		catch (IOException ex) {
+			throw new MessageConversionException("Failed to encode user registry update", ex);
+		}
+		return bytes.toByteArray();
+	}
+
+	static Update decode(byte[] payload) {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+		try {
+			in.readByte();
+			byte version = in.readByte();
+			if (version != VERSION) {
+				throw new MessageConversionException("Unsupported user registry update version " + version);
+			}
+			byte type = in.readByte();
+			Update update = new Update(type, in.readUTF(), in.readLong());
+			switch (type) {
+				case FULL:
+					int sessionCount = in.readInt();
+					update.sessions = new HashMap<>(capacity(sessionCount));
+					for (int i = 0; i < sessionCount; i++) {
+						String sessionId = in.readUTF();
+						SessionState session = new SessionState(in.readUTF());
+						int subscriptionCount = in.readInt();
+						for (int j = 0; j < subscriptionCount; j++) {
+							session.subscriptions.put(in.readUTF(), in.readUTF());
+						}
+						update.sessions.put(sessionId, session);
+					}
+					break;
+				case DELTA:
+					int operationCount = in.readInt();
+					update.operations = new ArrayList<>(operationCount);
+					for (int i = 0; i < operationCount; i++) {
+						byte operationType = in.readByte();
+						String sessionId = in.readUTF();
+						String value = (operationType != SESSION_REMOVED ? in.readUTF() : null);
+						String destination = (operationType == SUBSCRIBED ? in.readUTF() : null);
+						update.operations.add(new Operation(operationType, sessionId, value, destination));
+					}
+					update.sessionCount = in.readInt();
+					update.hash = in.readLong();
+					break;
+				case DIGEST:
+					update.sessionCount = in.readInt();
+					update.hash = in.readLong();
+					break;
+				case RESYNC:
+					update.targetId = in.readUTF();
+					break;
+				default:
+					throw new MessageConversionException("Unknown user registry update type " + type);
+			}
+			return update;
+		}
+		catch (IOException ex) {
+			throw new MessageConversionException("Failed to decode user registry update", ex);
+		}
+	}
+
+	private static int capacity(int size) {
+		return Math.max((int) (Math.min(size, 1 << 20) / 0.75f) + 1, 16);
+	}
+
+
+	/**
+	 * Compute the operations that turn one set of sessions into another.
+	 */
+	static List<Operation> diff(Map<String, SessionState> previous, Map<String, SessionState> current) {
+		List<Operation> operations = new ArrayList<>();
+		for (String sessionId : previous.keySet()) {
+			if (!current.containsKey(sessionId)) {
+				operations.add(new Operation(SESSION_REMOVED, sessionId, null, null));
+			}
+		}
+		for (Map.Entry<String, SessionState> entry : current.entrySet()) {
+			String sessionId = entry.getKey();
+			SessionState session = entry.getValue();
+			SessionState previousSession = previous.get(sessionId);
+			Map<String, String> previousSubscriptions = Collections.emptyMap();
+			if (previousSession == null || !previousSession.userName.equals(session.userName)) {
+				if (previousSession != null) {
+					operations.add(new Operation(SESSION_REMOVED, sessionId, null, null));
+				}
+				operations.add(new Operation(SESSION_ADDED, sessionId, session.userName, null));
+			}
+			else {
+				previousSubscriptions = previousSession.subscriptions;
+				for (String subscriptionId : previousSubscriptions.keySet()) {
+					if (!session.subscriptions.containsKey(subscriptionId)) {
+						operations.add(new Operation(UNSUBSCRIBED, sessionId, subscriptionId, null));
+					}
+				}
+			}
+			for (Map.Entry<String, String> subscription : session.subscriptions.entrySet()) {
+				if (!subscription.getValue().equals(previousSubscriptions.get(subscription.getKey()))) {
+					operations.add(new Operation(SUBSCRIBED, sessionId, subscription.getKey(), subscription.getValue()));
+				}
+			}
+		}
+		return operations;
+	}
+
+	/**
+	 * Compute the order-independent hash of the given sessions.
+	 */
+	static long hash(Map<String, SessionState> sessions) {
+		long hash = 0;
+		for (Map.Entry<String, SessionState> entry : sessions.entrySet()) {
+			hash += hash(entry.getKey(), entry.getValue());
+		}
+		return hash;
+	}
+
+	/**
+	 * Compute the contribution of a session and its subscriptions to the hash.
+	 */
+	static long hash(String sessionId, SessionState session) {
+		long hash = sessionHash(sessionId, session.userName);
+		for (Map.Entry<String, String> subscription : session.subscriptions.entrySet()) {
+			hash += subscriptionHash(sessionId, subscription.getKey(), subscription.getValue());
+		}
+		return hash;
+	}
+
+	static long sessionHash(String sessionId, String userName) {
+		return mix(((long) sessionId.hashCode() << 32) ^ (userName.hashCode() & 0xFFFFFFFFL));
+	}
+
+	static long subscriptionHash(String sessionId, String subscriptionId, String destination) {
+		long hash = ((long) sessionId.hashCode() << 32) ^ (subscriptionId.hashCode() & 0xFFFFFFFFL);
+		return mix(mix(hash) + destination.hashCode());
+	}
+
+	private static long mix(long value) {
+		value ^= (value >>> 33);
+		value *= 0xff51afd7ed558ccdL;
+		value ^= (value >>> 33);
+		value *= 0xc4ceb9fe1a85ec53L;
+		value ^= (value >>> 33);
+		return value;
+	}
+
+
+	/**
+	 * A decoded user registry update.
+	 */
+	static final class Update {
+
+		final byte type;
+
+		final String originId;
+
+		final long sequence;
+
+		Map<String, SessionState> sessions = Collections.emptyMap();
+
+		List<Operation> operations = Collections.emptyList();
+
+		int sessionCount;
+
+		long hash;
+
+		String targetId = "";
+
+		Update(byte type, String originId, long sequence) {
+			this.type = type;
+			this.originId = originId;
+			this.sequence = sequence;
+		}
+
+		static Update full(String originId, long sequence, Map<String, SessionState> sessions) {
+			Update update = new Update(FULL, originId, sequence);
+			update.sessions = sessions;
+			return update;
+		}
+
+		static Update delta(String originId, long sequence, List<Operation> operations, int count, long hash) {
+			Update update = new Update(DELTA, originId, sequence);
+			update.operations = operations;
+			update.sessionCount = count;
+			update.hash = hash;
+			return update;
+		}
+
+		static Update digest(String originId, long sequence, int count, long hash) {
+			Update update = new Update(DIGEST, originId, sequence);
+			update.sessionCount = count;
+			update.hash = hash;
+			return update;
+		}
+
+		static Update resync(String originId, String targetId) {
+			Update update = new Update(RESYNC, originId, 0);
+			update.targetId = targetId;
+			return update;
+		}
+	}
+
+
+	/**
+	 * A change to a single session: the value is the user name for
+	 * {@link #SESSION_ADDED}, and the subscription id for {@link #SUBSCRIBED}
+	 * and {@link #UNSUBSCRIBED}.
+	 */
+	static final class Operation {
+
+		final byte type;
+
+		final String sessionId;
+
+		@Nullable
+		final String value;
+
+		@Nullable
+		final String destination;
+
+		Operation(byte type, String sessionId, @Nullable String value, @Nullable String destination) {
+			this.type = type;
+			this.sessionId = sessionId;
+			this.value = value;
+			this.destination = destination;
+		}
+	}
+
+
+	/**
+	 * The user name and the subscriptions (id to destination) of a session.
+	 */
+	static final class SessionState {
+
+		final String userName;
+
+		final Map<String, String> subscriptions = new LinkedHashMap<>(4);
+
+		SessionState(String userName) {
+			this.userName = userName;
+		}
+	}
+
+}
@@ -29,6 +29,7 @@ import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.broker.BrokerAvailabilityEvent;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.util.Assert;
 
@@ -39,6 +40,10 @@ import org.springframework.util.Assert;
  *
  * <p>The aggregated information is maintained in a {@link MultiServerUserRegistry}.
  *
+ * <p>By default the complete local registry is broadcast each time. With
+ * {@link #setIncrementalSync incremental synchronization}, only the changes
+ * since the previous broadcast are sent, in a compact binary format.
+ *
  * @author Rossen Stoyanchev
  * @since 4.2
  */
@@ -59,6 +64,8 @@ public class UserRegistryMessageHandler implements MessageHandler, ApplicationLi
 
 	private long registryExpirationPeriod = TimeUnit.SECONDS.toMillis(20);
 
+	private boolean incrementalSync = false;
+
 
 	/**
 	 * Constructor.
@@ -107,6 +114,30 @@ public class UserRegistryMessageHandler implements MessageHandler, ApplicationLi
 		return this.registryExpirationPeriod;
 	}
 
+	/**
+	 * Whether to broadcast incremental updates instead of the complete local
+	 * registry. Each broadcast then carries only the sessions and subscriptions
+	 * added or removed since the previous one, sequence numbered and followed
+	 * by a digest of the local registry that lets other servers detect missed
+	 * updates and ask for a complete update. Broadcasts use a binary format
+	 * rather than the configured {@code MessageConverter}.
+	 * <p>Updates of either kind are always accepted from other servers.
+	 * <p>By default this is set to "false".
+	 * @param incrementalSync whether to broadcast incremental updates
+	 * @since 5.2
+	 */
+	public void setIncrementalSync(boolean incrementalSync) {
+		this.incrementalSync = incrementalSync;
+	}
+
+	/**
+	 * Whether incremental updates are broadcast.
+	 * @since 5.2
+	 */
+	public boolean isIncrementalSync() {
+		return this.incrementalSync;
+	}
+
 
 	@Override
 	public void onApplicationEvent(BrokerAvailabilityEvent event) {
@@ -125,16 +156,36 @@ public class UserRegistryMessageHandler implements MessageHandler, ApplicationLi
 
 	@Override
 	public void handleMessage(Message<?> message) throws MessagingException {
+		Object payload = message.getPayload();
+		if (UserRegistryDeltaCodec.isUpdate(payload)) {
+			byte[] request = this.userRegistry.addRemoteRegistryUpdate((byte[]) payload, getRegistryExpirationPeriod());
+			if (request != null) {
+				broadcast(request);
+			}
+			return;
+		}
 		MessageConverter converter = this.brokerTemplate.getMessageConverter();
 		this.userRegistry.addRemoteRegistryDto(message, converter, getRegistryExpirationPeriod());
 	}
 
+	private void broadcast(byte[] update) {
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+		accessor.setHeader(SimpMessageHeaderAccessor.IGNORE_ERROR, true);
+		accessor.setLeaveMutable(true);
+		Message<byte[]> message = MessageBuilder.createMessage(update, accessor.getMessageHeaders());
+		this.brokerTemplate.send(getBroadcastDestination(), message);
+	}
+
 
 	private class UserRegistryTask implements Runnable {
 
 		@Override
 		public void run() {
 			try {
+				if (isIncrementalSync()) {
+					broadcast(userRegistry.getLocalRegistryUpdate());
+					return;
+				}
 				SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
 				accessor.setHeader(SimpMessageHeaderAccessor.IGNORE_ERROR, true);
 				accessor.setLeaveMutable(true);
@@ -18,7 +18,14 @@ package org.springframework.messaging.support;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
@@ -26,10 +33,17 @@ import org.springframework.messaging.MessageDeliveryException;
 import org.springframework.messaging.MessageHandler;
 import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.SubscribableChannel;
+import org.springframework.util.Assert;
 
 /**
  * A {@link SubscribableChannel} that sends messages to each of its subscribers.
  *
+ * <p>As of 5.2, the channel can be configured with a number of
+ * {@link #setLaneCount lanes} for messages that share a key, e.g. the session
+ * id of a client message. Messages with the same key are handled one at a time
+ * and in the order in which they were sent, while messages with different keys
+ * are still handled concurrently.
+ *
  * @author Phillip Webb
  * @author Rossen Stoyanchev
  * @since 4.0
@@ -41,6 +55,12 @@ public class ExecutorSubscribableChannel extends AbstractSubscribableChannel {
 
 	private final List<ExecutorChannelInterceptor> executorInterceptors = new ArrayList<>(4);
 
+	@Nullable
+	private volatile Lane[] lanes;
+
+	@Nullable
+	private Function<Message<?>, Object> laneKeyResolver;
+
 
 	/**
 	 * Create a new {@link ExecutorSubscribableChannel} instance
@@ -66,6 +86,92 @@ public class ExecutorSubscribableChannel extends AbstractSubscribableChannel {
 		return this.executor;
 	}
 
+	/**
+	 * Configure the number of lanes for messages that have a key, as determined by
+	 * the {@link #setLaneKeyResolver lane key resolver}. Messages with the same key
+	 * are assigned to the same lane, and each lane hands its messages to the
+	 * executor one at a time, in the order in which they were sent. Messages
+	 * without a key are handed to the executor as if no lanes were configured.
+	 * <p>By default this is set to 0, i.e. every message is handed to the executor
+	 * separately, with no ordering among messages. Lanes have no effect without
+	 * an executor, since messages are then handled in the sender's thread.
+	 * @param laneCount the number of lanes, or 0 to turn lanes off
+	 * @since 5.2
+	 */
+	public void setLaneCount(int laneCount) {
+		Assert.isTrue(laneCount >= 0, "Lane count must not be negative");
+		Lane[] lanes = null;
+		if (laneCount > 0) {
+			lanes = new Lane[laneCount];
+			for (int i = 0; i < laneCount; i++) {
+				lanes[i] = new Lane();
+			}
+		}
+		this.lanes = lanes;
+	}
+
+	/**
+	 * Return the configured number of lanes.
+	 * @since 5.2
+	 */
+	public int getLaneCount() {
+		Lane[] lanes = this.lanes;
+		return (lanes != null ? lanes.length : 0);
+	}
+
+	/**
+	 * Configure the function that returns the key of a message, e.g. the id of
+	 * the session the message belongs to, or {@code null} if the message has no
+	 * key. Only used if a {@link #setLaneCount lane count} is configured.
+	 * @since 5.2
+	 */
+	public void setLaneKeyResolver(@Nullable Function<Message<?>, Object> laneKeyResolver) {
+		this.laneKeyResolver = laneKeyResolver;
+	}
+
+	/**
+	 * Return the configured lane key resolver, if any.
+	 * @since 5.2
+	 */
+	@Nullable
+	public Function<Message<?>, Object> getLaneKeyResolver() {
+		return this.laneKeyResolver;
+	}
+
+	/**
+	 * Return the number of messages waiting in each lane, indexed by lane.
+	 * @since 5.2
+	 */
+	public int[] getLaneQueueSizes() {
+		Lane[] lanes = this.lanes;
+		if (lanes == null) {
+			return new int[0];
+		}
+		int[] sizes = new int[lanes.length];
+		for (int i = 0; i < lanes.length; i++) {
+			sizes[i] = lanes[i].queued.get();
+		}
+		return sizes;
+	}
+
+	/**
+	 * Return a description of the current state of each lane: the number of
+	 * waiting messages, the number of handled messages, and the average and
+	 * maximum time that messages waited in the lane before being handled.
+	 * @since 5.2
+	 */
+	public String getLaneStatsInfo() {
+		Lane[] lanes = this.lanes;
+		if (lanes == null) {
+			return "no lanes";
+		}
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < lanes.length; i++) {
+			sb.append(i > 0 ? ", " : "").append("lane ").append(i).append("[").append(lanes[i]).append("]");
+		}
+		return sb.toString();
+	}
+
 	@Override
 	public void setInterceptors(List<ChannelInterceptor> interceptors) {
 		super.setInterceptors(interceptors);
@@ -94,11 +200,15 @@ public class ExecutorSubscribableChannel extends AbstractSubscribableChannel {
 
 	@Override
 	public boolean sendInternal(Message<?> message, long timeout) {
+		Lane lane = getLane(message);
 		for (MessageHandler handler : getSubscribers()) {
 			SendTask sendTask = new SendTask(message, handler);
 			if (this.executor == null) {
 				sendTask.run();
 			}
+			else if (lane != null) {
+				lane.add(sendTask);
+			}
 			else {
 				this.executor.execute(sendTask);
 			}
@@ -106,6 +216,118 @@ public class ExecutorSubscribableChannel extends AbstractSubscribableChannel {
 		return true;
 	}
 
+	@Nullable
+	private Lane getLane(Message<?> message) {
+		Lane[] lanes = this.lanes;
+		if (lanes == null || this.executor == null || this.laneKeyResolver == null) {
+			return null;
+		}
+		Object key = this.laneKeyResolver.apply(message);
+		if (key == null) {
+			return null;
+		}
+		int hash = key.hashCode();
+		hash ^= (hash >>> 16);
+		return lanes[(hash & Integer.MAX_VALUE) % lanes.length];
+	}
+
+
+	/**
+	 * A queue of send tasks that are handed to the executor one at a time:
+	 * senders add tasks without locking, and at most one executor thread at a
+	 * time drains the lane.
+	 */
+	private class Lane implements Runnable {
+
+		/** Maximum number of tasks to run before yielding the executor thread. */
+		private static final int DRAIN_LIMIT = 64;
+
+		private final Queue<SendTask> tasks = new ConcurrentLinkedQueue<>();
+
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+
+		private final AtomicInteger queued = new AtomicInteger();
+
+		private final AtomicLong handled = new AtomicLong();
+
+		private final AtomicLong totalWaitTime = new AtomicLong();
+
+		private final AtomicLong maxWaitTime = new AtomicLong();
+
+		public void add(SendTask task) {
+			task.laneEntryTime = System.nanoTime();
+			this.queued.incrementAndGet();
+			this.tasks.add(task);
+			try {
+				schedule();
+			}
+			catch (RuntimeException ex) {
+				if (this.tasks.remove(task)) {
+					this.queued.decrementAndGet();
+				}
+				throw ex;
+			}
+		}
+
+		private void schedule() {
+			Executor executor = ExecutorSubscribableChannel.this.executor;
+			Assert.state(executor != null, "No Executor");
+			if (!this.tasks.isEmpty() && this.scheduled.compareAndSet(false, true)) {
+				try {
+					executor.execute(this);
+				}
+				catch (RuntimeException ex) {
+					this.scheduled.set(false);
+					throw ex;
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				for (int i = 0; i < DRAIN_LIMIT; i++) {
+					SendTask task = this.tasks.poll();
+					if (task == null) {
+						break;
+					}
+					this.queued.decrementAndGet();
+					recordWaitTime(System.nanoTime() - task.laneEntryTime);
+					try {
+						task.run();
+					}
+					catch (Throwable ex) {
+						logger.error("Failed to handle message in lane", ex);
+					}
+				}
+			}
+			finally {
+				this.scheduled.set(false);
+				try {
+					schedule();
+				}
+				catch (RuntimeException ex) {
+					logger.error("Failed to schedule remaining messages in lane", ex);
+				}
+			}
+		}
+
+		private void recordWaitTime(long waitTime) {
+			this.handled.incrementAndGet();
+			this.totalWaitTime.addAndGet(waitTime);
+			this.maxWaitTime.accumulateAndGet(waitTime, Math::max);
+		}
+
+		@Override
+		public String toString() {
+			long handled = this.handled.get();
+			long averageWaitTime = (handled > 0 ? this.totalWaitTime.get() / handled : 0);
+			return "queued = " + this.queued.get() + ", handled = " + handled +
+					", avg wait = " + TimeUnit.NANOSECONDS.toMicros(averageWaitTime) + " us" +
+					", max wait = " + TimeUnit.NANOSECONDS.toMicros(this.maxWaitTime.get()) + " us";
+		}
+	}
+
 
 	/**
 	 * Invoke a MessageHandler with ExecutorChannelInterceptors.
@@ -118,6 +340,8 @@ public class ExecutorSubscribableChannel extends AbstractSubscribableChannel {
 
 		private int interceptorIndex = -1;
 
+		private long laneEntryTime;
+
 		public SendTask(Message<?> message, MessageHandler messageHandler) {
 			this.inputMessage = message;
 			this.messageHandler = messageHandler;
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.messaging;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import org.springframework.util.SerializationTestUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link CompactHeaderMap}.
+ *
+ * @author Daniel Ferreira
+ */
+public class CompactHeaderMapTests {
+
+	@Test
+	public void putGetAndRemove() {
+		CompactHeaderMap map = new CompactHeaderMap();
+		UUID id = UUID.randomUUID();
+		assertNull(map.put(MessageHeaders.ID, id));
+		for (int i = 0; i < 20; i++) {
+			assertNull(map.put("header" + i, i));
+		}
+		assertEquals(21, map.size());
+		assertSame(id, map.get(MessageHeaders.ID));
+		assertEquals(7, map.get("header7"));
+		assertEquals(7, map.get(new String("header7")));
+
+		assertEquals(7, map.remove("header7"));
+		assertEquals(id, map.remove(MessageHeaders.ID));
+		assertEquals(19, map.size());
+		assertFalse(map.containsKey("header7"));
+		assertFalse(map.containsKey(MessageHeaders.ID));
+		assertEquals(8, map.get("header8"));
+		assertEquals(19, map.get("header19"));
+	}
+
+	@Test
+	public void nullValues() {
+		CompactHeaderMap map = new CompactHeaderMap();
+		map.put(MessageHeaders.TIMESTAMP, null);
+		map.put("foo", null);
+		assertEquals(2, map.size());
+		assertTrue(map.containsKey(MessageHeaders.TIMESTAMP));
+		assertTrue(map.containsKey("foo"));
+		assertNull(map.get(MessageHeaders.TIMESTAMP));
+
+		Map<String, Object> expected = new HashMap<>();
+		expected.put(MessageHeaders.TIMESTAMP, null);
+		expected.put("foo", null);
+		assertEquals(expected, map);
+	}
+
+	@Test
+	public void copiesAreIndependent() {
+		CompactHeaderMap original = new CompactHeaderMap();
+		original.put(MessageHeaders.ID, UUID.randomUUID());
+		original.put("foo", "bar");
+		original.put("count", 1);
+		Map<String, Object> snapshot = new HashMap<>(original);
+
+		CompactHeaderMap copy1 = original.copy();
+		CompactHeaderMap copy2 = original.copy();
+		copy1.remove(MessageHeaders.ID);
+		copy1.put("appended", "copy1");
+		copy2.put("appended", "copy2");
+		copy2.put("count", 2);
+		CompactHeaderMap copy3 = copy1.copy();
+		copy3.remove("foo");
+		copy1.put("other", "copy1");
+
+		assertEquals(snapshot, original);
+		assertEquals("copy1", copy1.get("appended"));
+		assertEquals("copy1", copy1.get("other"));
+		assertEquals("bar", copy1.get("foo"));
+		assertFalse(copy1.containsKey(MessageHeaders.ID));
+		assertEquals(1, copy1.get("count"));
+		assertEquals("copy2", copy2.get("appended"));
+		assertEquals(2, copy2.get("count"));
+		assertEquals(4, copy2.size());
+		assertFalse(copy3.containsKey("foo"));
+		assertFalse(copy3.containsKey("other"));
+		assertEquals(2, copy3.size());
+
+		original.put("foo", "baz");
+		assertEquals("bar", copy1.get("foo"));
+		assertEquals("bar", copy2.get("foo"));
+	}
+
+	@Test
+	public void iteratorRemove() {
+		CompactHeaderMap map = new CompactHeaderMap();
+		map.put(MessageHeaders.ID, UUID.randomUUID());
+		map.put("a", 1);
+		map.put("b", 2);
+		map.put("c", 3);
+		for (Iterator<Map.Entry<String, Object>> iterator = map.entrySet().iterator(); iterator.hasNext();) {
+			Map.Entry<String, Object> entry = iterator.next();
+			if (!entry.getKey().equals("b")) {
+				iterator.remove();
+			}
+		}
+		assertEquals(1, map.size());
+		assertEquals(2, map.get("b"));
+
+		map.entrySet().iterator().next().setValue(5);
+		assertEquals(5, map.get("b"));
+	}
+
+	@Test
+	public void serializeAsHashMap() throws Exception {
+		CompactHeaderMap map = new CompactHeaderMap();
+		map.put(MessageHeaders.ID, UUID.randomUUID());
+		map.put("foo", "bar");
+		Object result = SerializationTestUtils.serializeAndDeserialize(map);
+		assertEquals(HashMap.class, result.getClass());
+		assertEquals(map, result);
+	}
+
+	@Test
+	public void messageHeadersShareEntries() {
+		Map<String, Object> map = new HashMap<>();
+		map.put("foo", "bar");
+		MessageHeaders headers1 = new MessageHeaders(map);
+		MessageHeaders headers2 = new MessageHeaders(headers1);
+		assertNotEquals(headers1.getId(), headers2.getId());
+		assertEquals("bar", headers2.get("foo"));
+		assertEquals(3, headers2.size());
+	}
+
+}
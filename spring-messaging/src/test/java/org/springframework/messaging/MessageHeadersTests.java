@@ -25,6 +25,7 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.Test;
 
+import org.springframework.util.MonotonicIdGenerator;
 import org.springframework.util.SerializationTestUtils;
 
 import static org.junit.Assert.*;
@@ -104,6 +105,20 @@ public class MessageHeadersTests {
 		assertNull(headers.getId());
 	}
 
+	@Test
+	public void testIdGenerator() {
+		MessageHeaders.setIdGenerator(new MonotonicIdGenerator());
+		try {
+			UUID id1 = new MessageHeaders(null).getId();
+			UUID id2 = new MessageHeaders(null).getId();
+			assertEquals(id1.getMostSignificantBits(), id2.getMostSignificantBits());
+			assertEquals(id1.getLeastSignificantBits() + 1, id2.getLeastSignificantBits());
+		}
+		finally {
+			MessageHeaders.setIdGenerator(null);
+		}
+	}
+
 	@Test
 	public void testNonTypedAccessOfHeaderValue() {
 		Integer value = new Integer(123);
@@ -265,6 +265,76 @@ public class SimpAnnotationMethodMessageHandlerTests {
 		assertEquals("handleFoo", controller.method);
 	}
 
+	@Test
+	public void patternMappingsWithDestinationIndex() {
+		PatternController controller = new PatternController();
+		this.messageHandler.registerHandler(controller);
+		this.messageHandler.registerHandler(this.testController);
+
+		for (int i = 0; i < 2; i++) {
+			this.messageHandler.handleMessage(createMessage("/pre/index/1/detail"));
+			assertEquals("detail", controller.method);
+
+			this.messageHandler.handleMessage(createMessage("/pre/index"));
+			assertEquals("prefix", controller.method);
+
+			this.messageHandler.handleMessage(createMessage("/pre/index/2/other"));
+			assertEquals("prefix", controller.method);
+
+			this.messageHandler.handleMessage(createMessage("/pre/foo/wildcard"));
+			assertEquals("wildcard", controller.method);
+
+			controller.method = null;
+			this.messageHandler.handleMessage(createMessage("/pre/foo/other"));
+			assertNull(controller.method);
+
+			this.messageHandler.setDestinationCacheLimit(0);
+		}
+	}
+
+	@Test
+	public void patternMappingsWithCaseInsensitivePathMatcher() {
+		AntPathMatcher pathMatcher = new AntPathMatcher();
+		pathMatcher.setCaseSensitive(false);
+		this.messageHandler.setPathMatcher(pathMatcher);
+		PatternController controller = new PatternController();
+		this.messageHandler.registerHandler(controller);
+
+		this.messageHandler.handleMessage(createMessage("/PRE/Index/1/Detail"));
+		assertEquals("detail", controller.method);
+	}
+
+	@Test
+	public void patternMappingsAfterPathMatcherSettingsChange() {
+		AntPathMatcher pathMatcher = new AntPathMatcher();
+		pathMatcher.setCachePatterns(false);
+		this.messageHandler.setPathMatcher(pathMatcher);
+		PatternController controller = new PatternController();
+		this.messageHandler.registerHandler(controller);
+
+		this.messageHandler.handleMessage(createMessage("/pre/index/2/other"));
+		assertEquals("prefix", controller.method);
+
+		pathMatcher.setPathSeparator(".");
+		controller.method = null;
+		this.messageHandler.handleMessage(createMessage("/pre/index/3/other"));
+		assertEquals("prefix", controller.method);
+	}
+
+	@Test
+	public void patternMappingsAfterSetPathMatcher() {
+		PatternController controller = new PatternController();
+		this.messageHandler.registerHandler(controller);
+
+		this.messageHandler.handleMessage(createMessage("/pre/index/2/other"));
+		assertEquals("prefix", controller.method);
+
+		this.messageHandler.setPathMatcher(new AntPathMatcher("."));
+		controller.method = null;
+		this.messageHandler.handleMessage(createMessage("/pre/index/3/other"));
+		assertEquals("prefix", controller.method);
+	}
+
 	@Test
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public void listenableFutureSuccess() {
@@ -544,6 +614,29 @@ public class SimpAnnotationMethodMessageHandlerTests {
 	}
 
 
+	@Controller
+	@MessageMapping("/pre")
+	private static class PatternController {
+
+		private String method;
+
+		@MessageMapping("/index/**")
+		public void prefix() {
+			this.method = "prefix";
+		}
+
+		@MessageMapping("/index/{id}/detail")
+		public void detail() {
+			this.method = "detail";
+		}
+
+		@MessageMapping("/*/wildcard")
+		public void wildcard() {
+			this.method = "wildcard";
+		}
+	}
+
+
 	@Controller
 	@MessageMapping("pre")
 	private static class DotPathSeparatorController {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2015 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,10 +28,13 @@ import org.springframework.messaging.Message;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.util.MultiValueMap;
+import org.springframework.util.PathMatcher;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test fixture for
@@ -439,6 +442,67 @@ public class DefaultSubscriptionRegistryTests {
 		assertEquals(2, this.registry.findSubscriptions(createMessage("/bar")).size());
 	}
 
+	@Test
+	public void findSubscriptionsWithDestinationPatterns() {
+		assertFindSubscriptionsMatchesPathMatcher(new AntPathMatcher(),
+				Arrays.asList("/topic/foo", "/topic/*", "/topic/*/bar", "/topic/**", "/topic/**/bar",
+						"/topic/f?o", "/topic/{id}/bar", "/topic/foo/", "/topic/FOO", "topic/foo", "/**", "/*/foo"),
+				Arrays.asList("/topic/foo", "/topic/foo/", "/topic/foo/bar", "/topic/fao/bar", "/topic",
+						"/topic/", "/topic/FOO", "topic/foo", "/queue/foo", "/topic/foo/baz/bar", "/"));
+	}
+
+	@Test
+	public void findSubscriptionsWithDotSeparatedDestinationPatterns() {
+		AntPathMatcher pathMatcher = new AntPathMatcher(".");
+		pathMatcher.setCaseSensitive(false);
+		assertFindSubscriptionsMatchesPathMatcher(pathMatcher,
+				Arrays.asList("price.stock.*", "price.stock.ibm", "price.**", "PRICE.*.IBM", "price/stock/ibm"),
+				Arrays.asList("price.stock.ibm", "Price.Stock.IBM", "price.bond.ibm", "price", "price/stock/ibm"));
+	}
+
+	@Test
+	public void findSubscriptionsAfterPathMatcherChange() {
+		this.registry.registerSubscription(subscribeMessage("sess1", "1", "price.stock.*"));
+		this.registry.registerSubscription(subscribeMessage("sess1", "2", "/price/stock/ibm"));
+		assertEquals(Collections.singletonList("2"),
+				this.registry.findSubscriptions(createMessage("/price/stock/ibm")).get("sess1"));
+
+		this.registry.setPathMatcher(new AntPathMatcher("."));
+		assertEquals(Collections.singletonList("1"),
+				this.registry.findSubscriptions(createMessage("price.stock.ibm")).get("sess1"));
+	}
+
+	@Test
+	public void findSubscriptionsAfterUnregisterAndRegisterAgain() {
+		this.registry.registerSubscription(subscribeMessage("sess1", "1", "/topic/*"));
+		this.registry.registerSubscription(subscribeMessage("sess2", "1", "/topic/**"));
+		assertEquals(2, this.registry.findSubscriptions(createMessage("/topic/foo")).size());
+
+		this.registry.unregisterSubscription(unsubscribeMessage("sess1", "1"));
+		this.registry.unregisterAllSubscriptions("sess2");
+		assertTrue(this.registry.findSubscriptions(createMessage("/topic/foo")).isEmpty());
+
+		this.registry.registerSubscription(subscribeMessage("sess1", "2", "/topic/*"));
+		assertEquals(Collections.singletonList("2"),
+				this.registry.findSubscriptions(createMessage("/topic/foo")).get("sess1"));
+	}
+
+	private void assertFindSubscriptionsMatchesPathMatcher(
+			PathMatcher pathMatcher, List<String> patterns, List<String> destinations) {
+
+		this.registry.setPathMatcher(pathMatcher);
+		for (int i = 0; i < patterns.size(); i++) {
+			this.registry.registerSubscription(subscribeMessage("sess" + i, "subs" + i, patterns.get(i)));
+		}
+		for (String destination : destinations) {
+			MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage(destination));
+			for (int i = 0; i < patterns.size(); i++) {
+				boolean expected = pathMatcher.match(patterns.get(i), destination);
+				assertEquals(patterns.get(i) + " vs " + destination, expected, actual.containsKey("sess" + i));
+			}
+		}
+	}
+
 	private Message<?> createMessage(String destination) {
 		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
 		accessor.setDestination(destination);
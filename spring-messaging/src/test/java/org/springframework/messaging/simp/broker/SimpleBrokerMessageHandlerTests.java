@@ -101,6 +101,27 @@ public class SimpleBrokerMessageHandlerTests {
 		assertTrue(messageCaptured("sess2", "sub3", "/bar"));
 	}
 
+	@Test
+	public void publishWithSharedEncoding() {
+		startSession("sess1");
+		startSession("sess2");
+
+		this.messageHandler.handleMessage(createSubscriptionMessage("sess1", "sub1", "/foo"));
+		this.messageHandler.handleMessage(createSubscriptionMessage("sess2", "sub1", "/foo"));
+		this.messageHandler.handleMessage(createSubscriptionMessage("sess2", "sub2", "/bar"));
+
+		this.messageHandler.handleMessage(createMessage("/foo", "message1"));
+		this.messageHandler.handleMessage(createMessage("/bar", "message2"));
+
+		verify(this.clientOutChannel, times(3)).send(this.messageCaptor.capture());
+		List<Message<?>> messages = this.messageCaptor.getAllValues();
+		messages = messages.subList(messages.size() - 3, messages.size());
+		Object sharedEncoding = messages.get(0).getHeaders().get(SimpMessageHeaderAccessor.SHARED_ENCODING_HEADER);
+		assertNotNull(sharedEncoding);
+		assertSame(sharedEncoding, messages.get(1).getHeaders().get(SimpMessageHeaderAccessor.SHARED_ENCODING_HEADER));
+		assertNull(messages.get(2).getHeaders().get(SimpMessageHeaderAccessor.SHARED_ENCODING_HEADER));
+	}
+
 	@Test
 	public void subscribeDisconnectPublish() {
 		String sess1 = "sess1";
@@ -286,6 +307,56 @@ public class SimpleBrokerMessageHandlerTests {
 				messages.get(0).getHeaders().get(SimpMessageHeaderAccessor.MESSAGE_TYPE_HEADER));
 	}
 
+	@Test
+	public void writeInactivityRescheduled() throws Exception {
+		this.messageHandler.setHeartbeatValue(new long[] {20, 0});
+		this.messageHandler.setTaskScheduler(this.taskScheduler);
+		this.messageHandler.start();
+
+		ArgumentCaptor<Runnable> taskCaptor = ArgumentCaptor.forClass(Runnable.class);
+		verify(this.taskScheduler).scheduleWithFixedDelay(taskCaptor.capture(), eq(20L));
+		Runnable heartbeatTask = taskCaptor.getValue();
+
+		Message<String> connectMessage = createConnectMessage("sess1", new TestPrincipal("joe"), new long[] {0, 20});
+		this.messageHandler.handleMessage(connectMessage);
+
+		Thread.sleep(60);
+		heartbeatTask.run();
+		heartbeatTask.run();
+		verify(this.clientOutChannel, times(2)).send(this.messageCaptor.capture());
+
+		Thread.sleep(60);
+		heartbeatTask.run();
+		verify(this.clientOutChannel, times(3)).send(this.messageCaptor.capture());
+		assertEquals(SimpMessageType.HEARTBEAT, this.messageCaptor.getValue().getHeaders().get(
+				SimpMessageHeaderAccessor.MESSAGE_TYPE_HEADER));
+	}
+
+	@Test
+	public void disconnectCancelsHeartbeat() throws Exception {
+		this.messageHandler.setHeartbeatValue(new long[] {1, 1});
+		this.messageHandler.setTaskScheduler(this.taskScheduler);
+		this.messageHandler.start();
+
+		ArgumentCaptor<Runnable> taskCaptor = ArgumentCaptor.forClass(Runnable.class);
+		verify(this.taskScheduler).scheduleWithFixedDelay(taskCaptor.capture(), eq(1L));
+		Runnable heartbeatTask = taskCaptor.getValue();
+
+		TestPrincipal user = new TestPrincipal("joe");
+		this.messageHandler.handleMessage(createConnectMessage("sess1", user, new long[] {1, 1}));
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.DISCONNECT);
+		accessor.setSessionId("sess1");
+		accessor.setUser(user);
+		this.messageHandler.handleMessage(MessageBuilder.createMessage("", accessor.getMessageHeaders()));
+
+		Thread.sleep(10);
+		heartbeatTask.run();
+
+		verify(this.clientOutChannel, times(2)).send(this.messageCaptor.capture());
+		assertEquals(SimpMessageType.DISCONNECT_ACK, this.messageCaptor.getValue().getHeaders().get(
+				SimpMessageHeaderAccessor.MESSAGE_TYPE_HEADER));
+	}
+
 
 	private Message<String> startSession(String id) {
 		this.messageHandler.start();
@@ -123,6 +123,13 @@ public class MessageBrokerConfigurationTests {
 				"clientInboundChannel", AbstractSubscribableChannel.class);
 		assertEquals(3, channel.getInterceptors().size());
 
+		ExecutorSubscribableChannel executorChannel = (ExecutorSubscribableChannel) channel;
+		assertEquals(4, executorChannel.getLaneCount());
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+		accessor.setSessionId("sess1");
+		Message<?> message = MessageBuilder.createMessage("", accessor.getMessageHeaders());
+		assertEquals("sess1", executorChannel.getLaneKeyResolver().apply(message));
+
 		CustomThreadPoolTaskExecutor taskExecutor = context.getBean(
 				"clientInboundChannelExecutor", CustomThreadPoolTaskExecutor.class);
 		assertEquals(11, taskExecutor.getCorePoolSize());
@@ -635,7 +642,7 @@ public class MessageBrokerConfigurationTests {
 
 		@Override
 		protected void configureClientInboundChannel(ChannelRegistration registration) {
-			registration.interceptors(this.interceptor);
+			registration.interceptors(this.interceptor).sessionLanes(4);
 			registration.taskExecutor(new CustomThreadPoolTaskExecutor())
 					.corePoolSize(11).maxPoolSize(12).keepAliveSeconds(13).queueCapacity(14);
 		}
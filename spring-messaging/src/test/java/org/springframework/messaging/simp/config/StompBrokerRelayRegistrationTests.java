@@ -49,6 +49,10 @@ public class StompBrokerRelayRegistrationTests {
 		registration.setSystemHeartbeatReceiveInterval(123);
 		registration.setSystemHeartbeatSendInterval(456);
 		registration.setVirtualHost("example.org");
+		registration.setWriteHighWatermark(64 * 1024);
+		registration.setWriteLowWatermark(16 * 1024);
+		registration.setSendQueueCapacity(100);
+		registration.setSendQueueOverflowStrategy(StompBrokerRelayMessageHandler.OverflowStrategy.DROP);
 
 		StompBrokerRelayMessageHandler handler = registration.getMessageHandler(new StubMessageChannel());
 
@@ -60,6 +64,10 @@ public class StompBrokerRelayRegistrationTests {
 		assertEquals(123, handler.getSystemHeartbeatReceiveInterval());
 		assertEquals(456, handler.getSystemHeartbeatSendInterval());
 		assertEquals("example.org", handler.getVirtualHost());
+		assertEquals(64 * 1024, handler.getWriteHighWatermark());
+		assertEquals(16 * 1024, handler.getWriteLowWatermark());
+		assertEquals(100, handler.getSendQueueCapacity());
+		assertEquals(StompBrokerRelayMessageHandler.OverflowStrategy.DROP, handler.getSendQueueOverflowStrategy());
 	}
 
 }
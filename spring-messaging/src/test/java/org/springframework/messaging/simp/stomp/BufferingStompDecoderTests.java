@@ -18,6 +18,7 @@ package org.springframework.messaging.simp.stomp;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -163,6 +164,26 @@ public class BufferingStompDecoderTests {
 		}
 	}
 
+	@Test
+	public void oneMessageInManyChunks() throws InterruptedException {
+		BufferingStompDecoder stompDecoder = new BufferingStompDecoder(STOMP_DECODER, 128);
+		String frame = "SEND\na:alpha\n\nMessage body\0SEND\nb:bravo\n\nSecond";
+
+		List<Message<byte[]>> messages = new ArrayList<>();
+		for (byte b : frame.getBytes(StandardCharsets.UTF_8)) {
+			messages.addAll(stompDecoder.decode(ByteBuffer.wrap(new byte[] {b})));
+		}
+		assertEquals(1, messages.size());
+		assertEquals("Message body", new String(messages.get(0).getPayload()));
+		assertEquals(20, stompDecoder.getBufferSize());
+
+		messages = stompDecoder.decode(toByteBuffer(" body\0"));
+		assertEquals(1, messages.size());
+		assertEquals("Second body", new String(messages.get(0).getPayload()));
+		assertEquals("bravo", StompHeaderAccessor.wrap(messages.get(0)).getFirstNativeHeader("b"));
+		assertEquals(0, stompDecoder.getBufferSize());
+	}
+
 	@Test(expected = StompConversionException.class)
 	public void bufferSizeLimit() {
 		BufferingStompDecoder stompDecoder = new BufferingStompDecoder(STOMP_DECODER, 10);
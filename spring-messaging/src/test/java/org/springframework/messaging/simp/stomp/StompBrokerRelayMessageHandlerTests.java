@@ -18,6 +18,7 @@ package org.springframework.messaging.simp.stomp;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -43,6 +44,7 @@ import org.springframework.messaging.tcp.TcpConnectionHandler;
 import org.springframework.messaging.tcp.TcpOperations;
 import org.springframework.util.concurrent.ListenableFuture;
 import org.springframework.util.concurrent.ListenableFutureTask;
+import org.springframework.util.concurrent.SettableListenableFuture;
 
 /**
  * Unit tests for StompBrokerRelayMessageHandler.
@@ -220,6 +222,84 @@ public class StompBrokerRelayMessageHandlerTests {
 		assertSame(message, captor.getValue());
 	}
 
+	@Test
+	public void writeWatermarksWithDropStrategy() throws Exception {
+
+		this.brokerRelay.setWriteHighWatermark(10);
+		this.brokerRelay.setSendQueueCapacity(2);
+		this.brokerRelay.setSendQueueOverflowStrategy(StompBrokerRelayMessageHandler.OverflowStrategy.DROP);
+
+		this.brokerRelay.start();
+		this.brokerRelay.handleMessage(connectMessage("sess1", "joe"));
+		this.tcpClient.handleMessage(message(StompCommand.CONNECTED, null, null, null));
+		this.tcpClient.setDeferSendCompletion(true);
+
+		for (int i = 1; i <= 5; i++) {
+			this.brokerRelay.handleMessage(sendMessage("sess1", "/topic/foo", "body-" + i));
+		}
+		this.brokerRelay.handleMessage(message(StompCommand.SUBSCRIBE, "sess1", "joe", "/topic/bar"));
+
+		assertEquals(4, this.tcpClient.getSentMessages().size());
+		assertEquals(3, this.brokerRelay.getSendQueueSize());
+		assertEquals(1, this.brokerRelay.getWritePauseCount());
+
+		this.tcpClient.completePendingSends();
+		assertEquals(6, this.tcpClient.getSentMessages().size());
+		assertEquals("body-3", new String(this.tcpClient.getSentMessages().get(4).getPayload()));
+		assertEquals("body-4", new String(this.tcpClient.getSentMessages().get(5).getPayload()));
+		assertEquals(1, this.brokerRelay.getSendQueueSize());
+		assertEquals(2, this.brokerRelay.getWritePauseCount());
+
+		this.tcpClient.completePendingSends();
+		assertEquals(7, this.tcpClient.getSentMessages().size());
+		assertEquals(StompCommand.SUBSCRIBE, this.tcpClient.getSentHeaders(6).getCommand());
+		assertEquals(0, this.brokerRelay.getSendQueueSize());
+		assertTrue(this.brokerRelay.getStatsInfo().contains("DROPPED(1)"));
+		assertEquals(2, this.brokerRelay.getConnectionCount());
+	}
+
+	@Test
+	public void writeWatermarksWithDisconnectStrategy() throws Exception {
+
+		this.brokerRelay.setWriteHighWatermark(10);
+		this.brokerRelay.setSendQueueCapacity(1);
+
+		this.brokerRelay.start();
+		this.brokerRelay.handleMessage(connectMessage("sess1", "joe"));
+		this.tcpClient.handleMessage(message(StompCommand.CONNECTED, null, null, null));
+		this.tcpClient.setDeferSendCompletion(true);
+
+		for (int i = 1; i <= 4; i++) {
+			this.brokerRelay.handleMessage(sendMessage("sess1", "/topic/foo", "body-" + i));
+		}
+
+		assertEquals(4, this.tcpClient.getSentMessages().size());
+		assertEquals(1, this.brokerRelay.getConnectionCount());
+		assertEquals(0, this.brokerRelay.getSendQueueSize());
+
+		List<Message<byte[]>> messages = this.outboundChannel.getMessages();
+		StompHeaderAccessor accessor = StompHeaderAccessor.getAccessor(messages.get(messages.size() - 1), StompHeaderAccessor.class);
+		assertEquals(StompCommand.ERROR, accessor.getCommand());
+		assertEquals("sess1", accessor.getSessionId());
+	}
+
+	@Test
+	public void writeWatermarksNotAppliedByDefault() throws Exception {
+
+		this.brokerRelay.start();
+		this.brokerRelay.handleMessage(connectMessage("sess1", "joe"));
+		this.tcpClient.handleMessage(message(StompCommand.CONNECTED, null, null, null));
+		this.tcpClient.setDeferSendCompletion(true);
+
+		for (int i = 1; i <= 5; i++) {
+			this.brokerRelay.handleMessage(sendMessage("sess1", "/topic/foo", "body-" + i));
+		}
+
+		assertEquals(7, this.tcpClient.getSentMessages().size());
+		assertEquals(0, this.brokerRelay.getWritePauseCount());
+		assertFalse(this.brokerRelay.getStatsInfo().contains("flow control"));
+	}
+
 	private Message<byte[]> connectMessage(String sessionId, String user) {
 		StompHeaderAccessor headers = StompHeaderAccessor.create(StompCommand.CONNECT);
 		headers.setSessionId(sessionId);
@@ -243,6 +323,14 @@ public class StompBrokerRelayMessageHandlerTests {
 	}
 
 
+	private Message<byte[]> sendMessage(String sessionId, String destination, String payload) {
+		StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SEND);
+		accessor.setSessionId(sessionId);
+		accessor.setDestination(destination);
+		return MessageBuilder.createMessage(payload.getBytes(StandardCharsets.UTF_8), accessor.getMessageHeaders());
+	}
+
+
 	private static ListenableFutureTask<Void> getVoidFuture() {
 		ListenableFutureTask<Void> futureTask = new ListenableFutureTask<>(new Callable<Void>() {
 			@Override
@@ -277,6 +365,14 @@ public class StompBrokerRelayMessageHandlerTests {
 			return this.connection.getMessages();
 		}
 
+		public void setDeferSendCompletion(boolean deferSendCompletion) {
+			this.connection.setDeferSendCompletion(deferSendCompletion);
+		}
+
+		public void completePendingSends() {
+			this.connection.completePendingSends();
+		}
+
 		public StompHeaderAccessor getSentHeaders(int index) {
 			assertTrue("Size: " + getSentMessages().size(), getSentMessages().size() > index);
 			Message<byte[]> message = getSentMessages().get(index);
@@ -315,14 +411,33 @@ public class StompBrokerRelayMessageHandlerTests {
 
 		private final List<Message<byte[]>> messages = new ArrayList<>();
 
+		private final List<SettableListenableFuture<Void>> pendingSends = new ArrayList<>();
+
+		private boolean deferSendCompletion;
+
 
 		public List<Message<byte[]>> getMessages() {
 			return this.messages;
 		}
 
+		public void setDeferSendCompletion(boolean deferSendCompletion) {
+			this.deferSendCompletion = deferSendCompletion;
+		}
+
+		public void completePendingSends() {
+			List<SettableListenableFuture<Void>> futures = new ArrayList<>(this.pendingSends);
+			this.pendingSends.clear();
+			futures.forEach(future -> future.set(null));
+		}
+
 		@Override
 		public ListenableFuture<Void> send(Message<byte[]> message) {
 			this.messages.add(message);
+			if (this.deferSendCompletion) {
+				SettableListenableFuture<Void> future = new SettableListenableFuture<>();
+				this.pendingSends.add(future);
+				return future;
+			}
 			return getVoidFuture();
 		}
 
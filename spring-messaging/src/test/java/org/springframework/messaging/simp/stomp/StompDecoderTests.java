@@ -18,6 +18,7 @@ package org.springframework.messaging.simp.stomp;
 
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import org.junit.Test;
@@ -28,6 +29,7 @@ import org.springframework.util.InvalidMimeTypeException;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 /**
  * Test fixture for {@link StompDecoder}.
@@ -248,6 +250,36 @@ public class StompDecoderTests {
 		assertEquals(SimpMessageType.HEARTBEAT, StompHeaderAccessor.wrap(messages.get(0)).getMessageType());
 	}
 
+	@Test
+	public void decodeFramesWithSharedHeaderValues() {
+		Message<byte[]> frame1 = decode("SEND\ndestination:/topic/foo\nreceipt:r1\n\nPayload1\0");
+		Message<byte[]> frame2 = decode("SEND\ndestination:/topic/foo\nreceipt:r2\n\nPayload2\0");
+		StompHeaderAccessor headers1 = StompHeaderAccessor.wrap(frame1);
+		StompHeaderAccessor headers2 = StompHeaderAccessor.wrap(frame2);
+
+		assertEquals("/topic/foo", headers2.getDestination());
+		assertSame(headers1.getDestination(), headers2.getDestination());
+		assertEquals("r1", headers1.getReceipt());
+		assertEquals("r2", headers2.getReceipt());
+		assertEquals("Payload2", new String(frame2.getPayload()));
+	}
+
+	@Test
+	public void decodeFrameFromDirectBuffer() {
+		byte[] bytes = "SEND\ndestination:/topic/a\\cb\nkey:va\u00e9\n\nPayload\0".getBytes(StandardCharsets.UTF_8);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+		buffer.put(bytes);
+		buffer.flip();
+
+		Message<byte[]> frame = decode(buffer);
+		StompHeaderAccessor headers = StompHeaderAccessor.wrap(frame);
+
+		assertEquals(StompCommand.SEND, headers.getCommand());
+		assertEquals("/topic/a:b", headers.getDestination());
+		assertEquals("va\u00e9", headers.getFirstNativeHeader("key"));
+		assertEquals("Payload", new String(frame.getPayload()));
+	}
+
 	private void assertIncompleteDecode(String partialFrame) {
 		ByteBuffer buffer = ByteBuffer.wrap(partialFrame.getBytes());
 		assertNull(decode(buffer));
@@ -16,12 +16,16 @@
 
 package org.springframework.messaging.simp.stomp;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.junit.Test;
 
 import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.support.MessageBuilder;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -88,4 +92,49 @@ public class StompEncoderTests {
 				new String(encoder.encode(frame)));
 	}
 
+	@Test
+	public void encodeMessageFramesWithSharedEncoding() {
+		AtomicReference<Object> sharedEncoding = new AtomicReference<>();
+		byte[] payload = "Message body".getBytes();
+
+		assertEquals("MESSAGE\ndestination:/topic/a\\cb\nsubscription:s1\nmessage-id:m1\n" +
+				"content-length:12\n\nMessage body\0",
+				new String(encoder.encode(createMessageFrame(payload, sharedEncoding, "/topic/a:b", "s1", "m1"))));
+		assertNotNull(sharedEncoding.get());
+
+		Object shared = sharedEncoding.get();
+		assertEquals("MESSAGE\ndestination:/topic/a\\cb\nsubscription:s\\n2\nmessage-id:m2\n" +
+				"content-length:12\n\nMessage body\0",
+				new String(encoder.encode(createMessageFrame(payload, sharedEncoding, "/topic/a:b", "s\n2", "m2"))));
+		assertTrue(shared == sharedEncoding.get());
+	}
+
+	@Test
+	public void encodeMessageFrameWithSharedEncodingAndChangedHeaders() {
+		AtomicReference<Object> sharedEncoding = new AtomicReference<>();
+		byte[] payload = "Message body".getBytes();
+		encoder.encode(createMessageFrame(payload, sharedEncoding, "/topic/a", "s1", "m1"));
+
+		assertEquals("MESSAGE\ndestination:/topic/b\nsubscription:s2\nmessage-id:m2\n" +
+				"content-length:12\n\nMessage body\0",
+				new String(encoder.encode(createMessageFrame(payload, sharedEncoding, "/topic/b", "s2", "m2"))));
+		assertEquals("MESSAGE\ndestination:/topic/a\nsubscription:s3\nmessage-id:m3\n" +
+				"content-length:5\n\nOther\0",
+				new String(encoder.encode(createMessageFrame("Other".getBytes(), sharedEncoding, "/topic/a", "s3", "m3"))));
+		assertEquals("MESSAGE\ndestination:/topic/a\nsubscription:s4\nmessage-id:m4\n" +
+				"content-length:12\n\nMessage body\0",
+				new String(encoder.encode(createMessageFrame(payload, sharedEncoding, "/topic/a", "s4", "m4"))));
+	}
+
+	private Message<byte[]> createMessageFrame(byte[] payload, AtomicReference<Object> sharedEncoding,
+			String destination, String subscriptionId, String messageId) {
+
+		StompHeaderAccessor headers = StompHeaderAccessor.create(StompCommand.MESSAGE);
+		headers.setDestination(destination);
+		headers.setSubscriptionId(subscriptionId);
+		headers.setMessageId(messageId);
+		headers.setHeader(SimpMessageHeaderAccessor.SHARED_ENCODING_HEADER, sharedEncoding);
+		return MessageBuilder.createMessage(payload, headers.getMessageHeaders());
+	}
+
 }
@@ -187,4 +187,126 @@ public class MultiServerUserRegistryTests {
 		assertEquals(0, this.registry.getUserCount());
 	}
 
+	@Test
+	public void incrementalUpdates() throws Exception {
+		TestSimpUser joe = new TestSimpUser("joe");
+		TestSimpSession session1 = new TestSimpSession("sess1");
+		session1.addSubscriptions(new TestSimpSubscription("sub1", "/dest1"));
+		joe.addSessions(session1);
+		Set<SimpUser> users = new HashSet<>(Collections.singleton(joe));
+		SimpUserRegistry remoteUserRegistry = mock(SimpUserRegistry.class);
+		when(remoteUserRegistry.getUsers()).thenReturn(users);
+		MultiServerUserRegistry remoteRegistry = new MultiServerUserRegistry(remoteUserRegistry);
+
+		byte[] full = remoteRegistry.getLocalRegistryUpdate();
+		assertNull(this.registry.addRemoteRegistryUpdate(full, 20000));
+		assertEquals(1, this.registry.getUserCount());
+		assertEquals(1, this.registry.findSubscriptions(s -> s.getDestination().equals("/dest1")).size());
+
+		// Subscribe, connect another user, and disconnect
+		session1.addSubscriptions(new TestSimpSubscription("sub2", "/dest2"));
+		TestSimpUser jane = new TestSimpUser("jane");
+		jane.addSessions(new TestSimpSession("sess2"));
+		users.add(jane);
+		TestSimpUser jack = new TestSimpUser("jack");
+		jack.addSessions(new TestSimpSession("sess3"));
+		users.add(jack);
+		assertNull(this.registry.addRemoteRegistryUpdate(remoteRegistry.getLocalRegistryUpdate(), 20000));
+		assertEquals(3, this.registry.getUserCount());
+
+		users.remove(jack);
+		byte[] delta = remoteRegistry.getLocalRegistryUpdate();
+		assertTrue(delta.length < full.length);
+		assertNull(this.registry.addRemoteRegistryUpdate(delta, 20000));
+
+		assertEquals(2, this.registry.getUserCount());
+		assertNull(this.registry.getUser("jack"));
+		SimpUser user = this.registry.getUser("joe");
+		assertNotNull(user);
+		SimpSession session = user.getSession("sess1");
+		assertNotNull(session);
+		assertSame(user, session.getUser());
+		assertEquals(2, session.getSubscriptions().size());
+		assertEquals(1, this.registry.findSubscriptions(s -> s.getDestination().equals("/dest2")).size());
+		assertNotNull(this.registry.getUser("jane").getSession("sess2"));
+
+		// Unchanged: digest only
+		byte[] digest = remoteRegistry.getLocalRegistryUpdate();
+		assertTrue(digest.length < delta.length);
+		assertNull(this.registry.addRemoteRegistryUpdate(digest, 20000));
+		assertEquals(2, this.registry.getUserCount());
+	}
+
+	@Test
+	public void incrementalUpdateWithSequenceGap() throws Exception {
+		TestSimpUser joe = new TestSimpUser("joe");
+		joe.addSessions(new TestSimpSession("sess1"), new TestSimpSession("sess2"), new TestSimpSession("sess3"));
+		Set<SimpUser> users = new HashSet<>(Collections.singleton(joe));
+		SimpUserRegistry remoteUserRegistry = mock(SimpUserRegistry.class);
+		when(remoteUserRegistry.getUsers()).thenReturn(users);
+		MultiServerUserRegistry remoteRegistry = new MultiServerUserRegistry(remoteUserRegistry);
+		assertNull(this.registry.addRemoteRegistryUpdate(remoteRegistry.getLocalRegistryUpdate(), 20000));
+
+		// Missed update
+		TestSimpUser jane = new TestSimpUser("jane");
+		jane.addSessions(new TestSimpSession("sess4"));
+		users.add(jane);
+		remoteRegistry.getLocalRegistryUpdate();
+
+		TestSimpUser jack = new TestSimpUser("jack");
+		jack.addSessions(new TestSimpSession("sess5"));
+		users.add(jack);
+		byte[] request = this.registry.addRemoteRegistryUpdate(remoteRegistry.getLocalRegistryUpdate(), 20000);
+		assertNotNull(request);
+		assertEquals(1, this.registry.getUserCount());
+
+		// Still out of sync until a full update is received
+		assertNotNull(this.registry.addRemoteRegistryUpdate(remoteRegistry.getLocalRegistryUpdate(), 20000));
+
+		assertNull(remoteRegistry.addRemoteRegistryUpdate(request, 20000));
+		byte[] full = remoteRegistry.getLocalRegistryUpdate();
+		assertNull(this.registry.addRemoteRegistryUpdate(full, 20000));
+		assertEquals(3, this.registry.getUserCount());
+		assertNull(this.registry.addRemoteRegistryUpdate(remoteRegistry.getLocalRegistryUpdate(), 20000));
+	}
+
+	@Test
+	public void incrementalUpdateFromUnknownRegistry() throws Exception {
+		TestSimpUser joe = new TestSimpUser("joe");
+		joe.addSessions(new TestSimpSession("sess1"));
+		SimpUserRegistry remoteUserRegistry = mock(SimpUserRegistry.class);
+		when(remoteUserRegistry.getUsers()).thenReturn(Collections.singleton(joe));
+		MultiServerUserRegistry remoteRegistry = new MultiServerUserRegistry(remoteUserRegistry);
+		remoteRegistry.getLocalRegistryUpdate();
+
+		byte[] request = this.registry.addRemoteRegistryUpdate(remoteRegistry.getLocalRegistryUpdate(), 20000);
+		assertNotNull(request);
+		assertEquals(0, this.registry.getUserCount());
+
+		// Requests for other registries are ignored
+		MultiServerUserRegistry otherRegistry = new MultiServerUserRegistry(mock(SimpUserRegistry.class));
+		otherRegistry.addRemoteRegistryUpdate(request, 20000);
+		assertTrue(UserRegistryDeltaCodec.decode(otherRegistry.getLocalRegistryUpdate()).type ==
+				UserRegistryDeltaCodec.FULL);
+		assertTrue(UserRegistryDeltaCodec.decode(otherRegistry.getLocalRegistryUpdate()).type ==
+				UserRegistryDeltaCodec.DIGEST);
+	}
+
+	@Test
+	public void purgeExpiredIncrementalRegistries() throws Exception {
+		TestSimpUser joe = new TestSimpUser("joe");
+		joe.addSessions(new TestSimpSession("sess1"));
+		SimpUserRegistry remoteUserRegistry = mock(SimpUserRegistry.class);
+		when(remoteUserRegistry.getUsers()).thenReturn(Collections.singleton(joe));
+		MultiServerUserRegistry remoteRegistry = new MultiServerUserRegistry(remoteUserRegistry);
+
+		this.registry.addRemoteRegistryUpdate(remoteRegistry.getLocalRegistryUpdate(), -1);
+		assertEquals(1, this.registry.getUserCount());
+		this.registry.purgeExpiredRegistries();
+		assertEquals(0, this.registry.getUserCount());
+
+		// Deltas are not applied after the registry expired
+		assertNotNull(this.registry.addRemoteRegistryUpdate(remoteRegistry.getLocalRegistryUpdate(), 20000));
+	}
+
 }
@@ -39,6 +39,7 @@ import org.springframework.messaging.converter.MessageConverter;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.broker.BrokerAvailabilityEvent;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.scheduling.TaskScheduler;
 
 /**
@@ -131,6 +132,69 @@ public class UserRegistryMessageHandlerTests {
 		assertNotNull(remoteRegistry.getUser("jane"));
 	}
 
+	@Test
+	public void broadcastIncrementalUpdates() throws Exception {
+
+		TestSimpUser simpUser1 = new TestSimpUser("joe");
+		TestSimpUser simpUser2 = new TestSimpUser("jane");
+		simpUser1.addSessions(new TestSimpSession("123"));
+		simpUser2.addSessions(new TestSimpSession("456"));
+
+		HashSet<SimpUser> simpUsers = new HashSet<>(Arrays.asList(simpUser1, simpUser2));
+		when(this.localRegistry.getUsers()).thenReturn(simpUsers);
+
+		this.handler.setIncrementalSync(true);
+		Runnable task = getUserRegistryTask();
+		task.run();
+		simpUsers.remove(simpUser2);
+		task.run();
+
+		ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+		verify(this.brokerChannel, times(2)).send(captor.capture());
+
+		MultiServerUserRegistry remoteRegistry = new MultiServerUserRegistry(mock(SimpUserRegistry.class));
+		UserRegistryMessageHandler remoteHandler = new UserRegistryMessageHandler(remoteRegistry,
+				new SimpMessagingTemplate(this.brokerChannel), "/topic/simp-user-registry", this.taskScheduler);
+
+		Message<?> message = captor.getAllValues().get(0);
+		assertEquals("/topic/simp-user-registry", SimpMessageHeaderAccessor.getDestination(message.getHeaders()));
+		assertTrue(message.getPayload() instanceof byte[]);
+		remoteHandler.handleMessage(message);
+		assertEquals(2, remoteRegistry.getUserCount());
+
+		remoteHandler.handleMessage(captor.getAllValues().get(1));
+		assertEquals(1, remoteRegistry.getUserCount());
+		assertNotNull(remoteRegistry.getUser("joe"));
+		assertNull(remoteRegistry.getUser("jane"));
+		verify(this.brokerChannel, times(2)).send(any());
+	}
+
+	@Test
+	public void handleIncrementalUpdateWithSequenceGap() throws Exception {
+
+		TestSimpUser simpUser = new TestSimpUser("joe");
+		simpUser.addSessions(new TestSimpSession("123"), new TestSimpSession("456"));
+		SimpUserRegistry remoteUserRegistry = mock(SimpUserRegistry.class);
+		when(remoteUserRegistry.getUsers()).thenReturn(Collections.singleton(simpUser));
+
+		MultiServerUserRegistry remoteRegistry = new MultiServerUserRegistry(remoteUserRegistry);
+		remoteRegistry.getLocalRegistryUpdate();
+		simpUser.addSessions(new TestSimpSession("789"));
+		Message<byte[]> message = MessageBuilder.withPayload(remoteRegistry.getLocalRegistryUpdate()).build();
+
+		this.handler.handleMessage(message);
+
+		ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+		verify(this.brokerChannel).send(captor.capture());
+		assertEquals("/topic/simp-user-registry", SimpMessageHeaderAccessor.getDestination(captor.getValue().getHeaders()));
+		assertNull(remoteRegistry.addRemoteRegistryUpdate((byte[]) captor.getValue().getPayload(), 20000));
+		Message<byte[]> full = MessageBuilder.withPayload(remoteRegistry.getLocalRegistryUpdate()).build();
+
+		this.handler.handleMessage(full);
+		assertEquals(1, this.multiServerRegistry.getUserCount());
+		assertEquals(3, this.multiServerRegistry.getUser("joe").getSessions().size());
+	}
+
 	@Test
 	public void handleMessage() throws Exception {
 
@@ -16,6 +16,16 @@
 
 package org.springframework.messaging.support;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
@@ -23,6 +33,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.mockito.ArgumentCaptor;
+import org.mockito.BDDMockito;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -187,6 +198,109 @@ public class ExecutorSubscribableChannelTests {
 	}
 
 
+	@Test
+	public void sendWithLanes() {
+		TaskExecutor executor = mock(TaskExecutor.class);
+		ExecutorSubscribableChannel testChannel = new ExecutorSubscribableChannel(executor);
+		testChannel.setLaneCount(4);
+		testChannel.setLaneKeyResolver(message -> message.getHeaders().get("key"));
+		List<Object> payloads = new ArrayList<>();
+		testChannel.subscribe(message -> payloads.add(message.getPayload()));
+
+		testChannel.send(MessageBuilder.withPayload("a").setHeader("key", "s1").build());
+		testChannel.send(MessageBuilder.withPayload("b").setHeader("key", "s1").build());
+		testChannel.send(MessageBuilder.withPayload("c").setHeader("key", "s1").build());
+		verify(executor, times(1)).execute(this.runnableCaptor.capture());
+		assertEquals(3, Arrays.stream(testChannel.getLaneQueueSizes()).sum());
+
+		this.runnableCaptor.getValue().run();
+		assertEquals(Arrays.asList("a", "b", "c"), payloads);
+		assertEquals(0, Arrays.stream(testChannel.getLaneQueueSizes()).sum());
+		assertThat(testChannel.getLaneStatsInfo(), containsString("handled = 3"));
+	}
+
+	@Test
+	public void sendWithLanesAndNoKey() {
+		TaskExecutor executor = mock(TaskExecutor.class);
+		ExecutorSubscribableChannel testChannel = new ExecutorSubscribableChannel(executor);
+		testChannel.setLaneCount(4);
+		testChannel.setLaneKeyResolver(message -> message.getHeaders().get("key"));
+		testChannel.subscribe(this.handler);
+
+		testChannel.send(this.message);
+		testChannel.send(this.message);
+		verify(executor, times(2)).execute(BDDMockito.isA(Runnable.class));
+		assertEquals(0, Arrays.stream(testChannel.getLaneQueueSizes()).sum());
+	}
+
+	@Test
+	public void laneContinuesAfterFailure() {
+		TaskExecutor executor = mock(TaskExecutor.class);
+		ExecutorSubscribableChannel testChannel = new ExecutorSubscribableChannel(executor);
+		testChannel.setLaneCount(1);
+		testChannel.setLaneKeyResolver(message -> "s1");
+		Message<?> failing = MessageBuilder.withPayload("fail").build();
+		willThrow(new IllegalStateException("Fake exception")).given(this.handler).handleMessage(failing);
+		testChannel.subscribe(this.handler);
+
+		testChannel.send(failing);
+		testChannel.send(this.message);
+		verify(executor).execute(this.runnableCaptor.capture());
+		this.runnableCaptor.getValue().run();
+		verify(this.handler).handleMessage(failing);
+		verify(this.handler).handleMessage(this.message);
+	}
+
+	@Test
+	public void laneRejectedByExecutor() {
+		TaskExecutor executor = mock(TaskExecutor.class);
+		willThrow(new RejectedExecutionException()).given(executor).execute(BDDMockito.isA(Runnable.class));
+		ExecutorSubscribableChannel testChannel = new ExecutorSubscribableChannel(executor);
+		testChannel.setLaneCount(1);
+		testChannel.setLaneKeyResolver(message -> "s1");
+		testChannel.subscribe(this.handler);
+		try {
+			testChannel.send(this.message);
+			fail("Expected MessageDeliveryException");
+		}
+		catch (MessageDeliveryException ex) {
+			assertThat(ex.getCause(), instanceOf(RejectedExecutionException.class));
+		}
+		assertEquals(0, testChannel.getLaneQueueSizes()[0]);
+	}
+
+	@Test
+	public void lanesPreserveOrderPerKey() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			ExecutorSubscribableChannel testChannel = new ExecutorSubscribableChannel(executor);
+			testChannel.setLaneCount(3);
+			testChannel.setLaneKeyResolver(message -> message.getHeaders().get("key"));
+			Map<Object, List<Object>> received = new ConcurrentHashMap<>();
+			CountDownLatch latch = new CountDownLatch(1000);
+			testChannel.subscribe(message -> {
+				received.computeIfAbsent(message.getHeaders().get("key"), key -> new ArrayList<>())
+						.add(message.getPayload());
+				latch.countDown();
+			});
+			for (int i = 0; i < 1000; i++) {
+				testChannel.send(MessageBuilder.withPayload(i / 10).setHeader("key", i % 10).build());
+			}
+			assertTrue(latch.await(10, TimeUnit.SECONDS));
+			for (int key = 0; key < 10; key++) {
+				List<Object> payloads = received.get(key);
+				assertEquals(100, payloads.size());
+				for (int i = 0; i < 100; i++) {
+					assertEquals(i, payloads.get(i));
+				}
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+
 	private abstract static class AbstractTestInterceptor implements ChannelInterceptor, ExecutorChannelInterceptor {
 
 		private AtomicInteger counter = new AtomicInteger();
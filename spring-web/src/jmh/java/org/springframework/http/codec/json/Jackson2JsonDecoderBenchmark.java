@@ -0,0 +1,140 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+
+/**
+ * Benchmarks for {@link Jackson2JsonDecoder} decoding a JSON array that
+ * arrives as a sequence of {@link DataBuffer} chunks.
+ *
+ * @author Daniel Ferreira
+ */
+@BenchmarkMode(Mode.Throughput)
+public class Jackson2JsonDecoderBenchmark {
+
+	@Benchmark
+	public List<Object> decodeToFlux(DecoderState state) {
+		return state.decoder.decode(state.chunks(), state.elementType,
+				MediaType.APPLICATION_JSON, Collections.emptyMap()).collectList().block();
+	}
+
+	@Benchmark
+	public Object decodeToMono(DecoderState state) {
+		return state.decoder.decodeToMono(state.chunks(), state.listType,
+				MediaType.APPLICATION_JSON, Collections.emptyMap()).block();
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class DecoderState {
+
+		@Param({"10", "1000"})
+		public int elementCount;
+
+		@Param({"1024"})
+		public int chunkSize;
+
+		public Jackson2JsonDecoder decoder;
+
+		public ResolvableType elementType = ResolvableType.forClass(Item.class);
+
+		public ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, Item.class);
+
+		private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+		private List<byte[]> chunks;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.decoder = new Jackson2JsonDecoder();
+			StringBuilder json = new StringBuilder("[");
+			for (int i = 0; i < this.elementCount; i++) {
+				if (i > 0) {
+					json.append(',');
+				}
+				json.append("{\"id\":").append(i).append(",\"name\":\"item-").append(i)
+						.append("\",\"active\":").append(i % 2 == 0).append('}');
+			}
+			json.append(']');
+			byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+			this.chunks = new ArrayList<>();
+			for (int offset = 0; offset < bytes.length; offset += this.chunkSize) {
+				byte[] chunk = new byte[Math.min(this.chunkSize, bytes.length - offset)];
+				System.arraycopy(bytes, offset, chunk, 0, chunk.length);
+				this.chunks.add(chunk);
+			}
+		}
+
+		public Flux<DataBuffer> chunks() {
+			return Flux.fromIterable(this.chunks).map(this.bufferFactory::wrap);
+		}
+	}
+
+
+	public static class Item {
+
+		private long id;
+
+		private String name;
+
+		private boolean active;
+
+		public long getId() {
+			return this.id;
+		}
+
+		public void setId(long id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public boolean isActive() {
+			return this.active;
+		}
+
+		public void setActive(boolean active) {
+			this.active = active;
+		}
+	}
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.http.server.PathContainer;
+
+/**
+ * Benchmarks for {@link PathPattern#matches(PathContainer)} and
+ * {@link PathPattern#matchAndExtract(PathContainer)}.
+ *
+ * @author Daniel Ferreira
+ */
+@BenchmarkMode(Mode.Throughput)
+public class PathPatternBenchmark {
+
+	@Benchmark
+	public void matchAll(PatternState state, Blackhole bh) {
+		for (PathPattern pattern : state.patterns) {
+			for (PathContainer path : state.paths) {
+				bh.consume(pattern.matches(path));
+			}
+		}
+	}
+
+	@Benchmark
+	public void matchAndExtract(PatternState state, Blackhole bh) {
+		bh.consume(state.variablePattern.matchAndExtract(state.variablePath));
+	}
+
+	@Benchmark
+	public void parseAndMatch(PatternState state, Blackhole bh) {
+		PathPattern pattern = state.parser.parse("/api/users/{userId}/orders/{orderId}");
+		bh.consume(pattern.matches(state.variablePath));
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class PatternState {
+
+		public PathPatternParser parser;
+
+		public List<PathPattern> patterns;
+
+		public List<PathContainer> paths;
+
+		public PathPattern variablePattern;
+
+		public PathContainer variablePath;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.parser = new PathPatternParser();
+			this.patterns = new ArrayList<>();
+			for (String pattern : new String[] {"/api/users", "/api/users/{userId}",
+					"/api/users/{userId}/orders/{orderId}", "/static/**", "/api/*/settings",
+					"/docs/{*path}", "/api/users/{userId:\\d+}/avatar.{ext}"}) {
+				this.patterns.add(this.parser.parse(pattern));
+			}
+			this.paths = new ArrayList<>();
+			for (String path : new String[] {"/api/users", "/api/users/42", "/api/users/42/orders/1234",
+					"/static/app/vendor/lib.js", "/api/tenants/settings", "/docs/reference/index.html",
+					"/api/users/42/avatar.png", "/not/matching/anything"}) {
+				this.paths.add(PathContainer.parsePath(path));
+			}
+			this.variablePattern = this.parser.parse("/api/users/{userId}/orders/{orderId}");
+			this.variablePath = PathContainer.parsePath("/api/users/42/orders/1234");
+		}
+	}
+
+}
@@ -93,6 +93,21 @@ public class ResourceHttpMessageWriter implements HttpMessageWriter<Resource> {
 	}
 
 
+	/**
+	 * Set the size up to which file resources and regions are memory-mapped
+	 * when they cannot be written with zero-copy file transfer, i.e. when the
+	 * response is not a {@link ZeroCopyHttpOutputMessage}.
+	 * <p>By default this is set to 0, i.e. resources are never mapped.
+	 * @since 5.2
+	 * @see ResourceEncoder#setMemoryMapThreshold
+	 * @see ResourceRegionEncoder#setMemoryMapThreshold
+	 */
+	public void setMemoryMapThreshold(int memoryMapThreshold) {
+		this.encoder.setMemoryMapThreshold(memoryMapThreshold);
+		this.regionEncoder.setMemoryMapThreshold(memoryMapThreshold);
+	}
+
+
 	@Override
 	public boolean canWrite(ResolvableType elementType, @Nullable MediaType mediaType) {
 		return this.encoder.canEncode(elementType, mediaType);
@@ -30,6 +30,7 @@ import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.core.BridgeMethodResolver;
 import org.springframework.core.GenericTypeResolver;
+import org.springframework.core.MethodAccessor;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.AnnotatedElementUtils;
@@ -75,6 +76,8 @@ public class HandlerMethod {
 
 	private final Method bridgedMethod;
 
+	private final MethodAccessor methodAccessor;
+
 	private final MethodParameter[] parameters;
 
 	@Nullable
@@ -101,6 +104,7 @@ public class HandlerMethod {
 		this.beanType = ClassUtils.getUserClass(bean);
 		this.method = method;
 		this.bridgedMethod = BridgeMethodResolver.findBridgedMethod(method);
+		this.methodAccessor = MethodAccessor.forMethod(this.bridgedMethod);
 		this.parameters = initMethodParameters();
 		evaluateResponseStatus();
 	}
@@ -117,6 +121,7 @@ public class HandlerMethod {
 		this.beanType = ClassUtils.getUserClass(bean);
 		this.method = bean.getClass().getMethod(methodName, parameterTypes);
 		this.bridgedMethod = BridgeMethodResolver.findBridgedMethod(this.method);
+		this.methodAccessor = MethodAccessor.forMethod(this.bridgedMethod);
 		this.parameters = initMethodParameters();
 		evaluateResponseStatus();
 	}
@@ -139,6 +144,7 @@ public class HandlerMethod {
 		this.beanType = ClassUtils.getUserClass(beanType);
 		this.method = method;
 		this.bridgedMethod = BridgeMethodResolver.findBridgedMethod(method);
+		this.methodAccessor = MethodAccessor.forMethod(this.bridgedMethod);
 		this.parameters = initMethodParameters();
 		evaluateResponseStatus();
 	}
@@ -153,6 +159,7 @@ public class HandlerMethod {
 		this.beanType = handlerMethod.beanType;
 		this.method = handlerMethod.method;
 		this.bridgedMethod = handlerMethod.bridgedMethod;
+		this.methodAccessor = handlerMethod.methodAccessor;
 		this.parameters = handlerMethod.parameters;
 		this.responseStatus = handlerMethod.responseStatus;
 		this.responseStatusReason = handlerMethod.responseStatusReason;
@@ -170,6 +177,7 @@ public class HandlerMethod {
 		this.beanType = handlerMethod.beanType;
 		this.method = handlerMethod.method;
 		this.bridgedMethod = handlerMethod.bridgedMethod;
+		this.methodAccessor = handlerMethod.methodAccessor;
 		this.parameters = handlerMethod.parameters;
 		this.responseStatus = handlerMethod.responseStatus;
 		this.responseStatusReason = handlerMethod.responseStatusReason;
@@ -230,6 +238,15 @@ public class HandlerMethod {
 		return this.bridgedMethod;
 	}
 
+	/**
+	 * Return the accessor for invoking the {@linkplain #getBridgedMethod() bridged method},
+	 * resolved once for this handler method and shared with copies of it.
+	 * @since 5.2
+	 */
+	protected MethodAccessor getMethodAccessor() {
+		return this.methodAccessor;
+	}
+
 	/**
 	 * Return the method parameters for this handler method.
 	 */
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.method.support;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.lang.Nullable;
+import org.springframework.web.method.HandlerMethod;
+
+/**
+ * The argument resolvers and return value handler selected for a given
+ * {@link HandlerMethod}, resolved once and then shared by all invocations of
+ * that method, so that invocations don't have to select them again from the
+ * {@link HandlerMethodArgumentResolverComposite} and
+ * {@link HandlerMethodReturnValueHandlerComposite} for every request.
+ *
+ * <p>A binding only applies to {@link InvocableHandlerMethod} instances that
+ * share the method parameters of the {@code HandlerMethod} it was created
+ * for and that use the same composites; other invocations select resolvers
+ * and handlers as usual.
+ *
+ * @author Daniel Ferreira
+ * @since 5.2
+ * @see InvocableHandlerMethod#setHandlerMethodBinding
+ */
+public final class HandlerMethodBinding {
+
+	private final MethodParameter[] parameters;
+
+	private final HandlerMethodArgumentResolverComposite argumentResolvers;
+
+	private final HandlerMethodArgumentResolver[] parameterResolvers;
+
+	private final Class<?> returnValueType;
+
+	@Nullable
+	private final HandlerMethodReturnValueHandlerComposite returnValueHandlers;
+
+	@Nullable
+	private final HandlerMethodReturnValueHandler returnValueHandler;
+
+
+	/**
+	 * Create a binding for the given handler method.
+	 * @param handlerMethod the handler method
+	 * @param argumentResolvers the resolvers to select argument resolvers from
+	 * @param returnValueHandlers the handlers to select the return value handler
+	 * from, or {@code null} if return values are not handled
+	 */
+	public HandlerMethodBinding(HandlerMethod handlerMethod, HandlerMethodArgumentResolverComposite argumentResolvers,
+			@Nullable HandlerMethodReturnValueHandlerComposite returnValueHandlers) {
+
+		this.parameters = handlerMethod.getMethodParameters();
+		this.argumentResolvers = argumentResolvers;
+		this.parameterResolvers = new HandlerMethodArgumentResolver[this.parameters.length];
+		for (int i = 0; i < this.parameters.length; i++) {
+			this.parameterResolvers[i] = selectArgumentResolver(this.parameters[i], argumentResolvers);
+		}
+		this.returnValueType = handlerMethod.getReturnType().getParameterType();
+		this.returnValueHandlers = returnValueHandlers;
+		this.returnValueHandler = (returnValueHandlers != null ?
+				selectReturnValueHandler(handlerMethod.getReturnType(), returnValueHandlers) : null);
+	}
+
+	@Nullable
+	private static HandlerMethodArgumentResolver selectArgumentResolver(
+			MethodParameter parameter, HandlerMethodArgumentResolverComposite composite) {
+
+		for (HandlerMethodArgumentResolver resolver : composite.getResolvers()) {
+			if (resolver.supportsParameter(parameter)) {
+				return resolver;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Select the handler for return values of the declared return type, unless
+	 * the choice may depend on whether a value is asynchronous, in which case
+	 * the handler is selected for each return value instead.
+	 */
+	@Nullable
+	private static HandlerMethodReturnValueHandler selectReturnValueHandler(
+			MethodParameter returnType, HandlerMethodReturnValueHandlerComposite composite) {
+
+		boolean hasAsyncHandlers = false;
+		for (HandlerMethodReturnValueHandler handler : composite.getHandlers()) {
+			if (handler instanceof AsyncHandlerMethodReturnValueHandler) {
+				hasAsyncHandlers = true;
+			}
+		}
+		for (HandlerMethodReturnValueHandler handler : composite.getHandlers()) {
+			if (handler.supportsReturnType(returnType)) {
+				return (!hasAsyncHandlers || handler instanceof AsyncHandlerMethodReturnValueHandler ? handler : null);
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * Whether this binding was created for a handler method with the given
+	 * method parameters, i.e. for the same {@code HandlerMethod} or a copy.
+	 */
+	public boolean isBindingFor(MethodParameter[] parameters) {
+		return (this.parameters == parameters);
+	}
+
+	/**
+	 * Return the argument resolvers selected for the method parameters, if the
+	 * given composite is the one the binding was created with.
+	 * @param argumentResolvers the resolvers in use for the invocation
+	 * @return the resolvers by parameter index, with {@code null} elements for
+	 * parameters that no resolver supports; or {@code null} to select resolvers
+	 * from the composite
+	 */
+	@Nullable
+	HandlerMethodArgumentResolver[] getArgumentResolvers(HandlerMethodArgumentResolverComposite argumentResolvers) {
+		return (this.argumentResolvers == argumentResolvers ? this.parameterResolvers : null);
+	}
+
+	/**
+	 * Return the handler selected for the given return value, if it can be
+	 * determined without going through the given composite again.
+	 * <p>This is the case when the composite is the one the binding was created
+	 * with and the value is {@code null} or an instance of exactly the declared
+	 * return type, since handlers are selected based on the actual type of the
+	 * return value otherwise.
+	 * @param returnValue the value returned from the handler method
+	 * @param returnValueHandlers the handlers in use for the invocation
+	 * @return the handler to use, or {@code null} to select it from the composite
+	 */
+	@Nullable
+	public HandlerMethodReturnValueHandler getReturnValueHandler(@Nullable Object returnValue,
+			HandlerMethodReturnValueHandlerComposite returnValueHandlers) {
+
+		if (this.returnValueHandler == null || this.returnValueHandlers != returnValueHandlers ||
+				(returnValue != null && returnValue.getClass() != this.returnValueType)) {
+			return null;
+		}
+		return this.returnValueHandler;
+	}
+
+}
@@ -24,8 +24,8 @@ import org.springframework.core.DefaultParameterNameDiscoverer;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
-import org.springframework.util.ReflectionUtils;
 import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.support.SessionStatus;
 import org.springframework.web.bind.support.WebDataBinderFactory;
@@ -53,6 +53,9 @@ public class InvocableHandlerMethod extends HandlerMethod {
 
 	private ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
 
+	@Nullable
+	private HandlerMethodBinding binding;
+
 
 	/**
 	 * Create an instance from a {@code HandlerMethod}.
@@ -107,6 +110,31 @@ public class InvocableHandlerMethod extends HandlerMethod {
 		this.parameterNameDiscoverer = parameterNameDiscoverer;
 	}
 
+	/**
+	 * Set the resolvers and handlers selected in advance for this handler method,
+	 * typically shared by all invocations of the method.
+	 * <p>The binding is used as long as it was created with the resolvers and
+	 * handlers configured on this instance; otherwise these are selected
+	 * through the composites for each invocation.
+	 * @param binding the binding created for the {@link HandlerMethod} this
+	 * instance was created from
+	 * @since 5.2
+	 */
+	public void setHandlerMethodBinding(HandlerMethodBinding binding) {
+		Assert.isTrue(binding.isBindingFor(getMethodParameters()),
+				"HandlerMethodBinding was created for a different handler method");
+		this.binding = binding;
+	}
+
+	/**
+	 * Return the binding set via {@link #setHandlerMethodBinding}, if any.
+	 * @since 5.2
+	 */
+	@Nullable
+	protected HandlerMethodBinding getHandlerMethodBinding() {
+		return this.binding;
+	}
+
 
 	/**
 	 * Invoke the method after resolving its argument values in the context of the given request.
@@ -151,6 +179,8 @@ public class InvocableHandlerMethod extends HandlerMethod {
 			return EMPTY_ARGS;
 		}
 		MethodParameter[] parameters = getMethodParameters();
+		HandlerMethodArgumentResolver[] boundResolvers =
+				(this.binding != null ? this.binding.getArgumentResolvers(this.resolvers) : null);
 		Object[] args = new Object[parameters.length];
 		for (int i = 0; i < parameters.length; i++) {
 			MethodParameter parameter = parameters[i];
@@ -159,11 +189,18 @@ public class InvocableHandlerMethod extends HandlerMethod {
 			if (args[i] != null) {
 				continue;
 			}
-			if (!this.resolvers.supportsParameter(parameter)) {
+			HandlerMethodArgumentResolver resolver;
+			if (boundResolvers != null) {
+				resolver = boundResolvers[i];
+			}
+			else {
+				resolver = (this.resolvers.supportsParameter(parameter) ? this.resolvers : null);
+			}
+			if (resolver == null) {
 				throw new IllegalStateException(formatArgumentError(parameter, "No suitable resolver"));
 			}
 			try {
-				args[i] = this.resolvers.resolveArgument(parameter, mavContainer, request, this.dataBinderFactory);
+				args[i] = resolver.resolveArgument(parameter, mavContainer, request, this.dataBinderFactory);
 			}
 			catch (Exception ex) {
 				// Leave stack trace for later, exception may actually be resolved and handled..
@@ -184,9 +221,8 @@ public class InvocableHandlerMethod extends HandlerMethod {
 	 */
 	@Nullable
 	protected Object doInvoke(Object... args) throws Exception {
-		ReflectionUtils.makeAccessible(getBridgedMethod());
 		try {
-			return getBridgedMethod().invoke(getBean(), args);
+			return getMethodAccessor().invoke(getBean(), args);
 		}
 		catch (IllegalArgumentException ex) {
 			assertTargetBean(getBridgedMethod(), getBean(), args);
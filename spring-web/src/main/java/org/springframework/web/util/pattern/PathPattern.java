@@ -453,6 +453,10 @@ public class PathPattern implements Comparable<PathPattern> {
 		return this.capturedVariableCount;
 	}
 
+	boolean isCaseSensitive() {
+		return this.caseSensitive;
+	}
+
 	String toChainString() {
 		StringBuilder buf = new StringBuilder();
 		PathElement pe = this.head;
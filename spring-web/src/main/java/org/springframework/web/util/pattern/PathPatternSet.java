@@ -0,0 +1,243 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.PathContainer.Element;
+import org.springframework.http.server.PathContainer.PathSegment;
+import org.springframework.lang.Nullable;
+
+/**
+ * An immutable set of {@link PathPattern PathPatterns} compiled into a shared
+ * trie of their path elements, in order to find all patterns matching a path
+ * without testing each pattern in turn.
+ *
+ * <p>Separators and literal segments of the patterns are shared between
+ * patterns with a common prefix, while segments with wildcards or captured
+ * variables go through a shared dynamic branch, and "rest of the path"
+ * elements ({@code /**} and {@code /{*path}}) end their branch. A lookup
+ * walks the elements of a {@link PathContainer} once through the trie to find
+ * the candidate patterns, and then confirms each candidate with
+ * {@link PathPattern#matches(PathContainer)}, so the result is always the
+ * same as matching every pattern individually.
+ *
+ * <p>Matching patterns are returned in {@link PathPattern#SPECIFICITY_COMPARATOR}
+ * order, which is computed once when the set is created.
+ *
+ * @author Daniel Ferreira
+ * @since 5.2
+ */
+public final class PathPatternSet {
+
+	private final List<PathPattern> patterns;
+
+	private final Node root = new Node();
+
+
+	/**
+	 * Create a set for the given patterns.
+	 * @param patterns the patterns to compile; duplicates are ignored
+	 */
+	public PathPatternSet(Collection<PathPattern> patterns) {
+		List<PathPattern> sorted = new ArrayList<>(new LinkedHashSet<>(patterns));
+		sorted.sort(PathPattern.SPECIFICITY_COMPARATOR);
+		this.patterns = Collections.unmodifiableList(sorted);
+		for (int i = 0; i < sorted.size(); i++) {
+			addPattern(sorted.get(i), i);
+		}
+	}
+
+	private void addPattern(PathPattern pattern, int index) {
+		Node node = this.root;
+		PathElement element = pattern.getHeadSection();
+		while (element != null) {
+			if (element instanceof WildcardTheRestPathElement || element instanceof CaptureTheRestPathElement) {
+				node.rest.set(index);
+				return;
+			}
+			else if (element instanceof SeparatorPathElement) {
+				node = node.getOrCreateSeparator();
+			}
+			else if (element instanceof LiteralPathElement) {
+				node = node.getOrCreateLiteral(new String(element.getChars()), pattern.isCaseSensitive());
+			}
+			else {
+				node = node.getOrCreateDynamic();
+			}
+			element = element.next;
+		}
+		node.terminal.set(index);
+	}
+
+
+	/**
+	 * Return the patterns of this set, in specificity order.
+	 */
+	public List<PathPattern> getPatterns() {
+		return this.patterns;
+	}
+
+	/**
+	 * Whether this set contains any patterns.
+	 */
+	public boolean isEmpty() {
+		return this.patterns.isEmpty();
+	}
+
+	/**
+	 * Return all patterns matching the given path.
+	 * @param path the path to match
+	 * @return the matching patterns, sorted by
+	 * {@link PathPattern#SPECIFICITY_COMPARATOR}, or an empty list if none match
+	 */
+	public List<PathPattern> match(PathContainer path) {
+		if (this.patterns.isEmpty()) {
+			return Collections.emptyList();
+		}
+		BitSet candidates = new BitSet(this.patterns.size());
+		collect(this.root, path.elements(), 0, candidates);
+		if (candidates.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<PathPattern> result = new ArrayList<>(candidates.cardinality());
+		for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+			PathPattern pattern = this.patterns.get(i);
+			if (pattern.matches(path)) {
+				result.add(pattern);
+			}
+		}
+		return result;
+	}
+
+	private void collect(Node node, List<Element> elements, int index, BitSet candidates) {
+		candidates.or(node.rest);
+		if (index == elements.size()) {
+			candidates.or(node.terminal);
+			if (node.dynamic != null) {
+				// A trailing wildcard or regex segment may match an empty remainder
+				candidates.or(node.dynamic.terminal);
+			}
+			return;
+		}
+		Element element = elements.get(index);
+		if (element instanceof PathSegment) {
+			String value = ((PathSegment) element).valueToMatch();
+			if (node.literals != null) {
+				Node child = node.literals.get(value);
+				if (child != null) {
+					collect(child, elements, index + 1, candidates);
+				}
+			}
+			if (node.caseInsensitiveLiterals != null) {
+				Node child = node.caseInsensitiveLiterals.get(toLowerCase(value));
+				if (child != null) {
+					collect(child, elements, index + 1, candidates);
+				}
+			}
+		}
+		else {
+			if (index + 1 == elements.size()) {
+				// Optional trailing separator
+				candidates.or(node.terminal);
+			}
+			if (node.separator != null) {
+				collect(node.separator, elements, index + 1, candidates);
+			}
+		}
+		if (node.dynamic != null) {
+			// Regex segments may also match the empty value of a separator
+			collect(node.dynamic, elements, index + 1, candidates);
+		}
+	}
+
+	private static String toLowerCase(String value) {
+		// Same per-character conversion as LiteralPathElement
+		char[] chars = value.toCharArray();
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = Character.toLowerCase(chars[i]);
+		}
+		return new String(chars);
+	}
+
+
+	@Override
+	public String toString() {
+		return "PathPatternSet " + this.patterns;
+	}
+
+
+	private static final class Node {
+
+		@Nullable
+		private Node separator;
+
+		@Nullable
+		private Map<String, Node> literals;
+
+		@Nullable
+		private Map<String, Node> caseInsensitiveLiterals;
+
+		@Nullable
+		private Node dynamic;
+
+		private final BitSet terminal = new BitSet();
+
+		private final BitSet rest = new BitSet();
+
+		Node getOrCreateSeparator() {
+			if (this.separator == null) {
+				this.separator = new Node();
+			}
+			return this.separator;
+		}
+
+		Node getOrCreateLiteral(String text, boolean caseSensitive) {
+			// Case-insensitive literal elements hold their text in lower case already
+			Map<String, Node> map;
+			if (caseSensitive) {
+				if (this.literals == null) {
+					this.literals = new HashMap<>(4);
+				}
+				map = this.literals;
+			}
+			else {
+				if (this.caseInsensitiveLiterals == null) {
+					this.caseInsensitiveLiterals = new HashMap<>(4);
+				}
+				map = this.caseInsensitiveLiterals;
+			}
+			return map.computeIfAbsent(text, key -> new Node());
+		}
+
+		Node getOrCreateDynamic() {
+			if (this.dynamic == null) {
+				this.dynamic = new Node();
+			}
+			return this.dynamic;
+		}
+	}
+
+}
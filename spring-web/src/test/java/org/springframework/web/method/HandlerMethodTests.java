@@ -0,0 +1,59 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.method;
+
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.web.method.support.InvocableHandlerMethod;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link HandlerMethod}.
+ *
+ * @author Daniel Ferreira
+ */
+public class HandlerMethodTests {
+
+	@Test
+	public void methodAccessorSharedWithCopies() throws Exception {
+		StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+		beanFactory.addBean("handler", new Handler());
+		Method method = Handler.class.getMethod("handle", String.class);
+
+		HandlerMethod handlerMethod = new HandlerMethod("handler", beanFactory, method);
+		HandlerMethod resolved = handlerMethod.createWithResolvedBean();
+		InvocableHandlerMethod invocable = new InvocableHandlerMethod(resolved);
+
+		assertSame(method, handlerMethod.getMethodAccessor().getMethod());
+		assertSame(handlerMethod.getMethodAccessor(), resolved.getMethodAccessor());
+		assertSame(handlerMethod.getMethodAccessor(), invocable.getMethodAccessor());
+		assertEquals("foo", handlerMethod.getMethodAccessor().invoke(resolved.getBean(), "foo"));
+	}
+
+
+	public static class Handler {
+
+		public String handle(String value) {
+			return value;
+		}
+	}
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.method.support;
+
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.ResolvableMethod;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link HandlerMethodBinding}.
+ *
+ * @author Daniel Ferreira
+ */
+public class HandlerMethodBindingTests {
+
+	private final HandlerMethodArgumentResolverComposite resolvers = new HandlerMethodArgumentResolverComposite();
+
+	private final HandlerMethodReturnValueHandlerComposite handlers = new HandlerMethodReturnValueHandlerComposite();
+
+
+	@Test
+	public void argumentResolvers() {
+		StubArgumentResolver intResolver = new StubArgumentResolver(Integer.class);
+		StubArgumentResolver stringResolver = new StubArgumentResolver(String.class);
+		this.resolvers.addResolvers(intResolver, stringResolver);
+
+		HandlerMethodBinding binding = new HandlerMethodBinding(
+				getHandlerMethod(Integer.class, String.class), this.resolvers, null);
+
+		assertArrayEquals(new HandlerMethodArgumentResolver[] {intResolver, stringResolver},
+				binding.getArgumentResolvers(this.resolvers));
+		assertNull(binding.getArgumentResolvers(new HandlerMethodArgumentResolverComposite()));
+	}
+
+	@Test
+	public void argumentResolversWithUnsupportedParameter() {
+		StubArgumentResolver stringResolver = new StubArgumentResolver(String.class);
+		this.resolvers.addResolver(stringResolver);
+
+		HandlerMethodBinding binding = new HandlerMethodBinding(
+				getHandlerMethod(Integer.class, String.class), this.resolvers, null);
+
+		assertArrayEquals(new HandlerMethodArgumentResolver[] {null, stringResolver},
+				binding.getArgumentResolvers(this.resolvers));
+	}
+
+	@Test
+	public void returnValueHandler() {
+		HandlerMethodReturnValueHandler handler = mock(HandlerMethodReturnValueHandler.class);
+		when(handler.supportsReturnType(any())).thenReturn(true);
+		this.handlers.addHandler(handler);
+
+		HandlerMethodBinding binding = new HandlerMethodBinding(
+				getHandlerMethod(Integer.class, String.class), this.resolvers, this.handlers);
+
+		assertSame(handler, binding.getReturnValueHandler("value", this.handlers));
+		assertSame(handler, binding.getReturnValueHandler(null, this.handlers));
+		assertNull(binding.getReturnValueHandler("value", new HandlerMethodReturnValueHandlerComposite()));
+	}
+
+	@Test
+	public void returnValueHandlerForSubtypeOfDeclaredType() {
+		HandlerMethodReturnValueHandler handler = mock(HandlerMethodReturnValueHandler.class);
+		when(handler.supportsReturnType(any())).thenReturn(true);
+		this.handlers.addHandler(handler);
+
+		HandlerMethodBinding binding = new HandlerMethodBinding(getHandlerMethod(), this.resolvers, this.handlers);
+
+		assertSame(handler, binding.getReturnValueHandler(new Object(), this.handlers));
+		assertNull(binding.getReturnValueHandler("value", this.handlers));
+	}
+
+	@Test
+	public void returnValueHandlerWithAsyncHandlers() {
+		AsyncHandlerMethodReturnValueHandler asyncHandler = mock(AsyncHandlerMethodReturnValueHandler.class);
+		HandlerMethodReturnValueHandler handler = mock(HandlerMethodReturnValueHandler.class);
+		when(handler.supportsReturnType(any())).thenReturn(true);
+		this.handlers.addHandler(asyncHandler);
+		this.handlers.addHandler(handler);
+
+		HandlerMethodBinding binding = new HandlerMethodBinding(
+				getHandlerMethod(Integer.class, String.class), this.resolvers, this.handlers);
+
+		assertNull(binding.getReturnValueHandler("value", this.handlers));
+	}
+
+
+	private HandlerMethod getHandlerMethod(Class<?>... argTypes) {
+		Method method = ResolvableMethod.on(Handler.class).argTypes(argTypes).resolveMethod();
+		return new HandlerMethod(new Handler(), method);
+	}
+
+
+	@SuppressWarnings("unused")
+	private static class Handler {
+
+		public String handle(Integer intArg, String stringArg) {
+			return intArg + "-" + stringArg;
+		}
+
+		public Object handle() {
+			return new Object();
+		}
+	}
+
+}
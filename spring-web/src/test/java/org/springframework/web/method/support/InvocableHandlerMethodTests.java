@@ -87,6 +87,52 @@ public class InvocableHandlerMethodTests {
 		}
 	}
 
+	@Test
+	public void resolveArgWithBinding() throws Exception {
+		this.composite.addResolver(new StubArgumentResolver(99));
+		this.composite.addResolver(new StubArgumentResolver("value"));
+
+		InvocableHandlerMethod handlerMethod = getInvocable(Integer.class, String.class);
+		handlerMethod.setHandlerMethodBinding(new HandlerMethodBinding(handlerMethod, this.composite, null));
+		Object value = handlerMethod.invokeForRequest(request, null);
+
+		assertEquals(1, getStubResolver(0).getResolvedParameters().size());
+		assertEquals(1, getStubResolver(1).getResolvedParameters().size());
+		assertEquals("99-value", value);
+	}
+
+	@Test
+	public void resolveArgWithBindingForOtherResolvers() throws Exception {
+		this.composite.addResolver(new StubArgumentResolver(99));
+		this.composite.addResolver(new StubArgumentResolver("value"));
+
+		InvocableHandlerMethod handlerMethod = getInvocable(Integer.class, String.class);
+		HandlerMethodArgumentResolverComposite otherResolvers = new HandlerMethodArgumentResolverComposite();
+		handlerMethod.setHandlerMethodBinding(new HandlerMethodBinding(handlerMethod, otherResolvers, null));
+
+		assertEquals("99-value", handlerMethod.invokeForRequest(request, null));
+	}
+
+	@Test
+	public void cannotResolveArgWithBinding() throws Exception {
+		InvocableHandlerMethod handlerMethod = getInvocable(Integer.class, String.class);
+		handlerMethod.setHandlerMethodBinding(new HandlerMethodBinding(handlerMethod, this.composite, null));
+		try {
+			handlerMethod.invokeForRequest(request, null);
+			fail("Expected exception");
+		}
+		catch (IllegalStateException ex) {
+			assertTrue(ex.getMessage().contains("Could not resolve parameter [0]"));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void bindingForOtherHandlerMethod() throws Exception {
+		InvocableHandlerMethod handlerMethod = getInvocable(Integer.class, String.class);
+		InvocableHandlerMethod otherHandlerMethod = getInvocable(Integer.class, String.class);
+		handlerMethod.setHandlerMethodBinding(new HandlerMethodBinding(otherHandlerMethod, this.composite, null));
+	}
+
 	@Test
 	public void resolveProvidedArg() throws Exception {
 		Object value = getInvocable(Integer.class, String.class).invokeForRequest(request, null, 99, "value");
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import org.springframework.http.server.PathContainer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link PathPatternSet}.
+ *
+ * @author Daniel Ferreira
+ */
+public class PathPatternSetTests {
+
+	private static final List<String> PATTERNS = Arrays.asList(
+			"", "/", "/foo", "/foo/", "/foo/bar", "/foo/{id}", "/foo/{id:\\d+}", "/foo/*", "/foo/b?r",
+			"/foo/*.json", "/foo/{name}.{ext}", "/foo/**", "/foo/{*rest}", "/foo/bar/baz", "/foo/*/baz",
+			"/**", "/{*all}", "/FOO/Bar", "/foo//bar", "/a/b/c/d", "/a/*/c/*", "/a/{x}/{y}/d", "/*", "/*/bar");
+
+	private static final List<String> PATHS = Arrays.asList(
+			"", "/", "/foo", "/foo/", "/FOO", "/foo/bar", "/foo/bar/", "/foo/Bar", "/foo/123", "/foo/bar.json",
+			"/foo/bar/baz", "/foo/bar/baz/", "/foo/x/baz", "/foo//bar", "/foo;a=b/bar;c=d", "/a/b/c/d",
+			"/a/x/c/y", "/a/x/c", "/other", "/other/bar", "/foo/bar/baz/qux", "//", "/foo/bar%2Fbaz");
+
+
+	@Test
+	public void matchesSameAsIndividualPatterns() {
+		assertSameAsIndividualPatterns(new PathPatternParser());
+	}
+
+	@Test
+	public void matchesSameAsIndividualPatternsCaseInsensitive() {
+		PathPatternParser parser = new PathPatternParser();
+		parser.setCaseSensitive(false);
+		assertSameAsIndividualPatterns(parser);
+	}
+
+	@Test
+	public void matchesSameAsIndividualPatternsWithoutOptionalTrailingSeparator() {
+		PathPatternParser parser = new PathPatternParser();
+		parser.setMatchOptionalTrailingSeparator(false);
+		assertSameAsIndividualPatterns(parser);
+	}
+
+	@Test
+	public void matchesOrderedBySpecificity() {
+		PathPatternSet set = createSet(new PathPatternParser(), "/**", "/foo/{id}", "/foo/bar", "/foo/*");
+
+		assertEquals(Arrays.asList("/foo/bar", "/foo/{id}", "/foo/*", "/**"), match(set, "/foo/bar"));
+		assertEquals(Arrays.asList("/foo/{id}", "/foo/*", "/**"), match(set, "/foo/baz"));
+		assertEquals(Collections.singletonList("/**"), match(set, "/bar"));
+	}
+
+	@Test
+	public void ignoresDuplicates() {
+		PathPatternSet set = createSet(new PathPatternParser(), "/foo", "/foo", "/bar");
+
+		assertEquals(2, set.getPatterns().size());
+		assertEquals(Collections.singletonList("/foo"), match(set, "/foo"));
+	}
+
+	@Test
+	public void emptySet() {
+		PathPatternSet set = new PathPatternSet(Collections.emptyList());
+
+		assertTrue(set.isEmpty());
+		assertTrue(set.match(PathContainer.parsePath("/foo")).isEmpty());
+	}
+
+
+	private void assertSameAsIndividualPatterns(PathPatternParser parser) {
+		PathPatternSet set = createSet(parser, PATTERNS.toArray(new String[0]));
+		for (String path : PATHS) {
+			PathContainer container = PathContainer.parsePath(path);
+			List<PathPattern> expected = new ArrayList<>();
+			for (PathPattern pattern : set.getPatterns()) {
+				if (pattern.matches(container)) {
+					expected.add(pattern);
+				}
+			}
+			assertEquals("Matches for '" + path + "'", expected, set.match(container));
+		}
+	}
+
+	private PathPatternSet createSet(PathPatternParser parser, String... patterns) {
+		return new PathPatternSet(Arrays.stream(patterns).map(parser::parse).collect(Collectors.toList()));
+	}
+
+	private List<String> match(PathPatternSet set, String path) {
+		return set.match(PathContainer.parsePath(path)).stream()
+				.map(PathPattern::getPatternString).collect(Collectors.toList());
+	}
+
+}
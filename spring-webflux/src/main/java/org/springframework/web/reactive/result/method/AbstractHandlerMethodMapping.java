@@ -19,6 +19,7 @@ package org.springframework.web.reactive.result.method;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -37,6 +38,7 @@ import reactor.core.publisher.Mono;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.core.MethodIntrospector;
+import org.springframework.http.server.PathContainer;
 import org.springframework.http.server.RequestPath;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -47,6 +49,8 @@ import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.reactive.HandlerMapping;
 import org.springframework.web.reactive.handler.AbstractHandlerMapping;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternSet;
 
 /**
  * Abstract base class for {@link HandlerMapping} implementations that define
@@ -288,23 +292,17 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	 */
 	@Override
 	public Mono<HandlerMethod> getHandlerInternal(ServerWebExchange exchange) {
-		this.mappingRegistry.acquireReadLock();
+		HandlerMethod handlerMethod;
 		try {
-			HandlerMethod handlerMethod;
-			try {
-				handlerMethod = lookupHandlerMethod(exchange);
-			}
-			catch (Exception ex) {
-				return Mono.error(ex);
-			}
-			if (handlerMethod != null) {
-				handlerMethod = handlerMethod.createWithResolvedBean();
-			}
-			return Mono.justOrEmpty(handlerMethod);
+			handlerMethod = lookupHandlerMethod(exchange);
 		}
-		finally {
-			this.mappingRegistry.releaseReadLock();
+		catch (Exception ex) {
+			return Mono.error(ex);
+		}
+		if (handlerMethod != null) {
+			handlerMethod = handlerMethod.createWithResolvedBean();
 		}
+		return Mono.justOrEmpty(handlerMethod);
 	}
 
 	/**
@@ -317,8 +315,10 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	 */
 	@Nullable
 	protected HandlerMethod lookupHandlerMethod(ServerWebExchange exchange) throws Exception {
+		MappingSnapshot snapshot = this.mappingRegistry.getSnapshot();
+		PathContainer lookupPath = exchange.getRequest().getPath().pathWithinApplication();
 		List<Match> matches = new ArrayList<>();
-		addMatchingMappings(this.mappingRegistry.getMappings().keySet(), matches, exchange);
+		addMatchingMappings(snapshot.getCandidateMappings(lookupPath), matches, exchange, snapshot);
 
 		if (!matches.isEmpty()) {
 			Comparator<Match> comparator = new MatchComparator(getMappingComparator(exchange));
@@ -344,15 +344,17 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return bestMatch.handlerMethod;
 		}
 		else {
-			return handleNoMatch(this.mappingRegistry.getMappings().keySet(), exchange);
+			return handleNoMatch(snapshot.getMappings().keySet(), exchange);
 		}
 	}
 
-	private void addMatchingMappings(Collection<T> mappings, List<Match> matches, ServerWebExchange exchange) {
+	private void addMatchingMappings(Collection<T> mappings, List<Match> matches,
+			ServerWebExchange exchange, MappingSnapshot snapshot) {
+
 		for (T mapping : mappings) {
 			T match = getMatchingMapping(mapping, exchange);
 			if (match != null) {
-				matches.add(new Match(match, this.mappingRegistry.getMappings().get(mapping)));
+				matches.add(new Match(match, snapshot.getMappings().get(mapping)));
 			}
 		}
 	}
@@ -413,6 +415,21 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	@Nullable
 	protected abstract T getMappingForMethod(Method method, Class<?> handlerType);
 
+	/**
+	 * Return the path patterns of a mapping, if the mapping can only match
+	 * request paths (within the application) that match one of these patterns.
+	 * <p>Mappings are indexed by these patterns in a {@link PathPatternSet},
+	 * so that a lookup only checks the mappings with a matching pattern, along
+	 * with all mappings that have no patterns.
+	 * <p>The default implementation returns an empty set, i.e. every mapping
+	 * is checked for every request.
+	 * @param mapping the mapping to get the patterns for
+	 * @since 5.2
+	 */
+	protected Set<PathPattern> getMappingPathPatterns(T mapping) {
+		return Collections.emptySet();
+	}
+
 	/**
 	 * Check if a mapping matches the current request and return a (potentially
 	 * new) mapping with conditions relevant to the current request.
@@ -436,6 +453,9 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	 * A registry that maintains all mappings to handler methods, exposing methods
 	 * to perform lookups and providing concurrent access.
 	 *
+	 * <p>Registrations are guarded by a lock, while request lookups go through an
+	 * immutable {@link MappingSnapshot} that is rebuilt on first use after changes.
+	 *
 	 * <p>Package-private for testing purposes.
 	 */
 	class MappingRegistry {
@@ -448,6 +468,9 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 		private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
 
+		@Nullable
+		private volatile MappingSnapshot snapshot;
+
 		/**
 		 * Return all mappings and handler methods. Not thread-safe.
 		 * @see #acquireReadLock()
@@ -464,6 +487,31 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return this.corsLookup.get(original != null ? original : handlerMethod);
 		}
 
+		/**
+		 * Return an immutable snapshot of the current mappings, building it if
+		 * mappings have been registered or unregistered since the last call.
+		 * Thread-safe for concurrent use, without locking once built.
+		 * @since 5.2
+		 */
+		public MappingSnapshot getSnapshot() {
+			MappingSnapshot snapshot = this.snapshot;
+			if (snapshot == null) {
+				acquireReadLock();
+				try {
+					snapshot = this.snapshot;
+					if (snapshot == null) {
+						// Published while holding the read lock, so not racing with a writer's reset
+						snapshot = new MappingSnapshot(this.mappingLookup);
+						this.snapshot = snapshot;
+					}
+				}
+				finally {
+					releaseReadLock();
+				}
+			}
+			return snapshot;
+		}
+
 		/**
 		 * Acquire the read lock when using getMappings and getMappingsByUrl.
 		 */
@@ -492,6 +540,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				}
 
 				this.registry.put(mapping, new MappingRegistration<>(mapping, handlerMethod));
+				this.snapshot = null;
 			}
 			finally {
 				this.readWriteLock.writeLock().unlock();
@@ -518,6 +567,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 				this.mappingLookup.remove(definition.getMapping());
 				this.corsLookup.remove(definition.getHandlerMethod());
+				this.snapshot = null;
 			}
 			finally {
 				this.readWriteLock.writeLock().unlock();
@@ -526,6 +576,70 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	}
 
 
+	/**
+	 * An immutable copy of the mappings of a {@link MappingRegistry}, with
+	 * their path patterns compiled into a {@link PathPatternSet}, used by
+	 * request lookups without locking.
+	 *
+	 * <p>Package-private for testing purposes.
+	 */
+	class MappingSnapshot {
+
+		private final Map<T, HandlerMethod> mappingLookup;
+
+		private final List<T> mappings;
+
+		private final PathPatternSet patternSet;
+
+		private final Map<PathPattern, int[]> patternLookup = new HashMap<>();
+
+		private final BitSet unrestricted = new BitSet();
+
+		MappingSnapshot(Map<T, HandlerMethod> mappingLookup) {
+			this.mappingLookup = Collections.unmodifiableMap(new LinkedHashMap<>(mappingLookup));
+			this.mappings = new ArrayList<>(this.mappingLookup.keySet());
+			Map<PathPattern, BitSet> indexes = new LinkedHashMap<>();
+			for (int i = 0; i < this.mappings.size(); i++) {
+				Set<PathPattern> patterns = getMappingPathPatterns(this.mappings.get(i));
+				if (patterns.isEmpty()) {
+					this.unrestricted.set(i);
+				}
+				for (PathPattern pattern : patterns) {
+					indexes.computeIfAbsent(pattern, key -> new BitSet()).set(i);
+				}
+			}
+			indexes.forEach((pattern, bits) -> this.patternLookup.put(pattern, bits.stream().toArray()));
+			this.patternSet = new PathPatternSet(indexes.keySet());
+		}
+
+		/**
+		 * Return all mappings and handler methods.
+		 */
+		public Map<T, HandlerMethod> getMappings() {
+			return this.mappingLookup;
+		}
+
+		/**
+		 * Return the mappings to check for the given lookup path, in registration
+		 * order: those with a pattern matching the path, and those without patterns.
+		 * @see #getMappingPathPatterns(Object)
+		 */
+		public List<T> getCandidateMappings(PathContainer lookupPath) {
+			BitSet candidates = (BitSet) this.unrestricted.clone();
+			for (PathPattern pattern : this.patternSet.match(lookupPath)) {
+				for (int index : this.patternLookup.get(pattern)) {
+					candidates.set(index);
+				}
+			}
+			List<T> result = new ArrayList<>(candidates.cardinality());
+			for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+				result.add(this.mappings.get(i));
+			}
+			return result;
+		}
+	}
+
+
 	private static class MappingRegistration<T> {
 
 		private final T mapping;
@@ -17,7 +17,9 @@
 package org.springframework.web.reactive.result.method;
 
 import java.lang.reflect.Method;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.Set;
 
 import org.hamcrest.Matchers;
 import org.junit.Before;
@@ -91,6 +93,19 @@ public class HandlerMethodMappingTests {
 		assertEquals(this.method1, ((HandlerMethod) result.block()).getMethod());
 	}
 
+	@Test
+	public void patternMatchAmongOtherPatterns() throws Exception {
+		this.mapping.registerMapping("/bar/{id}", this.handler, this.method1);
+		this.mapping.registerMapping("/foo/{id}", this.handler, this.method2);
+
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/foo/1"));
+		Mono<Object> result = this.mapping.getHandler(exchange);
+		assertEquals(this.method2, ((HandlerMethod) result.block()).getMethod());
+
+		exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/baz/1"));
+		assertNull(this.mapping.getHandler(exchange).block());
+	}
+
 	@Test
 	public void ambiguousMatch() throws Exception {
 		this.mapping.registerMapping("/f?o", this.handler, this.method1);
@@ -155,6 +170,11 @@ public class HandlerMethodMappingTests {
 			return methodName.startsWith("handler") ? methodName : null;
 		}
 
+		@Override
+		protected Set<PathPattern> getMappingPathPatterns(String pattern) {
+			return Collections.singleton(this.parser.parse(pattern));
+		}
+
 		@Override
 		protected String getMatchingMapping(String pattern, ServerWebExchange exchange) {
 			PathContainer lookupPath = exchange.getRequest().getPath().pathWithinApplication();
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.mvc.method.annotation;
+
+import java.lang.reflect.Method;
+import javax.servlet.http.HttpServletRequest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+
+/**
+ * Benchmarks for
+ * {@link org.springframework.web.servlet.handler.AbstractHandlerMethodMapping#lookupHandlerMethod}
+ * with a mix of direct and pattern-based request mappings.
+ *
+ * @author Daniel Ferreira
+ */
+@BenchmarkMode(Mode.Throughput)
+public class HandlerMethodMappingBenchmark {
+
+	@Benchmark
+	public HandlerMethod lookupDirectPath(MappingState state) throws Exception {
+		return state.mapping.lookup(state.directPath, state.directRequest);
+	}
+
+	@Benchmark
+	public HandlerMethod lookupPatternPath(MappingState state) throws Exception {
+		return state.mapping.lookup(state.patternPath, state.patternRequest);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class MappingState {
+
+		@Param({"100", "1000", "4000"})
+		public int mappingCount;
+
+		public BenchmarkHandlerMapping mapping;
+
+		public String directPath;
+
+		public String patternPath;
+
+		public MockHttpServletRequest directRequest;
+
+		public MockHttpServletRequest patternRequest;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.mapping = new BenchmarkHandlerMapping();
+			Method method = ReflectionUtils.findMethod(Controller.class, "handle");
+			Controller controller = new Controller();
+			for (int i = 0; i < this.mappingCount; i++) {
+				if (i % 2 == 0) {
+					this.mapping.registerMapping(RequestMappingInfo.paths("/api/resource" + i)
+							.methods(RequestMethod.GET).build(), controller, method);
+				}
+				else {
+					this.mapping.registerMapping(RequestMappingInfo.paths("/api/resource" + i + "/{id}/items/{itemId}")
+							.methods(RequestMethod.GET).build(), controller, method);
+				}
+			}
+			this.directPath = "/api/resource" + (this.mappingCount / 2 - this.mappingCount / 2 % 2);
+			this.patternPath = "/api/resource" + (this.mappingCount - 1) + "/42/items/7";
+			this.directRequest = new MockHttpServletRequest("GET", this.directPath);
+			this.patternRequest = new MockHttpServletRequest("GET", this.patternPath);
+		}
+	}
+
+
+	public static class BenchmarkHandlerMapping extends RequestMappingHandlerMapping {
+
+		public HandlerMethod lookup(String lookupPath, HttpServletRequest request) throws Exception {
+			return lookupHandlerMethod(lookupPath, request);
+		}
+	}
+
+
+	public static class Controller {
+
+		public String handle() {
+			return "ok";
+		}
+	}
+
+}
@@ -363,14 +363,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	@Override
 	protected HandlerMethod getHandlerInternal(HttpServletRequest request) throws Exception {
 		String lookupPath = getUrlPathHelper().getLookupPathForRequest(request);
-		this.mappingRegistry.acquireReadLock();
-		try {
-			HandlerMethod handlerMethod = lookupHandlerMethod(lookupPath, request);
-			return (handlerMethod != null ? handlerMethod.createWithResolvedBean() : null);
-		}
-		finally {
-			this.mappingRegistry.releaseReadLock();
-		}
+		HandlerMethod handlerMethod = lookupHandlerMethod(lookupPath, request);
+		return (handlerMethod != null ? handlerMethod.createWithResolvedBean() : null);
 	}
 
 	/**
@@ -384,14 +378,15 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	 */
 	@Nullable
 	protected HandlerMethod lookupHandlerMethod(String lookupPath, HttpServletRequest request) throws Exception {
+		MappingSnapshot snapshot = this.mappingRegistry.getSnapshot();
 		List<Match> matches = new ArrayList<>();
-		List<T> directPathMatches = this.mappingRegistry.getMappingsByUrl(lookupPath);
+		List<T> directPathMatches = snapshot.getMappingsByUrl(lookupPath);
 		if (directPathMatches != null) {
-			addMatchingMappings(directPathMatches, matches, request);
+			addMatchingMappings(directPathMatches, matches, request, snapshot);
 		}
 		if (matches.isEmpty()) {
-			// No choice but to go through all mappings...
-			addMatchingMappings(this.mappingRegistry.getMappings().keySet(), matches, request);
+			// Go through all mappings whose path patterns may match...
+			addMatchingMappings(snapshot.getCandidateMappings(lookupPath), matches, request, snapshot);
 		}
 
 		if (!matches.isEmpty()) {
@@ -419,15 +414,17 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return bestMatch.handlerMethod;
 		}
 		else {
-			return handleNoMatch(this.mappingRegistry.getMappings().keySet(), lookupPath, request);
+			return handleNoMatch(snapshot.getMappings().keySet(), lookupPath, request);
 		}
 	}
 
-	private void addMatchingMappings(Collection<T> mappings, List<Match> matches, HttpServletRequest request) {
+	private void addMatchingMappings(Collection<T> mappings, List<Match> matches,
+			HttpServletRequest request, MappingSnapshot snapshot) {
+
 		for (T mapping : mappings) {
 			T match = getMatchingMapping(mapping, request);
 			if (match != null) {
-				matches.add(new Match(match, this.mappingRegistry.getMappings().get(mapping)));
+				matches.add(new Match(match, snapshot.getMappings().get(mapping)));
 			}
 		}
 	}
@@ -498,6 +495,22 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	 */
 	protected abstract Set<String> getMappingPathPatterns(T mapping);
 
+	/**
+	 * Whether the path patterns returned by {@link #getMappingPathPatterns}
+	 * fully determine the lookup paths a mapping can match, with patterns
+	 * evaluated by an {@link org.springframework.util.AntPathMatcher} against
+	 * the lookup path of this handler mapping (possibly with a file extension
+	 * or a trailing slash appended).
+	 * <p>If so, lookups index mappings by the segments of their path patterns
+	 * and only check those mappings that may match the lookup path, rather
+	 * than going through all mappings when there is no direct URL match.
+	 * <p>The default implementation returns {@code false}.
+	 * @since 5.2
+	 */
+	protected boolean supportsPathPatternIndex() {
+		return false;
+	}
+
 	/**
 	 * Check if a mapping matches the current request and return a (potentially
 	 * new) mapping with conditions relevant to the current request.
@@ -520,6 +533,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	/**
 	 * A registry that maintains all mappings to handler methods, exposing methods
 	 * to perform lookups and providing concurrent access.
+	 * <p>Registrations are guarded by a lock, while request lookups go through an
+	 * immutable {@link MappingSnapshot} that is rebuilt on first use after changes.
 	 * <p>Package-private for testing purposes.
 	 */
 	class MappingRegistry {
@@ -536,6 +551,9 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 		private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
 
+		@Nullable
+		private volatile MappingSnapshot snapshot;
+
 		/**
 		 * Return all mappings and handler methods. Not thread-safe.
 		 * @see #acquireReadLock()
@@ -568,6 +586,31 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return this.corsLookup.get(original != null ? original : handlerMethod);
 		}
 
+		/**
+		 * Return an immutable snapshot of the current mappings, building it if
+		 * mappings have been registered or unregistered since the last call.
+		 * Thread-safe for concurrent use, without locking once built.
+		 * @since 5.2
+		 */
+		public MappingSnapshot getSnapshot() {
+			MappingSnapshot snapshot = this.snapshot;
+			if (snapshot == null) {
+				acquireReadLock();
+				try {
+					snapshot = this.snapshot;
+					if (snapshot == null) {
+						// Published while holding the read lock, so not racing with a writer's reset
+						snapshot = new MappingSnapshot(this.mappingLookup, this.urlLookup);
+						this.snapshot = snapshot;
+					}
+				}
+				finally {
+					releaseReadLock();
+				}
+			}
+			return snapshot;
+		}
+
 		/**
 		 * Acquire the read lock when using getMappings and getMappingsByUrl.
 		 */
@@ -606,6 +649,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				}
 
 				this.registry.put(mapping, new MappingRegistration<>(mapping, handlerMethod, directUrls, name));
+				this.snapshot = null;
 			}
 			finally {
 				this.readWriteLock.writeLock().unlock();
@@ -673,6 +717,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				removeMappingName(definition);
 
 				this.corsLookup.remove(definition.getHandlerMethod());
+				this.snapshot = null;
 			}
 			finally {
 				this.readWriteLock.writeLock().unlock();
@@ -704,6 +749,64 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	}
 
 
+	/**
+	 * An immutable copy of the mappings of a {@link MappingRegistry}, used by
+	 * request lookups without locking.
+	 * <p>Package-private for testing purposes.
+	 */
+	class MappingSnapshot {
+
+		private final Map<T, HandlerMethod> mappingLookup;
+
+		private final Map<String, List<T>> urlLookup;
+
+		@Nullable
+		private final MappingPathIndex<T> pathIndex;
+
+		MappingSnapshot(Map<T, HandlerMethod> mappingLookup, MultiValueMap<String, T> urlLookup) {
+			this.mappingLookup = Collections.unmodifiableMap(new LinkedHashMap<>(mappingLookup));
+			Map<String, List<T>> urls = new HashMap<>(urlLookup.size());
+			urlLookup.forEach((url, mappings) -> urls.put(url, Collections.unmodifiableList(new ArrayList<>(mappings))));
+			this.urlLookup = urls;
+			this.pathIndex = (supportsPathPatternIndex() ? createPathIndex(this.mappingLookup.keySet()) : null);
+		}
+
+		private MappingPathIndex<T> createPathIndex(Set<T> mappings) {
+			MappingPathIndex<T> index = new MappingPathIndex<>();
+			int order = 0;
+			for (T mapping : mappings) {
+				index.add(mapping, order++, getMappingPathPatterns(mapping));
+			}
+			return index;
+		}
+
+		/**
+		 * Return all mappings and handler methods.
+		 */
+		public Map<T, HandlerMethod> getMappings() {
+			return this.mappingLookup;
+		}
+
+		/**
+		 * Return matches for the given URL path.
+		 */
+		@Nullable
+		public List<T> getMappingsByUrl(String urlPath) {
+			return this.urlLookup.get(urlPath);
+		}
+
+		/**
+		 * Return the mappings to check for the given lookup path: those whose
+		 * path patterns may match it if mappings are indexed by path pattern,
+		 * or all mappings otherwise.
+		 * @see #supportsPathPatternIndex()
+		 */
+		public Collection<T> getCandidateMappings(String lookupPath) {
+			return (this.pathIndex != null ? this.pathIndex.getCandidates(lookupPath) : this.mappingLookup.keySet());
+		}
+	}
+
+
 	private static class MappingRegistration<T> {
 
 		private final T mapping;
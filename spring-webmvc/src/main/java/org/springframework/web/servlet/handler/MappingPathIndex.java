@@ -0,0 +1,219 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.handler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+
+/**
+ * A segment trie over the URL path patterns of handler method mappings, used
+ * to narrow down the mappings that need to be checked for a lookup path.
+ *
+ * <p>Patterns are split into "/"-separated segments the same way as
+ * {@link org.springframework.util.AntPathMatcher} does. Literal segments are
+ * indexed by their (trimmed, lower-cased) value, any segment with a wildcard
+ * or URI variable is indexed under a shared wildcard branch, and a {@code "**"}
+ * segment matches the remainder of a path. For the last path segment, literal
+ * segments that are a prefix up to a {@code "."} are considered as well, in
+ * order to account for suffix pattern matching.
+ *
+ * <p>The index is conservative: the candidates returned for a lookup path
+ * are a superset of the mappings whose patterns can match it, so the actual
+ * matching is still performed by the mapping itself. Mappings without path
+ * patterns are returned for every lookup path.
+ *
+ * <p>Instances are not modified after the last {@link #add} call and can then
+ * be shared between threads.
+ *
+ * @author Daniel Ferreira
+ * @since 5.2
+ * @param <T> the mapping type
+ */
+final class MappingPathIndex<T> {
+
+	private static final String PATH_SEPARATOR = "/";
+
+	private static final String CATCH_ALL_SEGMENT = "**";
+
+
+	private final Node<T> root = new Node<>();
+
+	private final List<Entry<T>> unrestricted = new ArrayList<>();
+
+
+	/**
+	 * Add a mapping with the given path patterns.
+	 * @param mapping the mapping to add
+	 * @param order the registration order of the mapping, used to return
+	 * candidates in a stable order
+	 * @param patterns the path patterns of the mapping; if empty, the mapping
+	 * is considered a candidate for every lookup path
+	 */
+	public void add(T mapping, int order, Collection<String> patterns) {
+		Entry<T> entry = new Entry<>(mapping, order);
+		if (patterns.isEmpty()) {
+			this.unrestricted.add(entry);
+			return;
+		}
+		for (String pattern : patterns) {
+			addPattern(entry, pattern);
+		}
+	}
+
+	private void addPattern(Entry<T> entry, String pattern) {
+		Node<T> node = this.root;
+		for (String segment : tokenize(pattern)) {
+			if (CATCH_ALL_SEGMENT.equals(segment)) {
+				node.catchAll = append(node.catchAll, entry);
+				return;
+			}
+			node = (isWildcard(segment) ? node.getOrCreateWildcard() : node.getOrCreateLiteral(segment));
+		}
+		node.terminal = append(node.terminal, entry);
+	}
+
+	/**
+	 * Return the mappings that may match the given lookup path, in the order
+	 * in which they were added.
+	 */
+	public List<T> getCandidates(String lookupPath) {
+		List<Entry<T>> entries = new ArrayList<>(this.unrestricted);
+		collect(this.root, tokenize(lookupPath), 0, entries);
+		if (entries.isEmpty()) {
+			return Collections.emptyList();
+		}
+		if (entries.size() > 1) {
+			entries.sort(null);
+		}
+		List<T> result = new ArrayList<>(entries.size());
+		Entry<T> previous = null;
+		for (Entry<T> entry : entries) {
+			if (entry != previous) {
+				result.add(entry.mapping);
+				previous = entry;
+			}
+		}
+		return result;
+	}
+
+	private void collect(Node<T> node, String[] segments, int index, List<Entry<T>> result) {
+		result.addAll(node.catchAll);
+		if (index == segments.length) {
+			result.addAll(node.terminal);
+			// "/foo/*" matches "/foo/"
+			if (node.wildcard != null) {
+				result.addAll(node.wildcard.terminal);
+			}
+			return;
+		}
+		String segment = segments[index];
+		if (node.literals != null) {
+			Node<T> child = node.literals.get(segment);
+			if (child != null) {
+				collect(child, segments, index + 1, result);
+			}
+			if (index == segments.length - 1) {
+				// Suffix pattern match: "/foo" may match "/foo.json" or "/foo.bar.json"
+				int dotIndex = segment.indexOf('.');
+				while (dotIndex > 0) {
+					child = node.literals.get(segment.substring(0, dotIndex));
+					if (child != null) {
+						collect(child, segments, index + 1, result);
+					}
+					dotIndex = segment.indexOf('.', dotIndex + 1);
+				}
+			}
+		}
+		if (node.wildcard != null) {
+			collect(node.wildcard, segments, index + 1, result);
+		}
+	}
+
+
+	private static String[] tokenize(String path) {
+		String[] segments = StringUtils.tokenizeToStringArray(path, PATH_SEPARATOR, true, true);
+		for (int i = 0; i < segments.length; i++) {
+			segments[i] = segments[i].toLowerCase(Locale.ROOT);
+		}
+		return segments;
+	}
+
+	private static boolean isWildcard(String segment) {
+		return (segment.indexOf('*') != -1 || segment.indexOf('?') != -1 || segment.indexOf('{') != -1);
+	}
+
+	private static <T> List<Entry<T>> append(List<Entry<T>> entries, Entry<T> entry) {
+		List<Entry<T>> result = (entries.isEmpty() ? new ArrayList<>(1) : entries);
+		result.add(entry);
+		return result;
+	}
+
+
+	private static final class Node<T> {
+
+		@Nullable
+		private Map<String, Node<T>> literals;
+
+		@Nullable
+		private Node<T> wildcard;
+
+		private List<Entry<T>> terminal = Collections.emptyList();
+
+		private List<Entry<T>> catchAll = Collections.emptyList();
+
+		Node<T> getOrCreateLiteral(String segment) {
+			if (this.literals == null) {
+				this.literals = new HashMap<>(4);
+			}
+			return this.literals.computeIfAbsent(segment, key -> new Node<>());
+		}
+
+		Node<T> getOrCreateWildcard() {
+			if (this.wildcard == null) {
+				this.wildcard = new Node<>();
+			}
+			return this.wildcard;
+		}
+	}
+
+
+	private static final class Entry<T> implements Comparable<Entry<T>> {
+
+		private final T mapping;
+
+		private final int order;
+
+		Entry(T mapping, int order) {
+			this.mapping = mapping;
+			this.order = order;
+		}
+
+		@Override
+		public int compareTo(Entry<T> other) {
+			return Integer.compare(this.order, other.order);
+		}
+	}
+
+}
@@ -32,8 +32,10 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.MultiValueMap;
+import org.springframework.util.PathMatcher;
 import org.springframework.util.StringUtils;
 import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.HttpMediaTypeNotSupportedException;
@@ -82,6 +84,22 @@ public abstract class RequestMappingInfoHandlerMapping extends AbstractHandlerMe
 		return info.getPatternsCondition().getPatterns();
 	}
 
+	/**
+	 * Mappings are indexed by path pattern as long as patterns are matched
+	 * with a plain {@link AntPathMatcher} using the "/" path separator.
+	 * Case-insensitive matching and token trimming are fine since index keys
+	 * are lowercased and trimmed, leaving the final decision to the matcher.
+	 * The index also accounts for the suffix pattern and trailing slash
+	 * variants of {@link RequestMappingInfo}.
+	 * @since 5.2
+	 */
+	@Override
+	protected boolean supportsPathPatternIndex() {
+		PathMatcher pathMatcher = getPathMatcher();
+		return (pathMatcher.getClass() == AntPathMatcher.class &&
+				AntPathMatcher.DEFAULT_PATH_SEPARATOR.equals(((AntPathMatcher) pathMatcher).getPathSeparator()));
+	}
+
 	/**
 	 * Check if the given RequestMappingInfo matches the current request and
 	 * return a (potentially new) instance with conditions that match the
@@ -48,6 +48,7 @@ import org.springframework.http.converter.support.AllEncompassingFormHttpMessage
 import org.springframework.http.converter.xml.SourceHttpMessageConverter;
 import org.springframework.lang.Nullable;
 import org.springframework.ui.ModelMap;
+import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.ReflectionUtils.MethodFilter;
 import org.springframework.web.accept.ContentNegotiationManager;
@@ -85,6 +86,7 @@ import org.springframework.web.method.annotation.SessionAttributesHandler;
 import org.springframework.web.method.annotation.SessionStatusMethodArgumentResolver;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.method.support.HandlerMethodArgumentResolverComposite;
+import org.springframework.web.method.support.HandlerMethodBinding;
 import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
 import org.springframework.web.method.support.HandlerMethodReturnValueHandlerComposite;
 import org.springframework.web.method.support.InvocableHandlerMethod;
@@ -191,6 +193,8 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 
 	private final Map<ControllerAdviceBean, Set<Method>> modelAttributeAdviceCache = new LinkedHashMap<>();
 
+	private final Map<HandlerMethod, HandlerMethodBinding> handlerMethodBindingCache = new ConcurrentHashMap<>(256);
+
 
 	public RequestMappingHandlerAdapter() {
 		StringHttpMessageConverter stringHttpMessageConverter = new StringHttpMessageConverter();
@@ -866,6 +870,12 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 			}
 			invocableMethod.setDataBinderFactory(binderFactory);
 			invocableMethod.setParameterNameDiscoverer(this.parameterNameDiscoverer);
+			if (this.argumentResolvers != null) {
+				HandlerMethodBinding binding = getHandlerMethodBinding(handlerMethod);
+				if (binding.isBindingFor(invocableMethod.getMethodParameters())) {
+					invocableMethod.setHandlerMethodBinding(binding);
+				}
+			}
 
 			ModelAndViewContainer mavContainer = new ModelAndViewContainer();
 			mavContainer.addAllAttributes(RequestContextUtils.getInputFlashMap(request));
@@ -904,6 +914,22 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 		}
 	}
 
+	/**
+	 * Return the argument resolvers and return value handler selected for the
+	 * given handler method, selecting them on first use of the method.
+	 */
+	private HandlerMethodBinding getHandlerMethodBinding(HandlerMethod handlerMethod) {
+		Assert.state(this.argumentResolvers != null, "No argument resolvers");
+		HandlerMethod original = handlerMethod.getResolvedFromHandlerMethod();
+		HandlerMethod key = (original != null ? original : handlerMethod);
+		HandlerMethodBinding binding = this.handlerMethodBindingCache.get(key);
+		if (binding == null) {
+			binding = new HandlerMethodBinding(key, this.argumentResolvers, this.returnValueHandlers);
+			this.handlerMethodBindingCache.put(key, binding);
+		}
+		return binding;
+	}
+
 	/**
 	 * Create a {@link ServletInvocableHandlerMethod} from the given {@link HandlerMethod} definition.
 	 * @param handlerMethod the {@link HandlerMethod} definition
@@ -34,6 +34,7 @@ import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.support.HandlerMethodBinding;
 import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
 import org.springframework.web.method.support.HandlerMethodReturnValueHandlerComposite;
 import org.springframework.web.method.support.InvocableHandlerMethod;
@@ -116,8 +117,16 @@ public class ServletInvocableHandlerMethod extends InvocableHandlerMethod {
 		mavContainer.setRequestHandled(false);
 		Assert.state(this.returnValueHandlers != null, "No return value handlers");
 		try {
-			this.returnValueHandlers.handleReturnValue(
-					returnValue, getReturnValueType(returnValue), mavContainer, webRequest);
+			HandlerMethodBinding binding = getHandlerMethodBinding();
+			HandlerMethodReturnValueHandler handler =
+					(binding != null ? binding.getReturnValueHandler(returnValue, this.returnValueHandlers) : null);
+			if (handler != null) {
+				handler.handleReturnValue(returnValue, getReturnValueType(returnValue), mavContainer, webRequest);
+			}
+			else {
+				this.returnValueHandlers.handleReturnValue(
+						returnValue, getReturnValueType(returnValue), mavContainer, webRequest);
+			}
 		}
 		catch (Exception ex) {
 			if (logger.isTraceEnabled()) {
@@ -107,6 +107,20 @@ public class HandlerMethodMappingTests {
 		this.mapping.getHandlerInternal(new MockHttpServletRequest("GET", "/foo"));
 	}
 
+	@Test
+	public void lookupAfterRegistrationChanges() throws Exception {
+		this.mapping.registerMapping("/foo", this.handler, this.method1);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo");
+		assertEquals(this.method1, this.mapping.getHandlerInternal(request).getMethod());
+
+		this.mapping.unregisterMapping("/foo");
+		assertNull(this.mapping.getHandlerInternal(new MockHttpServletRequest("GET", "/foo")));
+
+		this.mapping.registerMapping("/f*", this.handler, this.method2);
+		request = new MockHttpServletRequest("GET", "/foo");
+		assertEquals(this.method2, this.mapping.getHandlerInternal(request).getMethod());
+	}
+
 	@Test
 	public void detectHandlerMethodsInAncestorContexts() {
 		StaticApplicationContext cxt = new StaticApplicationContext();
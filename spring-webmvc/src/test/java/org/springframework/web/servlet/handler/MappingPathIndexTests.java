@@ -0,0 +1,113 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.handler;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link MappingPathIndex}.
+ *
+ * @author Daniel Ferreira
+ */
+public class MappingPathIndexTests {
+
+	private final MappingPathIndex<String> index = new MappingPathIndex<>();
+
+	private int order;
+
+
+	@Test
+	public void literalSegments() {
+		add("a", "/foo/bar");
+		add("b", "/foo/baz");
+		add("c", "/foo");
+
+		assertEquals(Collections.singletonList("a"), this.index.getCandidates("/foo/bar"));
+		assertEquals(Collections.singletonList("c"), this.index.getCandidates("/foo"));
+		assertEquals(Collections.singletonList("c"), this.index.getCandidates("/foo/"));
+		assertEquals(Collections.emptyList(), this.index.getCandidates("/other"));
+	}
+
+	@Test
+	public void wildcardSegments() {
+		add("a", "/foo/{id}");
+		add("b", "/foo/ba?");
+		add("c", "/foo/*.json");
+		add("d", "/bar/{id}");
+
+		assertEquals(Arrays.asList("a", "b", "c"), this.index.getCandidates("/foo/bar"));
+		assertEquals(Collections.emptyList(), this.index.getCandidates("/foo/bar/baz"));
+		assertEquals(Arrays.asList("a", "b", "c"), this.index.getCandidates("/foo/"));
+	}
+
+	@Test
+	public void catchAllSegments() {
+		add("a", "/**");
+		add("b", "/foo/**/bar");
+		add("c", "/foo/bar");
+
+		assertEquals(Arrays.asList("a", "b", "c"), this.index.getCandidates("/foo/bar"));
+		assertEquals(Arrays.asList("a", "b"), this.index.getCandidates("/foo/x/y/bar"));
+		assertEquals(Collections.singletonList("a"), this.index.getCandidates("/baz"));
+	}
+
+	@Test
+	public void suffixPatterns() {
+		add("a", "/foo");
+		add("b", "/foo.bar");
+		add("c", "/foo/bar");
+
+		assertEquals(Arrays.asList("a", "b"), this.index.getCandidates("/foo.bar.json"));
+		assertEquals(Collections.singletonList("a"), this.index.getCandidates("/foo.json"));
+		assertEquals(Collections.emptyList(), this.index.getCandidates("/foo.json/bar"));
+	}
+
+	@Test
+	public void caseInsensitiveSegments() {
+		add("a", "/Foo/Bar");
+
+		assertEquals(Collections.singletonList("a"), this.index.getCandidates("/foo/BAR"));
+	}
+
+	@Test
+	public void mappingsWithoutPatterns() {
+		this.index.add("a", this.order++, Collections.emptySet());
+		add("b", "/foo");
+
+		assertEquals(Arrays.asList("a", "b"), this.index.getCandidates("/foo"));
+		assertEquals(Collections.singletonList("a"), this.index.getCandidates("/bar"));
+	}
+
+	@Test
+	public void mappingWithSeveralMatchingPatterns() {
+		add("a", "/foo", "/{name}");
+		add("b", "/foo/bar", "/**");
+
+		assertEquals(Arrays.asList("a", "b"), this.index.getCandidates("/foo"));
+	}
+
+
+	private void add(String mapping, String... patterns) {
+		this.index.add(mapping, this.order++, Arrays.asList(patterns));
+	}
+
+}
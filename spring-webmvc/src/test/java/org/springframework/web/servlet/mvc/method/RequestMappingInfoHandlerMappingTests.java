@@ -33,6 +33,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.test.MockHttpServletRequest;
 import org.springframework.stereotype.Controller;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.HttpMediaTypeNotSupportedException;
@@ -105,6 +106,28 @@ public class RequestMappingInfoHandlerMappingTests {
 		assertEquals(new HashSet<>(Arrays.asList(patterns)), actual);
 	}
 
+	@Test
+	public void supportsPathPatternIndex() {
+		assertTrue(this.handlerMapping.supportsPathPatternIndex());
+
+		AntPathMatcher pathMatcher = new AntPathMatcher(".");
+		this.handlerMapping.setPathMatcher(pathMatcher);
+		assertFalse(this.handlerMapping.supportsPathPatternIndex());
+
+		pathMatcher = new AntPathMatcher();
+		pathMatcher.setCaseSensitive(false);
+		this.handlerMapping.setPathMatcher(pathMatcher);
+		assertTrue(this.handlerMapping.supportsPathPatternIndex());
+
+		pathMatcher = new AntPathMatcher();
+		pathMatcher.setTrimTokens(true);
+		this.handlerMapping.setPathMatcher(pathMatcher);
+		assertTrue(this.handlerMapping.supportsPathPatternIndex());
+
+		this.handlerMapping.setPathMatcher(new AntPathMatcher() {});
+		assertFalse(this.handlerMapping.supportsPathPatternIndex());
+	}
+
 	@Test
 	public void getHandlerDirectMatch() throws Exception {
 		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo");
@@ -27,6 +27,7 @@ import org.apache.commons.logging.LogFactory;
 
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.messaging.StompSubProtocolHandler;
@@ -69,6 +70,12 @@ public class WebSocketMessageBrokerStats {
 	@Nullable
 	private ThreadPoolExecutor outboundChannelExecutor;
 
+	@Nullable
+	private ExecutorSubscribableChannel inboundChannel;
+
+	@Nullable
+	private ExecutorSubscribableChannel outboundChannel;
+
 	@Nullable
 	private ScheduledThreadPoolExecutor sockJsTaskScheduler;
 
@@ -112,6 +119,26 @@ public class WebSocketMessageBrokerStats {
 		this.outboundChannelExecutor = outboundChannelExecutor.getThreadPoolExecutor();
 	}
 
+	/**
+	 * Set the channel for incoming messages from WebSocket clients, in order to
+	 * report on its lanes, if any.
+	 * @since 5.2
+	 * @see ExecutorSubscribableChannel#setLaneCount
+	 */
+	public void setInboundChannel(ExecutorSubscribableChannel inboundChannel) {
+		this.inboundChannel = inboundChannel;
+	}
+
+	/**
+	 * Set the channel for outgoing messages to WebSocket clients, in order to
+	 * report on its lanes, if any.
+	 * @since 5.2
+	 * @see ExecutorSubscribableChannel#setLaneCount
+	 */
+	public void setOutboundChannel(ExecutorSubscribableChannel outboundChannel) {
+		this.outboundChannel = outboundChannel;
+	}
+
 	public void setSockJsTaskScheduler(ThreadPoolTaskScheduler sockJsTaskScheduler) {
 		this.sockJsTaskScheduler = sockJsTaskScheduler.getScheduledThreadPoolExecutor();
 		this.loggingTask = initLoggingTask(TimeUnit.MINUTES.toMillis(1));
@@ -182,6 +209,24 @@ public class WebSocketMessageBrokerStats {
 		return (this.outboundChannelExecutor != null ? getExecutorStatsInfo(this.outboundChannelExecutor) : "null");
 	}
 
+	/**
+	 * Get stats about the lanes of the channel for incoming messages from
+	 * WebSocket clients: queued and handled messages, and wait times, per lane.
+	 * @since 5.2
+	 */
+	public String getClientInboundLaneStatsInfo() {
+		return (this.inboundChannel != null ? this.inboundChannel.getLaneStatsInfo() : "null");
+	}
+
+	/**
+	 * Get stats about the lanes of the channel for outgoing messages to
+	 * WebSocket clients: queued and handled messages, and wait times, per lane.
+	 * @since 5.2
+	 */
+	public String getClientOutboundLaneStatsInfo() {
+		return (this.outboundChannel != null ? this.outboundChannel.getLaneStatsInfo() : "null");
+	}
+
 	/**
 	 * Get stats about the SockJS task scheduler.
 	 */
@@ -200,7 +245,13 @@ public class WebSocketMessageBrokerStats {
 				", stompBrokerRelay[" + getStompBrokerRelayStatsInfo() + "]" +
 				", inboundChannel[" + getClientInboundExecutorStatsInfo() + "]" +
 				", outboundChannel" + getClientOutboundExecutorStatsInfo() + "]" +
-				", sockJsScheduler[" + getSockJsTaskSchedulerStatsInfo() + "]";
+				", sockJsScheduler[" + getSockJsTaskSchedulerStatsInfo() + "]" +
+				(hasLanes(this.inboundChannel) ? ", inboundLanes[" + getClientInboundLaneStatsInfo() + "]" : "") +
+				(hasLanes(this.outboundChannel) ? ", outboundLanes[" + getClientOutboundLaneStatsInfo() + "]" : "");
+	}
+
+	private static boolean hasLanes(@Nullable ExecutorSubscribableChannel channel) {
+		return (channel != null && channel.getLaneCount() > 0);
 	}
 
 }
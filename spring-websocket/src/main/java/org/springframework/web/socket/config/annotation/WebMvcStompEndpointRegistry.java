@@ -77,6 +77,9 @@ public class WebMvcStompEndpointRegistry implements StompEndpointRegistry {
 		if (transportRegistration.getSendBufferSizeLimit() != null) {
 			this.subProtocolWebSocketHandler.setSendBufferSizeLimit(transportRegistration.getSendBufferSizeLimit());
 		}
+		if (transportRegistration.getMessageCoalescingLimit() != null) {
+			this.subProtocolWebSocketHandler.setMessageCoalescingLimit(transportRegistration.getMessageCoalescingLimit());
+		}
 		if (transportRegistration.getTimeToFirstMessage() != null) {
 			this.subProtocolWebSocketHandler.setTimeToFirstMessage(transportRegistration.getTimeToFirstMessage());
 		}
@@ -28,6 +28,8 @@ import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
 import org.springframework.messaging.simp.config.AbstractMessageBrokerConfiguration;
 import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
 import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
 import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.config.WebSocketMessageBrokerStats;
@@ -128,6 +130,14 @@ public abstract class WebSocketMessageBrokerConfigurationSupport extends Abstrac
 		}
 		stats.setInboundChannelExecutor(clientInboundChannelExecutor());
 		stats.setOutboundChannelExecutor(clientOutboundChannelExecutor());
+		AbstractSubscribableChannel inboundChannel = clientInboundChannel();
+		if (inboundChannel instanceof ExecutorSubscribableChannel) {
+			stats.setInboundChannel((ExecutorSubscribableChannel) inboundChannel);
+		}
+		AbstractSubscribableChannel outboundChannel = clientOutboundChannel();
+		if (outboundChannel instanceof ExecutorSubscribableChannel) {
+			stats.setOutboundChannel((ExecutorSubscribableChannel) outboundChannel);
+		}
 		stats.setSockJsTaskScheduler(messageBrokerTaskScheduler());
 		return stats;
 	}
@@ -40,6 +40,9 @@ public class WebSocketTransportRegistration {
 	@Nullable
 	private Integer sendBufferSizeLimit;
 
+	@Nullable
+	private Integer messageCoalescingLimit;
+
 	@Nullable
 	private Integer timeToFirstMessage;
 
@@ -146,6 +149,32 @@ public class WebSocketTransportRegistration {
 		return this.sendBufferSizeLimit;
 	}
 
+	/**
+	 * Configure the maximum size of a WebSocket message coalesced from STOMP
+	 * frames that were buffered while a send to the session was in progress.
+	 * Such frames are then sent together in a single write, which relieves slow
+	 * sessions under high message rates.
+	 * <p>Clients must be able to receive several STOMP frames in one WebSocket
+	 * message, which STOMP allows but some client libraries may not support.
+	 * <p>By default this is set to 0, in which case frames are never coalesced.
+	 * @param messageCoalescingLimit the maximum number of bytes of a coalesced
+	 * message
+	 * @since 5.2
+	 */
+	public WebSocketTransportRegistration setMessageCoalescingLimit(int messageCoalescingLimit) {
+		this.messageCoalescingLimit = messageCoalescingLimit;
+		return this;
+	}
+
+	/**
+	 * Protected accessor for internal use.
+	 * @since 5.2
+	 */
+	@Nullable
+	protected Integer getMessageCoalescingLimit() {
+		return this.messageCoalescingLimit;
+	}
+
 	/**
 	 * Set the maximum time allowed in milliseconds after the WebSocket connection
 	 * is established and before the first sub-protocol message is received.
@@ -17,6 +17,9 @@
 package org.springframework.web.socket.handler;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -26,7 +29,9 @@ import java.util.concurrent.locks.ReentrantLock;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
 
@@ -39,6 +44,11 @@ import org.springframework.web.socket.WebSocketSession;
  * At that time, the specified buffer-size limit and send-time limit will be checked
  * and the session will be closed if the limits are exceeded.
  *
+ * <p>Optionally, messages that were buffered while a send was in progress may be
+ * {@link #setMessageCoalescingLimit coalesced} into a single message per write.
+ * That is only suitable for sub-protocols that allow several of their frames in
+ * one WebSocket message, such as STOMP.
+ *
  * @author Rossen Stoyanchev
  * @author Juergen Hoeller
  * @since 4.0.3
@@ -54,6 +64,8 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 
 	private final OverflowStrategy overflowStrategy;
 
+	private int messageCoalescingLimit;
+
 	private final Queue<WebSocketMessage<?>> buffer = new LinkedBlockingQueue<>();
 
 	private final AtomicInteger bufferSize = new AtomicInteger();
@@ -114,6 +126,30 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 		return this.bufferSizeLimit;
 	}
 
+	/**
+	 * Set the maximum size (number of bytes) of a message coalesced from buffered
+	 * messages. When a send completes and more complete text or binary messages
+	 * have been buffered in the meantime, consecutive messages of the same type
+	 * are concatenated into one message up to that size, and sent in a single
+	 * write. Partial messages and messages of other types are sent as they are.
+	 * <p>This is only suitable for sub-protocols whose frames are self-delimiting
+	 * and may be received several at a time, such as STOMP.
+	 * <p>By default this is set to 0, in which case messages are never coalesced.
+	 * @param messageCoalescingLimit the maximum size of a coalesced message
+	 * @since 5.2
+	 */
+	public void setMessageCoalescingLimit(int messageCoalescingLimit) {
+		this.messageCoalescingLimit = messageCoalescingLimit;
+	}
+
+	/**
+	 * Return the configured maximum size (number of bytes) of a coalesced message.
+	 * @since 5.2
+	 */
+	public int getMessageCoalescingLimit() {
+		return this.messageCoalescingLimit;
+	}
+
 	/**
 	 * Return the current buffer size (number of bytes).
 	 */
@@ -167,6 +203,9 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 						break;
 					}
 					this.bufferSize.addAndGet(-message.getPayloadLength());
+					if (this.messageCoalescingLimit > 0) {
+						message = coalesceBufferedMessages(message);
+					}
 					this.sendStartTime = System.currentTimeMillis();
 					getDelegate().sendMessage(message);
 					this.sendStartTime = 0;
@@ -181,6 +220,57 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 		return false;
 	}
 
+	/**
+	 * Merge the given message with the messages that follow it in the buffer,
+	 * taking each of them off the buffer only once it has been merged.
+	 */
+	private WebSocketMessage<?> coalesceBufferedMessages(WebSocketMessage<?> message) {
+		List<WebSocketMessage<?>> messages = null;
+		int length = message.getPayloadLength();
+		WebSocketMessage<?> next = this.buffer.peek();
+		while (next != null && canCoalesce(message, next, length)) {
+			// Removal may fail if the message has been dropped concurrently
+			if (this.buffer.remove(next)) {
+				this.bufferSize.addAndGet(-next.getPayloadLength());
+				if (messages == null) {
+					messages = new ArrayList<>();
+					messages.add(message);
+				}
+				messages.add(next);
+				length += next.getPayloadLength();
+			}
+			next = this.buffer.peek();
+		}
+		return (messages != null ? coalesce(messages, length) : message);
+	}
+
+	private boolean canCoalesce(WebSocketMessage<?> message, WebSocketMessage<?> next, int length) {
+		return (length + next.getPayloadLength() <= this.messageCoalescingLimit &&
+				message.getClass() == next.getClass() && message.isLast() && next.isLast() &&
+				(message instanceof TextMessage || message instanceof BinaryMessage));
+	}
+
+	private WebSocketMessage<?> coalesce(List<WebSocketMessage<?>> messages, int length) {
+		if (messages.get(0) instanceof TextMessage) {
+			byte[] bytes = new byte[length];
+			int pos = 0;
+			for (WebSocketMessage<?> message : messages) {
+				byte[] messageBytes = ((TextMessage) message).asBytes();
+				System.arraycopy(messageBytes, 0, bytes, pos, messageBytes.length);
+				pos += messageBytes.length;
+			}
+			return new TextMessage(bytes);
+		}
+		else {
+			ByteBuffer buffer = ByteBuffer.allocate(length);
+			for (WebSocketMessage<?> message : messages) {
+				buffer.put(((BinaryMessage) message).getPayload().duplicate());
+			}
+			buffer.flip();
+			return new BinaryMessage(buffer);
+		}
+	}
+
 	private void checkSessionLimits() {
 		if (!shouldNotSend() && this.closeLock.tryLock()) {
 			try {
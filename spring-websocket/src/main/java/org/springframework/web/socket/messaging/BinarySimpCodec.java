@@ -0,0 +1,286 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.socket.messaging;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * Encodes and decodes the frames of the binary protocol of
+ * {@link BinarySubProtocolHandler}.
+ *
+ * <p>A WebSocket message carries one or more frames, each of which is prefixed
+ * with its length. A frame consists of the frame type, a table of headers and
+ * the payload, which takes up the rest of the frame:
+ * <pre class="code">
+ * message := frame+
+ * frame   := varint(length) type:byte varint(count) header* payload
+ * header  := varint(index) [string(name)] string(value)
+ * string  := varint(length) utf8
+ * </pre>
+ * Well-known header names are encoded as their 1-based index in a fixed table
+ * (see {@link #HEADER_NAMES}), and any other name as index 0 followed by the
+ * name itself. A header with several values is repeated. All varints are
+ * unsigned LEB128-encoded ints.
+ *
+ * @author Daniel Ferreira
+ * @since 5.2
+ */
+final class BinarySimpCodec {
+
+	static final byte CONNECT = 1;
+
+	static final byte CONNECT_ACK = 2;
+
+	static final byte MESSAGE = 3;
+
+	static final byte SUBSCRIBE = 4;
+
+	static final byte UNSUBSCRIBE = 5;
+
+	static final byte HEARTBEAT = 6;
+
+	static final byte DISCONNECT = 7;
+
+	static final byte DISCONNECT_ACK = 8;
+
+	static final byte OTHER = 9;
+
+	static final byte ERROR = 10;
+
+	static final String DESTINATION = "destination";
+
+	static final String SUBSCRIPTION = "subscription";
+
+	static final String CONTENT_TYPE = "content-type";
+
+	static final String HEARTBEAT_HEADER = "heart-beat";
+
+	static final String RECEIPT = "receipt";
+
+	static final String RECEIPT_ID = "receipt-id";
+
+	static final String ERROR_MESSAGE = "message";
+
+	static final String USER_NAME = "user-name";
+
+	/**
+	 * Header names encoded as their index, starting at 1.
+	 */
+	static final String[] HEADER_NAMES = {DESTINATION, SUBSCRIPTION, CONTENT_TYPE, HEARTBEAT_HEADER,
+			RECEIPT, RECEIPT_ID, ERROR_MESSAGE, USER_NAME, "message-id", "ack", "id", "content-length"};
+
+	private static final int MAX_VARINT_SIZE = 5;
+
+
+	private BinarySimpCodec() {
+	}
+
+
+	/**
+	 * Encode a single frame.
+	 * @param type the frame type
+	 * @param headers the headers, in the order to encode them
+	 * @param payload the payload
+	 * @return the encoded frame, including its length
+	 */
+	static byte[] encode(byte type, MultiValueMap<String, String> headers, byte[] payload) {
+		List<byte[]> strings = new ArrayList<>(headers.size() * 2);
+		List<Integer> indexes = new ArrayList<>(headers.size());
+		int count = 0;
+		int length = 1 + payload.length;
+		for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+			int index = indexOf(entry.getKey());
+			byte[] name = (index == 0 ? entry.getKey().getBytes(StandardCharsets.UTF_8) : null);
+			for (String value : entry.getValue()) {
+				byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+				indexes.add(index);
+				length += varintSize(index);
+				if (name != null) {
+					strings.add(name);
+					length += varintSize(name.length) + name.length;
+				}
+				strings.add(bytes);
+				length += varintSize(bytes.length) + bytes.length;
+				count++;
+			}
+		}
+		length += varintSize(count);
+
+		ByteBuffer buffer = ByteBuffer.allocate(varintSize(length) + length);
+		writeVarint(buffer, length);
+		buffer.put(type);
+		writeVarint(buffer, count);
+		int stringIndex = 0;
+		for (int index : indexes) {
+			writeVarint(buffer, index);
+			if (index == 0) {
+				writeString(buffer, strings.get(stringIndex++));
+			}
+			writeString(buffer, strings.get(stringIndex++));
+		}
+		buffer.put(payload);
+		return buffer.array();
+	}
+
+	/**
+	 * Decode all frames in the given buffer.
+	 * @param buffer the content of a WebSocket message
+	 * @param sizeLimit the maximum length of a frame
+	 * @return the decoded frames
+	 * @throws IllegalArgumentException if the content is not a sequence of
+	 * complete, well-formed frames
+	 */
+	static List<Frame> decode(ByteBuffer buffer, int sizeLimit) {
+		List<Frame> frames = new ArrayList<>(1);
+		while (buffer.hasRemaining()) {
+			int length = readVarint(buffer);
+			if (length < 1 || length > buffer.remaining()) {
+				throw new IllegalArgumentException("Incomplete frame: " + length + " bytes expected, " +
+						buffer.remaining() + " available");
+			}
+			if (length > sizeLimit) {
+				throw new IllegalArgumentException("Frame of " + length + " bytes exceeds the limit of " +
+						sizeLimit + " bytes");
+			}
+			ByteBuffer frame = buffer.slice();
+			((Buffer) frame).limit(length);
+			((Buffer) buffer).position(buffer.position() + length);
+			frames.add(decodeFrame(frame));
+		}
+		return frames;
+	}
+
+	private static Frame decodeFrame(ByteBuffer buffer) {
+		byte type = buffer.get();
+		if (type < CONNECT || type > ERROR) {
+			throw new IllegalArgumentException("Unknown frame type " + type);
+		}
+		int count = readVarint(buffer);
+		MultiValueMap<String, String> headers = new LinkedMultiValueMap<>(Math.min(count, 16));
+		for (int i = 0; i < count; i++) {
+			int index = readVarint(buffer);
+			String name;
+			if (index == 0) {
+				name = readString(buffer);
+			}
+			else if (index <= HEADER_NAMES.length) {
+				name = HEADER_NAMES[index - 1];
+			}
+			else {
+				throw new IllegalArgumentException("Unknown header index " + index);
+			}
+			headers.add(name, readString(buffer));
+		}
+		byte[] payload = new byte[buffer.remaining()];
+		buffer.get(payload);
+		return new Frame(type, headers, payload);
+	}
+
+	private static int indexOf(String name) {
+		for (int i = 0; i < HEADER_NAMES.length; i++) {
+			if (HEADER_NAMES[i].equals(name)) {
+				return i + 1;
+			}
+		}
+		return 0;
+	}
+
+	private static int varintSize(int value) {
+		int size = 1;
+		while ((value & ~0x7F) != 0) {
+			value >>>= 7;
+			size++;
+		}
+		return size;
+	}
+
+	private static void writeVarint(ByteBuffer buffer, int value) {
+		while ((value & ~0x7F) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	private static void writeString(ByteBuffer buffer, byte[] bytes) {
+		writeVarint(buffer, bytes.length);
+		buffer.put(bytes);
+	}
+
+	private static int readVarint(ByteBuffer buffer) {
+		int value = 0;
+		for (int i = 0; i < MAX_VARINT_SIZE; i++) {
+			if (!buffer.hasRemaining()) {
+				throw new IllegalArgumentException("Truncated varint");
+			}
+			byte b = buffer.get();
+			value |= (b & 0x7F) << (7 * i);
+			if (b >= 0) {
+				if (value < 0) {
+					throw new IllegalArgumentException("Varint out of range");
+				}
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("Malformed varint");
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		int length = readVarint(buffer);
+		if (length > buffer.remaining()) {
+			throw new IllegalArgumentException("Truncated string: " + length + " bytes expected, " +
+					buffer.remaining() + " available");
+		}
+		if (!buffer.hasArray()) {
+			byte[] bytes = new byte[length];
+			buffer.get(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+		String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+				StandardCharsets.UTF_8);
+		((Buffer) buffer).position(buffer.position() + length);
+		return value;
+	}
+
+
+	/**
+	 * A decoded frame.
+	 */
+	static final class Frame {
+
+		final byte type;
+
+		final MultiValueMap<String, String> headers;
+
+		final byte[] payload;
+
+		Frame(byte type, MultiValueMap<String, String> headers, byte[] payload) {
+			this.type = type;
+			this.headers = headers;
+			this.payload = payload;
+		}
+	}
+
+}
@@ -0,0 +1,530 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.socket.messaging;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpAttributes;
+import org.springframework.messaging.simp.SimpAttributesContextHolder;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.AbstractMessageChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.ImmutableMessageChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderInitializer;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+import org.springframework.web.socket.sockjs.transport.SockJsSession;
+
+/**
+ * A {@link SubProtocolHandler} for a compact binary alternative to STOMP,
+ * negotiated as the {@value #PROTOCOL} sub-protocol.
+ *
+ * <p>Frames are sent in binary WebSocket messages and map one-to-one to the
+ * {@link SimpMessageType message types} and headers of the simple messaging
+ * model: destination, subscription id, content type and heartbeat settings
+ * become the corresponding {@link SimpMessageHeaderAccessor} headers, and any
+ * other header a native header. Messages from clients therefore reach
+ * {@code @MessageMapping} methods and the simple broker just like messages
+ * decoded from STOMP frames. See {@link BinarySimpCodec} for the frame layout.
+ *
+ * <p>Binary messages are not supported by SockJS, so sessions must be plain
+ * WebSocket sessions. To use this handler alongside STOMP, add it to the
+ * {@link SubProtocolWebSocketHandler}.
+ *
+ * @author Daniel Ferreira
+ * @since 5.2
+ * @see SubProtocolWebSocketHandler#addProtocolHandler
+ */
+public class BinarySubProtocolHandler implements SubProtocolHandler, ApplicationEventPublisherAware {
+
+	/**
+	 * The name of the sub-protocol.
+	 */
+	public static final String PROTOCOL = "v1.binary.simp";
+
+	private static final Log logger = LogFactory.getLog(BinarySubProtocolHandler.class);
+
+	private static final byte[] EMPTY_PAYLOAD = new byte[0];
+
+
+	private int messageSizeLimit = 64 * 1024;
+
+	@Nullable
+	private MessageHeaderInitializer headerInitializer;
+
+	private final Map<String, Principal> authentications = new ConcurrentHashMap<>();
+
+	@Nullable
+	private Boolean immutableMessageInterceptorPresent;
+
+	@Nullable
+	private ApplicationEventPublisher eventPublisher;
+
+
+	/**
+	 * Configure the maximum size allowed for an incoming frame.
+	 * <p>By default this property is set to 64K.
+	 */
+	public void setMessageSizeLimit(int messageSizeLimit) {
+		this.messageSizeLimit = messageSizeLimit;
+	}
+
+	/**
+	 * Return the configured maximum size of an incoming frame.
+	 */
+	public int getMessageSizeLimit() {
+		return this.messageSizeLimit;
+	}
+
+	/**
+	 * Configure a {@link MessageHeaderInitializer} to apply to the headers of all
+	 * messages created from decoded frames and other messages sent to the
+	 * client inbound channel.
+	 * <p>By default this property is not set.
+	 */
+	public void setHeaderInitializer(@Nullable MessageHeaderInitializer headerInitializer) {
+		this.headerInitializer = headerInitializer;
+	}
+
+	/**
+	 * Return the configured header initializer.
+	 */
+	@Nullable
+	public MessageHeaderInitializer getHeaderInitializer() {
+		return this.headerInitializer;
+	}
+
+	@Override
+	public List<String> getSupportedProtocols() {
+		return Collections.singletonList(PROTOCOL);
+	}
+
+	@Override
+	public void setApplicationEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
+		this.eventPublisher = applicationEventPublisher;
+	}
+
+
+	/**
+	 * Handle incoming WebSocket messages from clients.
+	 */
+	@Override
+	public void handleMessageFromClient(WebSocketSession session,
+			WebSocketMessage<?> webSocketMessage, MessageChannel outputChannel) {
+
+		List<Message<byte[]>> messages;
+		try {
+			if (!(webSocketMessage instanceof BinaryMessage)) {
+				throw new IllegalArgumentException("Expected a binary message");
+			}
+			List<BinarySimpCodec.Frame> frames =
+					BinarySimpCodec.decode(((BinaryMessage) webSocketMessage).getPayload(), getMessageSizeLimit());
+			messages = new ArrayList<>(frames.size());
+			for (BinarySimpCodec.Frame frame : frames) {
+				messages.add(toMessage(frame, session, outputChannel));
+			}
+		}
+		catch (Throwable ex) {
+			if (logger.isErrorEnabled()) {
+				logger.error("Failed to parse " + webSocketMessage +
+						" in session " + session.getId() + ". Sending ERROR to client.", ex);
+			}
+			sendErrorMessage(session, ex);
+			return;
+		}
+
+		for (Message<byte[]> message : messages) {
+			try {
+				SimpMessageType messageType = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+				if (logger.isTraceEnabled()) {
+					logger.trace("From client: " + messageType + " " + message.getHeaders());
+				}
+				boolean isConnect = SimpMessageType.CONNECT.equals(messageType);
+				try {
+					SimpAttributesContextHolder.setAttributesFromMessage(message);
+					boolean sent = outputChannel.send(message);
+					if (sent) {
+						if (isConnect) {
+							Principal user = SimpMessageHeaderAccessor.getUser(message.getHeaders());
+							if (user != null && user != session.getPrincipal()) {
+								this.authentications.put(session.getId(), user);
+							}
+						}
+						if (this.eventPublisher != null) {
+							Principal user = getUser(session);
+							if (isConnect) {
+								publishEvent(this.eventPublisher, new SessionConnectEvent(this, message, user));
+							}
+							else if (SimpMessageType.SUBSCRIBE.equals(messageType)) {
+								publishEvent(this.eventPublisher, new SessionSubscribeEvent(this, message, user));
+							}
+							else if (SimpMessageType.UNSUBSCRIBE.equals(messageType)) {
+								publishEvent(this.eventPublisher, new SessionUnsubscribeEvent(this, message, user));
+							}
+						}
+					}
+				}
+				finally {
+					SimpAttributesContextHolder.resetAttributes();
+				}
+			}
+			catch (Throwable ex) {
+				if (logger.isErrorEnabled()) {
+					logger.error("Failed to send client message to application via MessageChannel" +
+							" in session " + session.getId() + ". Sending ERROR to client.", ex);
+				}
+				sendErrorMessage(session, ex);
+			}
+		}
+	}
+
+	private Message<byte[]> toMessage(BinarySimpCodec.Frame frame, WebSocketSession session,
+			MessageChannel outputChannel) {
+
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(getMessageType(frame.type));
+		if (getHeaderInitializer() != null) {
+			getHeaderInitializer().initHeaders(accessor);
+		}
+		for (Map.Entry<String, List<String>> entry : frame.headers.entrySet()) {
+			String name = entry.getKey();
+			String value = entry.getValue().get(0);
+			if (BinarySimpCodec.DESTINATION.equals(name)) {
+				accessor.setDestination(value);
+			}
+			else if (BinarySimpCodec.SUBSCRIPTION.equals(name)) {
+				accessor.setSubscriptionId(value);
+			}
+			else if (BinarySimpCodec.CONTENT_TYPE.equals(name)) {
+				accessor.setContentType(MimeTypeUtils.parseMimeType(value));
+			}
+			else {
+				if (BinarySimpCodec.HEARTBEAT_HEADER.equals(name)) {
+					accessor.setHeader(SimpMessageHeaderAccessor.HEART_BEAT_HEADER, parseHeartbeat(value));
+				}
+				for (String nativeValue : entry.getValue()) {
+					accessor.addNativeHeader(name, nativeValue);
+				}
+			}
+		}
+		accessor.setSessionId(session.getId());
+		accessor.setSessionAttributes(session.getAttributes());
+		accessor.setUser(getUser(session));
+		if (!detectImmutableMessageInterceptor(outputChannel)) {
+			accessor.setImmutable();
+		}
+		return MessageBuilder.createMessage(frame.payload, accessor.getMessageHeaders());
+	}
+
+	private static SimpMessageType getMessageType(byte type) {
+		switch (type) {
+			case BinarySimpCodec.CONNECT:
+				return SimpMessageType.CONNECT;
+			case BinarySimpCodec.MESSAGE:
+				return SimpMessageType.MESSAGE;
+			case BinarySimpCodec.SUBSCRIBE:
+				return SimpMessageType.SUBSCRIBE;
+			case BinarySimpCodec.UNSUBSCRIBE:
+				return SimpMessageType.UNSUBSCRIBE;
+			case BinarySimpCodec.HEARTBEAT:
+				return SimpMessageType.HEARTBEAT;
+			case BinarySimpCodec.DISCONNECT:
+				return SimpMessageType.DISCONNECT;
+			case BinarySimpCodec.OTHER:
+				return SimpMessageType.OTHER;
+			default:
+				throw new IllegalArgumentException("Unexpected frame type " + type + " from client");
+		}
+	}
+
+	private static long[] parseHeartbeat(String value) {
+		String[] values = StringUtils.commaDelimitedListToStringArray(value);
+		if (values.length != 2) {
+			throw new IllegalArgumentException("Invalid heart-beat header value '" + value + "'");
+		}
+		return new long[] {Long.parseLong(values[0].trim()), Long.parseLong(values[1].trim())};
+	}
+
+	@Nullable
+	private Principal getUser(WebSocketSession session) {
+		Principal user = this.authentications.get(session.getId());
+		return (user != null ? user : session.getPrincipal());
+	}
+
+	private void sendErrorMessage(WebSocketSession session, Throwable error) {
+		MultiValueMap<String, String> headers = new LinkedMultiValueMap<>(1);
+		if (error.getMessage() != null) {
+			headers.add(BinarySimpCodec.ERROR_MESSAGE, error.getMessage());
+		}
+		sendToClient(session, BinarySimpCodec.ERROR, headers, EMPTY_PAYLOAD);
+	}
+
+	private boolean detectImmutableMessageInterceptor(MessageChannel channel) {
+		if (this.immutableMessageInterceptorPresent != null) {
+			return this.immutableMessageInterceptorPresent;
+		}
+
+		if (channel instanceof AbstractMessageChannel) {
+			for (ChannelInterceptor interceptor : ((AbstractMessageChannel) channel).getInterceptors()) {
+				if (interceptor instanceof ImmutableMessageChannelInterceptor) {
+					this.immutableMessageInterceptorPresent = true;
+					return true;
+				}
+			}
+		}
+		this.immutableMessageInterceptorPresent = false;
+		return false;
+	}
+
+	private void publishEvent(ApplicationEventPublisher publisher, ApplicationEvent event) {
+		try {
+			publisher.publishEvent(event);
+		}
+		catch (Throwable ex) {
+			if (logger.isErrorEnabled()) {
+				logger.error("Error publishing " + event, ex);
+			}
+		}
+	}
+
+	/**
+	 * Handle messages going back out to WebSocket clients.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public void handleMessageToClient(WebSocketSession session, Message<?> message) {
+		if (!(message.getPayload() instanceof byte[])) {
+			if (logger.isErrorEnabled()) {
+				logger.error("Expected byte[] payload. Ignoring " + message + ".");
+			}
+			return;
+		}
+
+		MessageHeaders headers = message.getHeaders();
+		SimpMessageType messageType = SimpMessageHeaderAccessor.getMessageType(headers);
+		MultiValueMap<String, String> frameHeaders = new LinkedMultiValueMap<>(4);
+		byte[] payload = (byte[]) message.getPayload();
+		byte type;
+
+		if (StompCommand.ERROR.equals(StompHeaderAccessor.getCommand(headers))) {
+			type = BinarySimpCodec.ERROR;
+			addNativeHeaders(headers, frameHeaders);
+		}
+		else if (SimpMessageType.MESSAGE.equals(messageType)) {
+			type = BinarySimpCodec.MESSAGE;
+			String destination = NativeMessageHeaderAccessor.getFirstNativeHeader(
+					SimpMessageHeaderAccessor.ORIGINAL_DESTINATION, headers);
+			if (destination == null) {
+				destination = SimpMessageHeaderAccessor.getDestination(headers);
+			}
+			addHeader(frameHeaders, BinarySimpCodec.DESTINATION, destination);
+			addHeader(frameHeaders, BinarySimpCodec.SUBSCRIPTION, SimpMessageHeaderAccessor.getSubscriptionId(headers));
+			Object contentType = headers.get(MessageHeaders.CONTENT_TYPE);
+			addHeader(frameHeaders, BinarySimpCodec.CONTENT_TYPE, (contentType != null ? contentType.toString() : null));
+			addNativeHeaders(headers, frameHeaders);
+		}
+		else if (SimpMessageType.CONNECT_ACK.equals(messageType)) {
+			type = BinarySimpCodec.CONNECT_ACK;
+			long[] heartbeat = (long[]) headers.get(SimpMessageHeaderAccessor.HEART_BEAT_HEADER);
+			if (heartbeat != null) {
+				frameHeaders.add(BinarySimpCodec.HEARTBEAT_HEADER, heartbeat[0] + "," + heartbeat[1]);
+			}
+			else {
+				addHeader(frameHeaders, BinarySimpCodec.HEARTBEAT_HEADER,
+						NativeMessageHeaderAccessor.getFirstNativeHeader(BinarySimpCodec.HEARTBEAT_HEADER, headers));
+			}
+			Principal user = getUser(session);
+			if (user != null) {
+				frameHeaders.add(BinarySimpCodec.USER_NAME, user.getName());
+			}
+			payload = EMPTY_PAYLOAD;
+			if (this.eventPublisher != null) {
+				try {
+					SimpAttributes simpAttributes = new SimpAttributes(session.getId(), session.getAttributes());
+					SimpAttributesContextHolder.setAttributes(simpAttributes);
+					publishEvent(this.eventPublisher, new SessionConnectedEvent(this, (Message<byte[]>) message, user));
+				}
+				finally {
+					SimpAttributesContextHolder.resetAttributes();
+				}
+			}
+		}
+		else if (SimpMessageType.DISCONNECT_ACK.equals(messageType)) {
+			type = BinarySimpCodec.DISCONNECT_ACK;
+			Message<?> disconnect = (Message<?>) headers.get(SimpMessageHeaderAccessor.DISCONNECT_MESSAGE_HEADER);
+			if (disconnect != null) {
+				addHeader(frameHeaders, BinarySimpCodec.RECEIPT_ID, NativeMessageHeaderAccessor.getFirstNativeHeader(
+						BinarySimpCodec.RECEIPT, disconnect.getHeaders()));
+			}
+			payload = EMPTY_PAYLOAD;
+		}
+		else if (SimpMessageType.HEARTBEAT.equals(messageType)) {
+			type = BinarySimpCodec.HEARTBEAT;
+			payload = EMPTY_PAYLOAD;
+		}
+		else {
+			type = BinarySimpCodec.OTHER;
+			addNativeHeaders(headers, frameHeaders);
+		}
+
+		sendToClient(session, type, frameHeaders, payload);
+	}
+
+	private static void addHeader(MultiValueMap<String, String> frameHeaders, String name, @Nullable String value) {
+		if (value != null) {
+			frameHeaders.add(name, value);
+		}
+	}
+
+	/**
+	 * Add the native headers of a message, except for those that duplicate
+	 * headers of the simple messaging model.
+	 */
+	@SuppressWarnings("unchecked")
+	private static void addNativeHeaders(MessageHeaders headers, MultiValueMap<String, String> frameHeaders) {
+		Map<String, List<String>> nativeHeaders =
+				(Map<String, List<String>>) headers.get(NativeMessageHeaderAccessor.NATIVE_HEADERS);
+		if (nativeHeaders == null) {
+			return;
+		}
+		for (Map.Entry<String, List<String>> entry : nativeHeaders.entrySet()) {
+			String name = entry.getKey();
+			if (!frameHeaders.containsKey(name) && !name.equals(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION) &&
+					!name.equals(StompHeaderAccessor.STOMP_CONTENT_LENGTH_HEADER)) {
+				for (String value : entry.getValue()) {
+					addHeader(frameHeaders, name, value);
+				}
+			}
+		}
+	}
+
+	private void sendToClient(WebSocketSession session, byte type, MultiValueMap<String, String> headers,
+			byte[] payload) {
+
+		try {
+			session.sendMessage(new BinaryMessage(BinarySimpCodec.encode(type, headers, payload)));
+		}
+		catch (SessionLimitExceededException ex) {
+			// Bad session, just get out
+			throw ex;
+		}
+		catch (Throwable ex) {
+			// Could be part of normal workflow (e.g. browser tab closed)
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to send WebSocket message to client in session " + session.getId(), ex);
+			}
+			type = BinarySimpCodec.ERROR;
+		}
+		finally {
+			if (type == BinarySimpCodec.ERROR) {
+				try {
+					session.close(CloseStatus.PROTOCOL_ERROR);
+				}
+				catch (IOException ex) {
+					// Ignore
+				}
+			}
+		}
+	}
+
+	@Override
+	@Nullable
+	public String resolveSessionId(Message<?> message) {
+		return SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+	}
+
+	@Override
+	public void afterSessionStarted(WebSocketSession session, MessageChannel outputChannel) {
+		if (WebSocketSessionDecorator.unwrap(session) instanceof SockJsSession) {
+			throw new IllegalStateException("The " + PROTOCOL + " sub-protocol requires binary messages, " +
+					"which are not supported over SockJS");
+		}
+		if (session.getBinaryMessageSizeLimit() < getMessageSizeLimit()) {
+			session.setBinaryMessageSizeLimit(getMessageSizeLimit());
+		}
+	}
+
+	@Override
+	public void afterSessionEnded(WebSocketSession session, CloseStatus closeStatus, MessageChannel outputChannel) {
+		Message<byte[]> message = createDisconnectMessage(session);
+		SimpAttributes simpAttributes = SimpAttributes.fromMessage(message);
+		try {
+			SimpAttributesContextHolder.setAttributes(simpAttributes);
+			if (this.eventPublisher != null) {
+				Principal user = getUser(session);
+				publishEvent(this.eventPublisher, new SessionDisconnectEvent(this, message, session.getId(), closeStatus, user));
+			}
+			outputChannel.send(message);
+		}
+		finally {
+			this.authentications.remove(session.getId());
+			SimpAttributesContextHolder.resetAttributes();
+			simpAttributes.sessionCompleted();
+		}
+	}
+
+	private Message<byte[]> createDisconnectMessage(WebSocketSession session) {
+		SimpMessageHeaderAccessor headerAccessor = SimpMessageHeaderAccessor.create(SimpMessageType.DISCONNECT);
+		if (getHeaderInitializer() != null) {
+			getHeaderInitializer().initHeaders(headerAccessor);
+		}
+
+		headerAccessor.setSessionId(session.getId());
+		headerAccessor.setSessionAttributes(session.getAttributes());
+
+		Principal user = getUser(session);
+		if (user != null) {
+			headerAccessor.setUser(user);
+		}
+
+		return MessageBuilder.createMessage(EMPTY_PAYLOAD, headerAccessor.getMessageHeaders());
+	}
+
+	@Override
+	public String toString() {
+		return "BinarySubProtocolHandler" + getSupportedProtocols();
+	}
+
+}
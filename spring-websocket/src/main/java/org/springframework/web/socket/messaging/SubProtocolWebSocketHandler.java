@@ -93,6 +93,8 @@ public class SubProtocolWebSocketHandler
 
 	private int sendBufferSizeLimit = 512 * 1024;
 
+	private int messageCoalescingLimit;
+
 	private int timeToFirstMessage = DEFAULT_TIME_TO_FIRST_MESSAGE;
 
 	private volatile long lastSessionCheckTime = System.currentTimeMillis();
@@ -221,6 +223,27 @@ public class SubProtocolWebSocketHandler
 		return this.sendBufferSizeLimit;
 	}
 
+	/**
+	 * Specify the maximum size (number of bytes) of a message coalesced from
+	 * messages buffered while a send to the session was in progress.
+	 * <p>This must only be set if all configured sub-protocols allow several of
+	 * their frames in one WebSocket message, as STOMP does. By default this is
+	 * set to 0, in which case messages are never coalesced.
+	 * @since 5.2
+	 * @see ConcurrentWebSocketSessionDecorator#setMessageCoalescingLimit
+	 */
+	public void setMessageCoalescingLimit(int messageCoalescingLimit) {
+		this.messageCoalescingLimit = messageCoalescingLimit;
+	}
+
+	/**
+	 * Return the maximum size (number of bytes) of a coalesced message.
+	 * @since 5.2
+	 */
+	public int getMessageCoalescingLimit() {
+		return this.messageCoalescingLimit;
+	}
+
 	/**
 	 * Set the maximum time allowed in milliseconds after the WebSocket connection
 	 * is established and before the first sub-protocol message is received.
@@ -395,13 +418,17 @@ public class SubProtocolWebSocketHandler
 	 * Decorate the given {@link WebSocketSession}, if desired.
 	 * <p>The default implementation builds a {@link ConcurrentWebSocketSessionDecorator}
 	 * with the configured {@link #getSendTimeLimit() send-time limit} and
-	 * {@link #getSendBufferSizeLimit() buffer-size limit}.
+	 * {@link #getSendBufferSizeLimit() buffer-size limit}, as well as the
+	 * {@link #getMessageCoalescingLimit() message coalescing limit}.
 	 * @param session the original {@code WebSocketSession}
 	 * @return the decorated {@code WebSocketSession}, or potentially the given session as-is
 	 * @since 4.3.13
 	 */
 	protected WebSocketSession decorateSession(WebSocketSession session) {
-		return new ConcurrentWebSocketSessionDecorator(session, getSendTimeLimit(), getSendBufferSizeLimit());
+		ConcurrentWebSocketSessionDecorator decorator =
+				new ConcurrentWebSocketSessionDecorator(session, getSendTimeLimit(), getSendBufferSizeLimit());
+		decorator.setMessageCoalescingLimit(getMessageCoalescingLimit());
+		return decorator;
 	}
 
 	/**
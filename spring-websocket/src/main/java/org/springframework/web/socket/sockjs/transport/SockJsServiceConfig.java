@@ -16,7 +16,9 @@
 
 package org.springframework.web.socket.sockjs.transport;
 
+import org.springframework.lang.Nullable;
 import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.support.TimingWheel;
 import org.springframework.web.socket.sockjs.SockJsService;
 import org.springframework.web.socket.sockjs.frame.SockJsMessageCodec;
 
@@ -72,4 +74,16 @@ public interface SockJsServiceConfig {
 	 */
 	SockJsMessageCodec getMessageCodec();
 
+	/**
+	 * A timing wheel shared by all sessions for scheduling heart-beat messages,
+	 * or {@code null} to schedule them on the {@link #getTaskScheduler()
+	 * TaskScheduler} one at a time.
+	 * <p>The default implementation returns {@code null}.
+	 * @since 5.2
+	 */
+	@Nullable
+	default TimingWheel getHeartbeatTimer() {
+		return null;
+	}
+
 }
@@ -36,6 +36,7 @@ import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.lang.Nullable;
 import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.support.TimingWheel;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.CollectionUtils;
@@ -81,6 +82,11 @@ public class TransportHandlingSockJsService extends AbstractSockJsService implem
 	@Nullable
 	private ScheduledFuture<?> sessionCleanupTask;
 
+	private boolean heartbeatTimerEnabled;
+
+	@Nullable
+	private volatile TimingWheel heartbeatTimer;
+
 	private volatile boolean running;
 
 
@@ -158,11 +164,58 @@ public class TransportHandlingSockJsService extends AbstractSockJsService implem
 		return this.interceptors;
 	}
 
+	/**
+	 * Whether to schedule the heart-beat messages of all sessions on a shared
+	 * {@link TimingWheel}, driven by a single task on the {@link #getTaskScheduler()
+	 * TaskScheduler} that ticks every tenth of the {@link #setHeartbeatTime
+	 * heartbeat time}. Sessions then merely record when their next heart-beat
+	 * is due whenever they send a message, rather than cancelling and
+	 * scheduling a task. A heart-beat that is due is still sent by a task
+	 * on the {@code TaskScheduler}, so that the timer is never blocked.
+	 * <p>By default this is "false".
+	 * @since 5.2
+	 */
+	public void setHeartbeatTimerEnabled(boolean heartbeatTimerEnabled) {
+		this.heartbeatTimerEnabled = heartbeatTimerEnabled;
+	}
+
+	/**
+	 * Whether heart-beat messages are scheduled on a shared timing wheel.
+	 * @since 5.2
+	 */
+	public boolean isHeartbeatTimerEnabled() {
+		return this.heartbeatTimerEnabled;
+	}
+
+	@Override
+	@Nullable
+	public TimingWheel getHeartbeatTimer() {
+		if (!this.heartbeatTimerEnabled) {
+			return null;
+		}
+		TimingWheel heartbeatTimer = this.heartbeatTimer;
+		if (heartbeatTimer == null) {
+			synchronized (this.sessions) {
+				heartbeatTimer = this.heartbeatTimer;
+				if (heartbeatTimer == null) {
+					heartbeatTimer = new TimingWheel(getTaskScheduler(), Math.max(getHeartbeatTime() / 10, 1));
+					heartbeatTimer.start();
+					this.heartbeatTimer = heartbeatTimer;
+				}
+			}
+		}
+		return heartbeatTimer;
+	}
+
 
 	@Override
 	public void start() {
 		if (!isRunning()) {
 			this.running = true;
+			TimingWheel heartbeatTimer = this.heartbeatTimer;
+			if (heartbeatTimer != null) {
+				heartbeatTimer.start();
+			}
 			for (TransportHandler handler : this.handlers.values()) {
 				if (handler instanceof Lifecycle) {
 					((Lifecycle) handler).start();
@@ -175,6 +228,10 @@ public class TransportHandlingSockJsService extends AbstractSockJsService implem
 	public void stop() {
 		if (isRunning()) {
 			this.running = false;
+			TimingWheel heartbeatTimer = this.heartbeatTimer;
+			if (heartbeatTimer != null) {
+				heartbeatTimer.stop();
+			}
 			for (TransportHandler handler : this.handlers.values()) {
 				if (handler instanceof Lifecycle) {
 					((Lifecycle) handler).stop();
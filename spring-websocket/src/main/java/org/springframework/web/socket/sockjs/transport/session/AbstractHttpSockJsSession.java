@@ -301,7 +301,7 @@ public abstract class AbstractHttpSockJsSession extends AbstractSockJsSession {
 				if (logger.isTraceEnabled()) {
 					logger.trace("Session is active, ready to flush.");
 				}
-				cancelHeartbeat();
+				deferHeartbeat();
 				flushCache();
 			}
 			else {
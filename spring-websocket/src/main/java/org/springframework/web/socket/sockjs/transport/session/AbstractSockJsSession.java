@@ -32,6 +32,7 @@ import org.apache.commons.logging.LogFactory;
 
 import org.springframework.core.NestedExceptionUtils;
 import org.springframework.lang.Nullable;
+import org.springframework.scheduling.support.TimingWheel;
 import org.springframework.util.Assert;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
@@ -113,6 +114,9 @@ public abstract class AbstractSockJsSession implements SockJsSession {
 	@Nullable
 	private HeartbeatTask heartbeatTask;
 
+	@Nullable
+	private TimingWheel.Timeout heartbeatTimeout;
+
 	private volatile boolean heartbeatDisabled;
 
 
@@ -265,19 +269,51 @@ public abstract class AbstractSockJsSession implements SockJsSession {
 			return;
 		}
 		synchronized (this.responseLock) {
+			if (this.heartbeatTimeout != null && isActive()) {
+				// Push back the pending heartbeat rather than replacing it
+				this.heartbeatTimeout.reset(this.config.getHeartbeatTime());
+				return;
+			}
 			cancelHeartbeat();
 			if (!isActive()) {
 				return;
 			}
-			Date time = new Date(System.currentTimeMillis() + this.config.getHeartbeatTime());
-			this.heartbeatTask = new HeartbeatTask();
-			this.heartbeatFuture = this.config.getTaskScheduler().schedule(this.heartbeatTask, time);
+			TimingWheel heartbeatTimer = this.config.getHeartbeatTimer();
+			if (heartbeatTimer != null) {
+				TimerHeartbeatTask task = new TimerHeartbeatTask();
+				this.heartbeatTimeout = heartbeatTimer.newTimeout(task);
+				task.timeout = this.heartbeatTimeout;
+				this.heartbeatTimeout.reset(this.config.getHeartbeatTime());
+			}
+			else {
+				Date time = new Date(System.currentTimeMillis() + this.config.getHeartbeatTime());
+				this.heartbeatTask = new HeartbeatTask();
+				this.heartbeatFuture = this.config.getTaskScheduler().schedule(this.heartbeatTask, time);
+			}
 			if (logger.isTraceEnabled()) {
 				logger.trace("Scheduled heartbeat in session " + getId());
 			}
 		}
 	}
 
+	/**
+	 * Prevent a heartbeat from being sent while a message frame is written.
+	 * A pending timeout on the shared heartbeat timer is pushed back, so that
+	 * {@link #scheduleHeartbeat()} resets it after the write rather than
+	 * replacing it, whereas a heartbeat scheduled as a task is cancelled.
+	 * @since 5.2
+	 */
+	protected void deferHeartbeat() {
+		synchronized (this.responseLock) {
+			if (this.heartbeatTimeout != null && isActive()) {
+				this.heartbeatTimeout.reset(this.config.getHeartbeatTime());
+			}
+			else {
+				cancelHeartbeat();
+			}
+		}
+	}
+
 	protected void cancelHeartbeat() {
 		synchronized (this.responseLock) {
 			if (this.heartbeatFuture != null) {
@@ -291,6 +327,13 @@ public abstract class AbstractSockJsSession implements SockJsSession {
 				this.heartbeatTask.cancel();
 				this.heartbeatTask = null;
 			}
+			if (this.heartbeatTimeout != null) {
+				if (logger.isTraceEnabled()) {
+					logger.trace("Cancelling heartbeat in session " + getId());
+				}
+				this.heartbeatTimeout.cancel();
+				this.heartbeatTimeout = null;
+			}
 		}
 	}
 
@@ -406,6 +449,11 @@ public abstract class AbstractSockJsSession implements SockJsSession {
 					this.heartbeatFuture = null;
 					future.cancel(false);
 				}
+				TimingWheel.Timeout timeout = this.heartbeatTimeout;
+				if (timeout != null) {
+					this.heartbeatTimeout = null;
+					timeout.cancel();
+				}
 			}
 			finally {
 				this.state = State.CLOSED;
@@ -475,4 +523,44 @@ public abstract class AbstractSockJsSession implements SockJsSession {
 		}
 	}
 
+
+	/**
+	 * Hands a heartbeat off to the {@link SockJsServiceConfig#getTaskScheduler()
+	 * TaskScheduler} on expiry of a timeout on the shared heartbeat timer, since
+	 * sending may block the thread that runs the timer. The heartbeat is sent
+	 * unless the timeout was cancelled, replaced or pushed back in the meantime.
+	 */
+	private class TimerHeartbeatTask implements Runnable {
+
+		@Nullable
+		private TimingWheel.Timeout timeout;
+
+		@Override
+		public void run() {
+			try {
+				config.getTaskScheduler().schedule(this::sendHeartbeatIfDue, new Date());
+			}
+			catch (Throwable ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Failed to hand off heartbeat in session " + getId(), ex);
+				}
+			}
+		}
+
+		private void sendHeartbeatIfDue() {
+			synchronized (responseLock) {
+				TimingWheel.Timeout timeout = this.timeout;
+				if (timeout != null && timeout == heartbeatTimeout && !isClosed() &&
+						timeout.getDeadline() <= System.currentTimeMillis()) {
+					try {
+						sendHeartbeat();
+					}
+					catch (Throwable ex) {
+						// Ignore: already handled in writeFrame...
+					}
+				}
+			}
+		}
+	}
+
 }
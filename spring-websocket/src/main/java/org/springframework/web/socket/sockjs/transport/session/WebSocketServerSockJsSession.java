@@ -209,7 +209,7 @@ public class WebSocketServerSockJsSession extends AbstractSockJsSession implemen
 			}
 		}
 
-		cancelHeartbeat();
+		deferHeartbeat();
 		writeFrame(SockJsFrame.messageFrame(getMessageCodec(), message));
 		scheduleHeartbeat();
 	}
@@ -17,6 +17,8 @@
 package org.springframework.web.socket.handler;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -24,6 +26,7 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Test;
 
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketMessage;
@@ -222,6 +225,79 @@ public class ConcurrentWebSocketSessionDecoratorTests {
 				CloseStatus.SESSION_NOT_RELIABLE, session.getCloseStatus());
 	}
 
+	@Test
+	public void coalesceBufferedMessages() throws Exception {
+
+		BufferingSession session = new BufferingSession(Arrays.asList(
+				new TextMessage("ab"), new TextMessage("cd"), new BinaryMessage(new byte[] {1}),
+				new BinaryMessage(new byte[] {2, 3}), new TextMessage("efghij"), new TextMessage("k")));
+		session.setOpen(true);
+
+		ConcurrentWebSocketSessionDecorator decorator =
+				new ConcurrentWebSocketSessionDecorator(session, 10 * 1000, 1024);
+		decorator.setMessageCoalescingLimit(5);
+		session.setDecorator(decorator);
+
+		decorator.sendMessage(new TextMessage("first"));
+
+		List<WebSocketMessage<?>> messages = session.getSentMessages();
+		assertEquals(5, messages.size());
+		assertEquals(new TextMessage("first"), messages.get(0));
+		assertEquals(new TextMessage("abcd"), messages.get(1));
+		assertEquals(new BinaryMessage(new byte[] {1, 2, 3}), messages.get(2));
+		assertEquals(new TextMessage("efghij"), messages.get(3));
+		assertEquals(new TextMessage("k"), messages.get(4));
+		assertEquals(0, decorator.getBufferSize());
+	}
+
+	@Test
+	public void coalesceBufferedMessagesDisabledByDefault() throws Exception {
+
+		BufferingSession session = new BufferingSession(Arrays.asList(new TextMessage("ab"), new TextMessage("cd")));
+		session.setOpen(true);
+
+		ConcurrentWebSocketSessionDecorator decorator =
+				new ConcurrentWebSocketSessionDecorator(session, 10 * 1000, 1024);
+		session.setDecorator(decorator);
+
+		decorator.sendMessage(new TextMessage("first"));
+
+		List<WebSocketMessage<?>> messages = session.getSentMessages();
+		assertEquals(3, messages.size());
+		assertEquals(new TextMessage("ab"), messages.get(1));
+		assertEquals(new TextMessage("cd"), messages.get(2));
+	}
+
+	@Test
+	public void failedSendKeepsFollowingMessagesBuffered() throws Exception {
+
+		BufferingSession session = new BufferingSession(Arrays.asList(new TextMessage("ab"), new TextMessage("cd"))) {
+			@Override
+			public void sendMessage(WebSocketMessage<?> message) throws IOException {
+				if (message.getPayload().equals("ab")) {
+					throw new IOException("Send failed");
+				}
+				super.sendMessage(message);
+			}
+		};
+		session.setOpen(true);
+
+		ConcurrentWebSocketSessionDecorator decorator =
+				new ConcurrentWebSocketSessionDecorator(session, 10 * 1000, 1024);
+		session.setDecorator(decorator);
+
+		try {
+			decorator.sendMessage(new TextMessage("first"));
+			fail("Expected IOException");
+		}
+		catch (IOException ex) {
+			// expected
+		}
+
+		assertEquals(1, session.getSentMessages().size());
+		assertEquals(2, decorator.getBufferSize());
+	}
+
 	private void sendBlockingMessage(ConcurrentWebSocketSessionDecorator session) throws InterruptedException {
 		Executors.newSingleThreadExecutor().submit(() -> {
 			TextMessage message = new TextMessage("slow message");
@@ -271,4 +347,50 @@ public class ConcurrentWebSocketSessionDecoratorTests {
 
 	}
 
+
+
+	/**
+	 * Sends further messages from another thread while the first message is being
+	 * sent, so that they are buffered by the decorator.
+	 */
+	private static class BufferingSession extends TestWebSocketSession {
+
+		private final List<WebSocketMessage<?>> messagesToBuffer;
+
+		private ConcurrentWebSocketSessionDecorator decorator;
+
+		BufferingSession(List<WebSocketMessage<?>> messagesToBuffer) {
+			this.messagesToBuffer = messagesToBuffer;
+		}
+
+		public void setDecorator(ConcurrentWebSocketSessionDecorator decorator) {
+			this.decorator = decorator;
+		}
+
+		@Override
+		public void sendMessage(WebSocketMessage<?> message) throws IOException {
+			boolean first = getSentMessages().isEmpty();
+			super.sendMessage(message);
+			if (first) {
+				Thread thread = new Thread(() -> {
+					for (WebSocketMessage<?> messageToBuffer : this.messagesToBuffer) {
+						try {
+							this.decorator.sendMessage(messageToBuffer);
+						}
+						catch (IOException ex) {
+							throw new IllegalStateException(ex);
+						}
+					}
+				});
+				thread.start();
+				try {
+					thread.join();
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+
 }
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.socket.messaging;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.TestPrincipal;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.handler.TestWebSocketSession;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link BinarySubProtocolHandler}.
+ *
+ * @author Daniel Ferreira
+ */
+public class BinarySubProtocolHandlerTests {
+
+	private static final byte[] EMPTY_PAYLOAD = new byte[0];
+
+	private BinarySubProtocolHandler protocolHandler;
+
+	private TestWebSocketSession session;
+
+	private MessageChannel channel;
+
+	@SuppressWarnings("rawtypes")
+	private ArgumentCaptor<Message> messageCaptor;
+
+
+	@Before
+	public void setup() {
+		this.protocolHandler = new BinarySubProtocolHandler();
+		this.channel = Mockito.mock(MessageChannel.class);
+		this.messageCaptor = ArgumentCaptor.forClass(Message.class);
+
+		when(this.channel.send(any())).thenReturn(true);
+
+		this.session = new TestWebSocketSession();
+		this.session.setId("s1");
+		this.session.setPrincipal(new TestPrincipal("joe"));
+	}
+
+
+	@Test
+	public void codecRoundTrip() {
+		MultiValueMap<String, String> headers = new LinkedMultiValueMap<>();
+		headers.add(BinarySimpCodec.DESTINATION, "/topic/déjà-vu");
+		headers.add("custom", "a");
+		headers.add("custom", "b");
+		byte[] payload = new byte[300];
+		payload[299] = 42;
+
+		byte[] first = BinarySimpCodec.encode(BinarySimpCodec.MESSAGE, headers, payload);
+		byte[] second = BinarySimpCodec.encode(BinarySimpCodec.HEARTBEAT, new LinkedMultiValueMap<>(), EMPTY_PAYLOAD);
+		ByteBuffer buffer = ByteBuffer.allocate(first.length + second.length).put(first).put(second);
+		buffer.flip();
+
+		List<BinarySimpCodec.Frame> frames = BinarySimpCodec.decode(buffer, 64 * 1024);
+		assertEquals(2, frames.size());
+		assertEquals(BinarySimpCodec.MESSAGE, frames.get(0).type);
+		assertEquals(headers, frames.get(0).headers);
+		assertArrayEquals(payload, frames.get(0).payload);
+		assertEquals(BinarySimpCodec.HEARTBEAT, frames.get(1).type);
+		assertTrue(frames.get(1).headers.isEmpty());
+		assertEquals(0, frames.get(1).payload.length);
+		assertEquals(3, second.length);
+	}
+
+	@Test
+	public void handleConnectFromClient() {
+		MultiValueMap<String, String> headers = new LinkedMultiValueMap<>();
+		headers.add(BinarySimpCodec.HEARTBEAT_HEADER, "10000,10000");
+		BinaryMessage message = new BinaryMessage(BinarySimpCodec.encode(BinarySimpCodec.CONNECT, headers, EMPTY_PAYLOAD));
+		this.protocolHandler.afterSessionStarted(this.session, this.channel);
+		this.protocolHandler.handleMessageFromClient(this.session, message, this.channel);
+
+		verify(this.channel).send(this.messageCaptor.capture());
+		Message<?> actual = this.messageCaptor.getValue();
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(actual);
+		assertEquals(SimpMessageType.CONNECT, accessor.getMessageType());
+		assertEquals("s1", accessor.getSessionId());
+		assertEquals("joe", accessor.getUser().getName());
+		assertNotNull(accessor.getSessionAttributes());
+		assertArrayEquals(new long[] {10000, 10000}, SimpMessageHeaderAccessor.getHeartbeat(actual.getHeaders()));
+	}
+
+	@Test
+	public void handleMessagesFromClient() {
+		MultiValueMap<String, String> headers = new LinkedMultiValueMap<>();
+		headers.add(BinarySimpCodec.DESTINATION, "/topic/foo");
+		headers.add(BinarySimpCodec.SUBSCRIPTION, "sub1");
+		byte[] subscribe = BinarySimpCodec.encode(BinarySimpCodec.SUBSCRIBE, headers, EMPTY_PAYLOAD);
+
+		headers = new LinkedMultiValueMap<>();
+		headers.add(BinarySimpCodec.DESTINATION, "/app/bar");
+		headers.add(BinarySimpCodec.CONTENT_TYPE, "text/plain");
+		headers.add("priority", "high");
+		byte[] send = BinarySimpCodec.encode(BinarySimpCodec.MESSAGE, headers, "hello".getBytes(StandardCharsets.UTF_8));
+
+		ByteBuffer buffer = ByteBuffer.allocate(subscribe.length + send.length).put(subscribe).put(send);
+		buffer.flip();
+		this.protocolHandler.handleMessageFromClient(this.session, new BinaryMessage(buffer), this.channel);
+
+		verify(this.channel, times(2)).send(this.messageCaptor.capture());
+		@SuppressWarnings("rawtypes")
+		List<Message> messages = this.messageCaptor.getAllValues();
+
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(messages.get(0));
+		assertEquals(SimpMessageType.SUBSCRIBE, accessor.getMessageType());
+		assertEquals("/topic/foo", accessor.getDestination());
+		assertEquals("sub1", accessor.getSubscriptionId());
+
+		accessor = SimpMessageHeaderAccessor.wrap(messages.get(1));
+		assertEquals(SimpMessageType.MESSAGE, accessor.getMessageType());
+		assertEquals("/app/bar", accessor.getDestination());
+		assertEquals(MimeTypeUtils.TEXT_PLAIN, accessor.getContentType());
+		assertEquals("high", accessor.getFirstNativeHeader("priority"));
+		assertEquals("hello", new String((byte[]) messages.get(1).getPayload(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void handleInvalidMessageFromClient() {
+		this.protocolHandler.handleMessageFromClient(this.session, new TextMessage("CONNECT\n\n\u0000"), this.channel);
+		verifyNoMoreInteractions(this.channel);
+		assertErrorSent();
+
+		this.session = new TestWebSocketSession("s2");
+		byte[] bytes = BinarySimpCodec.encode(BinarySimpCodec.CONNECT, new LinkedMultiValueMap<>(), EMPTY_PAYLOAD);
+		ByteBuffer truncated = ByteBuffer.wrap(bytes, 0, bytes.length - 1);
+		this.protocolHandler.handleMessageFromClient(this.session, new BinaryMessage(truncated), this.channel);
+		verifyNoMoreInteractions(this.channel);
+		assertErrorSent();
+	}
+
+	@Test
+	public void handleMessageToClient() {
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+		accessor.setDestination("/topic/foo");
+		accessor.setSubscriptionId("sub1");
+		accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+		accessor.setNativeHeader("priority", "high");
+		accessor.setSessionId("s1");
+		Message<byte[]> message = MessageBuilder.createMessage("{}".getBytes(StandardCharsets.UTF_8),
+				accessor.getMessageHeaders());
+		this.protocolHandler.handleMessageToClient(this.session, message);
+
+		BinarySimpCodec.Frame frame = getSentFrame();
+		assertEquals(BinarySimpCodec.MESSAGE, frame.type);
+		assertEquals("/topic/foo", frame.headers.getFirst(BinarySimpCodec.DESTINATION));
+		assertEquals("sub1", frame.headers.getFirst(BinarySimpCodec.SUBSCRIPTION));
+		assertEquals("application/json", frame.headers.getFirst(BinarySimpCodec.CONTENT_TYPE));
+		assertEquals("high", frame.headers.getFirst("priority"));
+		assertEquals(4, frame.headers.size());
+		assertEquals("{}", new String(frame.payload, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void handleConnectAckToClient() {
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT_ACK);
+		accessor.setHeader(SimpMessageHeaderAccessor.HEART_BEAT_HEADER, new long[] {15000, 15000});
+		Message<byte[]> message = MessageBuilder.createMessage(EMPTY_PAYLOAD, accessor.getMessageHeaders());
+		this.protocolHandler.handleMessageToClient(this.session, message);
+
+		BinarySimpCodec.Frame frame = getSentFrame();
+		assertEquals(BinarySimpCodec.CONNECT_ACK, frame.type);
+		assertEquals("15000,15000", frame.headers.getFirst(BinarySimpCodec.HEARTBEAT_HEADER));
+		assertEquals("joe", frame.headers.getFirst(BinarySimpCodec.USER_NAME));
+	}
+
+	@Test
+	public void handleStompErrorToClient() {
+		StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.ERROR);
+		accessor.setMessage("Broker unavailable");
+		Message<byte[]> message = MessageBuilder.createMessage(EMPTY_PAYLOAD, accessor.getMessageHeaders());
+		this.protocolHandler.handleMessageToClient(this.session, message);
+
+		BinarySimpCodec.Frame frame = getSentFrame();
+		assertEquals(BinarySimpCodec.ERROR, frame.type);
+		assertEquals("Broker unavailable", frame.headers.getFirst(BinarySimpCodec.ERROR_MESSAGE));
+		assertEquals(CloseStatus.PROTOCOL_ERROR, this.session.getCloseStatus());
+	}
+
+	@Test
+	public void afterSessionEnded() {
+		this.protocolHandler.afterSessionEnded(this.session, CloseStatus.BAD_DATA, this.channel);
+
+		verify(this.channel).send(this.messageCaptor.capture());
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(this.messageCaptor.getValue());
+		assertEquals(SimpMessageType.DISCONNECT, accessor.getMessageType());
+		assertEquals("s1", accessor.getSessionId());
+		assertEquals("joe", accessor.getUser().getName());
+	}
+
+
+	private BinarySimpCodec.Frame getSentFrame() {
+		assertEquals(1, this.session.getSentMessages().size());
+		BinaryMessage message = (BinaryMessage) this.session.getSentMessages().get(0);
+		List<BinarySimpCodec.Frame> frames = BinarySimpCodec.decode(message.getPayload(), Integer.MAX_VALUE);
+		assertEquals(1, frames.size());
+		return frames.get(0);
+	}
+
+	private void assertErrorSent() {
+		assertEquals(BinarySimpCodec.ERROR, getSentFrame().type);
+		assertEquals(CloseStatus.PROTOCOL_ERROR, this.session.getCloseStatus());
+	}
+
+}
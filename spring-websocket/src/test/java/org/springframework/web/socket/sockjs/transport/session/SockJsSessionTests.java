@@ -22,7 +22,9 @@ import java.util.Date;
 import java.util.concurrent.ScheduledFuture;
 
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
+import org.springframework.scheduling.support.TimingWheel;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketHandler;
@@ -36,8 +38,10 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.BDDMockito.any;
+import static org.mockito.BDDMockito.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.mock;
+import static org.mockito.BDDMockito.spy;
 import static org.mockito.BDDMockito.verify;
 import static org.mockito.BDDMockito.verifyNoMoreInteractions;
 import static org.mockito.BDDMockito.willReturn;
@@ -296,4 +300,91 @@ public class SockJsSessionTests extends AbstractSockJsSessionTests<TestSockJsSes
 		verifyNoMoreInteractions(task);
 	}
 
+	@Test
+	public void scheduleHeartbeatWithTimer() throws Exception {
+		TimingWheel heartbeatTimer = new TimingWheel(this.taskScheduler, 1);
+		heartbeatTimer.start();
+		ArgumentCaptor<Runnable> tickCaptor = ArgumentCaptor.forClass(Runnable.class);
+		verify(this.taskScheduler).scheduleWithFixedDelay(tickCaptor.capture(), eq(1L));
+		this.sockJsConfig.setHeartbeatTimer(heartbeatTimer);
+		this.sockJsConfig.setHeartbeatTime(5);
+
+		this.session.setActive(true);
+		this.session.scheduleHeartbeat();
+		this.session.scheduleHeartbeat();
+
+		Thread.sleep(20);
+		tickCaptor.getValue().run();
+		assertTrue(this.session.getSockJsFramesWritten().isEmpty());
+
+		ArgumentCaptor<Runnable> heartbeatCaptor = ArgumentCaptor.forClass(Runnable.class);
+		verify(this.taskScheduler).schedule(heartbeatCaptor.capture(), any(Date.class));
+		heartbeatCaptor.getValue().run();
+
+		assertEquals(1, this.session.getSockJsFramesWritten().size());
+		assertEquals(SockJsFrame.heartbeatFrame(), this.session.getSockJsFramesWritten().get(0));
+
+		this.session.cancelHeartbeat();
+		Thread.sleep(20);
+		tickCaptor.getValue().run();
+
+		assertEquals(1, this.session.getSockJsFramesWritten().size());
+		verifyNoMoreInteractions(this.taskScheduler);
+	}
+
+	@Test
+	public void deferHeartbeatWithTimer() throws Exception {
+		TimingWheel heartbeatTimer = spy(new TimingWheel(this.taskScheduler, 1));
+		heartbeatTimer.start();
+		ArgumentCaptor<Runnable> tickCaptor = ArgumentCaptor.forClass(Runnable.class);
+		verify(this.taskScheduler).scheduleWithFixedDelay(tickCaptor.capture(), eq(1L));
+		this.sockJsConfig.setHeartbeatTimer(heartbeatTimer);
+		this.sockJsConfig.setHeartbeatTime(60 * 1000);
+
+		this.session.setActive(true);
+		this.session.scheduleHeartbeat();
+		for (int i = 0; i < 3; i++) {
+			this.session.deferHeartbeat();
+			this.session.scheduleHeartbeat();
+		}
+		verify(heartbeatTimer).newTimeout(any(Runnable.class));
+
+		this.sockJsConfig.setHeartbeatTime(5);
+		this.session.deferHeartbeat();
+		Thread.sleep(20);
+		tickCaptor.getValue().run();
+
+		ArgumentCaptor<Runnable> heartbeatCaptor = ArgumentCaptor.forClass(Runnable.class);
+		verify(this.taskScheduler).schedule(heartbeatCaptor.capture(), any(Date.class));
+		heartbeatCaptor.getValue().run();
+
+		assertEquals(1, this.session.getSockJsFramesWritten().size());
+		assertEquals(SockJsFrame.heartbeatFrame(), this.session.getSockJsFramesWritten().get(0));
+		this.session.cancelHeartbeat();
+	}
+
+	@Test
+	public void heartbeatWithTimerDeferredBeforeHandOffRuns() throws Exception {
+		TimingWheel heartbeatTimer = new TimingWheel(this.taskScheduler, 1);
+		heartbeatTimer.start();
+		ArgumentCaptor<Runnable> tickCaptor = ArgumentCaptor.forClass(Runnable.class);
+		verify(this.taskScheduler).scheduleWithFixedDelay(tickCaptor.capture(), eq(1L));
+		this.sockJsConfig.setHeartbeatTimer(heartbeatTimer);
+		this.sockJsConfig.setHeartbeatTime(5);
+
+		this.session.setActive(true);
+		this.session.scheduleHeartbeat();
+		Thread.sleep(20);
+		tickCaptor.getValue().run();
+
+		ArgumentCaptor<Runnable> heartbeatCaptor = ArgumentCaptor.forClass(Runnable.class);
+		verify(this.taskScheduler).schedule(heartbeatCaptor.capture(), any(Date.class));
+		this.sockJsConfig.setHeartbeatTime(60 * 1000);
+		this.session.deferHeartbeat();
+		heartbeatCaptor.getValue().run();
+
+		assertTrue(this.session.getSockJsFramesWritten().isEmpty());
+		this.session.cancelHeartbeat();
+	}
+
 }
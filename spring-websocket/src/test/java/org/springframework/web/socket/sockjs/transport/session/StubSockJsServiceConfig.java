@@ -18,6 +18,7 @@ package org.springframework.web.socket.sockjs.transport.session;
 
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.TimingWheel;
 import org.springframework.web.socket.sockjs.frame.Jackson2SockJsMessageCodec;
 import org.springframework.web.socket.sockjs.frame.SockJsMessageCodec;
 import org.springframework.web.socket.sockjs.transport.SockJsServiceConfig;
@@ -37,6 +38,8 @@ public class StubSockJsServiceConfig implements SockJsServiceConfig {
 
 	private int httpMessageCacheSize = 100;
 
+	private TimingWheel heartbeatTimer;
+
 
 	@Override
 	public int getStreamBytesLimit() {
@@ -65,6 +68,15 @@ public class StubSockJsServiceConfig implements SockJsServiceConfig {
 		this.taskScheduler = taskScheduler;
 	}
 
+	@Override
+	public TimingWheel getHeartbeatTimer() {
+		return this.heartbeatTimer;
+	}
+
+	public void setHeartbeatTimer(TimingWheel heartbeatTimer) {
+		this.heartbeatTimer = heartbeatTimer;
+	}
+
 	@Override
 	public SockJsMessageCodec getMessageCodec() {
 		return this.messageCodec;